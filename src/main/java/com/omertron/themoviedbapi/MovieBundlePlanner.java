@@ -0,0 +1,405 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import com.omertron.themoviedbapi.model.AlternativeTitle;
+import com.omertron.themoviedbapi.model.Artwork;
+import com.omertron.themoviedbapi.model.Keyword;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.MovieSection;
+import com.omertron.themoviedbapi.model.Person;
+import com.omertron.themoviedbapi.model.ReleaseInfo;
+import com.omertron.themoviedbapi.model.Trailer;
+import com.omertron.themoviedbapi.model.Translation;
+import com.omertron.themoviedbapi.results.MovieBundle;
+import com.omertron.themoviedbapi.results.TmdbResultsList;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combine the requests for the sections of a movie into a single request.
+ *
+ * Reading the movie information, casts, images, keywords and release
+ * information for a movie is five requests, but they can all be read at once
+ * by appending the sections to the movie information request.
+ *
+ * The sections can be declared up front with
+ * {@link #getBundle(int, String, MovieSection...)}. Otherwise each method
+ * returns a Future for its section, and the sections requested for the same
+ * movie and language within the window are read with a single request when
+ * the window ends (or when {@link #flush()} is called). Any MovieDbException
+ * thrown by the request will be the cause of the ExecutionException thrown by
+ * {@link Future#get()}.
+ *
+ * The Futures share a request, so they can not be cancelled.
+ *
+ * @author Stuart
+ */
+public class MovieBundlePlanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MovieBundlePlanner.class);
+    private static final long DEFAULT_WINDOW = 50L;
+    private static final int DEFAULT_THREADS = 4;
+    private final TheMovieDbApi api;
+    private final ScheduledExecutorService scheduler;
+    // Only the default scheduler is shut down by the planner
+    private final boolean ownScheduler;
+    private final long windowMillis;
+    // The bundles that have not been requested yet, by movie and language
+    private final Map<String, PendingBundle> pending = new HashMap<String, PendingBundle>();
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong sectionCount = new AtomicLong(0);
+
+    /**
+     * Create the planner with the default window and scheduler
+     *
+     * @param api
+     */
+    public MovieBundlePlanner(TheMovieDbApi api) {
+        this(api, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Create the planner with the default scheduler
+     *
+     * @param api
+     * @param windowMillis How long to collect the sections of a movie before
+     * it is requested
+     */
+    public MovieBundlePlanner(TheMovieDbApi api, long windowMillis) {
+        this(api, createScheduler(DEFAULT_THREADS), windowMillis, true);
+    }
+
+    /**
+     * Create the planner using the provided scheduler, which the requests are
+     * also run on. The scheduler is not shut down by the planner.
+     *
+     * @param api
+     * @param scheduler
+     * @param windowMillis How long to collect the sections of a movie before
+     * it is requested
+     */
+    public MovieBundlePlanner(TheMovieDbApi api, ScheduledExecutorService scheduler, long windowMillis) {
+        this(api, scheduler, windowMillis, false);
+    }
+
+    private MovieBundlePlanner(TheMovieDbApi api, ScheduledExecutorService scheduler, long windowMillis, boolean ownScheduler) {
+        this.api = api;
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+        this.ownScheduler = ownScheduler;
+    }
+
+    private static ScheduledExecutorService createScheduler(int threads) {
+        return new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "TheMovieDb-Bundle-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Read the movie information and the sections in a single request
+     *
+     * @param movieId
+     * @param language
+     * @param sections
+     * @return
+     * @throws MovieDbException
+     */
+    public MovieBundle getBundle(int movieId, String language, MovieSection... sections) throws MovieDbException {
+        requestCount.incrementAndGet();
+        sectionCount.addAndGet(sections.length + 1L);
+        return new MovieBundle(api.getMovieInfo(movieId, language, MovieSection.getNames(sections)));
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieInfo(int, String, String...)
+     */
+    public Future<MovieDb> getMovieInfo(int movieId, String language) {
+        return new SectionFuture<MovieDb>(plan(movieId, language, null)) {
+            @Override
+            MovieDb convert(MovieBundle bundle) {
+                return bundle.getMovie();
+            }
+        };
+    }
+
+    /**
+     * Get the alternative titles for all countries
+     *
+     * @see TheMovieDbApi#getMovieAlternativeTitles(int, String, String...)
+     */
+    public Future<TmdbResultsList<AlternativeTitle>> getMovieAlternativeTitles(int movieId, String language) {
+        return new SectionFuture<TmdbResultsList<AlternativeTitle>>(plan(movieId, language, MovieSection.ALTERNATIVE_TITLES)) {
+            @Override
+            TmdbResultsList<AlternativeTitle> convert(MovieBundle bundle) throws MovieDbException {
+                return bundle.getAlternativeTitles();
+            }
+        };
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieCasts(int, String...)
+     */
+    public Future<TmdbResultsList<Person>> getMovieCasts(int movieId, String language) {
+        return new SectionFuture<TmdbResultsList<Person>>(plan(movieId, language, MovieSection.CASTS)) {
+            @Override
+            TmdbResultsList<Person> convert(MovieBundle bundle) throws MovieDbException {
+                return bundle.getCasts();
+            }
+        };
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieImages(int, String, String...)
+     */
+    public Future<TmdbResultsList<Artwork>> getMovieImages(int movieId, String language) {
+        return new SectionFuture<TmdbResultsList<Artwork>>(plan(movieId, language, MovieSection.IMAGES)) {
+            @Override
+            TmdbResultsList<Artwork> convert(MovieBundle bundle) throws MovieDbException {
+                return bundle.getImages();
+            }
+        };
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieKeywords(int, String...)
+     */
+    public Future<TmdbResultsList<Keyword>> getMovieKeywords(int movieId, String language) {
+        return new SectionFuture<TmdbResultsList<Keyword>>(plan(movieId, language, MovieSection.KEYWORDS)) {
+            @Override
+            TmdbResultsList<Keyword> convert(MovieBundle bundle) throws MovieDbException {
+                return bundle.getKeywords();
+            }
+        };
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieReleaseInfo(int, String, String...)
+     */
+    public Future<TmdbResultsList<ReleaseInfo>> getMovieReleaseInfo(int movieId, String language) {
+        return new SectionFuture<TmdbResultsList<ReleaseInfo>>(plan(movieId, language, MovieSection.RELEASES)) {
+            @Override
+            TmdbResultsList<ReleaseInfo> convert(MovieBundle bundle) throws MovieDbException {
+                return bundle.getReleaseInfo();
+            }
+        };
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieTrailers(int, String, String...)
+     */
+    public Future<TmdbResultsList<Trailer>> getMovieTrailers(int movieId, String language) {
+        return new SectionFuture<TmdbResultsList<Trailer>>(plan(movieId, language, MovieSection.TRAILERS)) {
+            @Override
+            TmdbResultsList<Trailer> convert(MovieBundle bundle) throws MovieDbException {
+                return bundle.getTrailers();
+            }
+        };
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieTranslations(int, String...)
+     */
+    public Future<TmdbResultsList<Translation>> getMovieTranslations(int movieId, String language) {
+        return new SectionFuture<TmdbResultsList<Translation>>(plan(movieId, language, MovieSection.TRANSLATIONS)) {
+            @Override
+            TmdbResultsList<Translation> convert(MovieBundle bundle) throws MovieDbException {
+                return bundle.getTranslations();
+            }
+        };
+    }
+
+    /**
+     * Request all of the pending bundles now rather than at the end of their
+     * window
+     */
+    public void flush() {
+        List<PendingBundle> bundles;
+        synchronized (pending) {
+            bundles = new ArrayList<PendingBundle>(pending.values());
+        }
+        for (PendingBundle bundle : bundles) {
+            // The scheduled run will do nothing once the task has run
+            scheduler.execute(bundle.task);
+        }
+    }
+
+    /**
+     * Add the section to the pending bundle for the movie, creating and
+     * scheduling the bundle if there is not one
+     *
+     * @param section The section, or null for just the movie information
+     */
+    private Future<MovieBundle> plan(int movieId, String language, MovieSection section) {
+        String key = movieId + "/" + language;
+        synchronized (pending) {
+            PendingBundle bundle = pending.get(key);
+            if (bundle == null) {
+                bundle = new PendingBundle(key, movieId, language);
+                pending.put(key, bundle);
+                scheduler.schedule(bundle.task, windowMillis, TimeUnit.MILLISECONDS);
+            }
+            sectionCount.incrementAndGet();
+            if (section != null) {
+                bundle.sections.add(section);
+            }
+            return bundle.task;
+        }
+    }
+
+    /**
+     * The number of requests that were made for the bundles
+     *
+     * @return
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The number of sections that were requested, i.e. the number of requests
+     * that would have been made without the planner
+     *
+     * @return
+     */
+    public long getSectionCount() {
+        return sectionCount.get();
+    }
+
+    /**
+     * Stop the default scheduler. Pending bundles are still requested.
+     *
+     * A scheduler provided to the constructor is left running.
+     */
+    public void shutdown() {
+        flush();
+        if (ownScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * The sections that have been requested for a movie
+     */
+    private final class PendingBundle implements Callable<MovieBundle> {
+
+        private final String key;
+        private final int movieId;
+        private final String language;
+        // Guarded by the pending map
+        private final Set<MovieSection> sections = EnumSet.noneOf(MovieSection.class);
+        private final FutureTask<MovieBundle> task = new FutureTask<MovieBundle>(this);
+
+        PendingBundle(String key, int movieId, String language) {
+            this.key = key;
+            this.movieId = movieId;
+            this.language = language;
+        }
+
+        @Override
+        public MovieBundle call() throws MovieDbException {
+            MovieSection[] requested;
+            synchronized (pending) {
+                // Later sections for the movie will start a new bundle
+                pending.remove(key);
+                requested = sections.toArray(new MovieSection[sections.size()]);
+            }
+            String[] names = MovieSection.getNames(requested);
+            requestCount.incrementAndGet();
+            LOG.debug("Requesting movie {} with sections '{}'", movieId, StringUtils.join(names, ","));
+            return new MovieBundle(api.getMovieInfo(movieId, language, names));
+        }
+    }
+
+    /**
+     * A Future for one section of a bundle
+     *
+     * @param <T>
+     */
+    private abstract static class SectionFuture<T> implements Future<T> {
+
+        private final Future<MovieBundle> bundle;
+
+        SectionFuture(Future<MovieBundle> bundle) {
+            this.bundle = bundle;
+        }
+
+        abstract T convert(MovieBundle bundle) throws MovieDbException;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            // The request is shared with the other sections
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return bundle.isDone();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            return extract(bundle.get());
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return extract(bundle.get(timeout, unit));
+        }
+
+        private T extract(MovieBundle result) throws ExecutionException {
+            try {
+                return convert(result);
+            } catch (MovieDbException ex) {
+                throw new ExecutionException(ex);
+            }
+        }
+    }
+}
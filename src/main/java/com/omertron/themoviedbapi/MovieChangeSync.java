@@ -0,0 +1,390 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import com.omertron.themoviedbapi.MovieDbException.MovieDbExceptionType;
+import com.omertron.themoviedbapi.model.ChangedItem;
+import com.omertron.themoviedbapi.model.ChangedMovie;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.results.BatchCallback;
+import com.omertron.themoviedbapi.results.BatchResults;
+import com.omertron.themoviedbapi.results.TmdbResultsList;
+import com.omertron.themoviedbapi.results.TmdbResultsMap;
+import com.omertron.themoviedbapi.tools.JacksonMapper;
+import com.omertron.themoviedbapi.tools.JsonMapper;
+import com.omertron.themoviedbapi.tools.SyncCheckpoint;
+import com.omertron.themoviedbapi.tools.SyncCheckpoint.FailedId;
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sync the movies that have changed since the last sync.
+ *
+ * The movie changes list is read in windows of no more than 14 days (the
+ * most the API will return at once) from the date of the last sync up to
+ * today, both ends of a window are included. The changed IDs of each window are read from all of the pages and
+ * de-duplicated, then the change set or the movie information of each ID is
+ * read with a batch and passed to the callback.
+ *
+ * The progress is saved to the checkpoint file after each chunk of IDs, so a
+ * sync that stops part way through resumes from where it got to. The last
+ * day of a sync is read again by the next sync, because changes are still
+ * being made to it.
+ *
+ * IDs that fail are passed to the callback, recorded in the results and kept
+ * in the checkpoint. The next sync retries them with the dates of the window
+ * they were changed in before it reads the new changes. An ID that fails
+ * {@link #MAX_ATTEMPTS} times is dropped. If the changes list can not be read
+ * the sync stops and the checkpoint is left at the last complete chunk.
+ *
+ * @author Stuart
+ */
+public class MovieChangeSync {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MovieChangeSync.class);
+    public static final int MAX_WINDOW_DAYS = 14;
+    public static final int MAX_ATTEMPTS = 5;
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private static final JsonMapper CHECKPOINT_MAPPER = new JacksonMapper();
+    private final TheMovieDbAsyncApi api;
+    private final File checkpointFile;
+    private int windowDays = MAX_WINDOW_DAYS;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Reads one chunk of changed IDs
+     */
+    private interface ChunkReader<T> {
+
+        void read(int[] ids, String startDate, String endDate, BatchCallback<T> callback) throws MovieDbException;
+    }
+
+    /**
+     * Create the sync
+     *
+     * @param api
+     * @param checkpointFile The file to keep the progress of the sync in
+     */
+    public MovieChangeSync(TheMovieDbAsyncApi api, File checkpointFile) {
+        this.api = api;
+        this.checkpointFile = checkpointFile;
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Get the checkpoint of the last sync
+     *
+     * @return The checkpoint, or null if there has not been a sync
+     */
+    public SyncCheckpoint getCheckpoint() {
+        return SyncCheckpoint.load(checkpointFile, CHECKPOINT_MAPPER);
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    /**
+     * Set the number of days of changes to read at once
+     *
+     * @param windowDays From 1 to {@link #MAX_WINDOW_DAYS}
+     */
+    public void setWindowDays(int windowDays) {
+        if (windowDays < 1 || windowDays > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("Window must be from 1 to " + MAX_WINDOW_DAYS + " days: " + windowDays);
+        }
+        this.windowDays = windowDays;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the maximum number of requests to make at once
+     *
+     * @param parallelism
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Set the number of IDs to read between each save of the checkpoint
+     *
+     * @param chunkSize
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Read the movie information of each movie that has changed.
+     *
+     * The movies are always read from the server, so the catalog store of the
+     * API is updated with the changed movies instead of returning the stored
+     * copies.
+     *
+     * @param initialStart The date to start from if there is no checkpoint
+     * @param callback Receives each movie or failure, or null to keep the
+     * movies in the results
+     * @param language
+     * @param appendToResponse
+     * @return The failures, and the movies if there is no callback
+     * @throws MovieDbException If the changes could not be read or the
+     * checkpoint could not be saved
+     */
+    public BatchResults<MovieDb> syncMovies(Date initialStart, BatchCallback<MovieDb> callback,
+            final String language, final String... appendToResponse) throws MovieDbException {
+        return sync(initialStart, callback, new ChunkReader<MovieDb>() {
+            @Override
+            public void read(int[] ids, String startDate, String endDate, BatchCallback<MovieDb> callback) throws MovieDbException {
+                api.refreshMovieInfoBatch(ids, parallelism, callback, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Read the change set of each movie that has changed
+     *
+     * @param initialStart The date to start from if there is no checkpoint
+     * @param callback Receives each change set or failure, or null to keep
+     * the change sets in the results
+     * @return The failures, and the change sets if there is no callback
+     * @throws MovieDbException If the changes could not be read or the
+     * checkpoint could not be saved
+     */
+    public BatchResults<TmdbResultsMap<String, List<ChangedItem>>> syncChanges(Date initialStart,
+            BatchCallback<TmdbResultsMap<String, List<ChangedItem>>> callback) throws MovieDbException {
+        return sync(initialStart, callback, new ChunkReader<TmdbResultsMap<String, List<ChangedItem>>>() {
+            @Override
+            public void read(int[] ids, String startDate, String endDate,
+                    BatchCallback<TmdbResultsMap<String, List<ChangedItem>>> callback) throws MovieDbException {
+                api.getMovieChangesBatch(ids, parallelism, callback, startDate, endDate);
+            }
+        });
+    }
+
+    private <T> BatchResults<T> sync(Date initialStart, final BatchCallback<T> callback, ChunkReader<T> reader) throws MovieDbException {
+        final BatchResults<T> results = new BatchResults<T>(callback == null);
+        // The IDs that failed in the chunk being read
+        final Set<Integer> failures = Collections.synchronizedSet(new HashSet<Integer>());
+        // Record the results of all the chunks and pass them on to the callback
+        BatchCallback<T> recorder = new BatchCallback<T>() {
+            @Override
+            public void onSuccess(int id, T result) {
+                results.addResult(id, result);
+                if (callback != null) {
+                    callback.onSuccess(id, result);
+                }
+            }
+
+            @Override
+            public void onFailure(int id, MovieDbException error) {
+                failures.add(id);
+                results.addFailure(id, error);
+                if (callback != null) {
+                    callback.onFailure(id, error);
+                }
+            }
+        };
+
+        SyncCheckpoint checkpoint = getCheckpoint();
+        if (checkpoint == null) {
+            checkpoint = new SyncCheckpoint(formatDate(initialStart));
+        }
+        String today = formatDate(new Date());
+
+        retryFailed(checkpoint, reader, recorder, failures);
+
+        while (true) {
+            String startDate = checkpoint.getSyncedTo();
+            if (checkpoint.getWindowEnd() == null) {
+                long windowEnd = parseDate(startDate).getTime() + (windowDays - 1) * DAY_MILLIS;
+                checkpoint.setWindowEnd(formatDate(new Date(Math.min(windowEnd, System.currentTimeMillis()))));
+            }
+            String endDate = checkpoint.getWindowEnd();
+
+            int[] ids = readChangedIds(startDate, endDate, checkpoint.getDone());
+            LOG.debug("Syncing {} changed movies from {} to {}", ids.length, startDate, endDate);
+            for (int from = 0; from < ids.length; from += chunkSize) {
+                int[] chunk = Arrays.copyOfRange(ids, from, Math.min(from + chunkSize, ids.length));
+                failures.clear();
+                reader.read(chunk, startDate, endDate, recorder);
+                for (int id : chunk) {
+                    checkpoint.getDone().add(id);
+                    if (failures.contains(id)) {
+                        checkpoint.addFailed(id, startDate, endDate);
+                    }
+                }
+                save(checkpoint);
+            }
+
+            checkpoint.setWindowEnd(null);
+            checkpoint.getDone().clear();
+            if (endDate.compareTo(today) >= 0) {
+                // The last day is read again by the next sync
+                checkpoint.setSyncedTo(endDate);
+                save(checkpoint);
+                return results;
+            }
+            checkpoint.setSyncedTo(formatDate(new Date(parseDate(endDate).getTime() + DAY_MILLIS)));
+            save(checkpoint);
+        }
+    }
+
+    /**
+     * Read the IDs that failed in the previous syncs again, with the dates of
+     * the window they were changed in
+     */
+    private <T> void retryFailed(SyncCheckpoint checkpoint, ChunkReader<T> reader, BatchCallback<T> recorder,
+            Set<Integer> failures) throws MovieDbException {
+        Map<String, List<FailedId>> windows = new LinkedHashMap<String, List<FailedId>>();
+        for (FailedId failed : checkpoint.getFailed()) {
+            String key = failed.getStartDate() + "/" + failed.getEndDate();
+            List<FailedId> window = windows.get(key);
+            if (window == null) {
+                window = new ArrayList<FailedId>();
+                windows.put(key, window);
+            }
+            window.add(failed);
+        }
+
+        for (List<FailedId> window : windows.values()) {
+            String startDate = window.get(0).getStartDate();
+            String endDate = window.get(0).getEndDate();
+            LOG.debug("Retrying {} failed movies from {} to {}", window.size(), startDate, endDate);
+            for (int from = 0; from < window.size(); from += chunkSize) {
+                List<FailedId> chunk = window.subList(from, Math.min(from + chunkSize, window.size()));
+                int[] ids = new int[chunk.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = chunk.get(i).getId();
+                }
+
+                failures.clear();
+                reader.read(ids, startDate, endDate, recorder);
+                Iterator<FailedId> iter = checkpoint.getFailed().iterator();
+                while (iter.hasNext()) {
+                    FailedId failed = iter.next();
+                    if (!chunk.contains(failed)) {
+                        continue;
+                    }
+                    if (!failures.contains(failed.getId())) {
+                        iter.remove();
+                    } else if (failed.getAttempts() + 1 >= MAX_ATTEMPTS) {
+                        LOG.warn("Giving up on movie {} after {} attempts", failed.getId(), MAX_ATTEMPTS);
+                        iter.remove();
+                    } else {
+                        failed.setAttempts(failed.getAttempts() + 1);
+                    }
+                }
+                save(checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Read the changed IDs from all of the pages of the window, without the
+     * IDs that have been done
+     */
+    private int[] readChangedIds(String startDate, String endDate, List<Integer> done) throws MovieDbException {
+        TmdbResultsList<ChangedMovie> changes = api.getMovieChangesListAllPages(startDate, endDate).getAll(parallelism);
+        if (!changes.isComplete()) {
+            // Skipping the window would lose the changes on the missing pages
+            throw changes.getFailedPages().values().iterator().next();
+        }
+
+        Set<Integer> skip = new HashSet<Integer>(done);
+        Set<Integer> ids = new LinkedHashSet<Integer>();
+        for (ChangedMovie changed : changes.getResults()) {
+            int id = NumberUtils.toInt(changed.getId(), 0);
+            if (id > 0 && !skip.contains(id)) {
+                ids.add(id);
+            }
+        }
+
+        int[] result = new int[ids.size()];
+        int index = 0;
+        for (Integer id : ids) {
+            result[index++] = id;
+        }
+        return result;
+    }
+
+    private void save(SyncCheckpoint checkpoint) throws MovieDbException {
+        try {
+            checkpoint.save(checkpointFile, CHECKPOINT_MAPPER);
+        } catch (IOException ex) {
+            LOG.warn("Failed to save checkpoint to {}: {}", checkpointFile, ex.getMessage());
+            throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Failed to save checkpoint", checkpointFile.getPath(), ex);
+        }
+    }
+
+    private static String formatDate(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    private static Date parseDate(String date) throws MovieDbException {
+        SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return format.parse(date);
+        } catch (ParseException ex) {
+            throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Invalid checkpoint date: " + date, (String) null, ex);
+        }
+    }
+}
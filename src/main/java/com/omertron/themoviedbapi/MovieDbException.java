@@ -61,7 +61,11 @@ public class MovieDbException extends Exception {
         /*
          * Service Unavailable, usually temporary
          */
-        HTTP_503_ERROR;
+        HTTP_503_ERROR,
+        /*
+         * Too many requests, the rate limit was exceeded
+         */
+        HTTP_429_ERROR;
     }
 
     private final MovieDbExceptionType exceptionType;
@@ -20,28 +20,49 @@
 package com.omertron.themoviedbapi;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.omertron.themoviedbapi.MovieDbException.MovieDbExceptionType;
 import com.omertron.themoviedbapi.model.*;
+import com.omertron.themoviedbapi.results.MovieColumns;
 import com.omertron.themoviedbapi.results.TmdbResultsList;
 import com.omertron.themoviedbapi.results.TmdbResultsMap;
 import com.omertron.themoviedbapi.tools.ApiUrl;
+import com.omertron.themoviedbapi.tools.CachedResponse;
+import com.omertron.themoviedbapi.tools.CatalogStore;
+import com.omertron.themoviedbapi.tools.CatalogStore.RecordType;
+import com.omertron.themoviedbapi.tools.CommonHttpClientTransport;
+import com.omertron.themoviedbapi.tools.CompressionStats;
+import com.omertron.themoviedbapi.tools.ConfigurationCache;
+import com.omertron.themoviedbapi.tools.HttpResponseCache;
+import com.omertron.themoviedbapi.tools.JacksonMapper;
+import com.omertron.themoviedbapi.tools.JsonMapper;
+import com.omertron.themoviedbapi.tools.PooledHttpClient;
+import com.omertron.themoviedbapi.tools.Projection;
+import com.omertron.themoviedbapi.tools.RateLimiter;
+import com.omertron.themoviedbapi.tools.RequestCoalescer;
+import com.omertron.themoviedbapi.tools.ResponseCache;
+import com.omertron.themoviedbapi.tools.SimpleJsonMapper;
+import com.omertron.themoviedbapi.tools.Transport;
+import com.omertron.themoviedbapi.tools.UrlTemplate;
 import com.omertron.themoviedbapi.tools.WebBrowser;
+import com.omertron.themoviedbapi.tools.WebBrowserTransport;
+import com.omertron.themoviedbapi.tools.WebRequest;
+import com.omertron.themoviedbapi.tools.WebResponse;
 import com.omertron.themoviedbapi.wrapper.*;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.client.methods.HttpGet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yamj.api.common.http.CommonHttpClient;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import static com.omertron.themoviedbapi.tools.ApiUrl.*;
 
@@ -57,8 +78,11 @@ public class TheMovieDbApi {
 
     private static final Logger LOG = LoggerFactory.getLogger(TheMovieDbApi.class);
     private String apiKey;
-    private CommonHttpClient httpClient;
-    private TmdbConfiguration tmdbConfig;
+    private final Shared shared;
+    // A projection only maps part of the records, so they are not stored
+    private final boolean storeRecords;
+    // The mapper that has been set, or null to use the default
+    private volatile JsonMapper mapper;
     // API Methods
     private static final String BASE_MOVIE = "movie/";
     private static final String BASE_PERSON = "person/";
@@ -74,13 +98,74 @@ public class TheMovieDbApi {
     private static final String BASE_DISCOVER = "discover/";
     private static final String URL_MOVIES = "/movies";
     private static final String URL_IMAGES = "/images";
-    // Jackson JSON configuration
-    private static ObjectMapper mapper = new ObjectMapper();
+    // Templates for the URLs of the API methods
+    private static final UrlTemplate URL_CONFIGURATION = new UrlTemplate("configuration", "");
+    private static final UrlTemplate URL_AUTH_TOKEN = new UrlTemplate(BASE_AUTH, "token/new");
+    private static final UrlTemplate URL_AUTH_SESSION = new UrlTemplate(BASE_AUTH, "session/new");
+    private static final UrlTemplate URL_AUTH_GUEST_SESSION = new UrlTemplate(BASE_AUTH, "guest_session/new");
+    private static final UrlTemplate URL_ACCOUNT = new UrlTemplate("account", "");
+    private static final UrlTemplate URL_ACCOUNT_FAVORITE_MOVIES = new UrlTemplate(BASE_ACCOUNT, "/favorite_movies");
+    private static final UrlTemplate URL_ACCOUNT_FAVORITE = new UrlTemplate(BASE_ACCOUNT, "/favorite");
+    private static final UrlTemplate URL_ACCOUNT_WATCHLIST = new UrlTemplate(BASE_ACCOUNT, "/movie_watchlist");
+    private static final UrlTemplate URL_MOVIE = new UrlTemplate(BASE_MOVIE, "");
+    private static final UrlTemplate URL_MOVIE_ALTERNATIVE_TITLES = new UrlTemplate(BASE_MOVIE, "/alternative_titles");
+    private static final UrlTemplate URL_MOVIE_CASTS = new UrlTemplate(BASE_MOVIE, "/casts");
+    private static final UrlTemplate URL_MOVIE_IMAGES = new UrlTemplate(BASE_MOVIE, URL_IMAGES);
+    private static final UrlTemplate URL_MOVIE_KEYWORDS = new UrlTemplate(BASE_MOVIE, "/keywords");
+    private static final UrlTemplate URL_MOVIE_RELEASES = new UrlTemplate(BASE_MOVIE, "/releases");
+    private static final UrlTemplate URL_MOVIE_VIDEOS = new UrlTemplate(BASE_MOVIE, "/videos");
+    private static final UrlTemplate URL_MOVIE_TRANSLATIONS = new UrlTemplate(BASE_MOVIE, "/translations");
+    private static final UrlTemplate URL_MOVIE_SIMILAR = new UrlTemplate(BASE_MOVIE, "/similar_movies");
+    private static final UrlTemplate URL_MOVIE_REVIEWS = new UrlTemplate(BASE_MOVIE, "/reviews");
+    private static final UrlTemplate URL_MOVIE_LISTS = new UrlTemplate(BASE_MOVIE, "/lists");
+    private static final UrlTemplate URL_MOVIE_CHANGES = new UrlTemplate(BASE_MOVIE, "/changes");
+    private static final UrlTemplate URL_MOVIE_LATEST = new UrlTemplate(BASE_MOVIE, "/latest");
+    private static final UrlTemplate URL_MOVIE_UPCOMING = new UrlTemplate(BASE_MOVIE, "upcoming");
+    private static final UrlTemplate URL_MOVIE_NOW_PLAYING = new UrlTemplate(BASE_MOVIE, "now-playing");
+    private static final UrlTemplate URL_MOVIE_POPULAR = new UrlTemplate(BASE_MOVIE, "popular");
+    private static final UrlTemplate URL_MOVIE_TOP_RATED = new UrlTemplate(BASE_MOVIE, "top-rated");
+    private static final UrlTemplate URL_ACCOUNT_RATED_MOVIES = new UrlTemplate(BASE_ACCOUNT, "/rated_movies");
+    private static final UrlTemplate URL_MOVIE_RATING = new UrlTemplate(BASE_MOVIE, "/rating");
+    private static final UrlTemplate URL_COLLECTION = new UrlTemplate(BASE_COLLECTION, "");
+    private static final UrlTemplate URL_COLLECTION_IMAGES = new UrlTemplate(BASE_COLLECTION, URL_IMAGES);
+    private static final UrlTemplate URL_PERSON = new UrlTemplate(BASE_PERSON, "");
+    private static final UrlTemplate URL_PERSON_CREDITS = new UrlTemplate(BASE_PERSON, "/credits");
+    private static final UrlTemplate URL_PERSON_IMAGES = new UrlTemplate(BASE_PERSON, URL_IMAGES);
+    private static final UrlTemplate URL_PERSON_POPULAR = new UrlTemplate(BASE_PERSON, "/popular");
+    private static final UrlTemplate URL_PERSON_LATEST = new UrlTemplate(BASE_PERSON, "/latest");
+    private static final UrlTemplate URL_COMPANY = new UrlTemplate(BASE_COMPANY, "");
+    private static final UrlTemplate URL_COMPANY_MOVIES = new UrlTemplate(BASE_COMPANY, URL_MOVIES);
+    private static final UrlTemplate URL_GENRE_LIST = new UrlTemplate(BASE_GENRE, "/list");
+    private static final UrlTemplate URL_GENRE_MOVIES = new UrlTemplate(BASE_GENRE, URL_MOVIES);
+    private static final UrlTemplate URL_SEARCH_MOVIE = new UrlTemplate(BASE_SEARCH, "movie");
+    private static final UrlTemplate URL_SEARCH_COLLECTION = new UrlTemplate(BASE_SEARCH, "collection");
+    private static final UrlTemplate URL_SEARCH_PERSON = new UrlTemplate(BASE_SEARCH, "person");
+    private static final UrlTemplate URL_SEARCH_LIST = new UrlTemplate(BASE_SEARCH, "list");
+    private static final UrlTemplate URL_SEARCH_COMPANY = new UrlTemplate(BASE_SEARCH, "company");
+    private static final UrlTemplate URL_SEARCH_KEYWORD = new UrlTemplate(BASE_SEARCH, "keyword");
+    private static final UrlTemplate URL_LIST = new UrlTemplate(BASE_LIST, "");
+    private static final UrlTemplate URL_ACCOUNT_LISTS = new UrlTemplate(BASE_ACCOUNT, "/lists");
+    private static final UrlTemplate URL_LIST_CREATE = new UrlTemplate("list", "");
+    private static final UrlTemplate URL_LIST_ITEM_STATUS = new UrlTemplate(BASE_LIST, "/item_status");
+    private static final UrlTemplate URL_LIST_ADD_ITEM = new UrlTemplate(BASE_LIST, "/add_item");
+    private static final UrlTemplate URL_LIST_REMOVE_ITEM = new UrlTemplate(BASE_LIST, "/remove_item");
+    private static final UrlTemplate URL_KEYWORD = new UrlTemplate(BASE_KEYWORD, "");
+    private static final UrlTemplate URL_KEYWORD_MOVIES = new UrlTemplate(BASE_KEYWORD, URL_MOVIES);
+    private static final UrlTemplate URL_JOB_LIST = new UrlTemplate(BASE_JOB, "/list");
+    private static final UrlTemplate URL_DISCOVER_MOVIE = new UrlTemplate(BASE_DISCOVER, "/movie");
     // Constants
     private static final String MOVIE_ID = "movie_id";
     private static final int YEAR_LENGTH = 4;
     private static final int RATING_MAX = 10;
     private static final int POST_SUCCESS_STATUS_CODE = 12;
+    // Rate limiting, the API allows 40 requests every 10 seconds
+    private static final int RATE_LIMIT_REQUESTS = 40;
+    private static final int RATE_LIMIT_PERIOD = 10;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int MAX_THROTTLE_RETRIES = 5;
+    private static final long DEFAULT_RETRY_AFTER = 1000L;
+    // Stored records older than this are requested again
+    private static final long DEFAULT_CATALOG_MAX_AGE = TimeUnit.DAYS.toMillis(7);
 
     /**
      * API for The Movie Db.
@@ -89,7 +174,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TheMovieDbApi(String apiKey) throws MovieDbException {
-        this(apiKey, null);
+        this(apiKey, new PooledHttpClient());
     }
 
     /**
@@ -100,21 +185,100 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TheMovieDbApi(String apiKey, CommonHttpClient httpClient) throws MovieDbException {
+        this(apiKey, httpClient == null ? new PooledHttpClient() : new CommonHttpClientTransport(httpClient));
+    }
+
+    /**
+     * API for The Movie Db.
+     *
+     * The configuration is loaded from the API when it is first needed.
+     *
+     * @param apiKey
+     * @param transport The transport to use for web requests.
+     */
+    public TheMovieDbApi(String apiKey, Transport transport) {
+        this(apiKey, transport, null);
+    }
+
+    /**
+     * API for The Movie Db, keeping the configuration in a local file.
+     *
+     * If the file has a configuration it is used straight away and refreshed
+     * from the API in the background, otherwise the configuration is loaded
+     * when it is first needed. The file is updated each time the
+     * configuration is loaded.
+     *
+     * @param apiKey
+     * @param transport The transport to use for web requests.
+     * @param configurationFile The file to keep the configuration in, or null
+     * to only keep it in memory
+     */
+    public TheMovieDbApi(String apiKey, Transport transport, File configurationFile) {
         this.apiKey = apiKey;
-        this.httpClient = httpClient;
+        this.storeRecords = true;
+        this.shared = new Shared(transport, new ConfigurationCache(new ConfigurationCache.Loader() {
+            @Override
+            public TmdbConfiguration load() throws MovieDbException {
+                return readConfiguration();
+            }
+        }, new SimpleJsonMapper(), configurationFile));
 
-        ApiUrl apiUrl = new ApiUrl(apiKey, "configuration");
-        URL configUrl = apiUrl.buildUrl();
-        String webpage = requestWebPage(configUrl);
+        if (shared.configuration.loadPersisted()) {
+            shared.configuration.refreshInBackground();
+        }
+    }
 
-        try {
-            WrapperConfig wc = mapper.readValue(webpage, WrapperConfig.class);
-            tmdbConfig = wc.getTmdbConfiguration();
-        } catch (IOException ex) {
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to read configuration", configUrl, ex);
+    /**
+     * Create a view of the API that maps the responses with another mapper.
+     *
+     * @param api
+     * @param mapper
+     */
+    private TheMovieDbApi(TheMovieDbApi api, JsonMapper mapper) {
+        this.apiKey = api.apiKey;
+        this.shared = api.shared;
+        this.storeRecords = !(mapper instanceof Projection);
+        this.mapper = mapper;
+    }
+
+    /**
+     * The state that is shared by the API and its views, so that changes made
+     * through any of them apply to all of them
+     */
+    private static final class Shared {
+
+        private final Transport transport;
+        private final ConfigurationCache configuration;
+        private final RequestCoalescer coalescer = new RequestCoalescer();
+        private final RateLimiter rateLimiter = new RateLimiter(RATE_LIMIT_REQUESTS, RATE_LIMIT_PERIOD, TimeUnit.SECONDS);
+        private volatile HttpResponseCache responseCache;
+        private volatile CatalogStore catalogStore;
+        private volatile long catalogMaxAge = DEFAULT_CATALOG_MAX_AGE;
+
+        Shared(Transport transport, ConfigurationCache configuration) {
+            this.transport = transport;
+            this.configuration = configuration;
         }
     }
 
+    /**
+     * Get a view of the API that maps the responses with the mapper, e.g. a
+     * {@link com.omertron.themoviedbapi.tools.Projection} that only maps the
+     * fields that are needed.
+     *
+     * The view shares the transport, response cache, catalog store, rate
+     * limiter and request coalescer of this API, so the requests of both count
+     * towards the same rate limit. Changes to these made through the API or
+     * any of its views apply to all of them. A view with a projection does not
+     * use the catalog store.
+     *
+     * @param mapper
+     * @return
+     */
+    public TheMovieDbApi withJsonMapper(JsonMapper mapper) {
+        return new TheMovieDbApi(this, mapper);
+    }
+
     /**
      * Get the API key that is to be used
      *
@@ -124,45 +288,239 @@ public class TheMovieDbApi {
         return apiKey;
     }
 
-    private String requestWebPage(URL url) throws MovieDbException {
-        return requestWebPage(url, null, Boolean.FALSE);
+    private <T> T requestWebPage(ApiUrl apiUrl, Class<T> type) throws MovieDbException, IOException {
+        return requestWebPage(apiUrl, null, Boolean.FALSE, type);
     }
 
-    private String requestWebPage(URL url, String jsonBody) throws MovieDbException {
-        return requestWebPage(url, jsonBody, Boolean.FALSE);
+    private <T> T requestWebPage(ApiUrl apiUrl, String jsonBody, Class<T> type) throws MovieDbException, IOException {
+        return requestWebPage(apiUrl, jsonBody, Boolean.FALSE, type);
     }
 
-    private String requestWebPage(URL url, String jsonBody, boolean isDeleteRequest) throws MovieDbException {
-        String webpage;
-        // use HTTP client implementation
-        if (httpClient == null) {
-            // use web browser
-            webpage = WebBrowser.request(url, jsonBody, isDeleteRequest);
-        } else {
-            try {
-                HttpGet httpGet = new HttpGet(url.toURI());
-                httpGet.addHeader("accept", "application/json");
+    /**
+     * Request the URL and map the response to the required type.
+     *
+     * Identical GET requests that are made at the same time share one request
+     * and the same mapped result.
+     *
+     * @param <T>
+     * @param apiUrl
+     * @param jsonBody
+     * @param isDeleteRequest
+     * @param type
+     * @return
+     * @throws MovieDbException
+     * @throws IOException if the response could not be mapped
+     */
+    private <T> T requestWebPage(ApiUrl apiUrl, String jsonBody, boolean isDeleteRequest, Class<T> type) throws MovieDbException, IOException {
+        return requestWebPage(apiUrl, jsonBody, isDeleteRequest, type, getJsonMapper());
+    }
 
-                if (StringUtils.isNotBlank(jsonBody)) {
-                    // TODO: Add the json body to the request
-                    throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Unable to proces JSON request", url);
-                }
+    /**
+     * Request the URL and map the response to the required type with the
+     * mapper.
+     *
+     * @param <T>
+     * @param apiUrl
+     * @param jsonBody
+     * @param isDeleteRequest
+     * @param type
+     * @param jsonMapper
+     * @return
+     * @throws MovieDbException
+     * @throws IOException if the response could not be mapped
+     */
+    private <T> T requestWebPage(final ApiUrl apiUrl, String jsonBody, boolean isDeleteRequest, final Class<T> type, final JsonMapper jsonMapper) throws MovieDbException, IOException {
+        if (StringUtils.isNotBlank(jsonBody) || isDeleteRequest) {
+            return readWebPage(apiUrl, jsonBody, isDeleteRequest, type, jsonMapper);
+        }
 
-                if (isDeleteRequest) {
-                    //TODO: Handle delete request
-                    throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Unable to proces delete request", url);
+        // The coalescer can be shared with views that map the response differently
+        RequestKey key = new RequestKey(type, jsonMapper, apiUrl.getRequestKey());
+        return shared.coalescer.execute(key, new Callable<T>() {
+            @Override
+            public T call() throws MovieDbException, IOException {
+                return readWebPage(apiUrl, null, Boolean.FALSE, type, jsonMapper);
+            }
+        });
+    }
+
+    /**
+     * Identifies requests that can share one response: the same URL mapped to
+     * the same type by the same mapper instance.
+     */
+    private static final class RequestKey {
+
+        private final Class<?> type;
+        private final JsonMapper mapper;
+        private final String requestKey;
+
+        RequestKey(Class<?> type, JsonMapper mapper, String requestKey) {
+            this.type = type;
+            this.mapper = mapper;
+            this.requestKey = requestKey;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey other = (RequestKey) obj;
+            // Mappers are compared by identity, as equal mappers may still map differently
+            return type == other.type && mapper == other.mapper && requestKey.equals(other.requestKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return (type.hashCode() * 31 + System.identityHashCode(mapper)) * 31 + requestKey.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return requestKey;
+        }
+    }
+
+    /**
+     * Request the URL and map the response to the required type.
+     *
+     * Successful responses are parsed as they are read from the connection.
+     * Error responses are read in full first so that the content can be added
+     * to the exception if they cannot be mapped.
+     *
+     * @param <T>
+     * @param apiUrl
+     * @param jsonBody
+     * @param isDeleteRequest
+     * @param type
+     * @param mapper
+     * @return
+     * @throws MovieDbException
+     * @throws IOException if the response could not be mapped
+     */
+    private <T> T readWebPage(ApiUrl apiUrl, String jsonBody, boolean isDeleteRequest, Class<T> type, JsonMapper mapper) throws MovieDbException, IOException {
+        URL url = apiUrl.buildUrl();
+        WebResponse response = openWebPage(apiUrl, jsonBody, isDeleteRequest);
+        try {
+            if (response.isError()) {
+                String webpage = response.getContentAsString();
+                try {
+                    return mapper.readValue(webpage, type);
+                } catch (JsonProcessingException ex) {
+                    throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
                 }
+            }
+            return mapper.readValue(response.getContent(), type);
+        } catch (JsonProcessingException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new MovieDbException(MovieDbExceptionType.CONNECTION_ERROR, null, url, ex);
+        } finally {
+            response.close();
+        }
+    }
 
-                webpage = httpClient.requestContent(httpGet);
-            } catch (URISyntaxException ex) {
-                throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, url, ex);
-            } catch (IOException ex) {
-                throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, url, ex);
-            } catch (RuntimeException ex) {
-                throw new MovieDbException(MovieDbException.MovieDbExceptionType.HTTP_503_ERROR, "Service Unavailable", url, ex);
+    /**
+     * Open the URL using the transport.
+     *
+     * GET requests are answered from the response cache if possible,
+     * otherwise the response is checked with the server and stored. Other
+     * requests remove the cached responses for the resource they change.
+     *
+     * @param apiUrl
+     * @param jsonBody
+     * @param isDeleteRequest
+     * @return
+     * @throws MovieDbException
+     */
+    private WebResponse openWebPage(ApiUrl apiUrl, String jsonBody, boolean isDeleteRequest) throws MovieDbException {
+        URL url = apiUrl.buildUrl();
+        WebRequest request = new WebRequest(url, jsonBody, isDeleteRequest);
+        HttpResponseCache cache = shared.responseCache;
+        if (cache == null) {
+            return executeRequest(request);
+        }
+
+        String key = apiUrl.getRequestKey();
+        if (!WebRequest.METHOD_GET.equals(request.getMethod())) {
+            WebResponse response = executeRequest(request);
+            cache.invalidate(key);
+            return response;
+        }
+
+        CachedResponse cached = cache.getFresh(key);
+        if (cached != null) {
+            LOG.trace("Using cached response for '{}'", key);
+            return cached.toWebResponse(HttpResponseCache.HTTP_OK);
+        }
+
+        request.addHeaders(cache.getConditionalHeaders(key));
+        WebResponse response = processResponse(cache, key, executeRequest(request));
+        if (HttpResponseCache.isNotModified(response)) {
+            // The cached copy was removed while the request was made, so ask for the full response
+            LOG.debug("Repeating request for '{}' without the conditional headers", key);
+            response.close();
+            response = processResponse(cache, key, executeRequest(new WebRequest(url, null, false)));
+        }
+        return response;
+    }
+
+    private static WebResponse processResponse(HttpResponseCache cache, String key, WebResponse response) throws MovieDbException {
+        try {
+            return cache.process(key, response);
+        } catch (IOException ex) {
+            response.close();
+            throw new MovieDbException(MovieDbExceptionType.CONNECTION_ERROR, null, key, ex);
+        }
+    }
+
+    /**
+     * Send the request using the transport.
+     *
+     * The request will wait for the rate limit and if the server says that the
+     * limit has been exceeded, the request will be retried once the server
+     * allows it.
+     *
+     * @param request
+     * @return
+     * @throws MovieDbException
+     */
+    private WebResponse executeRequest(WebRequest request) throws MovieDbException {
+        URL url = request.getUrl();
+        int retries = 0;
+        while (true) {
+            acquireRateLimit(url);
+            WebResponse response = shared.transport.execute(request);
+            shared.rateLimiter.update(response.getHeader(RateLimiter.HEADER_REMAINING), response.getHeader(RateLimiter.HEADER_RESET));
+
+            if (response.getStatusCode() != HTTP_TOO_MANY_REQUESTS) {
+                return response;
+            }
+
+            response.close();
+            shared.rateLimiter.throttled(response.getHeader(RateLimiter.HEADER_RETRY_AFTER), DEFAULT_RETRY_AFTER);
+            if (++retries > MAX_THROTTLE_RETRIES) {
+                throw new MovieDbException(MovieDbExceptionType.HTTP_429_ERROR, "Rate limit exceeded", url);
             }
+            LOG.debug("Request throttled, retry {} of {}", retries, MAX_THROTTLE_RETRIES);
+        }
+    }
+
+    /**
+     * Wait until the rate limit allows another request
+     *
+     * @param url
+     * @throws MovieDbException
+     */
+    private void acquireRateLimit(URL url) throws MovieDbException {
+        try {
+            shared.rateLimiter.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(MovieDbExceptionType.CONNECTION_ERROR, "Interrupted waiting for rate limit", url, ex);
         }
-        return webpage;
     }
 
     /**
@@ -174,15 +532,12 @@ public class TheMovieDbApi {
      * @param password
      */
     public void setProxy(String host, int port, String username, String password) {
-        // should be set in HTTP client already
-        if (httpClient != null) {
-            return;
+        // should be set in the transport already
+        if (shared.transport instanceof PooledHttpClient) {
+            ((PooledHttpClient) shared.transport).setProxy(host, port, username, password);
+        } else if (shared.transport instanceof WebBrowserTransport) {
+            ((WebBrowserTransport) shared.transport).getBrowser().setProxy(host, port, username, password);
         }
-
-        WebBrowser.setProxyHost(host);
-        WebBrowser.setProxyPort(port);
-        WebBrowser.setProxyUsername(username);
-        WebBrowser.setProxyPassword(password);
     }
 
     /**
@@ -192,13 +547,243 @@ public class TheMovieDbApi {
      * @param read
      */
     public void setTimeout(int connect, int read) {
-        // should be set in HTTP client already
-        if (httpClient != null) {
+        // should be set in the transport already
+        if (shared.transport instanceof PooledHttpClient) {
+            ((PooledHttpClient) shared.transport).setTimeouts(connect, read);
+        } else if (shared.transport instanceof WebBrowserTransport) {
+            WebBrowser browser = ((WebBrowserTransport) shared.transport).getBrowser();
+            browser.setWebTimeoutConnect(connect);
+            browser.setWebTimeoutRead(read);
+        }
+    }
+
+    /**
+     * Set the maximum number of connections that are kept open for re-use
+     *
+     * @param maxTotal Maximum number of connections in total
+     * @param maxPerHost Maximum number of connections to a single host
+     */
+    public void setConnectionPool(int maxTotal, int maxPerHost) {
+        // should be set in the transport already
+        if (shared.transport instanceof PooledHttpClient) {
+            ((PooledHttpClient) shared.transport).setPoolSize(maxTotal, maxPerHost);
+        }
+    }
+
+    /**
+     * Set the number of requests that can be made to the API in a period.
+     *
+     * Requests over the limit will wait until they are allowed.
+     *
+     * @param requests
+     * @param seconds
+     */
+    public void setRateLimit(int requests, int seconds) {
+        shared.rateLimiter.setRate(requests, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the rate limiter, which holds the statistics of the time spent
+     * waiting for the rate limit
+     *
+     * @return
+     */
+    public RateLimiter getRateLimiter() {
+        return shared.rateLimiter;
+    }
+
+    /**
+     * Get the request coalescer, which holds the statistics of the requests
+     * that were shared
+     *
+     * @return
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return shared.coalescer;
+    }
+
+    /**
+     * Get the statistics of the bytes received against the bytes decoded from
+     * compressed responses
+     *
+     * @return The statistics, or null if the transport does not record them
+     */
+    public CompressionStats getCompressionStats() {
+        if (shared.transport instanceof PooledHttpClient) {
+            return ((PooledHttpClient) shared.transport).getCompressionStats();
+        } else if (shared.transport instanceof CommonHttpClientTransport) {
+            return ((CommonHttpClientTransport) shared.transport).getCompressionStats();
+        } else if (shared.transport instanceof WebBrowserTransport) {
+            return ((WebBrowserTransport) shared.transport).getBrowser().getCompressionStats();
+        }
+        return null;
+    }
+
+    /**
+     * Get the transport used to send the requests
+     *
+     * @return
+     */
+    public Transport getTransport() {
+        return shared.transport;
+    }
+
+    /**
+     * Set the storage used to cache the responses from the API.
+     *
+     * Caching is off by default. To hold up to 8MB of responses in memory use
+     * {@code setResponseCache(new MemoryResponseCache(8L * 1024L * 1024L))}.
+     *
+     * @param cache The cache to use, or null to disable caching
+     */
+    public void setResponseCache(ResponseCache cache) {
+        shared.responseCache = cache == null ? null : new HttpResponseCache(cache);
+    }
+
+    /**
+     * Get the response cache, which holds the statistics of the hits, misses
+     * and revalidations
+     *
+     * @return The cache, or null if caching is disabled
+     */
+    public HttpResponseCache getResponseCache() {
+        return shared.responseCache;
+    }
+
+    /**
+     * Set the local store of movies, people, collections and companies.
+     *
+     * The movie, person, collection and company information methods read the
+     * record from the store if it is there and no older than the maximum age
+     * (see {@link #setCatalogMaxAge(long, TimeUnit)}), otherwise the record is
+     * requested and added to the store. The refresh methods, e.g.
+     * {@link #refreshMovieInfo(int, String, String...)}, always request the
+     * record. Only calls with the default language and without
+     * append_to_response use the store. The store is shared with the views of
+     * the API.
+     *
+     * @param store The store to use, or null to not store the records
+     */
+    public void setCatalogStore(CatalogStore store) {
+        shared.catalogStore = store;
+    }
+
+    /**
+     * Get the local store of records
+     *
+     * @return The store, or null if there is none or this is a view with a
+     * projection
+     */
+    public CatalogStore getCatalogStore() {
+        return storeRecords ? shared.catalogStore : null;
+    }
+
+    /**
+     * Set how long a stored record is used for before it is requested again
+     *
+     * @param maxAge The maximum age, 0 to use the records for as long as they
+     * are stored
+     * @param unit
+     */
+    public void setCatalogMaxAge(long maxAge, TimeUnit unit) {
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("Maximum age must not be negative: " + maxAge);
+        }
+        shared.catalogMaxAge = unit.toMillis(maxAge);
+    }
+
+    /**
+     * Get how long a stored record is used for
+     *
+     * @return The maximum age in milliseconds, 0 for no limit
+     */
+    public long getCatalogMaxAge() {
+        return shared.catalogMaxAge;
+    }
+
+    /**
+     * Read the record from the catalog store, if there is one
+     *
+     * @return The record, or null if it is not in the store or is too old
+     */
+    private <T> T readCatalog(RecordType type, int id) {
+        CatalogStore store = storeRecords ? shared.catalogStore : null;
+        if (store == null) {
+            return null;
+        }
+        try {
+            return store.<T>get(type, id, shared.catalogMaxAge);
+        } catch (IOException ex) {
+            LOG.warn("Failed to read {} {} from the catalog: {}", type, id, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Make any cached response for the request stale, so that a refresh gets
+     * the latest record from the server
+     */
+    private void expireResponse(ApiUrl apiUrl) {
+        HttpResponseCache cache = shared.responseCache;
+        if (cache != null) {
+            cache.expire(apiUrl.getRequestKey());
+        }
+    }
+
+    /**
+     * Add the record to the catalog store, if there is one
+     */
+    private void writeCatalog(RecordType type, int id, Object value) {
+        CatalogStore store = storeRecords ? shared.catalogStore : null;
+        if (store == null || value == null) {
             return;
         }
+        try {
+            store.put(type, id, value);
+        } catch (IOException ex) {
+            LOG.warn("Failed to write {} {} to the catalog: {}", type, id, ex.getMessage());
+        }
+    }
+
+    /**
+     * Set the mapper used to read the responses.
+     *
+     * By default the Jackson reflection based mapper is used, the
+     * {@link com.omertron.themoviedbapi.tools.GeneratedJsonMapper} uses the
+     * deserializers generated at build time and the
+     * {@link com.omertron.themoviedbapi.tools.SimpleJsonMapper} has the lowest
+     * start up cost.
+     *
+     * @param mapper The mapper to use, or null to use the default
+     */
+    public void setJsonMapper(JsonMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public JsonMapper getJsonMapper() {
+        JsonMapper current = mapper;
+        return current == null ? DefaultMapper.INSTANCE : current;
+    }
+
+    /**
+     * Holds the default mapper, so the Jackson databind mapper is only
+     * created when a client first uses it rather than when the API is loaded
+     */
+    private static final class DefaultMapper {
+
+        static final JsonMapper INSTANCE = new JacksonMapper();
+
+        private DefaultMapper() {
+        }
+    }
 
-        WebBrowser.setWebTimeoutConnect(connect);
-        WebBrowser.setWebTimeoutRead(read);
+    /**
+     * Close any open connections and release the resources used by the API.
+     *
+     * The API should not be used after this has been called.
+     */
+    public void shutdown() {
+        shared.transport.shutdown();
     }
 
     /**
@@ -301,12 +886,41 @@ public class TheMovieDbApi {
 
     //<editor-fold defaultstate="collapsed" desc="Configuration Functions">
     /**
-     * Get the configuration information
+     * Get the configuration information, loading it if needed.
+     *
+     * Use {@link #refreshConfiguration()} to handle a failure to load it as a
+     * MovieDbException.
      *
      * @return
+     * @throws IllegalStateException if the configuration could not be loaded
      */
     public TmdbConfiguration getConfiguration() {
-        return tmdbConfig;
+        try {
+            return shared.configuration.get();
+        } catch (MovieDbException ex) {
+            throw new IllegalStateException("Unable to load the configuration: " + ex.getExceptionType(), ex);
+        }
+    }
+
+    /**
+     * Load the configuration from the API, replacing the current one
+     *
+     * @return
+     * @throws MovieDbException
+     */
+    public TmdbConfiguration refreshConfiguration() throws MovieDbException {
+        return shared.configuration.refresh();
+    }
+
+    private TmdbConfiguration readConfiguration() throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_CONFIGURATION);
+        URL configUrl = apiUrl.buildUrl();
+        try {
+            WrapperConfig wc = requestWebPage(apiUrl, WrapperConfig.class);
+            return wc.getTmdbConfiguration();
+        } catch (IOException ex) {
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to read configuration", configUrl, ex);
+        }
     }
 
     /**
@@ -318,6 +932,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public URL createImageUrl(String imagePath, String requiredSize) throws MovieDbException {
+        TmdbConfiguration tmdbConfig = shared.configuration.get();
         if (!tmdbConfig.isValidSize(requiredSize)) {
             throw new MovieDbException(MovieDbExceptionType.INVALID_IMAGE, requiredSize, "");
         }
@@ -351,16 +966,15 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TokenAuthorisation getAuthorisationToken() throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_AUTH, "token/new");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_AUTH_TOKEN);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, TokenAuthorisation.class);
+            return requestWebPage(apiUrl, TokenAuthorisation.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get Authorisation Token: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.AUTHORISATION_FAILURE, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.AUTHORISATION_FAILURE, "Failed to get Authorisation Token", url, ex);
         }
     }
 
@@ -375,7 +989,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TokenSession getSessionToken(TokenAuthorisation token) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_AUTH, "session/new");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_AUTH_SESSION);
 
         if (!token.getSuccess()) {
             LOG.warn("Session token was not successful!");
@@ -384,13 +998,12 @@ public class TheMovieDbApi {
 
         apiUrl.addArgument(PARAM_TOKEN, token.getRequestToken());
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, TokenSession.class);
+            return requestWebPage(apiUrl, TokenSession.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get Session Token: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get Session Token", url, ex);
         }
     }
 
@@ -414,16 +1027,15 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TokenSession getGuestSessionToken() throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_AUTH, "guest_session/new");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_AUTH_GUEST_SESSION);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, TokenSession.class);
+            return requestWebPage(apiUrl, TokenSession.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get Guest Session Token: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get Guest Session Token", url, ex);
         }
     }
 
@@ -436,54 +1048,53 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public Account getAccount(String sessionId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_ACCOUNT.replace("/", ""));
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_ACCOUNT);
 
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, Account.class);
+            return requestWebPage(apiUrl, Account.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get Account: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get Account", url, ex);
         }
     }
 
     public List<MovieDb> getFavoriteMovies(String sessionId, int accountId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_ACCOUNT, accountId + "/favorite_movies");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_ACCOUNT_FAVORITE_MOVIES);
+        apiUrl.addArgument(PARAM_ID, accountId);
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, WrapperMovie.class).getMovies();
+            return requestWebPage(apiUrl, WrapperMovie.class).getMovies();
         } catch (IOException ex) {
             LOG.warn("Failed to get favorite movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get favorite movies", url, ex);
         }
     }
 
     public StatusCode changeFavoriteStatus(String sessionId, int accountId, Integer movieId, boolean isFavorite) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_ACCOUNT, accountId + "/favorite");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_ACCOUNT_FAVORITE);
+        apiUrl.addArgument(PARAM_ID, accountId);
 
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         Map<String, Object> body = new HashMap<String, Object>();
         body.put(MOVIE_ID, movieId);
         body.put("favorite", isFavorite);
-        String jsonBody = convertToJson(body);
+        String jsonBody = toJson(body);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url, jsonBody);
 
         try {
-            return mapper.readValue(webpage, StatusCode.class);
+            return requestWebPage(apiUrl, jsonBody, StatusCode.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get favorite status: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get favorite status", url, ex);
         }
     }
 
@@ -514,23 +1125,23 @@ public class TheMovieDbApi {
     }
 
     private StatusCode modifyWatchList(String sessionId, int accountId, Integer movieId, boolean add) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_ACCOUNT, accountId + "/movie_watchlist");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_ACCOUNT_WATCHLIST);
+        apiUrl.addArgument(PARAM_ID, accountId);
 
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         Map<String, Object> body = new HashMap<String, Object>();
         body.put(MOVIE_ID, movieId);
         body.put("movie_watchlist", add);
-        String jsonBody = convertToJson(body);
+        String jsonBody = toJson(body);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url, jsonBody);
 
         try {
-            return mapper.readValue(webpage, StatusCode.class);
+            return requestWebPage(apiUrl, jsonBody, StatusCode.class);
         } catch (IOException ex) {
             LOG.warn("Failed to modify watch list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to modify watch list", url, ex);
         }
     }
     //</editor-fold>
@@ -551,7 +1162,34 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public MovieDb getMovieInfo(int movieId, String language, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE);
+        boolean stored = StringUtils.isBlank(language) && appendToResponse.length == 0;
+        if (stored) {
+            MovieDb movie = readCatalog(RecordType.MOVIE, movieId);
+            if (movie != null) {
+                return movie;
+            }
+        }
+        return requestMovieInfo(movieId, language, stored, false, appendToResponse);
+    }
+
+    /**
+     * Get the movie information from the server, ignoring the catalog store
+     * and the response cache, and update the catalog store with it.
+     *
+     * @see #getMovieInfo(int, String, String...)
+     * @param movieId
+     * @param language
+     * @param appendToResponse
+     * @return
+     * @throws MovieDbException
+     */
+    public MovieDb refreshMovieInfo(int movieId, String language, String... appendToResponse) throws MovieDbException {
+        boolean stored = StringUtils.isBlank(language) && appendToResponse.length == 0;
+        return requestMovieInfo(movieId, language, stored, true, appendToResponse);
+    }
+
+    private MovieDb requestMovieInfo(int movieId, String language, boolean stored, boolean refresh, String... appendToResponse) throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE);
 
         apiUrl.addArgument(PARAM_ID, movieId);
 
@@ -562,17 +1200,22 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
+        if (refresh) {
+            expireResponse(apiUrl);
+        }
         try {
-            MovieDb movie = mapper.readValue(webpage, MovieDb.class);
+            MovieDb movie = requestWebPage(apiUrl, MovieDb.class);
             if (movie == null || movie.getId() == 0) {
                 LOG.warn("No movie found for ID '{}'", movieId);
                 throw new MovieDbException(MovieDbExceptionType.MOVIE_ID_NOT_FOUND, "No movie found for ID: " + movieId, url);
             }
+            if (stored) {
+                writeCatalog(RecordType.MOVIE, movieId, movie);
+            }
             return movie;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie info: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie info", url, ex);
         }
     }
 
@@ -591,7 +1234,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public MovieDb getMovieInfoImdb(String imdbId, String language, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE);
 
         apiUrl.addArgument(PARAM_ID, imdbId);
 
@@ -602,9 +1245,8 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
         try {
-            MovieDb movie = mapper.readValue(webpage, MovieDb.class);
+            MovieDb movie = requestWebPage(apiUrl, MovieDb.class);
             if (movie == null || movie.getId() == 0) {
                 LOG.warn("No movie found for IMDB ID: '{}'", imdbId);
                 throw new MovieDbException(MovieDbExceptionType.MOVIE_ID_NOT_FOUND, "No movie found for IMDB ID: " + imdbId, url);
@@ -627,7 +1269,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<AlternativeTitle> getMovieAlternativeTitles(int movieId, String country, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/alternative_titles");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_ALTERNATIVE_TITLES);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         if (StringUtils.isNotBlank(country)) {
@@ -637,15 +1279,14 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
         try {
-            WrapperAlternativeTitles wrapper = mapper.readValue(webpage, WrapperAlternativeTitles.class);
+            WrapperAlternativeTitles wrapper = requestWebPage(apiUrl, WrapperAlternativeTitles.class);
             TmdbResultsList<AlternativeTitle> results = new TmdbResultsList<AlternativeTitle>(wrapper.getTitles());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie alternative titles: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie alternative titles", url, ex);
         }
     }
 
@@ -660,22 +1301,21 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Person> getMovieCasts(int movieId, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/casts");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_CASTS);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovieCasts wrapper = mapper.readValue(webpage, WrapperMovieCasts.class);
+            WrapperMovieCasts wrapper = requestWebPage(apiUrl, WrapperMovieCasts.class);
             TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getAll());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie casts: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie casts", url, ex);
         }
     }
 
@@ -690,7 +1330,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Artwork> getMovieImages(int movieId, String language, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, URL_IMAGES);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_IMAGES);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -700,16 +1340,15 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperImages wrapper = mapper.readValue(webpage, WrapperImages.class);
+            WrapperImages wrapper = requestWebPage(apiUrl, WrapperImages.class);
             TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie images: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie images", url, ex);
         }
     }
 
@@ -725,22 +1364,21 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Keyword> getMovieKeywords(int movieId, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/keywords");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_KEYWORDS);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovieKeywords wrapper = mapper.readValue(webpage, WrapperMovieKeywords.class);
+            WrapperMovieKeywords wrapper = requestWebPage(apiUrl, WrapperMovieKeywords.class);
             TmdbResultsList<Keyword> results = new TmdbResultsList<Keyword>(wrapper.getKeywords());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie keywords: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie keywords", url, ex);
         }
     }
 
@@ -755,23 +1393,22 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<ReleaseInfo> getMovieReleaseInfo(int movieId, String language, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/releases");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_RELEASES);
         apiUrl.addArgument(PARAM_ID, movieId);
         apiUrl.addArgument(PARAM_LANGUAGE, language);
 
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperReleaseInfo wrapper = mapper.readValue(webpage, WrapperReleaseInfo.class);
+            WrapperReleaseInfo wrapper = requestWebPage(apiUrl, WrapperReleaseInfo.class);
             TmdbResultsList<ReleaseInfo> results = new TmdbResultsList<ReleaseInfo>(wrapper.getCountries());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie release information: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie release information", url, ex);
         }
     }
 
@@ -788,7 +1425,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Trailer> getMovieTrailers(int movieId, String language, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/videos");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_VIDEOS);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -798,16 +1435,15 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperTrailers wrapper = mapper.readValue(webpage, WrapperTrailers.class);
+            WrapperTrailers wrapper = requestWebPage(apiUrl, WrapperTrailers.class);
             TmdbResultsList<Trailer> results = new TmdbResultsList<Trailer>(wrapper.getTrailers());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie trailers: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie trailers", url, ex);
         }
     }
 
@@ -821,22 +1457,21 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Translation> getMovieTranslations(int movieId, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/translations");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_TRANSLATIONS);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperTranslations wrapper = mapper.readValue(webpage, WrapperTranslations.class);
+            WrapperTranslations wrapper = requestWebPage(apiUrl, WrapperTranslations.class);
             TmdbResultsList<Translation> results = new TmdbResultsList<Translation>(wrapper.getTranslations());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie tranlations: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie tranlations", url, ex);
         }
     }
 
@@ -857,7 +1492,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getSimilarMovies(int movieId, String language, int page, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/similar_movies");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_SIMILAR);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -871,21 +1506,20 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
             TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get similar movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get similar movies", url, ex);
         }
     }
 
     public TmdbResultsList<Reviews> getReviews(int movieId, String language, int page, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/reviews");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_REVIEWS);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -899,16 +1533,15 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperReviews wrapper = mapper.readValue(webpage, WrapperReviews.class);
+            WrapperReviews wrapper = requestWebPage(apiUrl, WrapperReviews.class);
             TmdbResultsList<Reviews> results = new TmdbResultsList<Reviews>(wrapper.getReviews());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get reviews: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get reviews", url, ex);
         }
     }
 
@@ -923,7 +1556,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieList> getMovieLists(int movieId, String language, int page, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/lists");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_LISTS);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -937,16 +1570,15 @@ public class TheMovieDbApi {
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovieList wrapper = mapper.readValue(webpage, WrapperMovieList.class);
+            WrapperMovieList wrapper = requestWebPage(apiUrl, WrapperMovieList.class);
             TmdbResultsList<MovieList> results = new TmdbResultsList<MovieList>(wrapper.getMovieList());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie lists: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie lists", url, ex);
         }
     }
 
@@ -972,7 +1604,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsMap<String, List<ChangedItem>> getMovieChanges(int movieId, String startDate, String endDate) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/changes");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_CHANGES);
         apiUrl.addArgument(PARAM_ID, movieId);
 
         if (StringUtils.isNotBlank(startDate)) {
@@ -984,9 +1616,8 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
         try {
-            WrapperChanges wrapper = mapper.readValue(webpage, WrapperChanges.class);
+            WrapperChanges wrapper = requestWebPage(apiUrl, WrapperChanges.class);
 
             Map<String, List<ChangedItem>> results = new HashMap<String, List<ChangedItem>>();
             for (ChangeKeyItem changeItem : wrapper.getChangedItems()) {
@@ -996,7 +1627,7 @@ public class TheMovieDbApi {
             return new TmdbResultsMap<String, List<ChangedItem>>(results);
         } catch (IOException ex) {
             LOG.warn("Failed to get movie changes: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie changes", url, ex);
         }
 
     }
@@ -1008,15 +1639,14 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public MovieDb getLatestMovie() throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/latest");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_LATEST);
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, MovieDb.class);
+            return requestWebPage(apiUrl, MovieDb.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get latest movie: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get latest movie", url, ex);
         }
     }
 
@@ -1033,7 +1663,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getUpcoming(String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "upcoming");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_UPCOMING);
 
         if (StringUtils.isNotBlank(language)) {
             apiUrl.addArgument(PARAM_LANGUAGE, language);
@@ -1044,16 +1674,15 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
             TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get upcoming movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get upcoming movies", url, ex);
         }
 
     }
@@ -1072,7 +1701,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getNowPlayingMovies(String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "now-playing");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_NOW_PLAYING);
 
         if (StringUtils.isNotBlank(language)) {
             apiUrl.addArgument(PARAM_LANGUAGE, language);
@@ -1083,16 +1712,15 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
             TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get now playing movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get now playing movies", url, ex);
         }
     }
 
@@ -1109,30 +1737,33 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getPopularMovieList(String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "popular");
-
-        if (StringUtils.isNotBlank(language)) {
-            apiUrl.addArgument(PARAM_LANGUAGE, language);
-        }
-
-        if (page > 0) {
-            apiUrl.addArgument(PARAM_PAGE, page);
-        }
-
+        ApiUrl apiUrl = buildMovieRequest(URL_MOVIE_POPULAR, language, page);
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
             TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get popular movie list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get popular movie list", url, ex);
         }
     }
 
+    /**
+     * Get the daily movie popularity list as columns.
+     *
+     * @see #getPopularMovieList(String, int)
+     * @param language
+     * @param page
+     * @return
+     * @throws MovieDbException
+     */
+    public MovieColumns getPopularMovieColumns(String language, int page) throws MovieDbException {
+        return requestMovieColumns(buildMovieRequest(URL_MOVIE_POPULAR, language, page), "popular movie list");
+    }
+
     /**
      * This method is used to retrieve the top rated movies that have over 10
      * votes on TMDb.
@@ -1147,7 +1778,43 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getTopRatedMovies(String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "top-rated");
+        ApiUrl apiUrl = buildMovieRequest(URL_MOVIE_TOP_RATED, language, page);
+        URL url = apiUrl.buildUrl();
+
+        try {
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
+            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+            results.copyWrapper(wrapper);
+            return results;
+        } catch (IOException ex) {
+            LOG.warn("Failed to get top rated movies: {}", ex.getMessage(), ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get top rated movies", url, ex);
+        }
+    }
+
+    /**
+     * Get the top rated movies as columns.
+     *
+     * @see #getTopRatedMovies(String, int)
+     * @param language
+     * @param page
+     * @return
+     * @throws MovieDbException
+     */
+    public MovieColumns getTopRatedMovieColumns(String language, int page) throws MovieDbException {
+        return requestMovieColumns(buildMovieRequest(URL_MOVIE_TOP_RATED, language, page), "top rated movies");
+    }
+
+    /**
+     * Build the URL for one of the movie lists
+     *
+     * @param list
+     * @param language
+     * @param page
+     * @return
+     */
+    private ApiUrl buildMovieRequest(UrlTemplate list, String language, int page) {
+        ApiUrl apiUrl = new ApiUrl(apiKey, list);
 
         if (StringUtils.isNotBlank(language)) {
             apiUrl.addArgument(PARAM_LANGUAGE, language);
@@ -1157,17 +1824,26 @@ public class TheMovieDbApi {
             apiUrl.addArgument(PARAM_PAGE, page);
         }
 
-        URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
+        return apiUrl;
+    }
 
+    /**
+     * Request a page of movies and read it as columns.
+     *
+     * The columns are read by their own reader, which both the default mapper
+     * and the SimpleJsonMapper use.
+     *
+     * @param url
+     * @param description
+     * @return
+     * @throws MovieDbException
+     */
+    private MovieColumns requestMovieColumns(ApiUrl apiUrl, String description) throws MovieDbException {
         try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
+            return requestWebPage(apiUrl, null, Boolean.FALSE, MovieColumns.class);
         } catch (IOException ex) {
-            LOG.warn("Failed to get top rated movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            LOG.warn("Failed to get {}: {}", description, ex.getMessage(), ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get " + description, apiUrl.buildUrl(), ex);
         }
     }
 
@@ -1180,17 +1856,17 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public List<MovieDb> getRatedMovies(String sessionId, int accountId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_ACCOUNT, accountId + "/rated_movies");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_ACCOUNT_RATED_MOVIES);
+        apiUrl.addArgument(PARAM_ID, accountId);
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, WrapperMovie.class).getMovies();
+            return requestWebPage(apiUrl, WrapperMovie.class).getMovies();
         } catch (IOException ex) {
             LOG.warn("Failed to get rated movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get rated movies", url, ex);
         }
     }
 
@@ -1206,7 +1882,8 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public boolean postMovieRating(String sessionId, Integer movieId, Integer rating) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, movieId + "/rating");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_RATING);
+        apiUrl.addArgument(PARAM_ID, movieId);
 
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
@@ -1214,19 +1891,18 @@ public class TheMovieDbApi {
             throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Rating out of range", apiUrl.buildUrl());
         }
 
-        String jsonBody = convertToJson(Collections.singletonMap("value", rating));
+        String jsonBody = toJson(Collections.singletonMap("value", rating));
         LOG.info("Body: {}", jsonBody);
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url, jsonBody);
 
         try {
-            StatusCode status = mapper.readValue(webpage, StatusCode.class);
+            StatusCode status = requestWebPage(apiUrl, jsonBody, StatusCode.class);
             LOG.info("Status: {}", status);
             int code = status.getStatusCode();
             return code == POST_SUCCESS_STATUS_CODE;
         } catch (IOException ex) {
             LOG.warn("Failed to post movie rating: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to post movie rating", url, ex);
         }
     }
     //</editor-fold>
@@ -1245,7 +1921,32 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public CollectionInfo getCollectionInfo(int collectionId, String language) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_COLLECTION);
+        boolean stored = StringUtils.isBlank(language);
+        if (stored) {
+            CollectionInfo collection = readCatalog(RecordType.COLLECTION, collectionId);
+            if (collection != null) {
+                return collection;
+            }
+        }
+        return requestCollectionInfo(collectionId, language, stored, false);
+    }
+
+    /**
+     * Get the collection information from the server, ignoring the catalog
+     * store and the response cache, and update the catalog store with it.
+     *
+     * @see #getCollectionInfo(int, String)
+     * @param collectionId
+     * @param language
+     * @return
+     * @throws MovieDbException
+     */
+    public CollectionInfo refreshCollectionInfo(int collectionId, String language) throws MovieDbException {
+        return requestCollectionInfo(collectionId, language, StringUtils.isBlank(language), true);
+    }
+
+    private CollectionInfo requestCollectionInfo(int collectionId, String language, boolean stored, boolean refresh) throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_COLLECTION);
         apiUrl.addArgument(PARAM_ID, collectionId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -1253,13 +1954,19 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
+        if (refresh) {
+            expireResponse(apiUrl);
+        }
 
         try {
-            return mapper.readValue(webpage, CollectionInfo.class);
+            CollectionInfo collection = requestWebPage(apiUrl, CollectionInfo.class);
+            if (stored) {
+                writeCatalog(RecordType.COLLECTION, collectionId, collection);
+            }
+            return collection;
         } catch (IOException ex) {
             LOG.warn("Failed to get collection information: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get collection information", url, ex);
         }
     }
 
@@ -1272,7 +1979,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Artwork> getCollectionImages(int collectionId, String language) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_COLLECTION, URL_IMAGES);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_COLLECTION_IMAGES);
         apiUrl.addArgument(PARAM_ID, collectionId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -1280,16 +1987,15 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperImages wrapper = mapper.readValue(webpage, WrapperImages.class);
+            WrapperImages wrapper = requestWebPage(apiUrl, WrapperImages.class);
             TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll(ArtworkType.POSTER, ArtworkType.BACKDROP));
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get collection images: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get collection images", url, ex);
         }
     }
     //</editor-fold>
@@ -1306,19 +2012,50 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public Person getPersonInfo(int personId, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_PERSON);
+        boolean stored = appendToResponse.length == 0;
+        if (stored) {
+            Person person = readCatalog(RecordType.PERSON, personId);
+            if (person != null) {
+                return person;
+            }
+        }
+        return requestPersonInfo(personId, stored, false, appendToResponse);
+    }
+
+    /**
+     * Get the person information from the server, ignoring the catalog store
+     * and the response cache, and update the catalog store with it.
+     *
+     * @see #getPersonInfo(int, String...)
+     * @param personId
+     * @param appendToResponse
+     * @return
+     * @throws MovieDbException
+     */
+    public Person refreshPersonInfo(int personId, String... appendToResponse) throws MovieDbException {
+        return requestPersonInfo(personId, appendToResponse.length == 0, true, appendToResponse);
+    }
+
+    private Person requestPersonInfo(int personId, boolean stored, boolean refresh, String... appendToResponse) throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_PERSON);
 
         apiUrl.addArgument(PARAM_ID, personId);
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
+        if (refresh) {
+            expireResponse(apiUrl);
+        }
 
         try {
-            return mapper.readValue(webpage, Person.class);
+            Person person = requestWebPage(apiUrl, Person.class);
+            if (stored) {
+                writeCatalog(RecordType.PERSON, personId, person);
+            }
+            return person;
         } catch (IOException ex) {
             LOG.warn("Failed to get person info: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get person info", url, ex);
         }
     }
 
@@ -1334,22 +2071,21 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<PersonCredit> getPersonCredits(int personId, String... appendToResponse) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_PERSON, "/credits");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_PERSON_CREDITS);
 
         apiUrl.addArgument(PARAM_ID, personId);
         apiUrl.appendToResponse(appendToResponse);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperPersonCredits wrapper = mapper.readValue(webpage, WrapperPersonCredits.class);
+            WrapperPersonCredits wrapper = requestWebPage(apiUrl, WrapperPersonCredits.class);
             TmdbResultsList<PersonCredit> results = new TmdbResultsList<PersonCredit>(wrapper.getAll());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get person credits: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get person credits", url, ex);
         }
     }
 
@@ -1361,21 +2097,20 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Artwork> getPersonImages(int personId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_PERSON, URL_IMAGES);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_PERSON_IMAGES);
 
         apiUrl.addArgument(PARAM_ID, personId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperImages wrapper = mapper.readValue(webpage, WrapperImages.class);
+            WrapperImages wrapper = requestWebPage(apiUrl, WrapperImages.class);
             TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll(ArtworkType.PROFILE));
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get person images: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get person images", url, ex);
         }
     }
 
@@ -1423,23 +2158,22 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Person> getPersonPopular(int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_PERSON, "/popular");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_PERSON_POPULAR);
 
         if (page > 0) {
             apiUrl.addArgument(PARAM_PAGE, page);
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperPersonList wrapper = mapper.readValue(webpage, WrapperPersonList.class);
+            WrapperPersonList wrapper = requestWebPage(apiUrl, WrapperPersonList.class);
             TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getPersonList());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get popular person: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get popular person", url, ex);
         }
     }
 
@@ -1450,15 +2184,14 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public Person getPersonLatest() throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_PERSON, "/latest");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_PERSON_LATEST);
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, Person.class);
+            return requestWebPage(apiUrl, Person.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get latest person: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get latest person", url, ex);
         }
     }
     //</editor-fold>
@@ -1473,18 +2206,43 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public Company getCompanyInfo(int companyId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_COMPANY);
+        Company company = readCatalog(RecordType.COMPANY, companyId);
+        if (company != null) {
+            return company;
+        }
+        return requestCompanyInfo(companyId, false);
+    }
+
+    /**
+     * Get the company information from the server, ignoring the catalog store
+     * and the response cache, and update the catalog store with it.
+     *
+     * @see #getCompanyInfo(int)
+     * @param companyId
+     * @return
+     * @throws MovieDbException
+     */
+    public Company refreshCompanyInfo(int companyId) throws MovieDbException {
+        return requestCompanyInfo(companyId, true);
+    }
+
+    private Company requestCompanyInfo(int companyId, boolean refresh) throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_COMPANY);
 
         apiUrl.addArgument(PARAM_ID, companyId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
+        if (refresh) {
+            expireResponse(apiUrl);
+        }
 
         try {
-            return mapper.readValue(webpage, Company.class);
+            Company company = requestWebPage(apiUrl, Company.class);
+            writeCatalog(RecordType.COMPANY, companyId, company);
+            return company;
         } catch (IOException ex) {
             LOG.warn("Failed to get company information: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get company information", url, ex);
         }
     }
 
@@ -1503,7 +2261,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getCompanyMovies(int companyId, String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_COMPANY, URL_MOVIES);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_COMPANY_MOVIES);
 
         apiUrl.addArgument(PARAM_ID, companyId);
 
@@ -1516,16 +2274,15 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperCompanyMovies wrapper = mapper.readValue(webpage, WrapperCompanyMovies.class);
+            WrapperCompanyMovies wrapper = requestWebPage(apiUrl, WrapperCompanyMovies.class);
             TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getResults());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get company movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get company movies", url, ex);
         }
     }
     //</editor-fold>
@@ -1541,20 +2298,19 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Genre> getGenreList(String language) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_GENRE, "/list");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_GENRE_LIST);
         apiUrl.addArgument(PARAM_LANGUAGE, language);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperGenres wrapper = mapper.readValue(webpage, WrapperGenres.class);
+            WrapperGenres wrapper = requestWebPage(apiUrl, WrapperGenres.class);
             TmdbResultsList<Genre> results = new TmdbResultsList<Genre>(wrapper.getGenres());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get genre list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get genre list", url, ex);
         }
     }
 
@@ -1575,7 +2331,37 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getGenreMovies(int genreId, String language, int page, boolean includeAllMovies) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_GENRE, URL_MOVIES);
+        ApiUrl apiUrl = buildGenreMoviesRequest(genreId, language, page, includeAllMovies);
+        URL url = apiUrl.buildUrl();
+
+        try {
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
+            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+            results.copyWrapper(wrapper);
+            return results;
+        } catch (IOException ex) {
+            LOG.warn("Failed to get genre movie list: {}", ex.getMessage(), ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get genre movie list", url, ex);
+        }
+    }
+
+    /**
+     * Get a list of movies per genre as columns.
+     *
+     * @see #getGenreMovies(int, String, int, boolean)
+     * @param genreId
+     * @param language
+     * @param page
+     * @param includeAllMovies
+     * @return
+     * @throws MovieDbException
+     */
+    public MovieColumns getGenreMovieColumns(int genreId, String language, int page, boolean includeAllMovies) throws MovieDbException {
+        return requestMovieColumns(buildGenreMoviesRequest(genreId, language, page, includeAllMovies), "genre movie list");
+    }
+
+    private ApiUrl buildGenreMoviesRequest(int genreId, String language, int page, boolean includeAllMovies) {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_GENRE_MOVIES);
         apiUrl.addArgument(PARAM_ID, genreId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -1588,18 +2374,7 @@ public class TheMovieDbApi {
 
         apiUrl.addArgument(PARAM_INCLUDE_ALL_MOVIES, includeAllMovies);
 
-        URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get genre movie list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return apiUrl;
     }
     //</editor-fold>
 
@@ -1619,7 +2394,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> searchMovie(String movieName, int searchYear, String language, boolean includeAdult, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_SEARCH, "movie");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_SEARCH_MOVIE);
         if (StringUtils.isNotBlank(movieName)) {
             apiUrl.addArgument(PARAM_QUERY, movieName);
         }
@@ -1640,15 +2415,14 @@ public class TheMovieDbApi {
 
         URL url = apiUrl.buildUrl();
 
-        String webpage = requestWebPage(url);
         try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
             TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to find movie: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to find movie", url, ex);
         }
 
     }
@@ -1663,7 +2437,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Collection> searchCollection(String query, String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_SEARCH, "collection");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_SEARCH_COLLECTION);
 
         if (StringUtils.isNotBlank(query)) {
             apiUrl.addArgument(PARAM_QUERY, query);
@@ -1679,15 +2453,14 @@ public class TheMovieDbApi {
 
         URL url = apiUrl.buildUrl();
 
-        String webpage = requestWebPage(url);
         try {
-            WrapperCollection wrapper = mapper.readValue(webpage, WrapperCollection.class);
+            WrapperCollection wrapper = requestWebPage(apiUrl, WrapperCollection.class);
             TmdbResultsList<Collection> results = new TmdbResultsList<Collection>(wrapper.getResults());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to find collection: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to find collection", url, ex);
         }
     }
 
@@ -1704,7 +2477,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Person> searchPeople(String personName, boolean includeAdult, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_SEARCH, "person");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_SEARCH_PERSON);
         apiUrl.addArgument(PARAM_QUERY, personName);
         apiUrl.addArgument(PARAM_ADULT, includeAdult);
 
@@ -1713,16 +2486,15 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperPerson wrapper = mapper.readValue(webpage, WrapperPerson.class);
+            WrapperPerson wrapper = requestWebPage(apiUrl, WrapperPerson.class);
             TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getResults());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to find person: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to find person", url, ex);
         }
     }
 
@@ -1736,7 +2508,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieList> searchList(String query, String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_SEARCH, "list");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_SEARCH_LIST);
 
         if (StringUtils.isNotBlank(query)) {
             apiUrl.addArgument(PARAM_QUERY, query);
@@ -1752,15 +2524,14 @@ public class TheMovieDbApi {
 
         URL url = apiUrl.buildUrl();
 
-        String webpage = requestWebPage(url);
         try {
-            WrapperMovieList wrapper = mapper.readValue(webpage, WrapperMovieList.class);
+            WrapperMovieList wrapper = requestWebPage(apiUrl, WrapperMovieList.class);
             TmdbResultsList<MovieList> results = new TmdbResultsList<MovieList>(wrapper.getMovieList());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to find list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to find list", url, ex);
         }
     }
 
@@ -1778,7 +2549,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Company> searchCompanies(String companyName, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_SEARCH, "company");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_SEARCH_COMPANY);
         apiUrl.addArgument(PARAM_QUERY, companyName);
 
         if (page > 0) {
@@ -1786,15 +2557,14 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
         try {
-            WrapperCompany wrapper = mapper.readValue(webpage, WrapperCompany.class);
+            WrapperCompany wrapper = requestWebPage(apiUrl, WrapperCompany.class);
             TmdbResultsList<Company> results = new TmdbResultsList<Company>(wrapper.getResults());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to find company: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to find company", url, ex);
         }
     }
 
@@ -1807,7 +2577,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<Keyword> searchKeyword(String query, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_SEARCH, "keyword");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_SEARCH_KEYWORD);
 
         if (StringUtils.isNotBlank(query)) {
             apiUrl.addArgument(PARAM_QUERY, query);
@@ -1819,15 +2589,14 @@ public class TheMovieDbApi {
 
         URL url = apiUrl.buildUrl();
 
-        String webpage = requestWebPage(url);
         try {
-            WrapperKeywords wrapper = mapper.readValue(webpage, WrapperKeywords.class);
+            WrapperKeywords wrapper = requestWebPage(apiUrl, WrapperKeywords.class);
             TmdbResultsList<Keyword> results = new TmdbResultsList<Keyword>(wrapper.getResults());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to find keyword: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to find keyword", url, ex);
         }
     }
     //</editor-fold>
@@ -1841,17 +2610,16 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public MovieDbList getList(String listId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_LIST);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_LIST);
         apiUrl.addArgument(PARAM_ID, listId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, MovieDbList.class);
+            return requestWebPage(apiUrl, MovieDbList.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get list", url, ex);
         }
     }
 
@@ -1864,17 +2632,17 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public List<MovieDbList> getUserLists(String sessionId, int accountID) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_ACCOUNT, accountID + "/lists");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_ACCOUNT_LISTS);
+        apiUrl.addArgument(PARAM_ID, accountID);
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, WrapperMovieDbList.class).getLists();
+            return requestWebPage(apiUrl, WrapperMovieDbList.class).getLists();
         } catch (IOException ex) {
             LOG.warn("Failed to get user list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get user list", url, ex);
         }
     }
 
@@ -1888,23 +2656,22 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public String createList(String sessionId, String name, String description) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, "list");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_LIST_CREATE);
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         Map<String, String> body = new HashMap<String, String>();
         body.put("name", StringUtils.trimToEmpty(name));
         body.put("description", StringUtils.trimToEmpty(description));
 
-        String jsonBody = convertToJson(body);
+        String jsonBody = toJson(body);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url, jsonBody);
 
         try {
-            return mapper.readValue(webpage, MovieDbListStatus.class).getListId();
+            return requestWebPage(apiUrl, jsonBody, MovieDbListStatus.class).getListId();
         } catch (IOException ex) {
             LOG.warn("Failed to create list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to create list", url, ex);
         }
     }
 
@@ -1917,17 +2684,17 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public boolean isMovieOnList(String listId, Integer movieId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_LIST, listId + "/item_status");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_LIST_ITEM_STATUS);
+        apiUrl.addArgument(PARAM_ID, listId);
         apiUrl.addArgument(MOVIE_ID, movieId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, ListItemStatus.class).isItemPresent();
+            return requestWebPage(apiUrl, ListItemStatus.class).isItemPresent();
         } catch (IOException ex) {
             LOG.warn("Failed to get item status: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get item status", url, ex);
         }
     }
 
@@ -1942,7 +2709,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public StatusCode addMovieToList(String sessionId, String listId, Integer movieId) throws MovieDbException {
-        return modifyMovieList(sessionId, listId, movieId, "/add_item");
+        return modifyMovieList(sessionId, listId, movieId, URL_LIST_ADD_ITEM);
     }
 
     /**
@@ -1956,24 +2723,24 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public StatusCode removeMovieFromList(String sessionId, String listId, Integer movieId) throws MovieDbException {
-        return modifyMovieList(sessionId, listId, movieId, "/remove_item");
+        return modifyMovieList(sessionId, listId, movieId, URL_LIST_REMOVE_ITEM);
     }
 
-    private StatusCode modifyMovieList(String sessionId, String listId, Integer movieId, String operation) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_LIST, listId + operation);
+    private StatusCode modifyMovieList(String sessionId, String listId, Integer movieId, UrlTemplate operation) throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, operation);
+        apiUrl.addArgument(PARAM_ID, listId);
 
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
-        String jsonBody = convertToJson(Collections.singletonMap("media_id", movieId + ""));
+        String jsonBody = toJson(Collections.singletonMap("media_id", movieId + ""));
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url, jsonBody);
 
         try {
-            return mapper.readValue(webpage, StatusCode.class);
+            return requestWebPage(apiUrl, jsonBody, StatusCode.class);
         } catch (IOException ex) {
             LOG.warn("Failed to remove movie from list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to remove movie from list", url, ex);
         }
     }
 
@@ -1986,17 +2753,17 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public List<MovieDb> getWatchList(String sessionId, int accountId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_ACCOUNT, accountId + "/movie_watchlist");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_ACCOUNT_WATCHLIST);
+        apiUrl.addArgument(PARAM_ID, accountId);
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, WrapperMovie.class).getMovies();
+            return requestWebPage(apiUrl, WrapperMovie.class).getMovies();
         } catch (IOException ex) {
             LOG.warn("Failed to get watch list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get watch list", url, ex);
         }
     }
 
@@ -2010,18 +2777,18 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public StatusCode deleteMovieList(String sessionId, String listId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_LIST, listId);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_LIST);
+        apiUrl.addArgument(PARAM_ID, listId);
 
         apiUrl.addArgument(PARAM_SESSION, sessionId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url, null, true);
 
         try {
-            return mapper.readValue(webpage, StatusCode.class);
+            return requestWebPage(apiUrl, null, true, StatusCode.class);
         } catch (IOException ex) {
             LOG.warn("Failed to delete movie list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to delete movie list", url, ex);
         }
     }
     //</editor-fold>
@@ -2035,17 +2802,16 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public Keyword getKeyword(String keywordId) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_KEYWORD);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_KEYWORD);
         apiUrl.addArgument(PARAM_ID, keywordId);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            return mapper.readValue(webpage, Keyword.class);
+            return requestWebPage(apiUrl, Keyword.class);
         } catch (IOException ex) {
             LOG.warn("Failed to get keyword: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get keyword", url, ex);
         }
 
     }
@@ -2060,7 +2826,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<KeywordMovie> getKeywordMovies(String keywordId, String language, int page) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_KEYWORD, URL_MOVIES);
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_KEYWORD_MOVIES);
         apiUrl.addArgument(PARAM_ID, keywordId);
 
         if (StringUtils.isNotBlank(language)) {
@@ -2072,16 +2838,15 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperKeywordMovies wrapper = mapper.readValue(webpage, WrapperKeywordMovies.class);
+            WrapperKeywordMovies wrapper = requestWebPage(apiUrl, WrapperKeywordMovies.class);
             TmdbResultsList<KeywordMovie> results = new TmdbResultsList<KeywordMovie>(wrapper.getResults());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get keyword movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get keyword movies", url, ex);
         }
 
     }
@@ -2103,7 +2868,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<ChangedMovie> getMovieChangesList(int page, String startDate, String endDate) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_MOVIE, "/changes");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_MOVIE_CHANGES);
 
         if (page > 0) {
             apiUrl.addArgument(PARAM_PAGE, page);
@@ -2118,16 +2883,15 @@ public class TheMovieDbApi {
         }
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
         try {
-            WrapperMovieChanges wrapper = mapper.readValue(webpage, WrapperMovieChanges.class);
+            WrapperMovieChanges wrapper = requestWebPage(apiUrl, WrapperMovieChanges.class);
 
             TmdbResultsList<ChangedMovie> results = new TmdbResultsList<ChangedMovie>(wrapper.getResults());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get movie changes: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get movie changes", url, ex);
         }
     }
 
@@ -2139,19 +2903,18 @@ public class TheMovieDbApi {
 
     //<editor-fold defaultstate="collapsed" desc="Jobs">
     public TmdbResultsList<JobDepartment> getJobs() throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_JOB, "/list");
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_JOB_LIST);
 
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperJobList wrapper = mapper.readValue(webpage, WrapperJobList.class);
+            WrapperJobList wrapper = requestWebPage(apiUrl, WrapperJobList.class);
             TmdbResultsList<JobDepartment> results = new TmdbResultsList<JobDepartment>(wrapper.getJobs());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get job list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get job list", url, ex);
         }
     }
     //</editor-fold>
@@ -2229,23 +2992,59 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TmdbResultsList<MovieDb> getDiscover(Discover discover) throws MovieDbException {
-        ApiUrl apiUrl = new ApiUrl(apiKey, BASE_DISCOVER, "/movie");
+        return getDiscover(discover, 0);
+    }
+
+    /**
+     * Discover movies, getting a page of the results.
+     *
+     * The page replaces any page set in the discover object, which is not
+     * changed, so the same object can be used to request several pages at
+     * once.
+     *
+     * @param discover A discover object containing the search criteria required
+     * @param page The page, or 0 to use the page of the discover object
+     * @return
+     * @throws MovieDbException
+     */
+    public TmdbResultsList<MovieDb> getDiscover(Discover discover, int page) throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_DISCOVER_MOVIE);
 
         apiUrl.setArguments(discover.getParams());
 
+        if (page > 0) {
+            apiUrl.addArgument(PARAM_PAGE, page);
+        }
+
         URL url = apiUrl.buildUrl();
-        String webpage = requestWebPage(url);
 
         try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
+            WrapperMovie wrapper = requestWebPage(apiUrl, WrapperMovie.class);
             TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
             results.copyWrapper(wrapper);
             return results;
         } catch (IOException ex) {
             LOG.warn("Failed to get discover list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, webpage, url, ex);
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED, "Failed to get discover list", url, ex);
         }
     }
+
+    /**
+     * Discover movies, returning the results as columns.
+     *
+     * This suits jobs that read a large number of pages, the pages can be
+     * added together with {@link MovieColumns#addAll(MovieColumns)}.
+     *
+     * @see #getDiscover(Discover)
+     * @param discover A discover object containing the search criteria required
+     * @return
+     * @throws MovieDbException
+     */
+    public MovieColumns getDiscoverColumns(Discover discover) throws MovieDbException {
+        ApiUrl apiUrl = new ApiUrl(apiKey, URL_DISCOVER_MOVIE);
+        apiUrl.setArguments(discover.getParams());
+        return requestMovieColumns(apiUrl, "discover list");
+    }
     //</editor-fold>
 
     /**
@@ -2257,8 +3056,23 @@ public class TheMovieDbApi {
      */
     public static String convertToJson(Map<String, ?> map) throws MovieDbException {
         try {
-            return mapper.writeValueAsString(map);
-        } catch (JsonProcessingException jpe) {
+            return DefaultMapper.INSTANCE.writeValueAsString(map);
+        } catch (IOException jpe) {
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.MAPPING_FAILED, "JSON conversion failed", "", jpe);
+        }
+    }
+
+    /**
+     * Convert the map to a JSON string with the mapper of this API.
+     *
+     * @param map
+     * @return
+     * @throws MovieDbException
+     */
+    private String toJson(Map<String, ?> map) throws MovieDbException {
+        try {
+            return getJsonMapper().writeValueAsString(map);
+        } catch (IOException jpe) {
             throw new MovieDbException(MovieDbException.MovieDbExceptionType.MAPPING_FAILED, "JSON conversion failed", "", jpe);
         }
     }
@@ -0,0 +1,1126 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import com.omertron.themoviedbapi.MovieDbException.MovieDbExceptionType;
+import com.omertron.themoviedbapi.model.*;
+import com.omertron.themoviedbapi.results.BatchCallback;
+import com.omertron.themoviedbapi.results.BatchResults;
+import com.omertron.themoviedbapi.results.PageFetcher;
+import com.omertron.themoviedbapi.results.PagedResults;
+import com.omertron.themoviedbapi.results.TmdbResultsList;
+import com.omertron.themoviedbapi.results.TmdbResultsMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous version of the MovieDb API.
+ *
+ * Each method submits the call to the {@link TheMovieDbApi} on a bounded
+ * executor and returns a Future for the result. Any MovieDbException thrown by
+ * the call will be the cause of the ExecutionException thrown by
+ * {@link Future#get()}.
+ *
+ * When the queue of the default executor is full the call is run on the
+ * calling thread, which slows down callers rather than rejecting the request.
+ *
+ * @author Stuart
+ */
+public class TheMovieDbAsyncApi {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TheMovieDbAsyncApi.class);
+    private static final int DEFAULT_THREADS = 8;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+    private static final long THREAD_KEEP_ALIVE = 60L;
+    private final TheMovieDbApi api;
+    private final ExecutorService executor;
+
+    /**
+     * Create the asynchronous API with the default executor
+     *
+     * @param api
+     */
+    public TheMovieDbAsyncApi(TheMovieDbApi api) {
+        this(api, DEFAULT_THREADS, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Create the asynchronous API with a bounded executor
+     *
+     * @param api
+     * @param threads The maximum number of calls that will run at once
+     * @param queueSize The maximum number of calls that can wait to be run
+     */
+    public TheMovieDbAsyncApi(TheMovieDbApi api, int threads, int queueSize) {
+        this(api, createExecutor(threads, queueSize));
+    }
+
+    /**
+     * Create the asynchronous API using the provided executor
+     *
+     * @param api
+     * @param executor
+     */
+    public TheMovieDbAsyncApi(TheMovieDbApi api, ExecutorService executor) {
+        this.api = api;
+        this.executor = executor;
+    }
+
+    private static ExecutorService createExecutor(int threads, int queueSize) {
+        ThreadPoolExecutor tpe = new ThreadPoolExecutor(threads, threads,
+                THREAD_KEEP_ALIVE, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(queueSize),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "TheMovieDb-Async-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        tpe.allowCoreThreadTimeOut(true);
+        return tpe;
+    }
+
+    /**
+     * Get the synchronous API that the calls are made with
+     *
+     * @return
+     */
+    public TheMovieDbApi getApi() {
+        return api;
+    }
+
+    /**
+     * Get the executor the calls are run on
+     *
+     * @return
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Stop accepting new calls. Calls already submitted will still complete.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @see TheMovieDbApi#getAuthorisationToken()
+     */
+    public Future<TokenAuthorisation> getAuthorisationToken() {
+        return executor.submit(new Callable<TokenAuthorisation>() {
+            @Override
+            public TokenAuthorisation call() throws MovieDbException {
+                return api.getAuthorisationToken();
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getSessionToken(TokenAuthorisation)
+     */
+    public Future<TokenSession> getSessionToken(final TokenAuthorisation token) {
+        return executor.submit(new Callable<TokenSession>() {
+            @Override
+            public TokenSession call() throws MovieDbException {
+                return api.getSessionToken(token);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getGuestSessionToken()
+     */
+    public Future<TokenSession> getGuestSessionToken() {
+        return executor.submit(new Callable<TokenSession>() {
+            @Override
+            public TokenSession call() throws MovieDbException {
+                return api.getGuestSessionToken();
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getAccount(String)
+     */
+    public Future<Account> getAccount(final String sessionId) {
+        return executor.submit(new Callable<Account>() {
+            @Override
+            public Account call() throws MovieDbException {
+                return api.getAccount(sessionId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getFavoriteMovies(String, int)
+     */
+    public Future<List<MovieDb>> getFavoriteMovies(final String sessionId, final int accountId) {
+        return executor.submit(new Callable<List<MovieDb>>() {
+            @Override
+            public List<MovieDb> call() throws MovieDbException {
+                return api.getFavoriteMovies(sessionId, accountId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#changeFavoriteStatus(String, int, Integer, boolean)
+     */
+    public Future<StatusCode> changeFavoriteStatus(final String sessionId, final int accountId, final Integer movieId, final boolean isFavorite) {
+        return executor.submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.changeFavoriteStatus(sessionId, accountId, movieId, isFavorite);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#addToWatchList(String, int, Integer)
+     */
+    public Future<StatusCode> addToWatchList(final String sessionId, final int accountId, final Integer movieId) {
+        return executor.submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.addToWatchList(sessionId, accountId, movieId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#removeFromWatchList(String, int, Integer)
+     */
+    public Future<StatusCode> removeFromWatchList(final String sessionId, final int accountId, final Integer movieId) {
+        return executor.submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.removeFromWatchList(sessionId, accountId, movieId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieInfo(int, String, String...)
+     */
+    public Future<MovieDb> getMovieInfo(final int movieId, final String language, final String... appendToResponse) {
+        return executor.submit(new Callable<MovieDb>() {
+            @Override
+            public MovieDb call() throws MovieDbException {
+                return api.getMovieInfo(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Get the information for many movies.
+     *
+     * @see #getMovieInfoBatch(int[], int, BatchCallback, String, String...)
+     * @param movieIds
+     * @param parallelism The maximum number of requests to make at once
+     * @param language
+     * @param appendToResponse
+     * @return The movies and the failures, keyed by ID
+     * @throws MovieDbException If interrupted
+     */
+    public BatchResults<MovieDb> getMovieInfoBatch(int[] movieIds, int parallelism, String language, String... appendToResponse) throws MovieDbException {
+        return getMovieInfoBatch(movieIds, parallelism, null, language, appendToResponse);
+    }
+
+    /**
+     * Get the information for many movies, passing each movie to the callback
+     * as it is read.
+     *
+     * The requests are run on the executor, no more than the parallelism at
+     * once, and they all count towards the rate limit of the API. A movie that
+     * fails does not stop the others, its exception is recorded in the
+     * results. When there is a callback the movies are not kept in the
+     * results, so the whole batch is never held in memory.
+     *
+     * This waits until all the movies have been read.
+     *
+     * @param movieIds
+     * @param parallelism The maximum number of requests to make at once
+     * @param callback Receives each movie or failure, or null to keep the
+     * movies in the results
+     * @param language
+     * @param appendToResponse
+     * @return The failures, and the movies if there is no callback
+     * @throws MovieDbException If interrupted
+     */
+    public BatchResults<MovieDb> getMovieInfoBatch(int[] movieIds, int parallelism, BatchCallback<MovieDb> callback,
+            final String language, final String... appendToResponse) throws MovieDbException {
+        return runBatch(movieIds, parallelism, callback, new BatchRequest<MovieDb>() {
+            @Override
+            public MovieDb get(int id) throws MovieDbException {
+                return api.getMovieInfo(id, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Get the information for many movies from the server, ignoring the
+     * catalog store and updating it with the movies.
+     *
+     * @see #getMovieInfoBatch(int[], int, BatchCallback, String, String...)
+     * @see TheMovieDbApi#refreshMovieInfo(int, String, String...)
+     * @param movieIds
+     * @param parallelism The maximum number of requests to make at once
+     * @param callback Receives each movie or failure, or null to keep the
+     * movies in the results
+     * @param language
+     * @param appendToResponse
+     * @return The failures, and the movies if there is no callback
+     * @throws MovieDbException If interrupted
+     */
+    public BatchResults<MovieDb> refreshMovieInfoBatch(int[] movieIds, int parallelism, BatchCallback<MovieDb> callback,
+            final String language, final String... appendToResponse) throws MovieDbException {
+        return runBatch(movieIds, parallelism, callback, new BatchRequest<MovieDb>() {
+            @Override
+            public MovieDb get(int id) throws MovieDbException {
+                return api.refreshMovieInfo(id, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Get the changes for many movies.
+     *
+     * @see #getMovieInfoBatch(int[], int, BatchCallback, String, String...)
+     * @see TheMovieDbApi#getMovieChanges(int, String, String)
+     * @param movieIds
+     * @param parallelism The maximum number of requests to make at once
+     * @param callback Receives each change set or failure, or null to keep
+     * the change sets in the results
+     * @param startDate
+     * @param endDate
+     * @return The failures, and the change sets if there is no callback
+     * @throws MovieDbException If interrupted
+     */
+    public BatchResults<TmdbResultsMap<String, List<ChangedItem>>> getMovieChangesBatch(int[] movieIds, int parallelism,
+            BatchCallback<TmdbResultsMap<String, List<ChangedItem>>> callback, final String startDate, final String endDate) throws MovieDbException {
+        return runBatch(movieIds, parallelism, callback, new BatchRequest<TmdbResultsMap<String, List<ChangedItem>>>() {
+            @Override
+            public TmdbResultsMap<String, List<ChangedItem>> get(int id) throws MovieDbException {
+                return api.getMovieChanges(id, startDate, endDate);
+            }
+        });
+    }
+
+    /**
+     * A request for one ID of a batch
+     */
+    private interface BatchRequest<T> {
+
+        T get(int id) throws MovieDbException;
+    }
+
+    /**
+     * Run the request for each ID on the executor, with no more than the
+     * parallelism running at once, and wait for them to complete
+     */
+    private <T> BatchResults<T> runBatch(int[] ids, int parallelism, final BatchCallback<T> callback, final BatchRequest<T> request) throws MovieDbException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+
+        final BatchResults<T> results = new BatchResults<T>(callback == null);
+        final Semaphore permits = new Semaphore(parallelism);
+        try {
+            for (final int id : ids) {
+                permits.acquire();
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                T result;
+                                try {
+                                    result = request.get(id);
+                                } catch (MovieDbException ex) {
+                                    failed(id, ex);
+                                    return;
+                                } catch (RuntimeException ex) {
+                                    failed(id, new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, ex.getMessage(), (String) null, ex));
+                                    return;
+                                }
+
+                                results.addResult(id, result);
+                                if (callback != null) {
+                                    try {
+                                        callback.onSuccess(id, result);
+                                    } catch (RuntimeException ex) {
+                                        // The request succeeded, so an error in the callback is not a failure of the ID
+                                        LOG.warn("Batch callback failed for ID {}: {}", id, ex.getMessage(), ex);
+                                    }
+                                }
+                            } finally {
+                                permits.release();
+                            }
+                        }
+
+                        private void failed(int id, MovieDbException ex) {
+                            results.addFailure(id, ex);
+                            if (callback != null) {
+                                try {
+                                    callback.onFailure(id, ex);
+                                } catch (RuntimeException cbEx) {
+                                    LOG.warn("Batch callback failed for ID {}: {}", id, cbEx.getMessage(), cbEx);
+                                }
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    permits.release();
+                    results.addFailure(id, new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Request was rejected", (String) null, ex));
+                }
+            }
+
+            // Wait for the requests that are still running
+            permits.acquire(parallelism);
+            permits.release(parallelism);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Interrupted while reading the batch", (String) null, ex);
+        }
+        return results;
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieInfoImdb(String, String, String...)
+     */
+    public Future<MovieDb> getMovieInfoImdb(final String imdbId, final String language, final String... appendToResponse) {
+        return executor.submit(new Callable<MovieDb>() {
+            @Override
+            public MovieDb call() throws MovieDbException {
+                return api.getMovieInfoImdb(imdbId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieAlternativeTitles(int, String, String...)
+     */
+    public Future<TmdbResultsList<AlternativeTitle>> getMovieAlternativeTitles(final int movieId, final String country, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<AlternativeTitle>>() {
+            @Override
+            public TmdbResultsList<AlternativeTitle> call() throws MovieDbException {
+                return api.getMovieAlternativeTitles(movieId, country, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieCasts(int, String...)
+     */
+    public Future<TmdbResultsList<Person>> getMovieCasts(final int movieId, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.getMovieCasts(movieId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieImages(int, String, String...)
+     */
+    public Future<TmdbResultsList<Artwork>> getMovieImages(final int movieId, final String language, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<Artwork>>() {
+            @Override
+            public TmdbResultsList<Artwork> call() throws MovieDbException {
+                return api.getMovieImages(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieKeywords(int, String...)
+     */
+    public Future<TmdbResultsList<Keyword>> getMovieKeywords(final int movieId, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<Keyword>>() {
+            @Override
+            public TmdbResultsList<Keyword> call() throws MovieDbException {
+                return api.getMovieKeywords(movieId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieReleaseInfo(int, String, String...)
+     */
+    public Future<TmdbResultsList<ReleaseInfo>> getMovieReleaseInfo(final int movieId, final String language, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<ReleaseInfo>>() {
+            @Override
+            public TmdbResultsList<ReleaseInfo> call() throws MovieDbException {
+                return api.getMovieReleaseInfo(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieTrailers(int, String, String...)
+     */
+    public Future<TmdbResultsList<Trailer>> getMovieTrailers(final int movieId, final String language, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<Trailer>>() {
+            @Override
+            public TmdbResultsList<Trailer> call() throws MovieDbException {
+                return api.getMovieTrailers(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieTranslations(int, String...)
+     */
+    public Future<TmdbResultsList<Translation>> getMovieTranslations(final int movieId, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<Translation>>() {
+            @Override
+            public TmdbResultsList<Translation> call() throws MovieDbException {
+                return api.getMovieTranslations(movieId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getSimilarMovies(int, String, int, String...)
+     */
+    public Future<TmdbResultsList<MovieDb>> getSimilarMovies(final int movieId, final String language, final int page, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getSimilarMovies(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getReviews(int, String, int, String...)
+     */
+    public Future<TmdbResultsList<Reviews>> getReviews(final int movieId, final String language, final int page, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<Reviews>>() {
+            @Override
+            public TmdbResultsList<Reviews> call() throws MovieDbException {
+                return api.getReviews(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieLists(int, String, int, String...)
+     */
+    public Future<TmdbResultsList<MovieList>> getMovieLists(final int movieId, final String language, final int page, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<MovieList>>() {
+            @Override
+            public TmdbResultsList<MovieList> call() throws MovieDbException {
+                return api.getMovieLists(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieChanges(int, String, String)
+     */
+    public Future<TmdbResultsMap<String, List<ChangedItem>>> getMovieChanges(final int movieId, final String startDate, final String endDate) {
+        return executor.submit(new Callable<TmdbResultsMap<String, List<ChangedItem>>>() {
+            @Override
+            public TmdbResultsMap<String, List<ChangedItem>> call() throws MovieDbException {
+                return api.getMovieChanges(movieId, startDate, endDate);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getLatestMovie()
+     */
+    public Future<MovieDb> getLatestMovie() {
+        return executor.submit(new Callable<MovieDb>() {
+            @Override
+            public MovieDb call() throws MovieDbException {
+                return api.getLatestMovie();
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getUpcoming(String, int)
+     */
+    public Future<TmdbResultsList<MovieDb>> getUpcoming(final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getUpcoming(language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getNowPlayingMovies(String, int)
+     */
+    public Future<TmdbResultsList<MovieDb>> getNowPlayingMovies(final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getNowPlayingMovies(language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getPopularMovieList(String, int)
+     */
+    public Future<TmdbResultsList<MovieDb>> getPopularMovieList(final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getPopularMovieList(language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getTopRatedMovies(String, int)
+     */
+    public Future<TmdbResultsList<MovieDb>> getTopRatedMovies(final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getTopRatedMovies(language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getRatedMovies(String, int)
+     */
+    public Future<List<MovieDb>> getRatedMovies(final String sessionId, final int accountId) {
+        return executor.submit(new Callable<List<MovieDb>>() {
+            @Override
+            public List<MovieDb> call() throws MovieDbException {
+                return api.getRatedMovies(sessionId, accountId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#postMovieRating(String, Integer, Integer)
+     */
+    public Future<Boolean> postMovieRating(final String sessionId, final Integer movieId, final Integer rating) {
+        return executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws MovieDbException {
+                return api.postMovieRating(sessionId, movieId, rating);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getCollectionInfo(int, String)
+     */
+    public Future<CollectionInfo> getCollectionInfo(final int collectionId, final String language) {
+        return executor.submit(new Callable<CollectionInfo>() {
+            @Override
+            public CollectionInfo call() throws MovieDbException {
+                return api.getCollectionInfo(collectionId, language);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getCollectionImages(int, String)
+     */
+    public Future<TmdbResultsList<Artwork>> getCollectionImages(final int collectionId, final String language) {
+        return executor.submit(new Callable<TmdbResultsList<Artwork>>() {
+            @Override
+            public TmdbResultsList<Artwork> call() throws MovieDbException {
+                return api.getCollectionImages(collectionId, language);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getPersonInfo(int, String...)
+     */
+    public Future<Person> getPersonInfo(final int personId, final String... appendToResponse) {
+        return executor.submit(new Callable<Person>() {
+            @Override
+            public Person call() throws MovieDbException {
+                return api.getPersonInfo(personId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getPersonCredits(int, String...)
+     */
+    public Future<TmdbResultsList<PersonCredit>> getPersonCredits(final int personId, final String... appendToResponse) {
+        return executor.submit(new Callable<TmdbResultsList<PersonCredit>>() {
+            @Override
+            public TmdbResultsList<PersonCredit> call() throws MovieDbException {
+                return api.getPersonCredits(personId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getPersonImages(int)
+     */
+    public Future<TmdbResultsList<Artwork>> getPersonImages(final int personId) {
+        return executor.submit(new Callable<TmdbResultsList<Artwork>>() {
+            @Override
+            public TmdbResultsList<Artwork> call() throws MovieDbException {
+                return api.getPersonImages(personId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getPersonPopular()
+     */
+    public Future<TmdbResultsList<Person>> getPersonPopular() {
+        return executor.submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.getPersonPopular();
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getPersonPopular(int)
+     */
+    public Future<TmdbResultsList<Person>> getPersonPopular(final int page) {
+        return executor.submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.getPersonPopular(page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getPersonLatest()
+     */
+    public Future<Person> getPersonLatest() {
+        return executor.submit(new Callable<Person>() {
+            @Override
+            public Person call() throws MovieDbException {
+                return api.getPersonLatest();
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getCompanyInfo(int)
+     */
+    public Future<Company> getCompanyInfo(final int companyId) {
+        return executor.submit(new Callable<Company>() {
+            @Override
+            public Company call() throws MovieDbException {
+                return api.getCompanyInfo(companyId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getCompanyMovies(int, String, int)
+     */
+    public Future<TmdbResultsList<MovieDb>> getCompanyMovies(final int companyId, final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getCompanyMovies(companyId, language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getGenreList(String)
+     */
+    public Future<TmdbResultsList<Genre>> getGenreList(final String language) {
+        return executor.submit(new Callable<TmdbResultsList<Genre>>() {
+            @Override
+            public TmdbResultsList<Genre> call() throws MovieDbException {
+                return api.getGenreList(language);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getGenreMovies(int, String, int, boolean)
+     */
+    public Future<TmdbResultsList<MovieDb>> getGenreMovies(final int genreId, final String language, final int page, final boolean includeAllMovies) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getGenreMovies(genreId, language, page, includeAllMovies);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#searchMovie(String, int, String, boolean, int)
+     */
+    public Future<TmdbResultsList<MovieDb>> searchMovie(final String movieName, final int searchYear, final String language, final boolean includeAdult, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.searchMovie(movieName, searchYear, language, includeAdult, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#searchCollection(String, String, int)
+     */
+    public Future<TmdbResultsList<Collection>> searchCollection(final String query, final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<Collection>>() {
+            @Override
+            public TmdbResultsList<Collection> call() throws MovieDbException {
+                return api.searchCollection(query, language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#searchPeople(String, boolean, int)
+     */
+    public Future<TmdbResultsList<Person>> searchPeople(final String personName, final boolean includeAdult, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.searchPeople(personName, includeAdult, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#searchList(String, String, int)
+     */
+    public Future<TmdbResultsList<MovieList>> searchList(final String query, final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<MovieList>>() {
+            @Override
+            public TmdbResultsList<MovieList> call() throws MovieDbException {
+                return api.searchList(query, language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#searchCompanies(String, int)
+     */
+    public Future<TmdbResultsList<Company>> searchCompanies(final String companyName, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<Company>>() {
+            @Override
+            public TmdbResultsList<Company> call() throws MovieDbException {
+                return api.searchCompanies(companyName, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#searchKeyword(String, int)
+     */
+    public Future<TmdbResultsList<Keyword>> searchKeyword(final String query, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<Keyword>>() {
+            @Override
+            public TmdbResultsList<Keyword> call() throws MovieDbException {
+                return api.searchKeyword(query, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getList(String)
+     */
+    public Future<MovieDbList> getList(final String listId) {
+        return executor.submit(new Callable<MovieDbList>() {
+            @Override
+            public MovieDbList call() throws MovieDbException {
+                return api.getList(listId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getUserLists(String, int)
+     */
+    public Future<List<MovieDbList>> getUserLists(final String sessionId, final int accountID) {
+        return executor.submit(new Callable<List<MovieDbList>>() {
+            @Override
+            public List<MovieDbList> call() throws MovieDbException {
+                return api.getUserLists(sessionId, accountID);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#createList(String, String, String)
+     */
+    public Future<String> createList(final String sessionId, final String name, final String description) {
+        return executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws MovieDbException {
+                return api.createList(sessionId, name, description);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#isMovieOnList(String, Integer)
+     */
+    public Future<Boolean> isMovieOnList(final String listId, final Integer movieId) {
+        return executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws MovieDbException {
+                return api.isMovieOnList(listId, movieId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#addMovieToList(String, String, Integer)
+     */
+    public Future<StatusCode> addMovieToList(final String sessionId, final String listId, final Integer movieId) {
+        return executor.submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.addMovieToList(sessionId, listId, movieId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#removeMovieFromList(String, String, Integer)
+     */
+    public Future<StatusCode> removeMovieFromList(final String sessionId, final String listId, final Integer movieId) {
+        return executor.submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.removeMovieFromList(sessionId, listId, movieId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getWatchList(String, int)
+     */
+    public Future<List<MovieDb>> getWatchList(final String sessionId, final int accountId) {
+        return executor.submit(new Callable<List<MovieDb>>() {
+            @Override
+            public List<MovieDb> call() throws MovieDbException {
+                return api.getWatchList(sessionId, accountId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#deleteMovieList(String, String)
+     */
+    public Future<StatusCode> deleteMovieList(final String sessionId, final String listId) {
+        return executor.submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.deleteMovieList(sessionId, listId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getKeyword(String)
+     */
+    public Future<Keyword> getKeyword(final String keywordId) {
+        return executor.submit(new Callable<Keyword>() {
+            @Override
+            public Keyword call() throws MovieDbException {
+                return api.getKeyword(keywordId);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getKeywordMovies(String, String, int)
+     */
+    public Future<TmdbResultsList<KeywordMovie>> getKeywordMovies(final String keywordId, final String language, final int page) {
+        return executor.submit(new Callable<TmdbResultsList<KeywordMovie>>() {
+            @Override
+            public TmdbResultsList<KeywordMovie> call() throws MovieDbException {
+                return api.getKeywordMovies(keywordId, language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieChangesList(int, String, String)
+     */
+    public Future<TmdbResultsList<ChangedMovie>> getMovieChangesList(final int page, final String startDate, final String endDate) {
+        return executor.submit(new Callable<TmdbResultsList<ChangedMovie>>() {
+            @Override
+            public TmdbResultsList<ChangedMovie> call() throws MovieDbException {
+                return api.getMovieChangesList(page, startDate, endDate);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getJobs()
+     */
+    public Future<TmdbResultsList<JobDepartment>> getJobs() {
+        return executor.submit(new Callable<TmdbResultsList<JobDepartment>>() {
+            @Override
+            public TmdbResultsList<JobDepartment> call() throws MovieDbException {
+                return api.getJobs();
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getDiscover(Discover)
+     */
+    public Future<TmdbResultsList<MovieDb>> getDiscover(final Discover discover) {
+        return executor.submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getDiscover(discover);
+            }
+        });
+    }
+
+    /**
+     * Get all the results of a paged method.
+     *
+     * The pages are requested on the executor, the next pages are requested
+     * while the current page is read. Use {@link PagedResults#withPrefetch(int)}
+     * and {@link PagedResults#withMaxPages(int)} to change the number of pages
+     * requested ahead and the number of pages read.
+     *
+     * {@link PagedResults#getAll(int)} requests the pages in parallel and
+     * combines them into one list instead.
+     *
+     * @param <T>
+     * @param fetcher Gets each page, e.g. by calling the paged method of the
+     * API with the page number
+     * @return
+     */
+    public <T> PagedResults<T> getAllPages(PageFetcher<T> fetcher) {
+        return new PagedResults<T>(fetcher, executor);
+    }
+
+    /**
+     * @see TheMovieDbApi#searchMovie(String, int, String, boolean, int)
+     */
+    public PagedResults<MovieDb> searchMovieAllPages(final String movieName, final int searchYear, final String language, final boolean includeAdult) {
+        return getAllPages(new PageFetcher<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                return api.searchMovie(movieName, searchYear, language, includeAdult, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getSimilarMovies(int, String, int, String...)
+     */
+    public PagedResults<MovieDb> getSimilarMoviesAllPages(final int movieId, final String language, final String... appendToResponse) {
+        return getAllPages(new PageFetcher<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                return api.getSimilarMovies(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getReviews(int, String, int, String...)
+     */
+    public PagedResults<Reviews> getReviewsAllPages(final int movieId, final String language, final String... appendToResponse) {
+        return getAllPages(new PageFetcher<Reviews>() {
+            @Override
+            public TmdbResultsList<Reviews> getPage(int page) throws MovieDbException {
+                return api.getReviews(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getCompanyMovies(int, String, int)
+     */
+    public PagedResults<MovieDb> getCompanyMoviesAllPages(final int companyId, final String language) {
+        return getAllPages(new PageFetcher<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                return api.getCompanyMovies(companyId, language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getKeywordMovies(String, String, int)
+     */
+    public PagedResults<KeywordMovie> getKeywordMoviesAllPages(final String keywordId, final String language) {
+        return getAllPages(new PageFetcher<KeywordMovie>() {
+            @Override
+            public TmdbResultsList<KeywordMovie> getPage(int page) throws MovieDbException {
+                return api.getKeywordMovies(keywordId, language, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getDiscover(Discover, int)
+     */
+    public PagedResults<MovieDb> getDiscoverAllPages(final Discover discover) {
+        return getAllPages(new PageFetcher<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                return api.getDiscover(discover, page);
+            }
+        });
+    }
+
+    /**
+     * @see TheMovieDbApi#getMovieChangesList(int, String, String)
+     */
+    public PagedResults<ChangedMovie> getMovieChangesListAllPages(final String startDate, final String endDate) {
+        return getAllPages(new PageFetcher<ChangedMovie>() {
+            @Override
+            public TmdbResultsList<ChangedMovie> getPage(int page) throws MovieDbException {
+                return api.getMovieChangesList(page, startDate, endDate);
+            }
+        });
+    }
+}
@@ -20,34 +20,28 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.omertron.themoviedbapi.tools.UnknownProperties;
 import java.io.Serializable;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
- * Abstract class to handle any unknown properties by outputting a log message
+ * Abstract class to handle any unknown properties by recording them in the
+ * {@link UnknownProperties} registry
  *
  * @author stuart.boston
  */
 public abstract class AbstractJsonMapping implements Serializable {
 
-    private static final Logger LOG = LoggerFactory.getLogger(AbstractJsonMapping.class);
-
     /**
-     * Handle unknown properties and print a message
+     * Handle unknown properties by recording them in the registry
      *
      * @param key
      * @param value
      */
     @JsonAnySetter
     protected void handleUnknown(String key, Object value) {
-        StringBuilder unknown = new StringBuilder(this.getClass().getSimpleName());
-        unknown.append(": Unknown property='").append(key);
-        unknown.append("' value='").append(value).append("'");
-
-        LOG.trace(unknown.toString());
+        UnknownProperties.record(getClass(), key, value);
     }
 
     @Override
@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import java.io.Serializable;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -51,7 +52,7 @@ public class AlternativeTitle implements Serializable {
 
     // <editor-fold defaultstate="collapsed" desc="Setter methods">
     public void setCountry(String country) {
-        this.country = country;
+        this.country = StringPool.intern(country);
     }
 
     public void setTitle(String title) {
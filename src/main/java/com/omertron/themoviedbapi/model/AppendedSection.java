@@ -0,0 +1,168 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * A section of the response that was added with append_to_response.
+ *
+ * By default the section is mapped with the rest of the response. When the
+ * mapper is created with lazy sections (see
+ * {@link com.omertron.themoviedbapi.tools.LazySectionModule}) the raw JSON of
+ * the section is kept and only mapped the first time that the section is
+ * read, after which the JSON is released.
+ *
+ * @author Stuart
+ * @param <T> The wrapper type of the section
+ */
+public final class AppendedSection<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private T value;
+    // The unmapped section, either the JSON as a byte[] or String, or the tokens in a TokenBuffer
+    private transient Object json;
+    private transient ObjectCodec codec;
+    private transient JavaType type;
+
+    /**
+     * Create a section that has been mapped
+     *
+     * @param value
+     */
+    @JsonCreator
+    public AppendedSection(T value) {
+        this.value = value;
+    }
+
+    /**
+     * Create a section from its tokens that will be mapped when it is first
+     * read
+     *
+     * @param buffer The tokens of the section
+     * @param codec The codec to map the tokens with
+     * @param type The type to map the tokens to
+     */
+    public AppendedSection(TokenBuffer buffer, ObjectCodec codec, JavaType type) {
+        this((Object) buffer, codec, type);
+    }
+
+    /**
+     * Create a section from its UTF-8 encoded JSON that will be mapped when
+     * it is first read
+     *
+     * @param json
+     * @param codec The codec to map the JSON with
+     * @param type The type to map the JSON to
+     */
+    public AppendedSection(byte[] json, ObjectCodec codec, JavaType type) {
+        this((Object) json, codec, type);
+    }
+
+    /**
+     * Create a section from its JSON that will be mapped when it is first
+     * read
+     *
+     * @param json
+     * @param codec The codec to map the JSON with
+     * @param type The type to map the JSON to
+     */
+    public AppendedSection(String json, ObjectCodec codec, JavaType type) {
+        this((Object) json, codec, type);
+    }
+
+    private AppendedSection(Object json, ObjectCodec codec, JavaType type) {
+        this.json = json;
+        this.codec = codec;
+        this.type = type;
+    }
+
+    /**
+     * Create a mapped section
+     *
+     * @param <T>
+     * @param value
+     * @return The section or null if the value is null
+     */
+    public static <T> AppendedSection<T> of(T value) {
+        return value == null ? null : new AppendedSection<T>(value);
+    }
+
+    /**
+     * Get the value of the section, mapping it if needed
+     *
+     * @return
+     * @throws IllegalStateException if the section could not be mapped
+     */
+    public synchronized T get() {
+        if (json != null) {
+            try {
+                JsonParser parser = createParser();
+                value = codec.readValue(parser, type);
+                parser.close();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to map the section to " + type, ex);
+            }
+            json = null;
+            codec = null;
+            type = null;
+        }
+        return value;
+    }
+
+    /**
+     * Has the section been mapped yet
+     *
+     * @return
+     */
+    public synchronized boolean isMapped() {
+        return json == null;
+    }
+
+    private JsonParser createParser() throws IOException {
+        if (json instanceof TokenBuffer) {
+            return ((TokenBuffer) json).asParser(codec);
+        } else if (json instanceof byte[]) {
+            return codec.getFactory().createParser((byte[]) json);
+        }
+        return codec.getFactory().createParser((String) json);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // The codec cannot be serialised, so map the section first
+        get();
+        out.defaultWriteObject();
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (json != null) {
+            return "AppendedSection[unmapped " + type + "]";
+        }
+        return String.valueOf(value);
+    }
+}
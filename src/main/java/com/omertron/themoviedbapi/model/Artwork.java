@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -109,7 +110,7 @@ public class Artwork extends AbstractJsonMapping {
     }
 
     public void setLanguage(String language) {
-        this.language = language;
+        this.language = StringPool.intern(language);
     }
 
     public void setWidth(int width) {
@@ -22,6 +22,7 @@ package com.omertron.themoviedbapi.model;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -69,7 +70,7 @@ public class ChangedItem extends AbstractJsonMapping {
     }
 
     public void setLanguage(String language) {
-        this.language = language;
+        this.language = StringPool.intern(language);
     }
 
     public Object getValue() {
@@ -20,11 +20,17 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonRootName;
+import com.omertron.themoviedbapi.tools.StringPool;
 
 /**
  * @author stuart.boston
  */
 @JsonRootName("genre")
 public class Genre extends AbstractIdName {
-    // Nothing to override from the base class.
+
+    // There are only a few genres, so the names are pooled
+    @Override
+    public void setName(String name) {
+        super.setName(StringPool.intern(name));
+    }
 }
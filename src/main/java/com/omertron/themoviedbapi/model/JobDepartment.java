@@ -21,6 +21,7 @@ package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import com.omertron.themoviedbapi.tools.StringPool;
 import java.util.List;
 
 public class JobDepartment extends AbstractJsonMapping {
@@ -41,7 +42,7 @@ public class JobDepartment extends AbstractJsonMapping {
     }
 
     public void setDepartment(String department) {
-        this.department = department;
+        this.department = StringPool.intern(department);
     }
 
     public void setJobs(List<String> jobs) {
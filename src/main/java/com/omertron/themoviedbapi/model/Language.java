@@ -21,6 +21,7 @@ package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonRootName;
+import com.omertron.themoviedbapi.tools.StringPool;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -48,11 +49,11 @@ public class Language extends AbstractJsonMapping {
     }
 
     public void setIsoCode(String isoCode) {
-        this.isoCode = isoCode;
+        this.isoCode = StringPool.intern(isoCode);
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.name = StringPool.intern(name);
     }
 
     @Override
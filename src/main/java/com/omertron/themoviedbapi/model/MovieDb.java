@@ -19,6 +19,7 @@
  */
 package com.omertron.themoviedbapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.omertron.themoviedbapi.wrapper.*;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -82,27 +83,27 @@ public class MovieDb extends AbstractJsonMapping {
     private int voteCount;
     @JsonProperty("status")
     private String status;
-    // AppendToResponse Properties
+    // AppendToResponse Properties, mapped when first read if the mapper uses lazy sections
     @JsonProperty("alternative_titles")
-    private WrapperAlternativeTitles alternativeTitles;
+    private AppendedSection<WrapperAlternativeTitles> alternativeTitles;
     @JsonProperty("casts")
-    private WrapperMovieCasts casts;
+    private AppendedSection<WrapperMovieCasts> casts;
     @JsonProperty("images")
-    private WrapperImages images;
+    private AppendedSection<WrapperImages> images;
     @JsonProperty("keywords")
-    private WrapperMovieKeywords keywords;
+    private AppendedSection<WrapperMovieKeywords> keywords;
     @JsonProperty("releases")
-    private WrapperReleaseInfo releases;
+    private AppendedSection<WrapperReleaseInfo> releases;
     @JsonProperty("videos")
-    private WrapperTrailers trailers;
+    private AppendedSection<WrapperTrailers> trailers;
     @JsonProperty("translations")
-    private WrapperTranslations translations;
+    private AppendedSection<WrapperTranslations> translations;
     @JsonProperty("similar_movies")
-    private WrapperMovie similarMovies;
+    private AppendedSection<WrapperMovie> similarMovies;
     @JsonProperty("reviews")
-    private WrapperReviews reviews;
+    private AppendedSection<WrapperReviews> reviews;
     @JsonProperty("lists")
-    private WrapperMovieList lists;
+    private AppendedSection<WrapperMovieList> lists;
 
     // <editor-fold defaultstate="collapsed" desc="Getter methods">
     public String getBackdropPath() {
@@ -302,88 +303,165 @@ public class MovieDb extends AbstractJsonMapping {
 
     //<editor-fold defaultstate="collapsed" desc="AppendToResponse Getters">
     public List<AlternativeTitle> getAlternativeTitles() {
-        return alternativeTitles.getTitles();
+        return alternativeTitles.get().getTitles();
     }
 
     public List<PersonCast> getCast() {
-        return casts.getCast();
+        return casts.get().getCast();
     }
 
     public List<PersonCrew> getCrew() {
-        return casts.getCrew();
+        return casts.get().getCrew();
     }
 
     public List<Artwork> getImages() {
-        return images.getAll();
+        return images.get().getAll();
     }
 
     public List<Keyword> getKeywords() {
-        return keywords.getKeywords();
+        return keywords.get().getKeywords();
     }
 
     public List<ReleaseInfo> getReleases() {
-        return releases.getCountries();
+        return releases.get().getCountries();
     }
 
     public List<Trailer> getTrailers() {
-        return trailers.getTrailers();
+        return trailers.get().getTrailers();
     }
 
     public List<Translation> getTranslations() {
-        return translations.getTranslations();
+        return translations.get().getTranslations();
     }
 
     public List<MovieDb> getSimilarMovies() {
-        return similarMovies.getMovies();
+        return similarMovies.get().getMovies();
     }
 
     public List<MovieList> getLists() {
-        return lists.getMovieList();
+        return lists.get().getMovieList();
     }
 
     public List<Reviews> getReviews() {
-        return reviews.getReviews();
+        return reviews.get().getReviews();
     }
     // </editor-fold>
 
+    /**
+     * Check if the section was included in the response
+     *
+     * @param section
+     * @return
+     */
+    public boolean hasSection(MovieSection section) {
+        switch (section) {
+            case ALTERNATIVE_TITLES:
+                return alternativeTitles != null;
+            case CASTS:
+                return casts != null;
+            case IMAGES:
+                return images != null;
+            case KEYWORDS:
+                return keywords != null;
+            case RELEASES:
+                return releases != null;
+            case TRAILERS:
+                return trailers != null;
+            case TRANSLATIONS:
+                return translations != null;
+            default:
+                return false;
+        }
+    }
+
     //<editor-fold defaultstate="collapsed" desc="AppendToResponse Setters">
+    @JsonIgnore
     public void setAlternativeTitles(WrapperAlternativeTitles alternativeTitles) {
+        this.alternativeTitles = AppendedSection.of(alternativeTitles);
+    }
+
+    void setAlternativeTitles(AppendedSection<WrapperAlternativeTitles> alternativeTitles) {
         this.alternativeTitles = alternativeTitles;
     }
 
+    @JsonIgnore
     public void setCasts(WrapperMovieCasts casts) {
+        this.casts = AppendedSection.of(casts);
+    }
+
+    void setCasts(AppendedSection<WrapperMovieCasts> casts) {
         this.casts = casts;
     }
 
+    @JsonIgnore
     public void setImages(WrapperImages images) {
+        this.images = AppendedSection.of(images);
+    }
+
+    void setImages(AppendedSection<WrapperImages> images) {
         this.images = images;
     }
 
+    @JsonIgnore
     public void setKeywords(WrapperMovieKeywords keywords) {
+        this.keywords = AppendedSection.of(keywords);
+    }
+
+    void setKeywords(AppendedSection<WrapperMovieKeywords> keywords) {
         this.keywords = keywords;
     }
 
+    @JsonIgnore
     public void setReleases(WrapperReleaseInfo releases) {
+        this.releases = AppendedSection.of(releases);
+    }
+
+    void setReleases(AppendedSection<WrapperReleaseInfo> releases) {
         this.releases = releases;
     }
 
+    @JsonIgnore
     public void setTrailers(WrapperTrailers trailers) {
+        this.trailers = AppendedSection.of(trailers);
+    }
+
+    void setTrailers(AppendedSection<WrapperTrailers> trailers) {
         this.trailers = trailers;
     }
 
+    @JsonIgnore
     public void setTranslations(WrapperTranslations translations) {
+        this.translations = AppendedSection.of(translations);
+    }
+
+    void setTranslations(AppendedSection<WrapperTranslations> translations) {
         this.translations = translations;
     }
 
+    @JsonIgnore
     public void setSimilarMovies(WrapperMovie similarMovies) {
+        this.similarMovies = AppendedSection.of(similarMovies);
+    }
+
+    void setSimilarMovies(AppendedSection<WrapperMovie> similarMovies) {
         this.similarMovies = similarMovies;
     }
 
+    @JsonIgnore
     public void setLists(WrapperMovieList lists) {
+        this.lists = AppendedSection.of(lists);
+    }
+
+    void setLists(AppendedSection<WrapperMovieList> lists) {
         this.lists = lists;
     }
 
+    @JsonIgnore
     public void setReviews(WrapperReviews reviews) {
+        this.reviews = AppendedSection.of(reviews);
+    }
+
+    void setReviews(AppendedSection<WrapperReviews> reviews) {
         this.reviews = reviews;
     }
     // </editor-fold>
@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import java.util.Collections;
 import java.util.List;
 
@@ -122,7 +123,7 @@ public class MovieDbList extends AbstractJsonMapping {
     }
 
     public void setLanguage(String language) {
-        this.language = language;
+        this.language = StringPool.intern(language);
     }
 
     public void setName(String name) {
@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 
 /**
  * @author Stuart
@@ -94,7 +95,7 @@ public class MovieList extends AbstractJsonMapping {
     }
 
     public void setLanguage(String language) {
-        this.language = language;
+        this.language = StringPool.intern(language);
     }
 
     public void setName(String name) {
@@ -0,0 +1,65 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.model;
+
+/**
+ * The sections of a movie that can be added to the movie information with
+ * append_to_response
+ *
+ * @author Stuart
+ */
+public enum MovieSection {
+
+    ALTERNATIVE_TITLES("alternative_titles"),
+    CASTS("casts"),
+    IMAGES("images"),
+    KEYWORDS("keywords"),
+    RELEASES("releases"),
+    TRAILERS("videos"),
+    TRANSLATIONS("translations");
+    private final String name;
+
+    private MovieSection(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the section used in append_to_response
+     *
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the names of the sections used in append_to_response
+     *
+     * @param sections
+     * @return
+     */
+    public static String[] getNames(MovieSection... sections) {
+        String[] names = new String[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            names[i] = sections[i].getName();
+        }
+        return names;
+    }
+}
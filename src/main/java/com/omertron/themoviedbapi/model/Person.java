@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
@@ -192,7 +193,7 @@ public class Person extends AbstractJsonMapping {
     }
 
     public void setDepartment(String department) {
-        this.department = department;
+        this.department = StringPool.intern(department);
     }
 
     public void setId(int id) {
@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -113,11 +114,11 @@ public class PersonCredit extends AbstractJsonMapping {
     }
 
     public void setDepartment(String department) {
-        this.department = StringUtils.trimToEmpty(department);
+        this.department = StringPool.intern(StringUtils.trimToEmpty(department));
     }
 
     public void setJob(String job) {
-        this.job = StringUtils.trimToEmpty(job);
+        this.job = StringPool.intern(StringUtils.trimToEmpty(job));
     }
 
     public void setMovieId(int movieId) {
@@ -189,6 +190,6 @@ public class PersonCredit extends AbstractJsonMapping {
     }
 
     public void setMediaType(String mediaType) {
-        this.mediaType = mediaType;
+        this.mediaType = StringPool.intern(mediaType);
     }
 }
@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -76,7 +77,7 @@ public class PersonCrew extends AbstractJsonMapping {
     }
 
     public void setDepartment(String department) {
-        this.department = StringUtils.trimToEmpty(department);
+        this.department = StringPool.intern(StringUtils.trimToEmpty(department));
     }
 
     public void setId(int id) {
@@ -84,7 +85,7 @@ public class PersonCrew extends AbstractJsonMapping {
     }
 
     public void setJob(String job) {
-        this.job = StringUtils.trimToEmpty(job);
+        this.job = StringPool.intern(StringUtils.trimToEmpty(job));
     }
 
     public void setName(String name) {
@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -53,11 +54,11 @@ public class ReleaseInfo extends AbstractJsonMapping {
     }
 
     public void setCertification(String certification) {
-        this.certification = certification;
+        this.certification = StringPool.intern(certification);
     }
 
     public void setCountry(String country) {
-        this.country = country;
+        this.country = StringPool.intern(country);
     }
 
     public void setReleaseDate(String releaseDate) {
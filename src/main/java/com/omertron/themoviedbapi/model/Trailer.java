@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -86,7 +87,7 @@ public class Trailer extends AbstractJsonMapping {
     }
 
     public void setSize(String size) {
-        this.size = size;
+        this.size = StringPool.intern(size);
     }
 
     public void setKey(String key) {
@@ -94,15 +95,15 @@ public class Trailer extends AbstractJsonMapping {
     }
 
     public void setSite(String site) {
-        this.site = site;
+        this.site = StringPool.intern(site);
     }
 
     public void setType(String type) {
-        this.type = type;
+        this.type = StringPool.intern(type);
     }
 
     public void setLanguage(String language) {
-        this.language = language;
+        this.language = StringPool.intern(language);
     }
 
     @Override
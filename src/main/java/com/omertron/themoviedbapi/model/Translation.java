@@ -20,6 +20,7 @@
 package com.omertron.themoviedbapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.StringPool;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -55,15 +56,15 @@ public class Translation extends AbstractJsonMapping {
     }
 
     public void setEnglishName(String englishName) {
-        this.englishName = englishName;
+        this.englishName = StringPool.intern(englishName);
     }
 
     public void setIsoCode(String isoCode) {
-        this.isoCode = isoCode;
+        this.isoCode = StringPool.intern(isoCode);
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.name = StringPool.intern(name);
     }
 
     @Override
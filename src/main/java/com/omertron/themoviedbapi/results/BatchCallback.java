@@ -0,0 +1,51 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+
+/**
+ * Receives the results of a batch request as each one completes.
+ *
+ * The methods are called from the threads that make the requests, so they
+ * must be thread safe. An exception thrown by a method is logged and does not
+ * change the result recorded for the ID.
+ *
+ * @author Stuart
+ * @param <T>
+ */
+public interface BatchCallback<T> {
+
+    /**
+     * Called with the result for the ID
+     *
+     * @param id
+     * @param result
+     */
+    void onSuccess(int id, T result);
+
+    /**
+     * Called when the request for the ID failed
+     *
+     * @param id
+     * @param error
+     */
+    void onFailure(int id, MovieDbException error);
+}
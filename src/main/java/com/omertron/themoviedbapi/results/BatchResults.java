@@ -0,0 +1,108 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The results of a batch request, keyed by ID.
+ *
+ * The failures are always kept. The successful results are only kept if
+ * requested, when the results are passed to a {@link BatchCallback} only
+ * the number of results is kept.
+ *
+ * @author Stuart
+ * @param <T>
+ */
+public final class BatchResults<T> {
+
+    private final boolean keepResults;
+    private final ConcurrentMap<Integer, T> results = new ConcurrentHashMap<Integer, T>();
+    private final ConcurrentMap<Integer, MovieDbException> failures = new ConcurrentHashMap<Integer, MovieDbException>();
+    private final AtomicInteger succeeded = new AtomicInteger(0);
+
+    /**
+     * Create the results
+     *
+     * @param keepResults True to keep the successful results, false to only
+     * count them
+     */
+    public BatchResults(boolean keepResults) {
+        this.keepResults = keepResults;
+    }
+
+    public void addResult(int id, T result) {
+        succeeded.incrementAndGet();
+        if (keepResults && result != null) {
+            results.put(id, result);
+        }
+    }
+
+    public void addFailure(int id, MovieDbException error) {
+        failures.put(id, error);
+    }
+
+    /**
+     * Get the successful results, keyed by ID.
+     *
+     * This is empty if the results were passed to a callback.
+     *
+     * @return
+     */
+    public Map<Integer, T> getResults() {
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Get the exception for each ID that failed
+     *
+     * @return
+     */
+    public Map<Integer, MovieDbException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public int getSucceededCount() {
+        return succeeded.get();
+    }
+
+    public int getFailedCount() {
+        return failures.size();
+    }
+
+    /**
+     * Check if all of the requests succeeded
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResults[succeeded=" + succeeded.get() + ",failed=" + failures.size() + "]";
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbException.MovieDbExceptionType;
+import com.omertron.themoviedbapi.model.AlternativeTitle;
+import com.omertron.themoviedbapi.model.Artwork;
+import com.omertron.themoviedbapi.model.Keyword;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.MovieSection;
+import com.omertron.themoviedbapi.model.Person;
+import com.omertron.themoviedbapi.model.ReleaseInfo;
+import com.omertron.themoviedbapi.model.Trailer;
+import com.omertron.themoviedbapi.model.Translation;
+import com.omertron.themoviedbapi.wrapper.WrapperMovieCasts;
+import java.util.List;
+
+/**
+ * A movie that was read with its sections in a single request.
+ *
+ * Each section is returned in the same form as the method that reads the
+ * section on its own, e.g. {@link #getCasts()} returns the same as
+ * {@link com.omertron.themoviedbapi.TheMovieDbApi#getMovieCasts(int, String...)}.
+ *
+ * @author Stuart
+ */
+public final class MovieBundle {
+
+    private final MovieDb movie;
+
+    public MovieBundle(MovieDb movie) {
+        this.movie = movie;
+    }
+
+    public MovieDb getMovie() {
+        return movie;
+    }
+
+    public boolean hasSection(MovieSection section) {
+        return movie.hasSection(section);
+    }
+
+    public TmdbResultsList<AlternativeTitle> getAlternativeTitles() throws MovieDbException {
+        checkSection(MovieSection.ALTERNATIVE_TITLES);
+        return new TmdbResultsList<AlternativeTitle>(movie.getAlternativeTitles());
+    }
+
+    public TmdbResultsList<Person> getCasts() throws MovieDbException {
+        checkSection(MovieSection.CASTS);
+        WrapperMovieCasts wrapper = new WrapperMovieCasts();
+        wrapper.setCast(movie.getCast());
+        wrapper.setCrew(movie.getCrew());
+        return new TmdbResultsList<Person>(wrapper.getAll());
+    }
+
+    public TmdbResultsList<Artwork> getImages() throws MovieDbException {
+        checkSection(MovieSection.IMAGES);
+        return new TmdbResultsList<Artwork>(movie.getImages());
+    }
+
+    public TmdbResultsList<Keyword> getKeywords() throws MovieDbException {
+        checkSection(MovieSection.KEYWORDS);
+        return new TmdbResultsList<Keyword>(movie.getKeywords());
+    }
+
+    public TmdbResultsList<ReleaseInfo> getReleaseInfo() throws MovieDbException {
+        checkSection(MovieSection.RELEASES);
+        return new TmdbResultsList<ReleaseInfo>(movie.getReleases());
+    }
+
+    public TmdbResultsList<Trailer> getTrailers() throws MovieDbException {
+        checkSection(MovieSection.TRAILERS);
+        return new TmdbResultsList<Trailer>(movie.getTrailers());
+    }
+
+    public TmdbResultsList<Translation> getTranslations() throws MovieDbException {
+        checkSection(MovieSection.TRANSLATIONS);
+        return new TmdbResultsList<Translation>(movie.getTranslations());
+    }
+
+    /**
+     * Check that the section was included in the response
+     */
+    private void checkSection(MovieSection section) throws MovieDbException {
+        if (!movie.hasSection(section)) {
+            throw new MovieDbException(MovieDbExceptionType.MAPPING_FAILED,
+                    "Section '" + section.getName() + "' was not returned for movie ID: " + movie.getId(), (String) null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MovieBundle[id=" + movie.getId() + ",title=" + movie.getTitle() + "]";
+    }
+}
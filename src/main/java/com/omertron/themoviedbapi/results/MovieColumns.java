@@ -0,0 +1,371 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.tools.MovieColumnsDeserializer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Movie list results stored as columns.
+ *
+ * Rather than a MovieDb object for each movie, the ID, popularity, votes and
+ * release date are kept in primitive arrays and the titles in a string table
+ * that is shared by all the rows. This takes a fraction of the memory of the
+ * movie objects and the columns can be scanned quickly, which suits jobs that
+ * read a large number of pages.
+ *
+ * The results of several pages can be added together with
+ * {@link #addAll(MovieColumns)}, followed by {@link #trimToSize()} to release
+ * the space that is only needed while adding. The release date is held as a number in the
+ * form yyyymmdd, or 0 if the movie does not have one.
+ *
+ * @author Stuart
+ */
+@JsonDeserialize(using = MovieColumnsDeserializer.class)
+public final class MovieColumns extends AbstractResults implements Iterable<MovieColumns.Row> {
+
+    private static final int DEFAULT_CAPACITY = 20;
+    private static final int NO_STRING = -1;
+    private int size = 0;
+    private int[] ids;
+    private float[] popularity;
+    private float[] voteAverage;
+    private int[] voteCount;
+    private int[] releaseDate;
+    // The index of the titles in the string table
+    private int[] title;
+    private int[] originalTitle;
+    // The shared string table
+    private final ArrayList<String> strings = new ArrayList<String>();
+    // Finds the strings in the table, only kept while movies are being added
+    private Map<String, Integer> stringIndex = null;
+
+    public MovieColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create the columns with space for the number of movies
+     *
+     * @param capacity
+     */
+    public MovieColumns(int capacity) {
+        ids = new int[capacity];
+        popularity = new float[capacity];
+        voteAverage = new float[capacity];
+        voteCount = new int[capacity];
+        releaseDate = new int[capacity];
+        title = new int[capacity];
+        originalTitle = new int[capacity];
+    }
+
+    /**
+     * Add a movie
+     *
+     * @param id
+     * @param title
+     * @param originalTitle
+     * @param popularity
+     * @param voteAverage
+     * @param voteCount
+     * @param releaseDate The date as yyyymmdd, or 0 if there is none
+     */
+    public void add(int id, String title, String originalTitle, float popularity, float voteAverage, int voteCount, int releaseDate) {
+        ensureCapacity(size + 1);
+        this.ids[size] = id;
+        this.title[size] = addString(title);
+        this.originalTitle[size] = addString(originalTitle);
+        this.popularity[size] = popularity;
+        this.voteAverage[size] = voteAverage;
+        this.voteCount[size] = voteCount;
+        this.releaseDate[size] = releaseDate;
+        size++;
+    }
+
+    /**
+     * Add the movies from other results, e.g. the next page
+     *
+     * @param other
+     */
+    public void addAll(MovieColumns other) {
+        // Read once, so adding the results to themselves copies them once
+        int count = other.size;
+        ensureCapacity(size + count);
+        for (int i = 0; i < count; i++) {
+            add(other.ids[i], other.getString(other.title[i]), other.getString(other.originalTitle[i]),
+                    other.popularity[i], other.voteAverage[i], other.voteCount[i], other.releaseDate[i]);
+        }
+        setTotalPages(Math.max(getTotalPages(), other.getTotalPages()));
+        setTotalResults(Math.max(super.getTotalResults(), other.getTotalResults()));
+    }
+
+    /**
+     * Release the unused space in the columns and the index of the string
+     * table.
+     *
+     * The index is built again if more movies are added.
+     */
+    public void trimToSize() {
+        resize(size);
+        strings.trimToSize();
+        stringIndex = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            resize(Math.max(capacity, ids.length * 2));
+        }
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        popularity = Arrays.copyOf(popularity, capacity);
+        voteAverage = Arrays.copyOf(voteAverage, capacity);
+        voteCount = Arrays.copyOf(voteCount, capacity);
+        releaseDate = Arrays.copyOf(releaseDate, capacity);
+        title = Arrays.copyOf(title, capacity);
+        originalTitle = Arrays.copyOf(originalTitle, capacity);
+    }
+
+    private int addString(String value) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        if (stringIndex == null) {
+            stringIndex = new HashMap<String, Integer>();
+            for (int i = 0; i < strings.size(); i++) {
+                stringIndex.put(strings.get(i), i);
+            }
+        }
+
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private String getString(int index) {
+        return index == NO_STRING ? null : strings.get(index);
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Column Getters">
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    public String getTitle(int index) {
+        checkIndex(index);
+        return getString(title[index]);
+    }
+
+    public String getOriginalTitle(int index) {
+        checkIndex(index);
+        return getString(originalTitle[index]);
+    }
+
+    public float getPopularity(int index) {
+        checkIndex(index);
+        return popularity[index];
+    }
+
+    public float getVoteAverage(int index) {
+        checkIndex(index);
+        return voteAverage[index];
+    }
+
+    public int getVoteCount(int index) {
+        checkIndex(index);
+        return voteCount[index];
+    }
+
+    /**
+     * Get the release date of the movie
+     *
+     * @param index
+     * @return The date as yyyymmdd, or 0 if there is none
+     */
+    public int getReleaseDate(int index) {
+        checkIndex(index);
+        return releaseDate[index];
+    }
+    //</editor-fold>
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public int getTotalResults() {
+        if (super.getTotalResults() == 0) {
+            return size;
+        } else {
+            return super.getTotalResults();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MovieColumns[size=" + size + ",strings=" + strings.size() + ",page=" + getPage()
+                + ",totalPages=" + getTotalPages() + ",totalResults=" + getTotalResults() + "]";
+    }
+
+    /**
+     * Get a view of the movie at the index
+     *
+     * @param index
+     * @return
+     */
+    public Row get(int index) {
+        checkIndex(index);
+        Row row = new Row();
+        row.index = index;
+        return row;
+    }
+
+    /**
+     * Iterate over the movies.
+     *
+     * The iterator returns the same row each time, moved to the next movie,
+     * so the row should not be kept. Use {@link #get(int)} for a row that can
+     * be kept.
+     *
+     * @return
+     */
+    @Override
+    public Iterator<Row> iterator() {
+        return new Iterator<Row>() {
+            private final Row row = new Row();
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Row next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                row.index = next++;
+                return row;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Results cannot be removed");
+            }
+        };
+    }
+
+    /**
+     * A view of one movie in the columns
+     */
+    public final class Row {
+
+        private int index;
+
+        private Row() {
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getId() {
+            return ids[index];
+        }
+
+        public String getTitle() {
+            return getString(title[index]);
+        }
+
+        public String getOriginalTitle() {
+            return getString(originalTitle[index]);
+        }
+
+        public float getPopularity() {
+            return popularity[index];
+        }
+
+        public float getVoteAverage() {
+            return voteAverage[index];
+        }
+
+        public int getVoteCount() {
+            return voteCount[index];
+        }
+
+        /**
+         * Get the release date of the movie
+         *
+         * @return The date as yyyymmdd, or 0 if there is none
+         */
+        public int getReleaseDate() {
+            return releaseDate[index];
+        }
+
+        /**
+         * Create a movie with the values of the row
+         *
+         * @return
+         */
+        public MovieDb toMovieDb() {
+            MovieDb movie = new MovieDb();
+            movie.setId(getId());
+            movie.setTitle(getTitle());
+            movie.setOriginalTitle(getOriginalTitle());
+            movie.setPopularity(getPopularity());
+            movie.setVoteAverage(getVoteAverage());
+            movie.setVoteCount(getVoteCount());
+            int date = getReleaseDate();
+            if (date > 0) {
+                movie.setReleaseDate(String.format("%04d-%02d-%02d", date / 10000, date / 100 % 100, date % 100));
+            }
+            return movie;
+        }
+
+        @Override
+        public String toString() {
+            return "Row[id=" + getId() + ",title=" + getTitle() + ",releaseDate=" + getReleaseDate() + "]";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+
+/**
+ * Gets one page of a paged API method, e.g. by calling the method with the
+ * page number.
+ *
+ * Pages may be requested from several threads at once.
+ *
+ * @author Stuart
+ * @param <T>
+ */
+public interface PageFetcher<T> {
+
+    /**
+     * Get the page
+     *
+     * @param page The page number, starting at 1
+     * @return
+     * @throws MovieDbException
+     */
+    TmdbResultsList<T> getPage(int page) throws MovieDbException;
+}
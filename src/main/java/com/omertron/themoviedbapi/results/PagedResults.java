@@ -0,0 +1,385 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbException.MovieDbExceptionType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * All the results of a paged API method.
+ *
+ * The iterator requests the pages as they are needed. While one page is being
+ * read, the next pages (up to the prefetch depth) are requested in the
+ * background so that the time taken by each request is hidden. The number of
+ * pages read can be capped.
+ *
+ * Each call to {@link #iterator()} starts again from the first page. As the
+ * iterator can not throw a MovieDbException, a page that fails is reported
+ * with a {@link PageFetchException}.
+ *
+ * Alternatively {@link #getAll(int)} requests the pages in parallel and
+ * combines them into one list.
+ *
+ * @author Stuart
+ * @param <T>
+ */
+public final class PagedResults<T> implements Iterable<T> {
+
+    public static final int DEFAULT_PREFETCH = 2;
+    private static final int FIRST_PAGE = 1;
+    private final PageFetcher<T> fetcher;
+    private final ExecutorService executor;
+    private final int prefetch;
+    private final int maxPages;
+
+    /**
+     * Iterate over all the pages, prefetching the default number of pages
+     *
+     * @param fetcher Gets each page
+     * @param executor Runs the requests for the pages
+     */
+    public PagedResults(PageFetcher<T> fetcher, ExecutorService executor) {
+        this(fetcher, executor, DEFAULT_PREFETCH, 0);
+    }
+
+    /**
+     * Iterate over the pages
+     *
+     * @param fetcher Gets each page
+     * @param executor Runs the requests for the pages
+     * @param prefetch The number of pages to request ahead of the page being
+     * read, 0 to only request a page when it is needed
+     * @param maxPages The maximum number of pages to read, 0 for all of them
+     */
+    public PagedResults(PageFetcher<T> fetcher, ExecutorService executor, int prefetch, int maxPages) {
+        if (prefetch < 0 || maxPages < 0) {
+            throw new IllegalArgumentException("Prefetch and maximum pages must not be negative");
+        }
+        this.fetcher = fetcher;
+        this.executor = executor;
+        this.prefetch = prefetch;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Get a copy that requests the number of pages ahead of the page being
+     * read
+     *
+     * @param prefetch
+     * @return
+     */
+    public PagedResults<T> withPrefetch(int prefetch) {
+        return new PagedResults<T>(fetcher, executor, prefetch, maxPages);
+    }
+
+    /**
+     * Get a copy that reads no more than the number of pages
+     *
+     * @param maxPages The maximum number of pages, 0 for all of them
+     * @return
+     */
+    public PagedResults<T> withMaxPages(int maxPages) {
+        return new PagedResults<T>(fetcher, executor, prefetch, maxPages);
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    /**
+     * Get the results of all the pages in one list.
+     *
+     * The first page is read to find the number of pages, then the other
+     * pages are requested at the same time, no more than the parallelism at
+     * once. The results are combined in page order. Pages that fail are
+     * recorded in {@link TmdbResultsList#getFailedPages()} and the results of
+     * the other pages are kept.
+     *
+     * @param parallelism The maximum number of pages to request at once
+     * @return
+     * @throws MovieDbException If the first page could not be read
+     */
+    public TmdbResultsList<T> getAll(int parallelism) throws MovieDbException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+
+        TmdbResultsList<T> first = fetcher.getPage(FIRST_PAGE);
+        int lastPage = maxPages > 0 ? Math.min(first.getTotalPages(), maxPages) : first.getTotalPages();
+
+        List<Future<TmdbResultsList<T>>> futures = new ArrayList<Future<TmdbResultsList<T>>>();
+        List<T> results = new ArrayList<T>(first.getResults());
+        TmdbResultsList<T> combined = new TmdbResultsList<T>(null);
+        try {
+            final Semaphore permits = new Semaphore(parallelism);
+            for (int page = FIRST_PAGE + 1; page <= lastPage; page++) {
+                permits.acquire();
+                try {
+                    futures.add(submit(page, permits));
+                } catch (RejectedExecutionException ex) {
+                    permits.release();
+                    futures.add(null);
+                    combined.addFailedPage(page, toMovieDbException(page, ex));
+                }
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                int page = FIRST_PAGE + 1 + i;
+                if (futures.get(i) == null) {
+                    continue;
+                }
+                try {
+                    results.addAll(futures.get(i).get().getResults());
+                } catch (ExecutionException ex) {
+                    combined.addFailedPage(page, toMovieDbException(page, ex.getCause()));
+                } catch (CancellationException ex) {
+                    combined.addFailedPage(page, toMovieDbException(page, ex));
+                }
+            }
+        } catch (InterruptedException ex) {
+            for (Future<TmdbResultsList<T>> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Interrupted while reading the pages", (String) null, ex);
+        }
+
+        combined.setResults(results);
+        combined.setId(first.getId());
+        combined.setPage(FIRST_PAGE);
+        combined.setTotalPages(first.getTotalPages());
+        combined.setTotalResults(first.getTotalResults());
+        return combined;
+    }
+
+    private Future<TmdbResultsList<T>> submit(final int page, final Semaphore permits) {
+        // Release the permit when the task is done, even if it is cancelled before it runs
+        FutureTask<TmdbResultsList<T>> task = new FutureTask<TmdbResultsList<T>>(new Callable<TmdbResultsList<T>>() {
+            @Override
+            public TmdbResultsList<T> call() throws MovieDbException {
+                return fetcher.getPage(page);
+            }
+        }) {
+            @Override
+            protected void done() {
+                permits.release();
+            }
+        };
+        executor.execute(task);
+        return task;
+    }
+
+    private static MovieDbException toMovieDbException(int page, Throwable cause) {
+        if (cause instanceof MovieDbException) {
+            return (MovieDbException) cause;
+        }
+        return new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Failed to get page " + page, (String) null, cause);
+    }
+
+    @Override
+    public PageIterator iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Iterates over the results of the pages.
+     *
+     * If the iteration is stopped early, {@link #close()} cancels the requests
+     * for the pages that have not been read.
+     */
+    public final class PageIterator implements Iterator<T> {
+
+        private final Deque<PendingPage> pending = new ArrayDeque<PendingPage>();
+        private Iterator<T> current = Collections.<T>emptyList().iterator();
+        private int nextPage = FIRST_PAGE;
+        // The last page to request, unknown until the first page has been read
+        private int lastPage = FIRST_PAGE;
+        private int currentPage = 0;
+        private int totalPages = 0;
+        private int totalResults = 0;
+
+        private PageIterator() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (pending.isEmpty()) {
+                    if (nextPage > lastPage) {
+                        return false;
+                    }
+                    requestNext();
+                }
+                TmdbResultsList<T> page = take(pending.removeFirst());
+                if (currentPage == FIRST_PAGE) {
+                    totalPages = page.getTotalPages();
+                    totalResults = page.getTotalResults();
+                    lastPage = maxPages > 0 ? Math.min(totalPages, maxPages) : totalPages;
+                }
+                request();
+                current = page.getResults().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Results cannot be removed");
+        }
+
+        /**
+         * Get the page that the last result came from
+         *
+         * @return
+         */
+        public int getCurrentPage() {
+            return currentPage;
+        }
+
+        /**
+         * Get the total number of pages reported by the API, once the first
+         * page has been read
+         *
+         * @return
+         */
+        public int getTotalPages() {
+            return totalPages;
+        }
+
+        /**
+         * Get the total number of results reported by the API, once the first
+         * page has been read
+         *
+         * @return
+         */
+        public int getTotalResults() {
+            return totalResults;
+        }
+
+        /**
+         * Stop the iteration, cancelling the requests for the pages that have
+         * not been read
+         */
+        public void close() {
+            for (PendingPage page : pending) {
+                page.future.cancel(true);
+            }
+            pending.clear();
+            current = Collections.<T>emptyList().iterator();
+            nextPage = lastPage + 1;
+        }
+
+        /**
+         * Request the pages after the one being read, up to the prefetch depth
+         */
+        private void request() {
+            while (nextPage <= lastPage && pending.size() < prefetch) {
+                requestNext();
+            }
+        }
+
+        private void requestNext() {
+            final int page = nextPage++;
+            pending.addLast(new PendingPage(page, executor.submit(new Callable<TmdbResultsList<T>>() {
+                @Override
+                public TmdbResultsList<T> call() throws MovieDbException {
+                    return fetcher.getPage(page);
+                }
+            })));
+        }
+
+        private TmdbResultsList<T> take(PendingPage page) {
+            currentPage = page.page;
+            try {
+                return page.future.get();
+            } catch (ExecutionException ex) {
+                close();
+                throw new PageFetchException(page.page, ex.getCause());
+            } catch (CancellationException ex) {
+                close();
+                throw new PageFetchException(page.page, ex);
+            } catch (InterruptedException ex) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new PageFetchException(page.page, ex);
+            }
+        }
+
+        private final class PendingPage {
+
+            private final int page;
+            private final Future<TmdbResultsList<T>> future;
+
+            PendingPage(int page, Future<TmdbResultsList<T>> future) {
+                this.page = page;
+                this.future = future;
+            }
+        }
+    }
+
+    /**
+     * Thrown by the iterator when a page could not be read.
+     *
+     * The cause is usually the MovieDbException thrown by the API.
+     */
+    public static class PageFetchException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+        private final int page;
+
+        public PageFetchException(int page, Throwable cause) {
+            super("Failed to get page " + page, cause);
+            this.page = page;
+        }
+
+        public int getPage() {
+            return page;
+        }
+    }
+}
@@ -19,8 +19,12 @@
  */
 package com.omertron.themoviedbapi.results;
 
+import com.omertron.themoviedbapi.MovieDbException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * List of the results from TheMovieDb
@@ -31,6 +35,8 @@ import java.util.List;
 public final class TmdbResultsList<T> extends AbstractResults {
 
     private List<T> results;
+    // The pages that could not be read when several pages were combined
+    private Map<Integer, MovieDbException> failedPages = Collections.emptyMap();
 
     public TmdbResultsList(List<T> resultList) {
         if (resultList != null) {
@@ -48,6 +54,38 @@ public final class TmdbResultsList<T> extends AbstractResults {
         this.results = results;
     }
 
+    /**
+     * Get the pages that failed when the results of several pages were
+     * combined, keyed by page number
+     *
+     * @return
+     */
+    public Map<Integer, MovieDbException> getFailedPages() {
+        return Collections.unmodifiableMap(failedPages);
+    }
+
+    /**
+     * Record a page that could not be read
+     *
+     * @param page
+     * @param error
+     */
+    public void addFailedPage(int page, MovieDbException error) {
+        if (failedPages.isEmpty()) {
+            failedPages = new TreeMap<Integer, MovieDbException>();
+        }
+        failedPages.put(page, error);
+    }
+
+    /**
+     * Check if the results are complete, i.e. there are no failed pages
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return failedPages.isEmpty();
+    }
+
     @Override
     public int getTotalResults() {
         if (super.getTotalResults() == 0) {
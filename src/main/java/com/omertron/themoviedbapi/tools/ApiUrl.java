@@ -19,44 +19,33 @@
  */
 package com.omertron.themoviedbapi.tools;
 
-import java.io.UnsupportedEncodingException;
-import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.Map;
-import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
- * The API URL that is used to construct the API call
+ * The API URL that is used to construct the API call.
+ *
+ * The URL is rendered by the {@link UrlTemplate} for the method, so the
+ * arguments are always in the same order. The URL and the request key are
+ * rendered once and kept until the arguments are changed.
  *
  * @author Stuart
  */
 public class ApiUrl {
 
-    /*
-     * Logger
-     */
-    private static final Logger LOG = LoggerFactory.getLogger(ApiUrl.class);
-    /*
-     * TheMovieDbApi API Base URL
-     */
-    private static final String TMDB_API_BASE = "http://api.themoviedb.org/3/";
     /*
      * Parameter configuration
      */
-    private static final String DELIMITER_FIRST = "?";
-    private static final String DELIMITER_SUBSEQUENT = "&";
     private static final String DEFAULT_STRING = "";
     /*
      * Properties
      */
     private final String apiKey;
-    private final String method;
-    private final String submethod;
+    private final UrlTemplate template;
     private final Map<String, String> arguments = new HashMap<String, String>();
+    private URL url = null;
+    private String requestKey = null;
     /*
      * API Parameters
      */
@@ -76,7 +65,7 @@ public class ApiUrl {
     public static final String PARAM_YEAR = "year=";
     public static final String PARAM_START_DATE = "start_date=";
     public static final String PARAM_END_DATE = "end_date=";
-    private static final String APPEND_TO_RESPONSE = "append_to_response=";
+    static final String APPEND_TO_RESPONSE = "append_to_response=";
 
     //<editor-fold defaultstate="collapsed" desc="Constructor Methods">
     /**
@@ -86,9 +75,7 @@ public class ApiUrl {
      * @param method
      */
     public ApiUrl(String apiKey, String method) {
-        this.apiKey = apiKey;
-        this.method = method;
-        this.submethod = DEFAULT_STRING;
+        this(apiKey, new UrlTemplate(method, DEFAULT_STRING));
     }
 
     /**
@@ -99,9 +86,18 @@ public class ApiUrl {
      * @param submethod
      */
     public ApiUrl(String apiKey, String method, String submethod) {
+        this(apiKey, new UrlTemplate(method, submethod));
+    }
+
+    /**
+     * Constructor for the API URL from a template
+     *
+     * @param apiKey
+     * @param template
+     */
+    public ApiUrl(String apiKey, UrlTemplate template) {
         this.apiKey = apiKey;
-        this.method = method;
-        this.submethod = submethod;
+        this.template = template;
     }
     //</editor-fold>
 
@@ -111,71 +107,33 @@ public class ApiUrl {
      * @return
      */
     public URL buildUrl() {
-        StringBuilder urlString = new StringBuilder(TMDB_API_BASE);
-
-        // Get the start of the URL
-        urlString.append(method);
-
-        // We have either a queury, or a direct request
-        if (arguments.containsKey(PARAM_QUERY)) {
-            // Append the suffix of the API URL
-            if (StringUtils.endsWith(urlString, "/") && submethod.startsWith("/")) {
-                urlString.deleteCharAt(urlString.length() - 1);
-            }
-            urlString.append(submethod);
-
-            // Append the key information
-            urlString.append(DELIMITER_FIRST).append(PARAM_API_KEY);
-            urlString.append(apiKey);
-
-            // Append the search term
-            urlString.append(DELIMITER_SUBSEQUENT);
-            urlString.append(PARAM_QUERY);
-
-            String query = arguments.get(PARAM_QUERY);
-
-            try {
-                urlString.append(URLEncoder.encode(query, "UTF-8"));
-            } catch (UnsupportedEncodingException ex) {
-                LOG.trace("Unable to encode query: '{}' trying raw.", query, ex);
-                // If we can't encode it, try it raw
-                urlString.append(query);
-            }
-
-            // Remove the query from the arguments so it is not added later
-            arguments.remove(PARAM_QUERY);
-        } else {
-            // Append the ID if provided
-            if (arguments.containsKey(PARAM_ID)) {
-                urlString.append(arguments.get(PARAM_ID));
-                arguments.remove(PARAM_ID);
-            }
-
-            // Append the suffix of the API URL
-            if (StringUtils.endsWith(urlString, "/") && submethod.startsWith("/")) {
-                urlString.deleteCharAt(urlString.length() - 1);
-            }
-            urlString.append(submethod);
-
-            // Append the key information
-            urlString.append(DELIMITER_FIRST).append(PARAM_API_KEY);
-            urlString.append(apiKey);
+        if (url == null) {
+            url = template.buildUrl(apiKey, arguments);
         }
+        return url;
+    }
 
-        for (Map.Entry<String, String> argEntry : arguments.entrySet()) {
-            urlString.append(DELIMITER_SUBSEQUENT).append(argEntry.getKey());
-            urlString.append(argEntry.getValue());
+    /**
+     * Get a key that identifies the request.
+     *
+     * This is the URL without the API key, so it can be used in logs and to
+     * match identical requests.
+     *
+     * @return
+     */
+    public String getRequestKey() {
+        if (requestKey == null) {
+            requestKey = template.getRequestKey(arguments);
         }
+        return requestKey;
+    }
 
-        try {
-            LOG.trace("URL: {}", urlString.toString());
-            return new URL(urlString.toString());
-        } catch (MalformedURLException ex) {
-            LOG.warn("Failed to create URL {} - {}", urlString.toString(), ex.toString());
-            return null;
-        } finally {
-            arguments.clear();
-        }
+    /**
+     * The arguments have changed, so the URL has to be rendered again
+     */
+    private void reset() {
+        url = null;
+        requestKey = null;
     }
 
     /**
@@ -186,6 +144,7 @@ public class ApiUrl {
      */
     public void addArgument(String key, String value) {
         arguments.put(key, value);
+        reset();
     }
 
     /**
@@ -196,6 +155,7 @@ public class ApiUrl {
      */
     public void addArgument(String key, int value) {
         arguments.put(key, Integer.toString(value));
+        reset();
     }
 
     /**
@@ -206,6 +166,7 @@ public class ApiUrl {
      */
     public void addArgument(String key, boolean value) {
         arguments.put(key, Boolean.toString(value));
+        reset();
     }
 
     /**
@@ -216,6 +177,7 @@ public class ApiUrl {
      */
     public void addArgument(String key, float value) {
         arguments.put(key, Float.toString(value));
+        reset();
     }
 
     /**
@@ -223,6 +185,7 @@ public class ApiUrl {
      */
     public void clearArguments() {
         arguments.clear();
+        reset();
     }
 
     /**
@@ -232,6 +195,7 @@ public class ApiUrl {
      */
     public void setArguments(Map<String, String> args) {
         arguments.putAll(args);
+        reset();
     }
 
     /**
@@ -0,0 +1,1120 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.model.AppendedSection;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A compact binary format for the model classes.
+ *
+ * A snapshot is a stream of model objects. Numbers are written as variable
+ * length integers, each distinct string is written once and then referred to
+ * by its position in the string table, and the sections of a movie that were
+ * not appended take a single byte.
+ *
+ * The first time a class appears in a snapshot its field names and types are
+ * written, and the fields of its objects follow in that order. When a
+ * snapshot is read, fields that the class no longer has are skipped and new
+ * fields are left at their defaults, so snapshots can be read by later
+ * versions of the library.
+ *
+ * <pre>
+ * BinarySnapshot.Writer writer = new BinarySnapshot.Writer(out);
+ * writer.write(movie);
+ * writer.close();
+ * </pre>
+ *
+ * @author Stuart
+ */
+public final class BinarySnapshot {
+
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'T', 'M', 'D', 'B'};
+    private static final String ENCODING = "UTF-8";
+    // Only the model classes are created when a snapshot is read
+    private static final String MODEL_PACKAGE = "com.omertron.themoviedbapi.";
+    // Once the table is full new strings are written in full each time
+    private static final int MAX_STRINGS = 65536;
+    private static final int TAG_END = 0;
+    private static final int TAG_RECORD = 1;
+    // References to the string and class tables
+    private static final int REF_NULL = 0;
+    private static final int REF_NEW = 1;
+    private static final int REF_FIRST = 2;
+    // The wire types of the fields
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FLOAT = 1;
+    private static final int WIRE_DOUBLE = 2;
+    private static final int WIRE_STRING = 3;
+    private static final int WIRE_OBJECT = 4;
+    private static final int WIRE_LIST = 5;
+    private static final int WIRE_UNTYPED = 6;
+    // The types of an untyped value
+    private static final int UNTYPED_NULL = 0;
+    private static final int UNTYPED_STRING = 1;
+    private static final int UNTYPED_LONG = 2;
+    private static final int UNTYPED_DOUBLE = 3;
+    private static final int UNTYPED_TRUE = 4;
+    private static final int UNTYPED_FALSE = 5;
+    private static final int UNTYPED_LIST = 6;
+    private static final int UNTYPED_MAP = 7;
+    private static final int UNTYPED_OBJECT = 8;
+    private static final ConcurrentMap<Class<?>, ClassBinding> CLASSES = new ConcurrentHashMap<Class<?>, ClassBinding>();
+
+    /**
+     * Stores the records of a {@link CatalogStore} as single object snapshots
+     */
+    public static final CatalogStore.Codec CODEC = new CatalogStore.Codec() {
+        @Override
+        public byte[] encode(Object value) throws IOException {
+            return BinarySnapshot.encode(value);
+        }
+
+        @Override
+        public <T> T decode(byte[] data, Class<T> type) throws IOException {
+            return BinarySnapshot.decode(data, type);
+        }
+    };
+
+    private BinarySnapshot() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Write the object as a snapshot
+     *
+     * @param value
+     * @return
+     * @throws IOException
+     */
+    public static byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Writer writer = new Writer(bytes);
+        writer.write(value);
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read the first object from the snapshot
+     *
+     * @param <T>
+     * @param data
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    public static <T> T decode(byte[] data, Class<T> type) throws IOException {
+        Reader reader = new Reader(new ByteArrayInputStream(data));
+        try {
+            return reader.read(type);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes the objects to a snapshot stream
+     */
+    public static final class Writer implements Closeable, Flushable {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+        private final Map<Class<?>, Integer> classes = new HashMap<Class<?>, Integer>();
+        private long count = 0;
+
+        /**
+         * Start a snapshot on the stream
+         *
+         * @param out
+         * @throws IOException
+         */
+        public Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.out.write(MAGIC);
+            writeVarint(VERSION);
+        }
+
+        /**
+         * Add the object to the snapshot
+         *
+         * @param value
+         * @throws IOException
+         */
+        public void write(Object value) throws IOException {
+            if (value == null) {
+                throw new IllegalArgumentException("Cannot write a null object");
+            }
+            writeVarint(TAG_RECORD);
+            writeObject(value);
+            count++;
+        }
+
+        /**
+         * The number of objects written
+         *
+         * @return
+         */
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * End the snapshot and close the stream
+         *
+         * @throws IOException
+         */
+        @Override
+        public void close() throws IOException {
+            writeVarint(TAG_END);
+            out.close();
+        }
+
+        void writeVarint(long value) throws IOException {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                out.write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            out.write((int) remaining);
+        }
+
+        void writeSigned(long value) throws IOException {
+            // Zig-zag so that small negative numbers are short too
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeFloat(float value) throws IOException {
+            out.writeFloat(value);
+        }
+
+        void writeDouble(double value) throws IOException {
+            out.writeDouble(value);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarint(REF_NULL);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarint(REF_FIRST + index);
+                return;
+            }
+            writeVarint(REF_NEW);
+            byte[] bytes = value.getBytes(ENCODING);
+            writeVarint(bytes.length);
+            out.write(bytes);
+            if (strings.size() < MAX_STRINGS) {
+                strings.put(value, strings.size());
+            }
+        }
+
+        void writeObject(Object value) throws IOException {
+            if (value == null) {
+                writeVarint(REF_NULL);
+                return;
+            }
+            ClassBinding binding = getClassBinding(value.getClass());
+            Integer index = classes.get(binding.type);
+            if (index == null) {
+                writeVarint(REF_NEW);
+                binding.writeDescriptor(this);
+                classes.put(binding.type, classes.size());
+            } else {
+                writeVarint(REF_FIRST + index);
+            }
+            binding.writeFields(this, value);
+        }
+
+        void writeUntyped(Object value) throws IOException {
+            if (value == null) {
+                writeVarint(UNTYPED_NULL);
+            } else if (value instanceof String || value instanceof Enum || value instanceof Character) {
+                writeVarint(UNTYPED_STRING);
+                writeString(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            } else if (value instanceof Boolean) {
+                writeVarint((Boolean) value ? UNTYPED_TRUE : UNTYPED_FALSE);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                writeVarint(UNTYPED_LONG);
+                writeSigned(((Number) value).longValue());
+            } else if (value instanceof Number) {
+                writeVarint(UNTYPED_DOUBLE);
+                writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof Collection) {
+                writeVarint(UNTYPED_LIST);
+                writeVarint(((Collection<?>) value).size());
+                for (Object element : (Collection<?>) value) {
+                    writeUntyped(element);
+                }
+            } else if (value instanceof Map) {
+                writeVarint(UNTYPED_MAP);
+                writeVarint(((Map<?, ?>) value).size());
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    writeString(String.valueOf(entry.getKey()));
+                    writeUntyped(entry.getValue());
+                }
+            } else {
+                writeVarint(UNTYPED_OBJECT);
+                writeObject(value);
+            }
+        }
+    }
+
+    /**
+     * Reads the objects from a snapshot stream
+     */
+    public static final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final int version;
+        private final List<String> strings = new ArrayList<String>();
+        private final List<StreamClass> classes = new ArrayList<StreamClass>();
+        private boolean ended = false;
+
+        /**
+         * Start reading the snapshot from the stream
+         *
+         * @param in
+         * @throws IOException If the stream is not a snapshot or is from a
+         * later version
+         */
+        public Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            byte[] magic = new byte[MAGIC.length];
+            this.in.readFully(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    throw new IOException("Not a snapshot");
+                }
+            }
+            version = (int) readVarint();
+            if (version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ", expected " + VERSION + " or earlier");
+            }
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * Read the next object.
+         *
+         * Objects of classes that this version of the library does not have
+         * are skipped.
+         *
+         * @return The object, or null at the end of the snapshot
+         * @throws IOException
+         */
+        public Object read() throws IOException {
+            while (!ended) {
+                int tag = in.read();
+                if (tag == TAG_END || tag < 0) {
+                    ended = true;
+                } else if (tag == TAG_RECORD) {
+                    Object value = readObject();
+                    if (value != null) {
+                        return value;
+                    }
+                } else {
+                    throw new IOException("Corrupt snapshot, unexpected tag " + tag);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Read the next object, which must be of the type
+         *
+         * @param <T>
+         * @param type
+         * @return The object, or null at the end of the snapshot
+         * @throws IOException
+         */
+        public <T> T read(Class<T> type) throws IOException {
+            Object value = read();
+            if (value != null && !type.isInstance(value)) {
+                throw new IOException("Expected a " + type.getSimpleName() + " but read a " + value.getClass().getSimpleName());
+            }
+            return type.cast(value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException("Unexpected end of snapshot");
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt snapshot, varint is too long");
+        }
+
+        long readSigned() throws IOException {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readCount() throws IOException {
+            long count = readVarint();
+            if (count > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot, count is too large: " + count);
+            }
+            return (int) count;
+        }
+
+        float readFloat() throws IOException {
+            return in.readFloat();
+        }
+
+        double readDouble() throws IOException {
+            return in.readDouble();
+        }
+
+        String readString() throws IOException {
+            long ref = readVarint();
+            if (ref == REF_NULL) {
+                return null;
+            } else if (ref == REF_NEW) {
+                byte[] bytes = new byte[readCount()];
+                in.readFully(bytes);
+                String value = new String(bytes, ENCODING);
+                if (strings.size() < MAX_STRINGS) {
+                    strings.add(value);
+                }
+                return value;
+            }
+            return strings.get(checkRef(ref, strings.size()));
+        }
+
+        /**
+         * Read an object
+         *
+         * @return The object, or null if it is null or its class is unknown
+         */
+        Object readObject() throws IOException {
+            long ref = readVarint();
+            StreamClass streamClass;
+            if (ref == REF_NULL) {
+                return null;
+            } else if (ref == REF_NEW) {
+                streamClass = readDescriptor();
+                classes.add(streamClass);
+            } else {
+                streamClass = classes.get(checkRef(ref, classes.size()));
+            }
+            return streamClass.readFields(this);
+        }
+
+        private StreamClass readDescriptor() throws IOException {
+            String name = readString();
+            int count = readCount();
+            String[] names = new String[count];
+            Wire[] wires = new Wire[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = readString();
+                wires[i] = Wire.read(this);
+            }
+            return new StreamClass(findClass(name), names, wires);
+        }
+
+        Object readUntyped() throws IOException {
+            int type = (int) readVarint();
+            switch (type) {
+                case UNTYPED_NULL:
+                    return null;
+                case UNTYPED_STRING:
+                    return readString();
+                case UNTYPED_LONG:
+                    long value = readSigned();
+                    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                        return (int) value;
+                    }
+                    return value;
+                case UNTYPED_DOUBLE:
+                    return readDouble();
+                case UNTYPED_TRUE:
+                    return Boolean.TRUE;
+                case UNTYPED_FALSE:
+                    return Boolean.FALSE;
+                case UNTYPED_LIST:
+                    int size = readCount();
+                    List<Object> list = new ArrayList<Object>(Math.min(size, 1024));
+                    for (int i = 0; i < size; i++) {
+                        list.add(readUntyped());
+                    }
+                    return list;
+                case UNTYPED_MAP:
+                    int entries = readCount();
+                    Map<String, Object> map = new LinkedHashMap<String, Object>();
+                    for (int i = 0; i < entries; i++) {
+                        map.put(readString(), readUntyped());
+                    }
+                    return map;
+                case UNTYPED_OBJECT:
+                    return readObject();
+                default:
+                    throw new IOException("Corrupt snapshot, unknown value type " + type);
+            }
+        }
+
+        /**
+         * Read and discard a value
+         */
+        void skip(Wire wire) throws IOException {
+            switch (wire.type) {
+                case WIRE_VARINT:
+                    readVarint();
+                    break;
+                case WIRE_FLOAT:
+                    readFloat();
+                    break;
+                case WIRE_DOUBLE:
+                    readDouble();
+                    break;
+                case WIRE_STRING:
+                    // Read rather than skipped, so the string table is kept in step
+                    readString();
+                    break;
+                case WIRE_OBJECT:
+                    readObject();
+                    break;
+                case WIRE_LIST:
+                    int size = readCount() - 1;
+                    for (int i = 0; i < size; i++) {
+                        skip(wire.element);
+                    }
+                    break;
+                default:
+                    readUntyped();
+                    break;
+            }
+        }
+
+        private static int checkRef(long ref, int size) throws IOException {
+            if (ref - REF_FIRST >= size) {
+                throw new IOException("Corrupt snapshot, reference " + ref + " is past the end of the table");
+            }
+            return (int) (ref - REF_FIRST);
+        }
+
+        /**
+         * Find the model class, or null if it is unknown
+         */
+        private static Class<?> findClass(String name) {
+            if (name == null || !name.startsWith(MODEL_PACKAGE)) {
+                return null;
+            }
+            try {
+                return Class.forName(name, false, BinarySnapshot.class.getClassLoader());
+            } catch (ClassNotFoundException ex) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The wire type of a field, with the element type of a list
+     */
+    private static final class Wire {
+
+        private static final Wire VARINT = new Wire(WIRE_VARINT, null);
+        private static final Wire FLOAT = new Wire(WIRE_FLOAT, null);
+        private static final Wire DOUBLE = new Wire(WIRE_DOUBLE, null);
+        private static final Wire STRING = new Wire(WIRE_STRING, null);
+        private static final Wire OBJECT = new Wire(WIRE_OBJECT, null);
+        private static final Wire UNTYPED = new Wire(WIRE_UNTYPED, null);
+        private final int type;
+        private final Wire element;
+
+        Wire(int type, Wire element) {
+            this.type = type;
+            this.element = element;
+        }
+
+        void write(Writer writer) throws IOException {
+            writer.writeVarint(type);
+            if (type == WIRE_LIST) {
+                element.write(writer);
+            }
+        }
+
+        static Wire read(Reader reader) throws IOException {
+            int type = (int) reader.readVarint();
+            if (type == WIRE_LIST) {
+                return new Wire(type, read(reader));
+            } else if (type > WIRE_UNTYPED) {
+                throw new IOException("Corrupt snapshot, unknown wire type " + type);
+            }
+            return new Wire(type, null);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Wire)) {
+                return false;
+            }
+            Wire other = (Wire) obj;
+            return type == other.type && (element == null ? other.element == null : element.equals(other.element));
+        }
+
+        @Override
+        public int hashCode() {
+            return type * 31 + (element == null ? 0 : element.hashCode());
+        }
+    }
+
+    /**
+     * How to write and read the values of a field.
+     *
+     * Primitive fields only have this binding, as they are never list
+     * elements. Values that can also be list elements have a
+     * {@link ValueBinding}.
+     */
+    private abstract static class Binding {
+
+        private final Wire wire;
+
+        Binding(Wire wire) {
+            this.wire = wire;
+        }
+
+        Wire getWire() {
+            return wire;
+        }
+
+        abstract void write(Writer writer, Field field, Object bean) throws IOException, IllegalAccessException;
+
+        abstract void read(Reader reader, Field field, Object bean) throws IOException, IllegalAccessException;
+    }
+
+    private static final class IntBinding extends Binding {
+
+        private final Class<?> type;
+
+        IntBinding(Class<?> type) {
+            super(Wire.VARINT);
+            this.type = type;
+        }
+
+        @Override
+        void write(Writer writer, Field field, Object bean) throws IOException, IllegalAccessException {
+            if (type == boolean.class) {
+                writer.writeVarint(field.getBoolean(bean) ? 1 : 0);
+            } else {
+                writer.writeSigned(field.getLong(bean));
+            }
+        }
+
+        @Override
+        void read(Reader reader, Field field, Object bean) throws IOException, IllegalAccessException {
+            if (type == boolean.class) {
+                field.setBoolean(bean, reader.readVarint() != 0);
+                return;
+            }
+            long value = reader.readSigned();
+            if (type == long.class) {
+                field.setLong(bean, value);
+            } else if (type == int.class) {
+                field.setInt(bean, (int) value);
+            } else if (type == short.class) {
+                field.setShort(bean, (short) value);
+            } else {
+                field.setByte(bean, (byte) value);
+            }
+        }
+    }
+
+    private static final class FloatBinding extends Binding {
+
+        FloatBinding() {
+            super(Wire.FLOAT);
+        }
+
+        @Override
+        void write(Writer writer, Field field, Object bean) throws IOException, IllegalAccessException {
+            writer.writeFloat(field.getFloat(bean));
+        }
+
+        @Override
+        void read(Reader reader, Field field, Object bean) throws IOException, IllegalAccessException {
+            field.setFloat(bean, reader.readFloat());
+        }
+    }
+
+    private static final class DoubleBinding extends Binding {
+
+        DoubleBinding() {
+            super(Wire.DOUBLE);
+        }
+
+        @Override
+        void write(Writer writer, Field field, Object bean) throws IOException, IllegalAccessException {
+            writer.writeDouble(field.getDouble(bean));
+        }
+
+        @Override
+        void read(Reader reader, Field field, Object bean) throws IOException, IllegalAccessException {
+            field.setDouble(bean, reader.readDouble());
+        }
+    }
+
+    /**
+     * A binding for values that are objects, which are read and written the
+     * same way in fields and lists
+     */
+    private abstract static class ValueBinding extends Binding {
+
+        ValueBinding(Wire wire) {
+            super(wire);
+        }
+
+        /**
+         * Write a value that is not in a field, e.g. a list element
+         */
+        abstract void writeValue(Writer writer, Object value) throws IOException;
+
+        abstract Object readValue(Reader reader) throws IOException;
+
+        @Override
+        void write(Writer writer, Field field, Object bean) throws IOException, IllegalAccessException {
+            writeValue(writer, field.get(bean));
+        }
+
+        @Override
+        void read(Reader reader, Field field, Object bean) throws IOException, IllegalAccessException {
+            field.set(bean, readValue(reader));
+        }
+    }
+
+    private static final class StringBinding extends ValueBinding {
+
+        StringBinding() {
+            super(Wire.STRING);
+        }
+
+        @Override
+        void writeValue(Writer writer, Object value) throws IOException {
+            writer.writeString((String) value);
+        }
+
+        @Override
+        Object readValue(Reader reader) throws IOException {
+            return reader.readString();
+        }
+    }
+
+    /**
+     * Enums are written by name, so that constants can be added
+     */
+    private static final class EnumBinding extends ValueBinding {
+
+        private final Class<?> type;
+
+        EnumBinding(Class<?> type) {
+            super(Wire.STRING);
+            this.type = type;
+        }
+
+        @Override
+        void writeValue(Writer writer, Object value) throws IOException {
+            writer.writeString(value == null ? null : ((Enum<?>) value).name());
+        }
+
+        @Override
+        Object readValue(Reader reader) throws IOException {
+            String name = reader.readString();
+            for (Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(name)) {
+                    return constant;
+                }
+            }
+            // A null or removed constant
+            return null;
+        }
+    }
+
+    private static final class ObjectBinding extends ValueBinding {
+
+        ObjectBinding() {
+            super(Wire.OBJECT);
+        }
+
+        @Override
+        void writeValue(Writer writer, Object value) throws IOException {
+            writer.writeObject(value);
+        }
+
+        @Override
+        Object readValue(Reader reader) throws IOException {
+            return reader.readObject();
+        }
+    }
+
+    /**
+     * A section added with append_to_response, written as its value so that
+     * a missing section is a single byte
+     */
+    private static final class SectionBinding extends ValueBinding {
+
+        SectionBinding() {
+            super(Wire.OBJECT);
+        }
+
+        @Override
+        void writeValue(Writer writer, Object value) throws IOException {
+            writer.writeObject(value == null ? null : ((AppendedSection<?>) value).get());
+        }
+
+        @Override
+        Object readValue(Reader reader) throws IOException {
+            return AppendedSection.of(reader.readObject());
+        }
+    }
+
+    private static final class ListBinding extends ValueBinding {
+
+        private final ValueBinding element;
+
+        ListBinding(ValueBinding element) {
+            super(new Wire(WIRE_LIST, element.getWire()));
+            this.element = element;
+        }
+
+        @Override
+        void writeValue(Writer writer, Object value) throws IOException {
+            if (value == null) {
+                writer.writeVarint(REF_NULL);
+                return;
+            }
+            Collection<?> list = (Collection<?>) value;
+            writer.writeVarint(list.size() + 1L);
+            for (Object item : list) {
+                element.writeValue(writer, item);
+            }
+        }
+
+        @Override
+        Object readValue(Reader reader) throws IOException {
+            int size = reader.readCount() - 1;
+            if (size < 0) {
+                return null;
+            }
+            List<Object> list = new ArrayList<Object>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                list.add(element.readValue(reader));
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Values that carry their own type, e.g. maps and boxed numbers
+     */
+    private static final class UntypedBinding extends ValueBinding {
+
+        private final Class<?> type;
+
+        UntypedBinding(Class<?> type) {
+            super(Wire.UNTYPED);
+            this.type = type;
+        }
+
+        @Override
+        void writeValue(Writer writer, Object value) throws IOException {
+            writer.writeUntyped(value);
+        }
+
+        @Override
+        Object readValue(Reader reader) throws IOException {
+            Object value = reader.readUntyped();
+            if (value instanceof Number && type != Object.class) {
+                Number number = (Number) value;
+                if (type == Long.class) {
+                    return number.longValue();
+                } else if (type == Integer.class) {
+                    return number.intValue();
+                } else if (type == Short.class) {
+                    return number.shortValue();
+                } else if (type == Byte.class) {
+                    return number.byteValue();
+                } else if (type == Float.class) {
+                    return number.floatValue();
+                } else if (type == Double.class) {
+                    return number.doubleValue();
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Work out how to write and read a field of the type
+     */
+    private static Binding getBinding(Type type) {
+        Class<?> raw = rawClass(type);
+        if (raw == int.class || raw == long.class || raw == short.class || raw == byte.class || raw == boolean.class) {
+            return new IntBinding(raw);
+        } else if (raw == float.class) {
+            return new FloatBinding();
+        } else if (raw == double.class) {
+            return new DoubleBinding();
+        }
+        return getValueBinding(type);
+    }
+
+    /**
+     * Work out how to write and read a value of the type, in a field or a list
+     */
+    private static ValueBinding getValueBinding(Type type) {
+        Class<?> raw = rawClass(type);
+        if (raw == String.class) {
+            return new StringBinding();
+        } else if (raw.isEnum()) {
+            return new EnumBinding(raw);
+        } else if (raw == AppendedSection.class) {
+            return new SectionBinding();
+        } else if (raw != Object.class && raw.isAssignableFrom(ArrayList.class)) {
+            Type element = type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[0] : Object.class;
+            return new ListBinding(getValueBinding(element));
+        } else if (raw == Object.class || raw.isPrimitive() || Map.class.isAssignableFrom(raw)
+                || Number.class.isAssignableFrom(raw) || raw == Boolean.class || raw == Character.class) {
+            return new UntypedBinding(raw);
+        }
+        return new ObjectBinding();
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return rawClass(((ParameterizedType) type).getRawType());
+        }
+        // Type variables and wildcards
+        return Object.class;
+    }
+
+    /**
+     * Get the cached binding for the class
+     */
+    private static ClassBinding getClassBinding(Class<?> type) {
+        ClassBinding binding = CLASSES.get(type);
+        if (binding == null) {
+            binding = new ClassBinding(type);
+            ClassBinding existing = CLASSES.putIfAbsent(type, binding);
+            if (existing != null) {
+                binding = existing;
+            }
+        }
+        return binding;
+    }
+
+    private static IOException bindingFailure(String message, Throwable cause) {
+        Throwable root = cause instanceof InvocationTargetException ? cause.getCause() : cause;
+        return new IOException(message + ": " + root, root);
+    }
+
+    /**
+     * A field of a class and its binding
+     */
+    private static final class FieldBinding {
+
+        private final String name;
+        private final Field field;
+        private final Binding binding;
+
+        FieldBinding(String name, Field field) {
+            this.name = name;
+            this.field = field;
+            this.binding = getBinding(field.getGenericType());
+        }
+    }
+
+    /**
+     * The cached metadata for a model class.
+     *
+     * All of the instance fields are written, not just the JSON properties,
+     * so that values set by the library (e.g. the artwork type) are kept.
+     * The fields are named by their JSON property where they have one.
+     */
+    private static final class ClassBinding {
+
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private final Map<String, FieldBinding> fields = new LinkedHashMap<String, FieldBinding>();
+
+        ClassBinding(Class<?> type) {
+            this.type = type;
+            this.constructor = findConstructor(type);
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    JsonProperty annotation = field.getAnnotation(JsonProperty.class);
+                    String name = annotation == null || annotation.value().isEmpty() ? field.getName() : annotation.value();
+                    // Fields of the subclass hide those of the superclass
+                    if (!fields.containsKey(name)) {
+                        field.setAccessible(true);
+                        fields.put(name, new FieldBinding(name, field));
+                    }
+                }
+            }
+        }
+
+        void writeDescriptor(Writer writer) throws IOException {
+            writer.writeString(type.getName());
+            writer.writeVarint(fields.size());
+            for (FieldBinding field : fields.values()) {
+                writer.writeString(field.name);
+                field.binding.getWire().write(writer);
+            }
+        }
+
+        void writeFields(Writer writer, Object bean) throws IOException {
+            for (FieldBinding field : fields.values()) {
+                try {
+                    field.binding.write(writer, field.field, bean);
+                } catch (IllegalAccessException ex) {
+                    throw bindingFailure("Failed to get " + type.getSimpleName() + "." + field.name, ex);
+                }
+            }
+        }
+
+        Object newInstance() throws IOException {
+            if (constructor == null) {
+                throw new IOException("No default constructor for " + type.getName());
+            }
+            try {
+                return constructor.newInstance();
+            } catch (InstantiationException ex) {
+                throw bindingFailure("Failed to create " + type.getSimpleName(), ex);
+            } catch (IllegalAccessException ex) {
+                throw bindingFailure("Failed to create " + type.getSimpleName(), ex);
+            } catch (InvocationTargetException ex) {
+                throw bindingFailure("Failed to create " + type.getSimpleName(), ex);
+            }
+        }
+
+        private static Constructor<?> findConstructor(Class<?> type) {
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return constructor;
+            } catch (NoSuchMethodException ex) {
+                // Reported when the class is read
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A class as it was written in the snapshot, with the local fields that
+     * its fields are read into
+     */
+    private static final class StreamClass {
+
+        private final ClassBinding binding;
+        private final Wire[] wires;
+        // The local field for each field in the snapshot, or null to skip it
+        private final FieldBinding[] targets;
+
+        StreamClass(Class<?> type, String[] names, Wire[] wires) {
+            this.binding = type == null ? null : getClassBinding(type);
+            this.wires = wires;
+            this.targets = new FieldBinding[names.length];
+            if (binding != null) {
+                for (int i = 0; i < names.length; i++) {
+                    FieldBinding local = binding.fields.get(names[i]);
+                    if (local != null && local.binding.getWire().equals(wires[i])) {
+                        targets[i] = local;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Read the fields of an object
+         *
+         * @return The object, or null if the class is unknown
+         */
+        Object readFields(Reader reader) throws IOException {
+            Object bean = binding == null ? null : binding.newInstance();
+            for (int i = 0; i < wires.length; i++) {
+                if (bean == null || targets[i] == null) {
+                    reader.skip(wires[i]);
+                    continue;
+                }
+                try {
+                    targets[i].binding.read(reader, targets[i].field, bean);
+                } catch (IllegalAccessException ex) {
+                    throw bindingFailure("Failed to set " + binding.type.getSimpleName() + "." + targets[i].name, ex);
+                } catch (IllegalArgumentException ex) {
+                    throw bindingFailure("Failed to set " + binding.type.getSimpleName() + "." + targets[i].name, ex);
+                }
+            }
+            return bean;
+        }
+    }
+}
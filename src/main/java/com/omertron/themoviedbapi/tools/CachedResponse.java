@@ -0,0 +1,141 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Collections;
+
+/**
+ * A response body held in a {@link ResponseCache} along with the information
+ * needed to check if it is still valid.
+ *
+ * @author Stuart
+ */
+public final class CachedResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final byte[] content;
+    private final String charset;
+    private final String etag;
+    private final String lastModified;
+    private final long expires;
+
+    /**
+     * Create a cached response
+     *
+     * @param content The body of the response
+     * @param charset The character set of the body
+     * @param etag The ETag header, can be null
+     * @param lastModified The Last-Modified header, can be null
+     * @param expires When the response expires, in milliseconds since the
+     * epoch
+     */
+    public CachedResponse(byte[] content, Charset charset, String etag, String lastModified, long expires) {
+        this.content = content;
+        this.charset = charset.name();
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.expires = expires;
+    }
+
+    /**
+     * Get the body of the response.
+     *
+     * The array is shared and must not be changed.
+     *
+     * @return
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    public Charset getCharset() {
+        return Charset.forName(charset);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public long getExpires() {
+        return expires;
+    }
+
+    /**
+     * The size of the body in bytes
+     *
+     * @return
+     */
+    public int getSize() {
+        return content.length;
+    }
+
+    /**
+     * Can the response be used without checking with the server
+     *
+     * @param now The current time in milliseconds
+     * @return
+     */
+    public boolean isFresh(long now) {
+        return now < expires;
+    }
+
+    /**
+     * Can the response be checked with the server using a conditional request
+     *
+     * @return
+     */
+    public boolean hasValidator() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Create a copy of this response with new validators and expiry time, used
+     * when the server says that the response has not changed
+     *
+     * @param newEtag The new ETag, or null to keep the existing one
+     * @param newLastModified The new Last-Modified, or null to keep the
+     * existing one
+     * @param newExpires
+     * @return
+     */
+    public CachedResponse refresh(String newEtag, String newLastModified, long newExpires) {
+        return new CachedResponse(content, getCharset(),
+                newEtag == null ? etag : newEtag,
+                newLastModified == null ? lastModified : newLastModified,
+                newExpires);
+    }
+
+    /**
+     * Create a web response that reads from the cached body
+     *
+     * @param statusCode
+     * @return
+     */
+    public WebResponse toWebResponse(int statusCode) {
+        return new WebResponse(statusCode, Collections.<String, String>emptyMap(), new ByteArrayInputStream(content), getCharset());
+    }
+}
@@ -0,0 +1,881 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.model.CollectionInfo;
+import com.omertron.themoviedbapi.model.Company;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.Person;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local store of movies, people, collections and companies, keyed by ID.
+ *
+ * The records are appended to segment files in the directory, with an index
+ * of the position of the latest record for each ID held in memory. When a
+ * segment reaches the maximum size it is closed and memory mapped, and a new
+ * segment is started. A record that is replaced or removed leaves garbage in
+ * its segment; once enough of the closed segments is garbage they are
+ * compacted in the background into one segment holding only the live
+ * records. The compacted segment is written to a temporary file that is
+ * renamed once it is complete; from then on it replaces the old segments,
+ * even if the store stops before they are deleted.
+ *
+ * Each record has a checksum and the time it was stored, so that a caller
+ * can ignore records older than a maximum age. When the store is opened the
+ * segments are read to rebuild the index and a partly written record at the
+ * end of the last segment (e.g. after a crash) is discarded.
+ *
+ * The store can be used by several threads, but only by one process at a
+ * time.
+ *
+ * @author Stuart
+ */
+public class CatalogStore implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogStore.class);
+    private static final long DEFAULT_MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final double COMPACTION_RATIO = 0.5;
+    // crc, length, kind, id, time stored
+    private static final int HEADER_SIZE = 4 + 4 + 1 + 4 + 8;
+    private static final int TOMBSTONE = 0x80;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACT_SUFFIX = ".compact";
+    // A finished compaction that replaces the segments up to its ID
+    private static final String DONE_SUFFIX = ".done";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.(log|compact|done)");
+    private final File directory;
+    private final Codec codec;
+    private final long maxSegmentSize;
+    private final ConcurrentMap<Long, Location> index = new ConcurrentHashMap<Long, Location>();
+    // All the segments by ID, the last is the one being written; guarded by this
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+    private Segment active;
+    private final Object compactLock = new Object();
+    private final AtomicBoolean compactionPending = new AtomicBoolean(false);
+    private final AtomicLong compactions = new AtomicLong(0);
+    private final ExecutorService compactor;
+    private volatile boolean closed = false;
+
+    /**
+     * The types of record in the store
+     */
+    public enum RecordType {
+
+        MOVIE(MovieDb.class),
+        PERSON(Person.class),
+        COLLECTION(CollectionInfo.class),
+        COMPANY(Company.class);
+        private final Class<?> type;
+
+        private RecordType(Class<?> type) {
+            this.type = type;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Converts the records to and from bytes
+     */
+    public interface Codec {
+
+        byte[] encode(Object value) throws IOException;
+
+        <T> T decode(byte[] data, Class<T> type) throws IOException;
+    }
+
+    /**
+     * Stores the records with Java serialisation
+     */
+    public static final Codec SERIALIZATION_CODEC = new Codec() {
+        @Override
+        public byte[] encode(Object value) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(value);
+            out.close();
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public <T> T decode(byte[] data, Class<T> type) throws IOException {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));
+            try {
+                return type.cast(in.readObject());
+            } catch (ClassNotFoundException ex) {
+                throw new IOException("Unknown class in record: " + ex.getMessage(), ex);
+            } finally {
+                in.close();
+            }
+        }
+    };
+
+    /**
+     * Open the store in the directory with Java serialisation
+     *
+     * @param directory
+     * @throws IOException
+     */
+    public CatalogStore(File directory) throws IOException {
+        this(directory, SERIALIZATION_CODEC, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Open the store in the directory, creating it if needed
+     *
+     * @param directory
+     * @param codec Converts the records to and from bytes
+     * @param maxSegmentSize The size at which a new segment is started
+     * @throws IOException
+     */
+    public CatalogStore(File directory, Codec codec, long maxSegmentSize) throws IOException {
+        if (maxSegmentSize <= HEADER_SIZE || maxSegmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid maximum segment size: " + maxSegmentSize);
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.maxSegmentSize = maxSegmentSize;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create the store directory " + directory);
+        }
+        open();
+
+        compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "TheMovieDb-CatalogCompaction");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Read the segments and rebuild the index
+     */
+    private synchronized void open() throws IOException {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return SEGMENT_NAME.matcher(name).matches();
+            }
+        });
+
+        TreeMap<Integer, File> found = new TreeMap<Integer, File>();
+        TreeMap<Integer, File> finished = new TreeMap<Integer, File>();
+        for (File file : files == null ? new File[0] : files) {
+            Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+            matcher.matches();
+            if ("compact".equals(matcher.group(2))) {
+                // An unfinished compaction
+                LOG.debug("Deleting unfinished compaction {}", file);
+                deleteFile(file);
+            } else if ("done".equals(matcher.group(2))) {
+                finished.put(Integer.valueOf(matcher.group(1)), file);
+            } else {
+                found.put(Integer.valueOf(matcher.group(1)), file);
+            }
+        }
+        if (!finished.isEmpty()) {
+            finishCompaction(found, finished);
+        }
+
+        for (Integer id : found.keySet()) {
+            Segment segment = new Segment(id, found.get(id));
+            segments.put(id, segment);
+            replay(segment, id.equals(found.lastKey()));
+        }
+
+        if (segments.isEmpty()) {
+            active = new Segment(1, segmentFile(1));
+            segments.put(active.id, active);
+        } else {
+            active = segments.lastEntry().getValue();
+            for (Segment segment : segments.values()) {
+                if (segment != active) {
+                    segment.seal();
+                }
+            }
+        }
+        LOG.debug("Opened catalog in {} with {} records in {} segments", directory, index.size(), segments.size());
+    }
+
+    /**
+     * Complete a compaction that stopped after the compacted segment was
+     * written but before the swap was finished.
+     *
+     * The newest compacted segment replaces all the segments up to its ID,
+     * including any older compacted segments.
+     *
+     * @param found The segments, which are updated
+     * @param finished The compacted segments
+     */
+    private void finishCompaction(TreeMap<Integer, File> found, TreeMap<Integer, File> finished) {
+        int targetId = finished.lastKey();
+        LOG.debug("Finishing compaction into {}", finished.get(targetId));
+        for (File file : finished.headMap(targetId).values()) {
+            deleteFile(file);
+        }
+        Iterator<File> replaced = found.headMap(targetId, true).values().iterator();
+        while (replaced.hasNext()) {
+            deleteFile(replaced.next());
+            replaced.remove();
+        }
+        found.put(targetId, swap(finished.get(targetId), segmentFile(targetId)));
+    }
+
+    /**
+     * Rename the compacted segment to its final name, once the segment it
+     * replaces has gone.
+     *
+     * @return The file now holding the compacted segment, which keeps the
+     * finished name if it could not be renamed
+     */
+    private static File swap(File done, File file) {
+        if (!file.exists() && done.renameTo(file)) {
+            return file;
+        }
+        LOG.debug("Unable to rename {} to {}, it will be renamed when the store is opened", done, file);
+        return done;
+    }
+
+    /**
+     * Add the records of the segment to the index
+     *
+     * @param last True if this is the last segment, which may end with a
+     * partly written record
+     */
+    private void replay(Segment segment, boolean last) throws IOException {
+        ByteBuffer buffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.channel.size());
+        long position = 0;
+        while (buffer.remaining() > 0) {
+            Record record = Record.read(buffer, position);
+            if (record == null) {
+                LOG.warn("Discarding {} bytes of incomplete records at the end of {}", buffer.remaining(), segment.file);
+                if (last) {
+                    segment.channel.truncate(position);
+                }
+                break;
+            }
+            apply(record, segment);
+            position += record.size();
+        }
+        segment.size = position;
+    }
+
+    /**
+     * Update the index with the record
+     */
+    private void apply(Record record, Segment segment) {
+        if (record.isTombstone()) {
+            garbage(index.remove(record.key));
+            // The tombstone is only needed until the records before it are compacted
+            segment.garbage += record.size();
+        } else {
+            garbage(index.put(record.key, new Location(segment, record.position, record.data.length, record.time)));
+        }
+    }
+
+    private void garbage(Location old) {
+        if (old != null) {
+            synchronized (this) {
+                old.segment.garbage += old.size();
+            }
+        }
+    }
+
+    /**
+     * Get the record
+     *
+     * @param <T>
+     * @param type
+     * @param id
+     * @return The record, or null if there is none
+     * @throws IOException
+     */
+    public <T> T get(RecordType type, int id) throws IOException {
+        return get(type, id, 0L);
+    }
+
+    /**
+     * Get the record if it was stored no more than the maximum age ago
+     *
+     * @param <T>
+     * @param type
+     * @param id
+     * @param maxAge The maximum age in milliseconds, 0 for any age
+     * @return The record, or null if there is none or it is too old
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(RecordType type, int id, long maxAge) throws IOException {
+        checkOpen();
+        Location location = index.get(key(type, id));
+        if (location == null || (maxAge > 0 && location.time < System.currentTimeMillis() - maxAge)) {
+            return null;
+        }
+        return (T) codec.decode(location.segment.read(location), type.getType());
+    }
+
+    /**
+     * Get the time the record was stored
+     *
+     * @param type
+     * @param id
+     * @return The time in milliseconds, or 0 if there is no record
+     */
+    public long getStoredTime(RecordType type, int id) {
+        Location location = index.get(key(type, id));
+        return location == null ? 0L : location.time;
+    }
+
+    public boolean contains(RecordType type, int id) {
+        return index.containsKey(key(type, id));
+    }
+
+    /**
+     * Store the record, replacing any existing one
+     *
+     * @param type
+     * @param id
+     * @param value
+     * @throws IOException
+     */
+    public void put(RecordType type, int id, Object value) throws IOException {
+        if (!type.getType().isInstance(value)) {
+            throw new IllegalArgumentException("Expected a " + type.getType().getSimpleName() + " for " + type);
+        }
+        append(new Record(key(type, id), type.ordinal(), id, System.currentTimeMillis(), codec.encode(value)));
+    }
+
+    /**
+     * Remove the record
+     *
+     * @param type
+     * @param id
+     * @throws IOException
+     */
+    public void remove(RecordType type, int id) throws IOException {
+        if (contains(type, id)) {
+            append(new Record(key(type, id), type.ordinal() | TOMBSTONE, id, System.currentTimeMillis(), new byte[0]));
+        }
+    }
+
+    private void append(Record record) throws IOException {
+        synchronized (this) {
+            checkOpen();
+            if (active.size > 0 && active.size + record.size() > maxSegmentSize) {
+                roll();
+            }
+            record.position = active.size;
+            active.write(record);
+            apply(record, active);
+        }
+        if (needsCompaction()) {
+            compactInBackground();
+        }
+    }
+
+    /**
+     * Seal the active segment and start a new one
+     */
+    private void roll() throws IOException {
+        active.seal();
+        active = new Segment(active.id + 1, segmentFile(active.id + 1));
+        segments.put(active.id, active);
+        LOG.debug("Started catalog segment {}", active.file);
+    }
+
+    /**
+     * Check if enough of the sealed segments is garbage to be worth
+     * compacting
+     */
+    private synchronized boolean needsCompaction() {
+        long size = 0;
+        long garbage = 0;
+        for (Segment segment : segments.values()) {
+            if (segment != active) {
+                size += segment.size;
+                garbage += segment.garbage;
+            }
+        }
+        return garbage > 0 && garbage >= size * COMPACTION_RATIO;
+    }
+
+    private void compactInBackground() {
+        if (closed || !compactionPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compactor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    compactionPending.set(false);
+                    try {
+                        compact();
+                    } catch (IOException ex) {
+                        LOG.warn("Failed to compact the catalog in {}: {}", directory, ex.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // The store is closing
+            compactionPending.set(false);
+        }
+    }
+
+    /**
+     * Rewrite the sealed segments into one segment holding only their live
+     * records.
+     *
+     * The new segment takes the ID of the newest sealed segment, so that the
+     * records are still replayed in the order they were written.
+     *
+     * @throws IOException
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            List<Segment> sealed = new ArrayList<Segment>();
+            synchronized (this) {
+                checkOpen();
+                // The oldest sealed segments, as many as will fit in one mapping
+                long live = 0;
+                for (Segment segment : segments.values()) {
+                    live += segment.size - segment.garbage;
+                    if (segment == active || (live > Integer.MAX_VALUE && !sealed.isEmpty())) {
+                        break;
+                    }
+                    sealed.add(segment);
+                }
+            }
+            if (sealed.isEmpty()) {
+                return;
+            }
+
+            int targetId = sealed.get(sealed.size() - 1).id;
+            File temp = new File(directory, segmentName(targetId, COMPACT_SUFFIX));
+            Segment target = new Segment(targetId, temp);
+            List<Record> moved = new ArrayList<Record>();
+            List<Location> from = new ArrayList<Location>();
+            Set<Long> tombstones = new HashSet<Long>();
+            try {
+                for (Segment segment : sealed) {
+                    ByteBuffer buffer = segment.map.duplicate();
+                    long position = 0;
+                    Record record;
+                    while (buffer.remaining() > 0 && (record = Record.read(buffer, position)) != null) {
+                        position += record.size();
+                        if (record.isTombstone()) {
+                            // Keep the tombstone in case an older segment is left behind by a crash
+                            if (!index.containsKey(record.key) && tombstones.add(record.key)) {
+                                record.position = target.size;
+                                target.write(record);
+                            }
+                            continue;
+                        }
+                        Location location = index.get(record.key);
+                        if (location != null && location.segment == segment && location.position == record.position) {
+                            from.add(location);
+                            record.position = target.size;
+                            target.write(record);
+                            moved.add(record);
+                        }
+                    }
+                }
+                target.channel.force(true);
+            } catch (IOException ex) {
+                target.close();
+                deleteFile(temp);
+                throw ex;
+            }
+
+            synchronized (this) {
+                checkOpen();
+                target.close();
+                // Once renamed the compacted segment replaces the old ones, even after a crash
+                File done = new File(directory, segmentName(targetId, DONE_SUFFIX));
+                if (!temp.renameTo(done)) {
+                    deleteFile(temp);
+                    throw new IOException("Unable to rename " + temp + " to " + done);
+                }
+
+                // The old segments are closed first, as open files cannot be deleted on all platforms
+                for (Segment segment : sealed) {
+                    segments.remove(segment.id);
+                    segment.close();
+                    deleteFile(segment.file);
+                }
+                Segment compacted = new Segment(targetId, swap(done, segmentFile(targetId)));
+                compacted.size = target.size;
+                compacted.seal();
+
+                for (int i = 0; i < moved.size(); i++) {
+                    Record record = moved.get(i);
+                    Location location = new Location(compacted, record.position, record.data.length, record.time);
+                    if (!index.replace(record.key, from.get(i), location)) {
+                        // Replaced or removed while compacting
+                        compacted.garbage += record.size();
+                    }
+                }
+
+                segments.put(targetId, compacted);
+            }
+            compactions.incrementAndGet();
+            LOG.debug("Compacted {} catalog segments into {} ({} records)", sealed.size(), segmentFile(targetId), moved.size());
+        }
+    }
+
+    /**
+     * Write the records to disk
+     *
+     * @throws IOException
+     */
+    public synchronized void sync() throws IOException {
+        checkOpen();
+        active.channel.force(false);
+    }
+
+    /**
+     * Close the store, waiting for any compaction to finish
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            active.channel.force(false);
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Statistics">
+    /**
+     * The number of records in the store
+     *
+     * @return
+     */
+    public int size() {
+        return index.size();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * The total size of the segments
+     *
+     * @return
+     */
+    public synchronized long getSize() {
+        long size = 0;
+        for (Segment segment : segments.values()) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * The size of the records that have been replaced or removed
+     *
+     * @return
+     */
+    public synchronized long getGarbageSize() {
+        long garbage = 0;
+        for (Segment segment : segments.values()) {
+            garbage += segment.garbage;
+        }
+        return garbage;
+    }
+
+    public long getCompactionCount() {
+        return compactions.get();
+    }
+    //</editor-fold>
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The catalog store is closed");
+        }
+    }
+
+    private static long key(RecordType type, int id) {
+        return ((long) type.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private File segmentFile(int id) {
+        return new File(directory, segmentName(id, SEGMENT_SUFFIX));
+    }
+
+    private static String segmentName(int id, String suffix) {
+        return String.format("segment-%08d%s", id, suffix);
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("Unable to delete {}", file);
+        }
+    }
+
+    /**
+     * The position of a record in a segment
+     */
+    private static final class Location {
+
+        private final Segment segment;
+        private final long position;
+        private final int length;
+        private final long time;
+
+        Location(Segment segment, long position, int length, long time) {
+            this.segment = segment;
+            this.position = position;
+            this.length = length;
+            this.time = time;
+        }
+
+        long size() {
+            return (long) HEADER_SIZE + length;
+        }
+    }
+
+    /**
+     * A record as it is held in a segment
+     */
+    private static final class Record {
+
+        private final long key;
+        private final int kind;
+        private final int id;
+        private final long time;
+        private final byte[] data;
+        private long position;
+
+        Record(long key, int kind, int id, long time, byte[] data) {
+            this.key = key;
+            this.kind = kind;
+            this.id = id;
+            this.time = time;
+            this.data = data;
+        }
+
+        boolean isTombstone() {
+            return (kind & TOMBSTONE) != 0;
+        }
+
+        int size() {
+            return HEADER_SIZE + data.length;
+        }
+
+        ByteBuffer toBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocate(size());
+            buffer.putInt(checksum(kind, id, time, data));
+            buffer.putInt(data.length);
+            buffer.put((byte) kind);
+            buffer.putInt(id);
+            buffer.putLong(time);
+            buffer.put(data);
+            buffer.flip();
+            return buffer;
+        }
+
+        /**
+         * Read the next record from the buffer
+         *
+         * @return The record, or null if the rest of the buffer is not a
+         * complete record
+         */
+        static Record read(ByteBuffer buffer, long position) {
+            if (buffer.remaining() < HEADER_SIZE) {
+                return null;
+            }
+            int start = buffer.position();
+            int crc = buffer.getInt();
+            int length = buffer.getInt();
+            int kind = buffer.get() & 0xFF;
+            int id = buffer.getInt();
+            long time = buffer.getLong();
+            int type = kind & ~TOMBSTONE;
+            if (length < 0 || length > buffer.remaining() || type >= RecordType.values().length) {
+                buffer.position(start);
+                return null;
+            }
+            byte[] data = new byte[length];
+            buffer.get(data);
+            if (crc != checksum(kind, id, time, data)) {
+                buffer.position(start);
+                return null;
+            }
+            Record record = new Record(key(RecordType.values()[type], id), kind, id, time, data);
+            record.position = position;
+            return record;
+        }
+
+        static int checksum(int kind, int id, long time, byte[] data) {
+            CRC32 crc = new CRC32();
+            crc.update(kind);
+            crc.update(ByteBuffer.allocate(4 + 8).putInt(id).putLong(time).array());
+            crc.update(data);
+            return (int) crc.getValue();
+        }
+    }
+
+    /**
+     * A segment file. The active segment is read through its channel, sealed
+     * segments are memory mapped.
+     */
+    private static final class Segment {
+
+        private final int id;
+        private final File file;
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private volatile MappedByteBuffer map;
+        // Guarded by the store
+        private long size = 0;
+        private long garbage = 0;
+
+        Segment(int id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+        }
+
+        void write(Record record) throws IOException {
+            ByteBuffer buffer = record.toBuffer();
+            long position = size;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            size = position;
+        }
+
+        /**
+         * Stop writing to the segment and map it
+         */
+        void seal() throws IOException {
+            channel.force(false);
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        byte[] read(Location location) throws IOException {
+            ByteBuffer buffer;
+            MappedByteBuffer mapped = map;
+            if (mapped != null) {
+                buffer = slice(mapped, location);
+            } else {
+                try {
+                    buffer = readChannel(location);
+                } catch (ClosedChannelException ex) {
+                    // Sealed and compacted while it was being read, the mapping is still valid
+                    mapped = map;
+                    if (mapped == null) {
+                        throw ex;
+                    }
+                    buffer = slice(mapped, location);
+                }
+            }
+            Record record = Record.read(buffer, location.position);
+            if (record == null) {
+                throw new IOException("Corrupt record at " + location.position + " in " + file);
+            }
+            return record.data;
+        }
+
+        private static ByteBuffer slice(MappedByteBuffer mapped, Location location) {
+            ByteBuffer buffer = mapped.duplicate();
+            buffer.position((int) location.position);
+            buffer.limit((int) (location.position + location.size()));
+            return buffer;
+        }
+
+        private ByteBuffer readChannel(Location location) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) location.size());
+            long position = location.position;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Record is past the end of " + file);
+                }
+                position += read;
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        void close() throws IOException {
+            // The mapping stays valid for readers that still hold a location
+            raf.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import java.io.IOException;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.yamj.api.common.http.CommonHttpClient;
+
+/**
+ * Transport that sends the requests with a yamj CommonHttpClient.
+ *
+ * The client belongs to the caller, so it is not shut down with the transport.
+ *
+ * @author Stuart
+ */
+public class CommonHttpClientTransport implements Transport {
+
+    private final CommonHttpClient httpClient;
+    private final CompressionStats compressionStats = new CompressionStats();
+
+    public CommonHttpClientTransport(CommonHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public WebResponse execute(WebRequest request) throws MovieDbException {
+        HttpUriRequest httpRequest = PooledHttpClient.createRequest(request);
+
+        try {
+            return PooledHttpClient.createResponse(httpClient.execute(httpRequest), compressionStats);
+        } catch (IOException ex) {
+            httpRequest.abort();
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, request.getUrl(), ex);
+        } catch (RuntimeException ex) {
+            // Reported as before the transports were added
+            httpRequest.abort();
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.HTTP_503_ERROR, "Service Unavailable", request.getUrl(), ex);
+        }
+    }
+
+    public CommonHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Get the statistics of the compressed responses
+     *
+     * @return
+     */
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    @Override
+    public void shutdown() {
+        // The client belongs to the caller
+    }
+}
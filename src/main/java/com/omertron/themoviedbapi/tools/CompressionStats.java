@@ -0,0 +1,185 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.apache.commons.io.input.ProxyInputStream;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Decode compressed responses and count the bytes received against the bytes
+ * decoded.
+ *
+ * The content is decompressed as it is read, it is never held in full.
+ *
+ * @author Stuart
+ */
+public class CompressionStats {
+
+    // The value to send in the Accept-Encoding header
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final String ENCODING_GZIP = "gzip";
+    private static final String ENCODING_X_GZIP = "x-gzip";
+    private static final String ENCODING_DEFLATE = "deflate";
+    // zlib header values
+    private static final int ZLIB_METHOD_MASK = 0x0F;
+    private static final int ZLIB_METHOD_DEFLATE = 8;
+    private static final int ZLIB_CHECK = 31;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BYTE_SHIFT = 8;
+    // Statistics
+    private final AtomicLong receivedBytes = new AtomicLong(0);
+    private final AtomicLong decodedBytes = new AtomicLong(0);
+    private final AtomicLong compressedCount = new AtomicLong(0);
+    private final AtomicLong uncompressedCount = new AtomicLong(0);
+
+    /**
+     * Wrap the content so that it is decoded and counted as it is read
+     *
+     * @param content The content as received
+     * @param contentEncoding The value of the Content-Encoding header, can be
+     * null
+     * @return The decoded content
+     * @throws IOException If the compression header could not be read
+     */
+    public InputStream decode(InputStream content, String contentEncoding) throws IOException {
+        InputStream received = new CountingStream(content, receivedBytes);
+        String encoding = StringUtils.trimToEmpty(contentEncoding).toLowerCase();
+
+        InputStream decoded;
+        if (ENCODING_GZIP.equals(encoding) || ENCODING_X_GZIP.equals(encoding)) {
+            compressedCount.incrementAndGet();
+            decoded = new GZIPInputStream(received);
+        } else if (ENCODING_DEFLATE.equals(encoding)) {
+            compressedCount.incrementAndGet();
+            decoded = inflate(received);
+        } else {
+            uncompressedCount.incrementAndGet();
+            decoded = received;
+        }
+        return new CountingStream(decoded, decodedBytes);
+    }
+
+    /**
+     * Inflate "deflate" content.
+     *
+     * This should be zlib wrapped, but some servers send the raw deflate data,
+     * so check the header to see which it is.
+     *
+     * @param content
+     * @return
+     * @throws IOException
+     */
+    private static InputStream inflate(InputStream content) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(content, 2);
+        int first = pushback.read();
+        int second = pushback.read();
+        if (second >= 0) {
+            pushback.unread(second);
+        }
+        if (first >= 0) {
+            pushback.unread(first);
+        }
+
+        boolean zlib = first >= 0 && second >= 0
+                && (first & ZLIB_METHOD_MASK) == ZLIB_METHOD_DEFLATE
+                && (((first & BYTE_MASK) << BYTE_SHIFT) | (second & BYTE_MASK)) % ZLIB_CHECK == 0;
+        return new InflaterInputStream(pushback, new Inflater(!zlib));
+    }
+
+    /**
+     * The number of bytes received
+     *
+     * @return
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * The number of bytes after decompression
+     *
+     * @return
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    /**
+     * The number of bytes saved by compression
+     *
+     * @return
+     */
+    public long getSavedBytes() {
+        return decodedBytes.get() - receivedBytes.get();
+    }
+
+    /**
+     * The number of responses that were compressed
+     *
+     * @return
+     */
+    public long getCompressedCount() {
+        return compressedCount.get();
+    }
+
+    /**
+     * The number of responses that were not compressed
+     *
+     * @return
+     */
+    public long getUncompressedCount() {
+        return uncompressedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats [received=" + receivedBytes.get()
+                + ", decoded=" + decodedBytes.get()
+                + ", compressed=" + compressedCount.get()
+                + ", uncompressed=" + uncompressedCount.get() + "]";
+    }
+
+    /**
+     * Add the bytes read from the stream to a counter
+     */
+    private static class CountingStream extends ProxyInputStream {
+
+        private final AtomicLong counter;
+
+        CountingStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        protected void afterRead(int n) {
+            if (n > 0) {
+                counter.addAndGet(n);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.model.TmdbConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the configuration of the API, loading it when it is first needed.
+ *
+ * The last configuration that was loaded can be kept in a local file. When
+ * the file is read at start up its configuration is used straight away and
+ * the configuration is refreshed from the API in the background, so start up
+ * does not wait for the network or fail when the API can not be reached.
+ *
+ * @author Stuart
+ */
+public class ConfigurationCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurationCache.class);
+    private static final String ENCODING = "UTF-8";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private final Loader loader;
+    private final JsonMapper mapper;
+    private final File file;
+    private final Object lock = new Object();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile TmdbConfiguration configuration;
+
+    /**
+     * Loads the configuration from the API
+     */
+    public interface Loader {
+
+        TmdbConfiguration load() throws MovieDbException;
+    }
+
+    /**
+     * Create the cache
+     *
+     * @param loader Loads the configuration from the API
+     * @param mapper Used to read and write the file
+     * @param file The file to keep the configuration in, or null to only keep
+     * it in memory
+     */
+    public ConfigurationCache(Loader loader, JsonMapper mapper, File file) {
+        this.loader = loader;
+        this.mapper = mapper;
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Read the configuration from the file, if there is one.
+     *
+     * A file that can not be read is logged and ignored.
+     *
+     * @return True if the configuration was read
+     */
+    public boolean loadPersisted() {
+        if (file == null || !file.isFile()) {
+            return false;
+        }
+
+        try {
+            TmdbConfiguration persisted = mapper.readValue(FileUtils.readFileToString(file, ENCODING), TmdbConfiguration.class);
+            if (persisted == null || persisted.getBaseUrl() == null) {
+                LOG.warn("Ignoring incomplete configuration in {}", file);
+                return false;
+            }
+            synchronized (lock) {
+                if (configuration == null) {
+                    configuration = persisted;
+                }
+            }
+            LOG.debug("Read configuration from {}", file);
+            return true;
+        } catch (IOException ex) {
+            LOG.warn("Failed to read configuration from {}: {}", file, ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get the configuration, loading it from the API if it has not been
+     * loaded
+     *
+     * @return
+     * @throws MovieDbException
+     */
+    public TmdbConfiguration get() throws MovieDbException {
+        TmdbConfiguration current = configuration;
+        if (current == null) {
+            synchronized (lock) {
+                current = configuration;
+                if (current == null) {
+                    current = load();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Load the configuration from the API, replacing the current one
+     *
+     * @return
+     * @throws MovieDbException
+     */
+    public TmdbConfiguration refresh() throws MovieDbException {
+        synchronized (lock) {
+            return load();
+        }
+    }
+
+    /**
+     * Refresh the configuration in a background thread.
+     *
+     * If the refresh fails the current configuration is kept.
+     *
+     * @return False if a refresh is already running
+     */
+    public boolean refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (MovieDbException ex) {
+                    LOG.warn("Failed to refresh the configuration, keeping the current one: {} {}", ex.getExceptionType(), ex.getResponse());
+                } finally {
+                    refreshing.set(false);
+                }
+            }
+        }, "TheMovieDb-ConfigurationRefresh");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Load the configuration, holding the lock.
+     *
+     * An incomplete configuration is rejected and the current one is kept.
+     */
+    private TmdbConfiguration load() throws MovieDbException {
+        TmdbConfiguration loaded = loader.load();
+        if (loaded == null || loaded.getBaseUrl() == null) {
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.MAPPING_FAILED, "Incomplete configuration", (String) null);
+        }
+        configuration = loaded;
+        save(loaded);
+        return loaded;
+    }
+
+    /**
+     * Write the configuration to the file.
+     *
+     * The file is written to a temporary file first, so that a failed write
+     * does not leave a partial file behind.
+     */
+    private void save(TmdbConfiguration config) {
+        if (file == null || config == null) {
+            return;
+        }
+
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        try {
+            FileUtils.writeStringToFile(temp, mapper.writeValueAsString(config), ENCODING);
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+                throw new IOException("Unable to rename " + temp + " to " + file);
+            }
+            LOG.debug("Saved configuration to {}", file);
+        } catch (IOException ex) {
+            LOG.warn("Failed to save configuration to {}: {}", file, ex.getMessage());
+            FileUtils.deleteQuietly(temp);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Methods used by the generated deserializers to read values from the parser.
+ *
+ * Each method expects the parser to be on the first token of the value and
+ * leaves it on the last token of the value. The conversions follow those of
+ * the Jackson databind deserializers.
+ *
+ * @author Stuart
+ */
+public final class DeserializerSupport {
+
+    private DeserializerSupport() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return p.getText();
+        } else if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (token != null && token.isScalarValue()) {
+            return p.getText();
+        }
+        throw ctxt.mappingException(String.class);
+    }
+
+    public static int readInt(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getIntValue();
+        } else if (token == JsonToken.VALUE_NULL) {
+            return 0;
+        } else if (token != null && token.isScalarValue()) {
+            return p.getValueAsInt();
+        }
+        throw ctxt.mappingException(int.class);
+    }
+
+    public static long readLong(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getLongValue();
+        } else if (token == JsonToken.VALUE_NULL) {
+            return 0L;
+        } else if (token != null && token.isScalarValue()) {
+            return p.getValueAsLong();
+        }
+        throw ctxt.mappingException(long.class);
+    }
+
+    public static float readFloat(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return (float) readDouble(p, ctxt);
+    }
+
+    public static double readDouble(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getDoubleValue();
+        } else if (token == JsonToken.VALUE_NULL) {
+            return 0D;
+        } else if (token != null && token.isScalarValue()) {
+            return p.getValueAsDouble();
+        }
+        throw ctxt.mappingException(double.class);
+    }
+
+    public static boolean readBoolean(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_TRUE) {
+            return true;
+        } else if (token == JsonToken.VALUE_FALSE || token == JsonToken.VALUE_NULL) {
+            return false;
+        } else if (token != null && token.isScalarValue()) {
+            return p.getValueAsBoolean();
+        }
+        throw ctxt.mappingException(boolean.class);
+    }
+
+    public static Boolean readBooleanObject(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return readBoolean(p, ctxt);
+    }
+
+    /**
+     * Read an object with its deserializer
+     *
+     * @param <T>
+     * @param p
+     * @param ctxt
+     * @param deserializer
+     * @return
+     * @throws IOException
+     */
+    public static <T> T readObject(JsonParser p, DeserializationContext ctxt, JsonDeserializer<T> deserializer) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return deserializer.deserialize(p, ctxt);
+    }
+
+    /**
+     * Read a list of objects with the deserializer for the elements
+     *
+     * @param <T>
+     * @param p
+     * @param ctxt
+     * @param deserializer
+     * @return
+     * @throws IOException
+     */
+    public static <T> List<T> readList(JsonParser p, DeserializationContext ctxt, JsonDeserializer<T> deserializer) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (token != JsonToken.START_ARRAY) {
+            throw ctxt.mappingException(List.class);
+        }
+
+        List<T> list = new ArrayList<T>();
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            list.add(token == JsonToken.VALUE_NULL ? null : deserializer.deserialize(p, ctxt));
+        }
+        return list;
+    }
+
+    /**
+     * Read a list of strings
+     *
+     * @param p
+     * @param ctxt
+     * @return
+     * @throws IOException
+     */
+    public static List<String> readStringList(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (token != JsonToken.START_ARRAY) {
+            throw ctxt.mappingException(List.class);
+        }
+
+        List<String> list = new ArrayList<String>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            list.add(readString(p, ctxt));
+        }
+        return list;
+    }
+
+    /**
+     * Read a value of any other type using the databind mapper
+     *
+     * @param <T>
+     * @param p
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    public static <T> T readValue(JsonParser p, TypeReference<T> type) throws IOException {
+        return p.getCodec().readValue(p, type);
+    }
+
+    /**
+     * Read an unknown property as the basic Java types (map, list, string,
+     * number or boolean)
+     *
+     * @param p
+     * @return
+     * @throws IOException
+     */
+    public static Object readAny(JsonParser p) throws IOException {
+        return p.readValueAs(Object.class);
+    }
+}
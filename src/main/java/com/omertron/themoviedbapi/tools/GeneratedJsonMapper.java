@@ -0,0 +1,102 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Mapper that uses the deserializers generated at build time for the model
+ * and wrapper classes.
+ *
+ * The generated deserializers read the properties from the parser and call
+ * the setters directly, so the classes are bound without reflection. Any
+ * other types are mapped by Jackson as normal.
+ *
+ * @author Stuart
+ */
+public class GeneratedJsonMapper extends JacksonMapper {
+
+    // The class generated by the DeserializerProcessor
+    private static final String REGISTRY = "com.omertron.themoviedbapi.tools.GeneratedDeserializers";
+    private static final String MODULE_NAME = "GeneratedDeserializers";
+
+    /**
+     * Create the mapper
+     *
+     * @throws IllegalStateException if the deserializers were not generated
+     */
+    public GeneratedJsonMapper() {
+        this(false);
+    }
+
+    /**
+     * Create the mapper
+     *
+     * @param lazySections Keep the JSON of the append_to_response sections
+     * until they are read, see {@link LazySectionModule}
+     * @throws IllegalStateException if the deserializers were not generated
+     */
+    public GeneratedJsonMapper(boolean lazySections) {
+        this(createObjectMapper(lazySections), lazySections);
+    }
+
+    /**
+     * Create the mapper, adding the generated deserializers to the object
+     * mapper
+     *
+     * @param mapper
+     * @throws IllegalStateException if the deserializers were not generated
+     */
+    public GeneratedJsonMapper(ObjectMapper mapper) {
+        this(mapper, false);
+    }
+
+    private GeneratedJsonMapper(ObjectMapper mapper, boolean readWholeContent) {
+        super(mapper, readWholeContent);
+        mapper.registerModule(createModule());
+    }
+
+    /**
+     * Create a module with the generated deserializers
+     *
+     * @return
+     * @throws IllegalStateException if the deserializers were not generated
+     */
+    public static SimpleModule createModule() {
+        SimpleModule module = new SimpleModule(MODULE_NAME);
+        try {
+            // Found at runtime, the class does not exist until the processor has run
+            Method register = Class.forName(REGISTRY).getMethod("register", SimpleModule.class);
+            register.invoke(null, module);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException("The deserializers have not been generated", ex);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("Failed to register the generated deserializers", ex);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Failed to register the generated deserializers", ex);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException("Failed to register the generated deserializers", ex.getCause());
+        }
+        return module;
+    }
+}
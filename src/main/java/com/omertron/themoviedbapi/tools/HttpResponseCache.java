@@ -0,0 +1,306 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Apply the HTTP caching rules to the responses held in a
+ * {@link ResponseCache}.
+ *
+ * Responses are stored if the server allows it (Cache-Control or Expires) or
+ * if they can be revalidated (ETag or Last-Modified). Fresh responses are used
+ * without a request, stale ones are checked with a conditional request so that
+ * an unchanged response only costs a "304 Not Modified".
+ *
+ * @author Stuart
+ */
+public class HttpResponseCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpResponseCache.class);
+    // Status codes
+    public static final int HTTP_OK = 200;
+    public static final int HTTP_NOT_MODIFIED = 304;
+    // Headers
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_EXPIRES = "Expires";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    // Cache-Control directives
+    private static final String NO_STORE = "no-store";
+    private static final String NO_CACHE = "no-cache";
+    private static final String MAX_AGE = "max-age=";
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long NOT_CACHEABLE = -1L;
+    // The resource is the version, type and ID at the start of the path, e.g. /3/list/{id}
+    private static final int RESOURCE_SEGMENTS = 3;
+    private final ResponseCache store;
+    // Statistics
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong revalidationCount = new AtomicLong(0);
+
+    public HttpResponseCache(ResponseCache store) {
+        this.store = store;
+    }
+
+    public ResponseCache getStore() {
+        return store;
+    }
+
+    /**
+     * Get the response if it can be used without checking with the server
+     *
+     * @param key The normalised URL of the request
+     * @return The response, or null if a request is needed
+     */
+    public CachedResponse getFresh(String key) {
+        CachedResponse cached = store.get(key);
+        if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        return null;
+    }
+
+    /**
+     * Get the headers to make the request conditional on the stored response
+     * having changed
+     *
+     * @param key The normalised URL of the request
+     * @return The headers, empty if there is no stored response
+     */
+    public Map<String, String> getConditionalHeaders(String key) {
+        CachedResponse cached = store.get(key);
+        if (cached == null || !cached.hasValidator()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> headers = new HashMap<String, String>();
+        if (cached.getEtag() != null) {
+            headers.put(HEADER_IF_NONE_MATCH, cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            headers.put(HEADER_IF_MODIFIED_SINCE, cached.getLastModified());
+        }
+        return headers;
+    }
+
+    /**
+     * Process the response from the server.
+     *
+     * A "304 Not Modified" is replaced with the stored response. If the stored
+     * response has been removed since the conditional headers were added, the
+     * 304 is returned and the request should be made again without them (see
+     * {@link #isNotModified(WebResponse)}). A cacheable response is read in
+     * full and stored, any other response is returned unchanged.
+     *
+     * @param key The normalised URL of the request
+     * @param response The response from the server
+     * @return The response to use
+     * @throws IOException If the response could not be read
+     */
+    public WebResponse process(String key, WebResponse response) throws IOException {
+        long now = System.currentTimeMillis();
+
+        if (response.getStatusCode() == HTTP_NOT_MODIFIED) {
+            CachedResponse cached = store.get(key);
+            if (cached != null) {
+                revalidationCount.incrementAndGet();
+                response.close();
+                long expires = Math.max(getExpires(response, now), now);
+                CachedResponse refreshed = cached.refresh(response.getHeader(HEADER_ETAG), response.getHeader(HEADER_LAST_MODIFIED), expires);
+                store.put(key, refreshed);
+                return refreshed.toWebResponse(HTTP_OK);
+            }
+            LOG.debug("Not modified response without a cached copy for '{}'", key);
+            return response;
+        }
+
+        missCount.incrementAndGet();
+        if (response.getStatusCode() != HTTP_OK) {
+            return response;
+        }
+
+        long expires = getExpires(response, now);
+        String etag = response.getHeader(HEADER_ETAG);
+        String lastModified = response.getHeader(HEADER_LAST_MODIFIED);
+        if (expires == NOT_CACHEABLE || (expires <= now && etag == null && lastModified == null)) {
+            store.remove(key);
+            return response;
+        }
+
+        byte[] content;
+        try {
+            content = IOUtils.toByteArray(response.getContent());
+        } finally {
+            response.close();
+        }
+
+        store.put(key, new CachedResponse(content, response.getCharset(), etag, lastModified, expires));
+        return new WebResponse(response.getStatusCode(), response.getHeaders(), new ByteArrayInputStream(content), response.getCharset());
+    }
+
+    /**
+     * Check if the response is a "304 Not Modified" that could not be
+     * replaced with a stored response
+     *
+     * @param response The response returned by {@link #process}
+     * @return
+     */
+    public static boolean isNotModified(WebResponse response) {
+        return response.getStatusCode() == HTTP_NOT_MODIFIED;
+    }
+
+    /**
+     * Remove the stored responses for the resource changed by a POST or
+     * DELETE request.
+     *
+     * The resource is the type and ID at the start of the path, so a request
+     * to "list/{id}/add_item" removes "list/{id}" and everything below it.
+     *
+     * @param key The normalised URL of the request that changed the resource
+     */
+    public void invalidate(String key) {
+        int query = key.indexOf('?');
+        String path = query < 0 ? key : key.substring(0, query);
+
+        // Skip the scheme and host
+        int end = path.indexOf("//");
+        end = path.indexOf('/', end < 0 ? 0 : end + 2);
+        for (int segment = 0; segment < RESOURCE_SEGMENTS && end >= 0; segment++) {
+            end = path.indexOf('/', end + 1);
+        }
+        String resource = end < 0 ? path : path.substring(0, end);
+
+        LOG.trace("Removing cached responses for '{}'", resource);
+        store.remove(resource);
+        store.removeAll(resource + "/");
+        store.removeAll(resource + "?");
+    }
+
+    /**
+     * Make the stored response stale, so that the next request checks with
+     * the server. The validators are kept, so an unchanged response is not
+     * sent again.
+     *
+     * @param key The normalised URL of the request
+     */
+    public void expire(String key) {
+        CachedResponse cached = store.get(key);
+        if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+            store.put(key, cached.refresh(null, null, 0L));
+        }
+    }
+
+    /**
+     * Work out when the response expires from the Cache-Control and Expires
+     * headers
+     *
+     * @param response
+     * @param now
+     * @return The expiry time, or NOT_CACHEABLE if the response must not be
+     * stored
+     */
+    private static long getExpires(WebResponse response, long now) {
+        String cacheControl = response.getHeader(HEADER_CACHE_CONTROL);
+        if (StringUtils.isNotBlank(cacheControl)) {
+            for (String directive : cacheControl.split(",")) {
+                String value = directive.trim().toLowerCase();
+                if (NO_STORE.equals(value)) {
+                    return NOT_CACHEABLE;
+                } else if (NO_CACHE.equals(value)) {
+                    // Can be stored, but must be revalidated every time
+                    return now;
+                } else if (value.startsWith(MAX_AGE)) {
+                    return now + NumberUtils.toLong(value.substring(MAX_AGE.length()), 0L) * MILLIS_PER_SECOND;
+                }
+            }
+        }
+
+        String expires = response.getHeader(HEADER_EXPIRES);
+        if (StringUtils.isNotBlank(expires)) {
+            try {
+                Date date = DateUtils.parseDate(expires.trim());
+                return date.getTime();
+            } catch (DateParseException ex) {
+                LOG.trace("Unable to parse Expires '{}'", expires);
+            }
+        }
+        return now;
+    }
+
+    /**
+     * Remove all the stored responses
+     */
+    public void clear() {
+        store.clear();
+    }
+
+    /**
+     * The number of responses used without a request
+     *
+     * @return
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * The number of responses that had to be downloaded
+     *
+     * @return
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * The number of stored responses the server said had not changed
+     *
+     * @return
+     */
+    public long getRevalidationCount() {
+        return revalidationCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "HttpResponseCache [hits=" + hitCount.get()
+                + ", misses=" + missCount.get()
+                + ", revalidations=" + revalidationCount.get()
+                + ", store=" + store + "]";
+    }
+}
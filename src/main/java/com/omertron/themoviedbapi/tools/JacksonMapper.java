@@ -0,0 +1,106 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Mapper that uses a Jackson ObjectMapper.
+ *
+ * @author Stuart
+ */
+public class JacksonMapper implements JsonMapper {
+
+    private final ObjectMapper mapper;
+    // Read the whole response before mapping it, so the lazy sections can be copied from it
+    private final boolean readWholeContent;
+
+    public JacksonMapper() {
+        this(createObjectMapper(false));
+    }
+
+    /**
+     * Create the mapper
+     *
+     * @param lazySections Keep the JSON of the append_to_response sections
+     * until they are read, see {@link LazySectionModule}
+     */
+    public JacksonMapper(boolean lazySections) {
+        this(createObjectMapper(lazySections), lazySections);
+    }
+
+    public JacksonMapper(ObjectMapper mapper) {
+        this(mapper, false);
+    }
+
+    /**
+     * Create the mapper
+     *
+     * @param mapper
+     * @param readWholeContent Read the whole response into memory before
+     * mapping it
+     */
+    protected JacksonMapper(ObjectMapper mapper, boolean readWholeContent) {
+        this.mapper = mapper;
+        this.readWholeContent = readWholeContent;
+    }
+
+    /**
+     * Create an object mapper that skips the unknown properties, see
+     * {@link UnknownPropertyModule}
+     *
+     * @param lazySections Keep the JSON of the append_to_response sections
+     * until they are read
+     * @return
+     */
+    protected static ObjectMapper createObjectMapper(boolean lazySections) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new UnknownPropertyModule());
+        if (lazySections) {
+            mapper.registerModule(new LazySectionModule());
+        }
+        return mapper;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
+    @Override
+    public <T> T readValue(InputStream content, Class<T> type) throws IOException {
+        if (readWholeContent) {
+            return mapper.readValue(IOUtils.toByteArray(content), type);
+        }
+        return mapper.readValue(content, type);
+    }
+
+    @Override
+    public <T> T readValue(String content, Class<T> type) throws IOException {
+        return mapper.readValue(content, type);
+    }
+
+    @Override
+    public String writeValueAsString(Object value) throws IOException {
+        return mapper.writeValueAsString(value);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Maps the JSON responses to the model classes.
+ *
+ * The default is the {@link JacksonMapper}, which uses the Jackson reflection
+ * based binding. The {@link GeneratedJsonMapper} uses the deserializers
+ * generated at build time and the {@link SimpleJsonMapper} binds with cached
+ * reflection without the Jackson databind module.
+ *
+ * @author Stuart
+ */
+public interface JsonMapper {
+
+    /**
+     * Read the JSON from the stream into an object of the type
+     *
+     * @param <T>
+     * @param content
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    <T> T readValue(InputStream content, Class<T> type) throws IOException;
+
+    /**
+     * Read the JSON into an object of the type
+     *
+     * @param <T>
+     * @param content
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    <T> T readValue(String content, Class<T> type) throws IOException;
+
+    /**
+     * Write the object as JSON
+     *
+     * @param value
+     * @return
+     * @throws IOException
+     */
+    String writeValueAsString(Object value) throws IOException;
+}
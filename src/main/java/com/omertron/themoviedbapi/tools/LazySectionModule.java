@@ -0,0 +1,127 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.omertron.themoviedbapi.model.AppendedSection;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Module that keeps the append_to_response sections of the responses as raw
+ * JSON, they are only mapped when the section is read.
+ *
+ * This saves mapping the sections that are never read, which is useful when
+ * everything is requested once and cached. When the response is read from a
+ * byte array or string the section is skipped by the parser and its JSON is
+ * copied from the input, which is much cheaper than mapping it. Otherwise the
+ * tokens of the section are copied into a buffer.
+ *
+ * @author Stuart
+ */
+public class LazySectionModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public LazySectionModule() {
+        super("LazySectionModule");
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        context.addDeserializers(new Deserializers.Base() {
+            @Override
+            public JsonDeserializer<?> findBeanDeserializer(JavaType type, DeserializationConfig config, BeanDescription beanDesc) {
+                if (type.getRawClass() != AppendedSection.class) {
+                    return null;
+                }
+                JavaType valueType = type.containedType(0);
+                return new LazySectionDeserializer(valueType == null ? TypeFactory.unknownType() : valueType);
+            }
+        });
+    }
+
+    /**
+     * Copies the JSON of the section
+     */
+    private static final class LazySectionDeserializer extends JsonDeserializer<AppendedSection<?>> {
+
+        private final JavaType valueType;
+
+        LazySectionDeserializer(JavaType valueType) {
+            this.valueType = valueType;
+        }
+
+        @Override
+        public AppendedSection<?> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.getCodec() == null) {
+                // Nothing to map the tokens with later
+                Object value = ctxt.findRootValueDeserializer(valueType).deserialize(p, ctxt);
+                return new AppendedSection<Object>(value);
+            }
+
+            JsonToken token = p.getCurrentToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                // The parser has only read the opening bracket, the token location is not used as it can be that of the field name
+                JsonLocation location = p.getCurrentLocation();
+                Object source = location.getSourceRef();
+                char open = token == JsonToken.START_OBJECT ? '{' : '[';
+
+                // Only copy the JSON if the location matches the source, otherwise copy the tokens
+                if (source instanceof byte[] && isAt((byte[]) source, location.getByteOffset() - 1, open)) {
+                    int start = (int) location.getByteOffset() - 1;
+                    p.skipChildren();
+                    int end = (int) p.getCurrentLocation().getByteOffset();
+                    return new AppendedSection<Object>(Arrays.copyOfRange((byte[]) source, start, end), p.getCodec(), valueType);
+                } else if (source instanceof String && isAt((String) source, location.getCharOffset() - 1, open)) {
+                    int start = (int) location.getCharOffset() - 1;
+                    p.skipChildren();
+                    int end = (int) p.getCurrentLocation().getCharOffset();
+                    // Copy the characters so that the whole response is not kept
+                    return new AppendedSection<Object>(new String(((String) source).substring(start, end)), p.getCodec(), valueType);
+                }
+            }
+
+            TokenBuffer buffer = new TokenBuffer(p);
+            buffer.copyCurrentStructure(p);
+            return new AppendedSection<Object>(buffer, p.getCodec(), valueType);
+        }
+
+        private static boolean isAt(byte[] source, long offset, char expected) {
+            return offset >= 0 && offset < source.length && source[(int) offset] == expected;
+        }
+
+        private static boolean isAt(String source, long offset, char expected) {
+            return offset >= 0 && offset < source.length() && source.charAt((int) offset) == expected;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In memory response cache bounded by the total size of the stored bodies.
+ *
+ * When the cache is full the least recently used responses are removed.
+ *
+ * @author Stuart
+ */
+public class MemoryResponseCache implements ResponseCache {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.75f;
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedResponse> responses;
+    private long currentBytes = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Create the cache
+     *
+     * @param maxBytes The maximum total size of the bodies to hold
+     */
+    public MemoryResponseCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maxBytes = maxBytes;
+        // Access order, so iteration starts with the least recently used
+        this.responses = new LinkedHashMap<String, CachedResponse>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    }
+
+    @Override
+    public synchronized CachedResponse get(String key) {
+        return responses.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, CachedResponse response) {
+        remove(key);
+        if (response.getSize() > maxBytes) {
+            // Too large to ever fit
+            return;
+        }
+
+        responses.put(key, response);
+        currentBytes += response.getSize();
+
+        Iterator<Map.Entry<String, CachedResponse>> it = responses.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, CachedResponse> eldest = it.next();
+            currentBytes -= eldest.getValue().getSize();
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        CachedResponse previous = responses.remove(key);
+        if (previous != null) {
+            currentBytes -= previous.getSize();
+        }
+    }
+
+    @Override
+    public synchronized void removeAll(String prefix) {
+        Iterator<Map.Entry<String, CachedResponse>> it = responses.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, CachedResponse> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                currentBytes -= entry.getValue().getSize();
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        responses.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * The total size of the bodies held
+     *
+     * @return
+     */
+    public synchronized long getSize() {
+        return currentBytes;
+    }
+
+    public long getMaxSize() {
+        return maxBytes;
+    }
+
+    /**
+     * The number of responses held
+     *
+     * @return
+     */
+    public synchronized int getCount() {
+        return responses.size();
+    }
+
+    /**
+     * The number of responses removed to make space
+     *
+     * @return
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MemoryResponseCache [count=" + responses.size()
+                + ", size=" + currentBytes
+                + ", maxSize=" + maxBytes
+                + ", evictions=" + evictionCount + "]";
+    }
+}
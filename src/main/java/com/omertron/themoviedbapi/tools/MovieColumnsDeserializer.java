@@ -0,0 +1,43 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.omertron.themoviedbapi.results.MovieColumns;
+import java.io.IOException;
+
+/**
+ * Reads a page of movie results straight into {@link MovieColumns}, without
+ * creating the movie objects.
+ *
+ * The reading is done by the {@link MovieColumnsReader}, which is shared with
+ * the {@link SimpleJsonMapper}.
+ *
+ * @author Stuart
+ */
+public class MovieColumnsDeserializer extends JsonDeserializer<MovieColumns> {
+
+    @Override
+    public MovieColumns deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return MovieColumnsReader.read(p);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.omertron.themoviedbapi.results.MovieColumns;
+import java.io.IOException;
+
+/**
+ * Reads a page of movie results straight into {@link MovieColumns}, without
+ * creating the movie objects.
+ *
+ * Only the columns are read, the other properties of the movies are skipped.
+ * Only the streaming parser of jackson-core is used, so the columns can be
+ * read by the {@link MovieColumnsDeserializer} and by the
+ * {@link SimpleJsonMapper}.
+ *
+ * @author Stuart
+ */
+final class MovieColumnsReader {
+
+    private static final int DATE_LENGTH = 10;
+
+    private MovieColumnsReader() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Read the columns with the parser on the start of the page
+     *
+     * @param p
+     * @return
+     * @throws IOException
+     */
+    static MovieColumns read(JsonParser p) throws IOException {
+        if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+            throw mismatch(p);
+        }
+
+        MovieColumns columns = new MovieColumns();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            if ("results".equals(name)) {
+                readResults(p, columns);
+            } else if ("page".equals(name)) {
+                columns.setPage(readInt(p));
+            } else if ("total_pages".equals(name)) {
+                columns.setTotalPages(readInt(p));
+            } else if ("total_results".equals(name)) {
+                columns.setTotalResults(readInt(p));
+            } else if ("id".equals(name)) {
+                columns.setId(readInt(p));
+            } else {
+                p.skipChildren();
+            }
+        }
+        // The page is complete, so release the space only needed while reading
+        columns.trimToSize();
+        return columns;
+    }
+
+    private static void readResults(JsonParser p, MovieColumns columns) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return;
+        } else if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+            throw mismatch(p);
+        }
+
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            int id = 0;
+            String title = null;
+            String originalTitle = null;
+            float popularity = 0F;
+            float voteAverage = 0F;
+            int voteCount = 0;
+            int releaseDate = 0;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.getCurrentName();
+                p.nextToken();
+                if ("id".equals(name)) {
+                    id = readInt(p);
+                } else if ("title".equals(name)) {
+                    title = readString(p);
+                } else if ("original_title".equals(name)) {
+                    originalTitle = readString(p);
+                } else if ("popularity".equals(name)) {
+                    popularity = readFloat(p);
+                } else if ("vote_average".equals(name)) {
+                    voteAverage = readFloat(p);
+                } else if ("vote_count".equals(name)) {
+                    voteCount = readInt(p);
+                } else if ("release_date".equals(name)) {
+                    releaseDate = readDate(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            columns.add(id, title, originalTitle, popularity, voteAverage, voteCount, releaseDate);
+        }
+    }
+
+    // The conversions follow those of DeserializerSupport
+
+    private static String readString(JsonParser p) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (token != null && token.isScalarValue()) {
+            return p.getText();
+        }
+        throw mismatch(p);
+    }
+
+    private static int readInt(JsonParser p) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getIntValue();
+        } else if (token == JsonToken.VALUE_NULL) {
+            return 0;
+        } else if (token != null && token.isScalarValue()) {
+            return p.getValueAsInt();
+        }
+        throw mismatch(p);
+    }
+
+    private static float readFloat(JsonParser p) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return (float) p.getDoubleValue();
+        } else if (token == JsonToken.VALUE_NULL) {
+            return 0F;
+        } else if (token != null && token.isScalarValue()) {
+            return (float) p.getValueAsDouble();
+        }
+        throw mismatch(p);
+    }
+
+    /**
+     * Read a yyyy-mm-dd date as the number yyyymmdd without creating a string
+     *
+     * @return The date, or 0 if it is missing or not in the expected form
+     */
+    private static int readDate(JsonParser p) throws IOException {
+        if (p.getCurrentToken() != JsonToken.VALUE_STRING || p.getTextLength() != DATE_LENGTH) {
+            return 0;
+        }
+
+        char[] text = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int date = 0;
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            char c = text[offset + i];
+            if (i == 4 || i == 7) {
+                if (c != '-') {
+                    return 0;
+                }
+            } else if (c >= '0' && c <= '9') {
+                date = date * 10 + (c - '0');
+            } else {
+                return 0;
+            }
+        }
+        return date;
+    }
+
+    private static JsonParseException mismatch(JsonParser p) {
+        return new JsonParseException("Can not read MovieColumns from " + p.getCurrentToken(), p.getCurrentLocation());
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.params.ConnRoutePNames;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP client that keeps connections alive and re-uses them between requests.
+ *
+ * Connections are held in a bounded pool (per host and in total) and any
+ * connections that have been idle for too long are closed by a background
+ * thread.
+ *
+ * Responses are requested with gzip or deflate compression and are
+ * decompressed as they are read.
+ *
+ * @author Stuart
+ */
+public class PooledHttpClient implements Transport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledHttpClient.class);
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+    private static final String KEEP_ALIVE_TIMEOUT = "timeout";
+    private static final long MILLIS_PER_SECOND = 1000L;
+    // Pool defaults
+    private static final int DEFAULT_MAX_TOTAL = 20;
+    private static final int DEFAULT_MAX_PER_HOST = 10;
+    // 30 second keep alive if the server does not send one
+    private static final long DEFAULT_KEEP_ALIVE = 30000L;
+    // Close connections that have not been used for 60 seconds
+    private static final long DEFAULT_IDLE_TIMEOUT = 60000L;
+    // How often to check for expired & idle connections
+    private static final long EVICTION_INTERVAL = 5000L;
+    // 25 second timeout
+    private static final int DEFAULT_TIMEOUT_CONNECT = 25000;
+    // 90 second timeout
+    private static final int DEFAULT_TIMEOUT_READ = 90000;
+    // Connection pool
+    private final PoolingClientConnectionManager connectionManager;
+    private final DefaultHttpClient httpClient;
+    private final ScheduledExecutorService evictor;
+    private volatile long keepAlive = DEFAULT_KEEP_ALIVE;
+    private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private final CompressionStats compressionStats = new CompressionStats();
+
+    /**
+     * Create a pooled client with the default pool sizes
+     */
+    public PooledHttpClient() {
+        this(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_HOST);
+    }
+
+    /**
+     * Create a pooled client
+     *
+     * @param maxTotal Maximum number of connections in the pool
+     * @param maxPerHost Maximum number of connections to any one host
+     */
+    public PooledHttpClient(int maxTotal, int maxPerHost) {
+        connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault());
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerHost);
+
+        httpClient = new DefaultHttpClient(connectionManager);
+        httpClient.setKeepAliveStrategy(new KeepAliveStrategy());
+        setTimeouts(DEFAULT_TIMEOUT_CONNECT, DEFAULT_TIMEOUT_READ);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "TheMovieDb-ConnectionEvictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evictConnections();
+            }
+        }, EVICTION_INTERVAL, EVICTION_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Request the URL and return the content of the page
+     *
+     * @param url
+     * @return
+     * @throws MovieDbException
+     */
+    public String request(URL url) throws MovieDbException {
+        return request(url, null, Boolean.FALSE);
+    }
+
+    /**
+     * Post the JSON body to the URL and return the content of the page
+     *
+     * @param url
+     * @param jsonBody
+     * @return
+     * @throws MovieDbException
+     */
+    public String request(URL url, String jsonBody) throws MovieDbException {
+        return request(url, jsonBody, Boolean.FALSE);
+    }
+
+    /**
+     * Send the request to the URL and return the content of the page.
+     *
+     * If there is a JSON body then the request will be a POST, otherwise it
+     * will be a DELETE or a GET.
+     *
+     * @param url
+     * @param jsonBody
+     * @param isDeleteRequest
+     * @return
+     * @throws MovieDbException
+     */
+    public String request(URL url, String jsonBody, boolean isDeleteRequest) throws MovieDbException {
+        WebResponse response = execute(url, jsonBody, isDeleteRequest);
+        try {
+            return response.getContentAsString();
+        } catch (IOException ex) {
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, url, ex);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Send the request to the URL and return the response without reading the
+     * content.
+     *
+     * The response must be closed to release the connection back to the pool.
+     *
+     * @param url
+     * @param jsonBody
+     * @param isDeleteRequest
+     * @return
+     * @throws MovieDbException
+     */
+    public WebResponse execute(URL url, String jsonBody, boolean isDeleteRequest) throws MovieDbException {
+        return execute(url, jsonBody, isDeleteRequest, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Send the request to the URL with additional headers and return the
+     * response without reading the content.
+     *
+     * The response must be closed to release the connection back to the pool.
+     *
+     * @param url
+     * @param jsonBody
+     * @param isDeleteRequest
+     * @param requestHeaders Additional headers to send with the request
+     * @return
+     * @throws MovieDbException
+     */
+    public WebResponse execute(URL url, String jsonBody, boolean isDeleteRequest, Map<String, String> requestHeaders) throws MovieDbException {
+        WebRequest request = new WebRequest(url, jsonBody, isDeleteRequest);
+        request.addHeaders(requestHeaders);
+        return execute(request);
+    }
+
+    /**
+     * Send the request and return the response without reading the content.
+     *
+     * The response must be closed to release the connection back to the pool.
+     *
+     * @param request
+     * @return
+     * @throws MovieDbException
+     */
+    @Override
+    public WebResponse execute(WebRequest request) throws MovieDbException {
+        HttpUriRequest httpRequest = createRequest(request);
+
+        try {
+            // Closing the content stream releases the connection back to the pool
+            return createResponse(httpClient.execute(httpRequest), compressionStats);
+        } catch (IOException ex) {
+            httpRequest.abort();
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, request.getUrl(), ex);
+        } catch (RuntimeException ex) {
+            // Reported as before the transports were added
+            httpRequest.abort();
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.HTTP_503_ERROR, "Service Unavailable", request.getUrl(), ex);
+        }
+    }
+
+    /**
+     * Create the HTTP request method appropriate to the request
+     *
+     * @param request
+     * @return
+     * @throws MovieDbException
+     */
+    static HttpUriRequest createRequest(WebRequest request) throws MovieDbException {
+        URL url = request.getUrl();
+        HttpUriRequest httpRequest;
+        try {
+            if (request.hasBody()) {
+                HttpPost httpPost = new HttpPost(url.toURI());
+                httpPost.setEntity(new StringEntity(request.getJsonBody(), ContentType.APPLICATION_JSON));
+                httpRequest = httpPost;
+            } else if (request.isDeleteRequest()) {
+                httpRequest = new HttpDelete(url.toURI());
+                httpRequest.addHeader(HTTP.CONTENT_TYPE, "application/x-www-form-urlencoded");
+            } else {
+                httpRequest = new HttpGet(url.toURI());
+            }
+        } catch (URISyntaxException ex) {
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.INVALID_URL, null, url, ex);
+        }
+
+        httpRequest.addHeader("Accept", "application/json");
+        httpRequest.addHeader("Accept-Encoding", CompressionStats.ACCEPT_ENCODING);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            httpRequest.setHeader(header.getKey(), header.getValue());
+        }
+        return httpRequest;
+    }
+
+    /**
+     * Create the web response from the HTTP response, decompressing the
+     * content if needed
+     *
+     * @param response
+     * @param compressionStats
+     * @return
+     * @throws IOException
+     */
+    static WebResponse createResponse(HttpResponse response, CompressionStats compressionStats) throws IOException {
+        int statusCode = response.getStatusLine().getStatusCode();
+        Map<String, String> headers = new HashMap<String, String>();
+        for (Header header : response.getAllHeaders()) {
+            headers.put(header.getName(), header.getValue());
+        }
+
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return new WebResponse(statusCode, headers, new ByteArrayInputStream(new byte[0]), DEFAULT_CHARSET);
+        }
+
+        Charset charset = ContentType.getOrDefault(entity).getCharset();
+        InputStream content = entity.getContent();
+        if (entity.getContentLength() != 0) {
+            Header encoding = entity.getContentEncoding();
+            content = compressionStats.decode(content, encoding == null ? null : encoding.getValue());
+        }
+        return new WebResponse(statusCode, headers, content, charset == null ? DEFAULT_CHARSET : charset);
+    }
+
+    /**
+     * Close any expired connections and those that have been idle for too long
+     */
+    private void evictConnections() {
+        try {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException ex) {
+            LOG.debug("Failed to evict idle connections: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Set the connection and read time out values
+     *
+     * @param connect
+     * @param read
+     */
+    public final void setTimeouts(int connect, int read) {
+        HttpParams params = httpClient.getParams();
+        HttpConnectionParams.setConnectionTimeout(params, connect);
+        HttpConnectionParams.setSoTimeout(params, read);
+    }
+
+    /**
+     * Set the proxy information
+     *
+     * @param host
+     * @param port
+     * @param username
+     * @param password
+     */
+    public void setProxy(String host, int port, String username, String password) {
+        if (StringUtils.isBlank(host)) {
+            httpClient.getParams().removeParameter(ConnRoutePNames.DEFAULT_PROXY);
+            return;
+        }
+
+        httpClient.getParams().setParameter(ConnRoutePNames.DEFAULT_PROXY, new HttpHost(host, port));
+        if (StringUtils.isNotBlank(username)) {
+            httpClient.getCredentialsProvider().setCredentials(new AuthScope(host, port), new UsernamePasswordCredentials(username, password));
+        }
+    }
+
+    /**
+     * Set the size of the connection pool
+     *
+     * @param maxTotal Maximum number of connections in the pool
+     * @param maxPerHost Maximum number of connections to any one host
+     */
+    public void setPoolSize(int maxTotal, int maxPerHost) {
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerHost);
+    }
+
+    /**
+     * How long to keep a connection alive if the server does not say
+     *
+     * @param keepAlive time in milliseconds
+     */
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * How long a connection can be idle in the pool before it is closed
+     *
+     * @param idleTimeout time in milliseconds
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Get the current statistics of the connection pool
+     *
+     * @return
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Get the statistics of the compressed responses
+     *
+     * @return
+     */
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    /**
+     * Close all the connections and stop the eviction thread
+     */
+    @Override
+    public void shutdown() {
+        evictor.shutdownNow();
+        connectionManager.shutdown();
+    }
+
+    /**
+     * Use the keep alive timeout sent by the server, or the default if there is
+     * none
+     */
+    private class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (it.hasNext()) {
+                HeaderElement element = it.nextElement();
+                if (KEEP_ALIVE_TIMEOUT.equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Long.parseLong(element.getValue()) * MILLIS_PER_SECOND;
+                    } catch (NumberFormatException ex) {
+                        LOG.trace("Invalid keep alive timeout '{}'", element.getValue());
+                    }
+                }
+            }
+            return keepAlive;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mapper that only maps the listed properties of the projected classes.
+ *
+ * All other properties of those classes are skipped by the parser without
+ * being mapped, so the objects only hold the values that are needed. Classes
+ * without a projection are mapped in full.
+ *
+ * The properties are the JSON names, e.g. "release_date" rather than
+ * "releaseDate".
+ *
+ * <pre>
+ * Projection summary = Projection.of(MovieDb.class, "id", "title", "release_date", "poster_path", "popularity");
+ * List&lt;MovieDb&gt; movies = api.withJsonMapper(summary).searchMovie("alien", 0, null, true, 0).getResults();
+ * </pre>
+ *
+ * Projections are immutable and can be shared between threads.
+ *
+ * @author Stuart
+ */
+public final class Projection extends JacksonMapper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Projection.class);
+    private final Map<Class<?>, Set<String>> projections;
+
+    private Projection(Map<Class<?>, Set<String>> projections) {
+        super(createObjectMapper(projections));
+        this.projections = projections;
+    }
+
+    /**
+     * Create a projection of the class
+     *
+     * @param type
+     * @param properties The JSON properties to map
+     * @return
+     */
+    public static Projection of(Class<?> type, String... properties) {
+        return new Projection(Collections.<Class<?>, Set<String>>emptyMap()).with(type, properties);
+    }
+
+    /**
+     * Create a projection that also projects the class, replacing any
+     * existing projection of it
+     *
+     * @param type
+     * @param properties The JSON properties to map
+     * @return A new projection
+     */
+    public Projection with(Class<?> type, String... properties) {
+        Map<Class<?>, Set<String>> copy = new HashMap<Class<?>, Set<String>>(projections);
+        copy.put(type, Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(properties))));
+        return new Projection(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * Get the properties that are mapped for the class
+     *
+     * @param type
+     * @return The properties, or null if the class is mapped in full
+     */
+    public Set<String> getProperties(Class<?> type) {
+        return projections.get(type);
+    }
+
+    private static ObjectMapper createObjectMapper(final Map<Class<?>, Set<String>> projections) {
+        SimpleModule module = new SimpleModule("Projection");
+        module.setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc, BeanDeserializerBuilder builder) {
+                Set<String> keep = projections.get(beanDesc.getBeanClass());
+                if (keep != null) {
+                    project(beanDesc.getBeanClass(), keep, builder);
+                }
+                return builder;
+            }
+        });
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.registerModule(module);
+        return mapper;
+    }
+
+    /**
+     * Remove the properties that are not projected from the deserializer, the
+     * parser skips properties that are ignored
+     *
+     * @param type
+     * @param keep
+     * @param builder
+     */
+    private static void project(Class<?> type, Set<String> keep, BeanDeserializerBuilder builder) {
+        List<String> remove = new ArrayList<String>();
+        for (Iterator<SettableBeanProperty> it = builder.getProperties(); it.hasNext();) {
+            String name = it.next().getName();
+            if (!keep.contains(name)) {
+                remove.add(name);
+            }
+        }
+
+        for (String name : remove) {
+            builder.removeProperty(new PropertyName(name));
+            builder.addIgnorable(name);
+        }
+
+        for (String name : keep) {
+            if (!builder.hasProperty(new PropertyName(name))) {
+                LOG.warn("{} does not have the property '{}'", type.getSimpleName(), name);
+            }
+        }
+
+        // Skip the unknown properties rather than handling them, the mapper does not fail on them
+        builder.setAnySetter(null);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Projection");
+        for (Map.Entry<Class<?>, Set<String>> entry : projections.entrySet()) {
+            sb.append(' ').append(entry.getKey().getSimpleName()).append(entry.getValue());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Token bucket rate limiter for the requests to the API.
+ *
+ * Callers wait for a token to become available rather than being rejected.
+ * When the server says that the limit has been reached (HTTP 429 with a
+ * Retry-After header, or no remaining requests in the rate limit headers) all
+ * callers are held until the time given by the server.
+ *
+ * @author Stuart
+ */
+public class RateLimiter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimiter.class);
+    // Headers sent by the API
+    public static final String HEADER_RETRY_AFTER = "Retry-After";
+    public static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+    public static final String HEADER_RESET = "X-RateLimit-Reset";
+    private static final long MILLIS_PER_SECOND = 1000L;
+    // The bucket
+    private double maxPermits;
+    private long intervalNanos;
+    private double storedPermits;
+    private long nextFreeNanos;
+    // Statistics
+    private final AtomicLong waitNanos = new AtomicLong(0);
+    private final AtomicLong waitCount = new AtomicLong(0);
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong throttledCount = new AtomicLong(0);
+
+    /**
+     * Create a rate limiter that allows a number of requests in a period.
+     *
+     * Up to the number of requests can be made in a burst, after which the
+     * requests are spread evenly across the period.
+     *
+     * @param requests The number of requests allowed
+     * @param period The length of the period
+     * @param unit The unit of the period
+     */
+    public RateLimiter(int requests, long period, TimeUnit unit) {
+        checkRate(requests, period);
+        this.maxPermits = requests;
+        this.intervalNanos = unit.toNanos(period) / requests;
+        this.storedPermits = requests;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    private static void checkRate(int requests, long period) {
+        if (requests <= 0 || period <= 0) {
+            throw new IllegalArgumentException("Requests and period must be positive");
+        }
+    }
+
+    /**
+     * Change the number of requests allowed in a period.
+     *
+     * The statistics are kept. Requests that are already waiting keep the
+     * time they were given, later requests use the new rate.
+     *
+     * @param requests The number of requests allowed
+     * @param period The length of the period
+     * @param unit The unit of the period
+     */
+    public synchronized void setRate(int requests, long period, TimeUnit unit) {
+        checkRate(requests, period);
+        refill(System.nanoTime());
+        this.maxPermits = requests;
+        this.intervalNanos = unit.toNanos(period) / requests;
+        this.storedPermits = Math.min(storedPermits, maxPermits);
+    }
+
+    /**
+     * Wait until a request can be made
+     *
+     * @throws InterruptedException
+     */
+    public void acquire() throws InterruptedException {
+        requestCount.incrementAndGet();
+        long wait = reserve(System.nanoTime());
+        if (wait > 0) {
+            waitCount.incrementAndGet();
+            waitNanos.addAndGet(wait);
+            LOG.trace("Waiting {}ms for rate limit", TimeUnit.NANOSECONDS.toMillis(wait));
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Take a token from the bucket and return how long the caller has to wait
+     * for it.
+     *
+     * @param now
+     * @return the wait in nanoseconds
+     */
+    private synchronized long reserve(long now) {
+        refill(now);
+        long available = nextFreeNanos;
+        double fromStored = Math.min(1, storedPermits);
+        storedPermits -= fromStored;
+        nextFreeNanos += (long) ((1 - fromStored) * intervalNanos);
+        return Math.max(available - now, 0);
+    }
+
+    /**
+     * Add any tokens that have accumulated since the last request
+     *
+     * @param now
+     */
+    private void refill(long now) {
+        if (now > nextFreeNanos) {
+            storedPermits = Math.min(maxPermits, storedPermits + (double) (now - nextFreeNanos) / intervalNanos);
+            nextFreeNanos = now;
+        }
+    }
+
+    /**
+     * Hold all requests for the given time
+     *
+     * @param delay The delay in milliseconds
+     */
+    public synchronized void backOff(long delay) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        storedPermits = 0;
+        nextFreeNanos = Math.max(nextFreeNanos, until);
+    }
+
+    /**
+     * The server rejected the request because the limit was reached.
+     *
+     * @param retryAfter the value of the Retry-After header, can be null
+     * @param defaultDelay The delay in milliseconds to use if there is no
+     * header
+     */
+    public void throttled(String retryAfter, long defaultDelay) {
+        throttledCount.incrementAndGet();
+        long delay = parseRetryAfter(retryAfter, defaultDelay);
+        LOG.debug("Request throttled, waiting {}ms", delay);
+        backOff(delay);
+    }
+
+    /**
+     * Update the limiter from the rate limit headers sent by the server.
+     *
+     * If there are no requests remaining, hold all requests until the reset
+     * time.
+     *
+     * @param remaining value of the X-RateLimit-Remaining header, can be null
+     * @param reset value of the X-RateLimit-Reset header (seconds since the
+     * epoch), can be null
+     */
+    public void update(String remaining, String reset) {
+        if (StringUtils.isBlank(remaining) || NumberUtils.toInt(remaining.trim(), -1) != 0) {
+            return;
+        }
+
+        long resetTime = NumberUtils.toLong(StringUtils.trimToEmpty(reset), 0L) * MILLIS_PER_SECOND;
+        long delay = resetTime - System.currentTimeMillis();
+        if (delay > 0) {
+            LOG.debug("Rate limit reached, waiting {}ms", delay);
+            backOff(delay);
+        }
+    }
+
+    /**
+     * Convert the Retry-After header (either seconds or an HTTP date) into a
+     * delay in milliseconds
+     *
+     * @param retryAfter
+     * @param defaultDelay
+     * @return
+     */
+    public static long parseRetryAfter(String retryAfter, long defaultDelay) {
+        if (StringUtils.isBlank(retryAfter)) {
+            return defaultDelay;
+        }
+
+        String value = retryAfter.trim();
+        if (NumberUtils.isDigits(value)) {
+            return NumberUtils.toLong(value) * MILLIS_PER_SECOND;
+        }
+
+        try {
+            Date date = DateUtils.parseDate(value);
+            return Math.max(date.getTime() - System.currentTimeMillis(), 0L);
+        } catch (DateParseException ex) {
+            LOG.trace("Unable to parse Retry-After '{}'", value);
+            return defaultDelay;
+        }
+    }
+
+    /**
+     * Total time that callers have spent waiting for the rate limit
+     *
+     * @param unit
+     * @return
+     */
+    public long getWaitTime(TimeUnit unit) {
+        return unit.convert(waitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of requests that had to wait
+     *
+     * @return
+     */
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    /**
+     * The number of requests that have been made through the limiter
+     *
+     * @return
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The number of requests that were rejected by the server
+     *
+     * @return
+     */
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter [requests=" + requestCount.get()
+                + ", waits=" + waitCount.get()
+                + ", waitTime=" + getWaitTime(TimeUnit.MILLISECONDS) + "ms"
+                + ", throttled=" + throttledCount.get() + "]";
+    }
+}
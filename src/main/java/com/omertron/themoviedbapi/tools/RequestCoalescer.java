@@ -0,0 +1,135 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combine identical requests that are in progress at the same time.
+ *
+ * The first caller for a key performs the request, any other callers for the
+ * same key wait for it to finish and are given the same result (or
+ * exception). Once the request has finished the key is removed, so later
+ * calls will perform a new request.
+ *
+ * Note that callers that share a request share the same result object.
+ *
+ * @author Stuart
+ */
+public class RequestCoalescer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestCoalescer.class);
+    private final ConcurrentMap<Object, FutureTask<Object>> inFlight = new ConcurrentHashMap<Object, FutureTask<Object>>();
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong sharedCount = new AtomicLong(0);
+
+    /**
+     * Run the request, or wait for an identical request that is already in
+     * progress.
+     *
+     * @param <T>
+     * @param key The key that identifies identical requests, compared with
+     * equals
+     * @param request The request to run
+     * @return
+     * @throws MovieDbException
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, final Callable<T> request) throws MovieDbException, IOException {
+        FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return request.call();
+            }
+        });
+
+        FutureTask<Object> existing = inFlight.putIfAbsent(key, task);
+        if (existing == null) {
+            requestCount.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+        } else {
+            sharedCount.incrementAndGet();
+            LOG.trace("Sharing in-flight request for '{}'", key);
+            task = existing;
+        }
+
+        try {
+            return (T) task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, "Interrupted waiting for request", String.valueOf(key), ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(key, ex.getCause());
+        }
+    }
+
+    /**
+     * Re-throw the cause of the failure of the request
+     *
+     * @param key
+     * @param cause
+     * @return
+     * @throws IOException
+     */
+    private MovieDbException unwrap(Object key, Throwable cause) throws IOException {
+        if (cause instanceof MovieDbException) {
+            return (MovieDbException) cause;
+        } else if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new MovieDbException(MovieDbException.MovieDbExceptionType.UNKNOWN_CAUSE, null, String.valueOf(key), cause);
+    }
+
+    /**
+     * The number of requests that were actually made
+     *
+     * @return
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The number of calls that shared a request already in progress
+     *
+     * @return
+     */
+    public long getSharedCount() {
+        return sharedCount.get();
+    }
+}
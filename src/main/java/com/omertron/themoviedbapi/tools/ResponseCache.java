@@ -0,0 +1,66 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+/**
+ * Storage for the responses from the API.
+ *
+ * Implementations must be thread safe. The freshness of the responses is
+ * handled by {@link HttpResponseCache}, the storage only needs to hold them.
+ *
+ * @author Stuart
+ */
+public interface ResponseCache {
+
+    /**
+     * Get the stored response
+     *
+     * @param key The normalised URL of the request
+     * @return The response or null if there is none
+     */
+    CachedResponse get(String key);
+
+    /**
+     * Store the response, replacing any existing one
+     *
+     * @param key The normalised URL of the request
+     * @param response
+     */
+    void put(String key, CachedResponse response);
+
+    /**
+     * Remove the stored response
+     *
+     * @param key The normalised URL of the request
+     */
+    void remove(String key);
+
+    /**
+     * Remove the stored responses with keys that start with the prefix
+     *
+     * @param prefix The start of the normalised URLs to remove
+     */
+    void removeAll(String prefix);
+
+    /**
+     * Remove all the stored responses
+     */
+    void clear();
+}
@@ -0,0 +1,675 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.omertron.themoviedbapi.results.MovieColumns;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lightweight mapper that binds the JSON to the model classes without the
+ * Jackson databind module.
+ *
+ * The JSON is read with the streaming parser from jackson-core and bound with
+ * reflection. The metadata for each class (the @JsonProperty names, the
+ * setters, the element types of the lists and the @JsonAnySetter) is worked
+ * out the first time the class is read and then cached, so there is no
+ * introspection per object. There is no serializer or deserializer
+ * construction either, which keeps the cost of the first read low.
+ *
+ * The binding covers what the model classes use: @JsonProperty fields of the
+ * basic types, lists, nested objects, single argument @JsonCreator
+ * constructors such as AppendedSection, the any-setter and the
+ * {@link MovieColumns} pages. The properties are
+ * set with the setter that matches the field, or the field itself if there is
+ * no setter. Lazy sections and projections are not supported.
+ *
+ * The mapper is thread safe and should be shared.
+ *
+ * @author Stuart
+ */
+public class SimpleJsonMapper implements JsonMapper {
+
+    // The any-setter of the model classes that only records the property
+    private static final String RECORDING_ANY_SETTER = "handleUnknown";
+    private final JsonFactory factory = new JsonFactory();
+    private final ConcurrentMap<Class<?>, BeanBinding> beans = new ConcurrentHashMap<Class<?>, BeanBinding>();
+
+    @Override
+    public <T> T readValue(InputStream content, Class<T> type) throws IOException {
+        return read(factory.createParser(content), type);
+    }
+
+    @Override
+    public <T> T readValue(String content, Class<T> type) throws IOException {
+        return read(factory.createParser(content), type);
+    }
+
+    private <T> T read(JsonParser p, Class<T> type) throws IOException {
+        try {
+            if (p.nextToken() == null) {
+                throw new JsonParseException("No content to map to " + type.getSimpleName(), p.getCurrentLocation());
+            }
+            return type.cast(getBinding(type).read(p));
+        } finally {
+            p.close();
+        }
+    }
+
+    @Override
+    public String writeValueAsString(Object value) throws IOException {
+        StringWriter writer = new StringWriter();
+        JsonGenerator gen = factory.createGenerator(writer);
+        try {
+            write(gen, value);
+        } finally {
+            gen.close();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Get the cached binding for the class
+     *
+     * @param type
+     * @return
+     */
+    private BeanBinding getBeanBinding(Class<?> type) {
+        BeanBinding binding = beans.get(type);
+        if (binding == null) {
+            binding = new BeanBinding(type);
+            BeanBinding existing = beans.putIfAbsent(type, binding);
+            if (existing != null) {
+                binding = existing;
+            }
+        }
+        return binding;
+    }
+
+    /**
+     * Work out how to read a value of the type
+     *
+     * @param type
+     * @return
+     */
+    private Binding getBinding(Type type) {
+        Class<?> raw = rawClass(type);
+        ScalarType scalar = ScalarType.fromClass(raw);
+        if (scalar != null) {
+            return new ScalarBinding(scalar);
+        } else if (raw == Object.class || Map.class.isAssignableFrom(raw)) {
+            return UntypedBinding.INSTANCE;
+        } else if (raw.isAssignableFrom(ArrayList.class)) {
+            return new ListBinding(this, typeArgument(type, 0));
+        } else if (raw.isEnum()) {
+            return new EnumBinding(raw);
+        } else if (raw == MovieColumns.class) {
+            return ColumnsBinding.INSTANCE;
+        }
+
+        Constructor<?> creator = findCreator(raw);
+        if (creator != null) {
+            Type parameter = resolve(creator.getGenericParameterTypes()[0], raw, type);
+            return new CreatorBinding(creator, getBinding(parameter));
+        }
+        return getBeanBinding(raw);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return rawClass(((ParameterizedType) type).getRawType());
+        } else if (type instanceof WildcardType) {
+            return rawClass(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable) {
+            return rawClass(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            return ((ParameterizedType) type).getActualTypeArguments()[index];
+        }
+        return Object.class;
+    }
+
+    /**
+     * Replace a type variable of the class with its argument from the
+     * parameterised type, e.g. the T of AppendedSection&lt;T&gt;
+     */
+    private static Type resolve(Type type, Class<?> declaring, Type context) {
+        if (type instanceof TypeVariable && context instanceof ParameterizedType) {
+            TypeVariable<?>[] variables = declaring.getTypeParameters();
+            for (int i = 0; i < variables.length; i++) {
+                if (variables[i].getName().equals(((TypeVariable<?>) type).getName())) {
+                    return ((ParameterizedType) context).getActualTypeArguments()[i];
+                }
+            }
+        }
+        return type;
+    }
+
+    private static Constructor<?> findCreator(Class<?> type) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (constructor.isAnnotationPresent(JsonCreator.class) && constructor.getParameterTypes().length == 1) {
+                return accessible(constructor);
+            }
+        }
+        return null;
+    }
+
+    private static <T extends AccessibleObject> T accessible(T member) {
+        if (!member.isAccessible()) {
+            member.setAccessible(true);
+        }
+        return member;
+    }
+
+    private static IOException bindingFailure(String message, Throwable cause) {
+        Throwable root = cause instanceof InvocationTargetException ? cause.getCause() : cause;
+        return new IOException(message + ": " + root, root);
+    }
+
+    /**
+     * Write the basic Java types, enums and the model classes as JSON
+     */
+    private void write(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String) {
+            gen.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            gen.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            gen.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Float) {
+            gen.writeNumber((Float) value);
+        } else if (value instanceof Double) {
+            gen.writeNumber((Double) value);
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            gen.writeNumber(value.toString());
+        } else if (value instanceof Enum) {
+            gen.writeString(((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            gen.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                gen.writeFieldName(String.valueOf(entry.getKey()));
+                write(gen, entry.getValue());
+            }
+            gen.writeEndObject();
+        } else if (value instanceof Collection) {
+            gen.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                write(gen, element);
+            }
+            gen.writeEndArray();
+        } else {
+            gen.writeStartObject();
+            for (Property property : getBeanBinding(value.getClass()).getProperties()) {
+                gen.writeFieldName(property.name);
+                write(gen, property.get(value));
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a value with the parser on its first token, leaving the parser
+     * on its last token
+     */
+    private abstract static class Binding {
+
+        abstract Object read(JsonParser p) throws IOException;
+    }
+
+    private enum ScalarType {
+
+        STRING(null), INT(0), LONG(0L), FLOAT(0F), DOUBLE(0D), BOOLEAN(Boolean.FALSE),
+        INTEGER_OBJECT(null), LONG_OBJECT(null), FLOAT_OBJECT(null), DOUBLE_OBJECT(null), BOOLEAN_OBJECT(null);
+        // The value of a JSON null
+        private final Object nullValue;
+
+        private ScalarType(Object nullValue) {
+            this.nullValue = nullValue;
+        }
+
+        private static final Map<Class<?>, ScalarType> TYPES = new HashMap<Class<?>, ScalarType>();
+
+        static {
+            TYPES.put(String.class, STRING);
+            TYPES.put(int.class, INT);
+            TYPES.put(long.class, LONG);
+            TYPES.put(float.class, FLOAT);
+            TYPES.put(double.class, DOUBLE);
+            TYPES.put(boolean.class, BOOLEAN);
+            TYPES.put(Integer.class, INTEGER_OBJECT);
+            TYPES.put(Long.class, LONG_OBJECT);
+            TYPES.put(Float.class, FLOAT_OBJECT);
+            TYPES.put(Double.class, DOUBLE_OBJECT);
+            TYPES.put(Boolean.class, BOOLEAN_OBJECT);
+        }
+
+        static ScalarType fromClass(Class<?> type) {
+            return TYPES.get(type);
+        }
+    }
+
+    private static final class ScalarBinding extends Binding {
+
+        private final ScalarType type;
+
+        ScalarBinding(ScalarType type) {
+            this.type = type;
+        }
+
+        @Override
+        Object read(JsonParser p) throws IOException {
+            JsonToken token = p.getCurrentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return type.nullValue;
+            } else if (!token.isScalarValue()) {
+                throw new JsonParseException("Can not read " + type + " from " + token, p.getCurrentLocation());
+            }
+
+            switch (type) {
+                case STRING:
+                    return p.getText();
+                case INT:
+                case INTEGER_OBJECT:
+                    return token == JsonToken.VALUE_NUMBER_INT ? p.getIntValue() : p.getValueAsInt();
+                case LONG:
+                case LONG_OBJECT:
+                    return token == JsonToken.VALUE_NUMBER_INT ? p.getLongValue() : p.getValueAsLong();
+                case FLOAT:
+                case FLOAT_OBJECT:
+                    return (float) (token.isNumeric() ? p.getDoubleValue() : p.getValueAsDouble());
+                case DOUBLE:
+                case DOUBLE_OBJECT:
+                    return token.isNumeric() ? p.getDoubleValue() : p.getValueAsDouble();
+                default:
+                    return token == JsonToken.VALUE_TRUE || (token != JsonToken.VALUE_FALSE && p.getValueAsBoolean());
+            }
+        }
+    }
+
+    private static final class EnumBinding extends Binding {
+
+        private final Class<?> type;
+
+        EnumBinding(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        Object read(JsonParser p) throws IOException {
+            if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            String name = p.getText();
+            for (Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(name)) {
+                    return constant;
+                }
+            }
+            throw new JsonParseException("Unknown value '" + name + "' for " + type.getSimpleName(), p.getCurrentLocation());
+        }
+    }
+
+    /**
+     * Reads the movie columns with the same reader as the Jackson deserializer
+     */
+    private static final class ColumnsBinding extends Binding {
+
+        static final ColumnsBinding INSTANCE = new ColumnsBinding();
+
+        @Override
+        Object read(JsonParser p) throws IOException {
+            return MovieColumnsReader.read(p);
+        }
+    }
+
+    /**
+     * Reads the basic Java types: map, list, string, number or boolean
+     */
+    private static final class UntypedBinding extends Binding {
+
+        static final UntypedBinding INSTANCE = new UntypedBinding();
+
+        @Override
+        Object read(JsonParser p) throws IOException {
+            switch (p.getCurrentToken()) {
+                case START_OBJECT:
+                    Map<String, Object> map = new LinkedHashMap<String, Object>();
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = p.getCurrentName();
+                        p.nextToken();
+                        map.put(name, read(p));
+                    }
+                    return map;
+                case START_ARRAY:
+                    List<Object> list = new ArrayList<Object>();
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        list.add(read(p));
+                    }
+                    return list;
+                case VALUE_STRING:
+                    return p.getText();
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return p.getNumberValue();
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+                case VALUE_NULL:
+                    return null;
+                default:
+                    throw new JsonParseException("Unexpected token " + p.getCurrentToken(), p.getCurrentLocation());
+            }
+        }
+    }
+
+    private static final class ListBinding extends Binding {
+
+        private final SimpleJsonMapper mapper;
+        private final Type elementType;
+        // Resolved on first use, so that recursive types can be bound
+        private volatile Binding element;
+
+        ListBinding(SimpleJsonMapper mapper, Type elementType) {
+            this.mapper = mapper;
+            this.elementType = elementType;
+        }
+
+        @Override
+        Object read(JsonParser p) throws IOException {
+            JsonToken token = p.getCurrentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            } else if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException("Can not read a list from " + token, p.getCurrentLocation());
+            }
+
+            Binding binding = element;
+            if (binding == null) {
+                binding = mapper.getBinding(elementType);
+                element = binding;
+            }
+
+            List<Object> list = new ArrayList<Object>();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                list.add(binding.read(p));
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Creates the object from a single value, e.g. the AppendedSection
+     */
+    private static final class CreatorBinding extends Binding {
+
+        private final Constructor<?> creator;
+        private final Binding value;
+
+        CreatorBinding(Constructor<?> creator, Binding value) {
+            this.creator = creator;
+            this.value = value;
+        }
+
+        @Override
+        Object read(JsonParser p) throws IOException {
+            if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            try {
+                return creator.newInstance(value.read(p));
+            } catch (InstantiationException ex) {
+                throw bindingFailure("Failed to create " + creator.getDeclaringClass().getSimpleName(), ex);
+            } catch (IllegalAccessException ex) {
+                throw bindingFailure("Failed to create " + creator.getDeclaringClass().getSimpleName(), ex);
+            } catch (InvocationTargetException ex) {
+                throw bindingFailure("Failed to create " + creator.getDeclaringClass().getSimpleName(), ex);
+            }
+        }
+    }
+
+    /**
+     * A @JsonProperty of a class, with the setter or field used to set it
+     */
+    private final class Property {
+
+        private final String name;
+        private final Field field;
+        private final Method setter;
+        private final Type type;
+        private final boolean primitive;
+        // Resolved on first use, so that recursive types can be bound
+        private volatile Binding binding;
+
+        Property(String name, Field field, Method setter) {
+            this.name = name;
+            this.field = accessible(field);
+            this.setter = setter == null ? null : accessible(setter);
+            this.type = setter == null ? field.getGenericType() : setter.getGenericParameterTypes()[0];
+            this.primitive = rawClass(type).isPrimitive();
+        }
+
+        void read(JsonParser p, Object bean) throws IOException {
+            // Leave the default of primitives rather than fail on a null
+            if (primitive && p.getCurrentToken() == JsonToken.VALUE_NULL) {
+                return;
+            }
+
+            Binding current = binding;
+            if (current == null) {
+                current = getBinding(type);
+                binding = current;
+            }
+
+            Object value = current.read(p);
+            try {
+                if (setter == null) {
+                    field.set(bean, value);
+                } else {
+                    setter.invoke(bean, value);
+                }
+            } catch (IllegalAccessException ex) {
+                throw bindingFailure("Failed to set " + bean.getClass().getSimpleName() + "." + name, ex);
+            } catch (InvocationTargetException ex) {
+                throw bindingFailure("Failed to set " + bean.getClass().getSimpleName() + "." + name, ex);
+            }
+        }
+
+        Object get(Object bean) throws IOException {
+            try {
+                return field.get(bean);
+            } catch (IllegalAccessException ex) {
+                throw bindingFailure("Failed to get " + bean.getClass().getSimpleName() + "." + name, ex);
+            }
+        }
+    }
+
+    /**
+     * The cached metadata for a model class
+     */
+    private final class BeanBinding extends Binding {
+
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private final Map<String, Property> properties = new LinkedHashMap<String, Property>();
+        private final Method anySetter;
+        private final boolean recordUnknown;
+
+        BeanBinding(Class<?> type) {
+            this.type = type;
+            this.constructor = findConstructor(type);
+
+            Method foundAnySetter = null;
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    JsonProperty annotation = field.getAnnotation(JsonProperty.class);
+                    if (annotation == null || Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
+                    // Properties of the subclass hide those of the superclass
+                    if (!properties.containsKey(name)) {
+                        properties.put(name, new Property(name, field, findSetter(type, field)));
+                    }
+                }
+
+                // The any-setter of the subclass overrides that of the superclass
+                for (Method method : current.getDeclaredMethods()) {
+                    if (foundAnySetter == null && method.isAnnotationPresent(JsonAnySetter.class) && method.getParameterTypes().length == 2) {
+                        foundAnySetter = accessible(method);
+                    }
+                }
+            }
+            this.anySetter = foundAnySetter;
+            this.recordUnknown = foundAnySetter == null || RECORDING_ANY_SETTER.equals(foundAnySetter.getName());
+        }
+
+        Collection<Property> getProperties() {
+            return properties.values();
+        }
+
+        @Override
+        Object read(JsonParser p) throws IOException {
+            JsonToken token = p.getCurrentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            } else if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException("Can not read " + type.getSimpleName() + " from " + token, p.getCurrentLocation());
+            }
+
+            Object bean = newInstance();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.getCurrentName();
+                p.nextToken();
+                Property property = properties.get(name);
+                if (property != null) {
+                    property.read(p, bean);
+                } else if (recordUnknown) {
+                    UnknownProperties.skip(p, type, name);
+                } else {
+                    setAny(bean, name, UntypedBinding.INSTANCE.read(p));
+                }
+            }
+            return bean;
+        }
+
+        private Object newInstance() throws IOException {
+            if (constructor == null) {
+                throw new IOException("No default constructor for " + type.getName());
+            }
+            try {
+                return constructor.newInstance();
+            } catch (InstantiationException ex) {
+                throw bindingFailure("Failed to create " + type.getSimpleName(), ex);
+            } catch (IllegalAccessException ex) {
+                throw bindingFailure("Failed to create " + type.getSimpleName(), ex);
+            } catch (InvocationTargetException ex) {
+                throw bindingFailure("Failed to create " + type.getSimpleName(), ex);
+            }
+        }
+
+        private void setAny(Object bean, String name, Object value) throws IOException {
+            try {
+                anySetter.invoke(bean, name, value);
+            } catch (IllegalAccessException ex) {
+                throw bindingFailure("Failed to set " + type.getSimpleName() + "." + name, ex);
+            } catch (InvocationTargetException ex) {
+                throw bindingFailure("Failed to set " + type.getSimpleName() + "." + name, ex);
+            }
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        try {
+            return accessible(type.getDeclaredConstructor());
+        } catch (NoSuchMethodException ex) {
+            // Reported when the class is read
+            return null;
+        }
+    }
+
+    /**
+     * Find the setter for the field.
+     *
+     * The setter that takes the type of the field is preferred, otherwise the
+     * setter that is not ignored by Jackson is used.
+     *
+     * @param type
+     * @param field
+     * @return The setter or null if the field should be set directly
+     */
+    private static Method findSetter(Class<?> type, Field field) {
+        String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        Method found = null;
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (!method.getName().equals(name) || method.getParameterTypes().length != 1 || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                if (method.getGenericParameterTypes()[0].equals(field.getGenericType())) {
+                    return method;
+                }
+                if (found == null && !method.isAnnotationPresent(JsonIgnore.class)
+                        && method.getParameterTypes()[0].isAssignableFrom(field.getType())) {
+                    found = method;
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of the strings that are repeated across the model objects.
+ *
+ * Values such as the language and country codes, certifications, genre names
+ * and crew departments and jobs only have a few distinct values, but each
+ * response has its own copy of them. The model classes pass these values
+ * through the pool when they are set, so that objects that are kept (e.g. in
+ * a cache) share a single copy of each value.
+ *
+ * The pool is disabled by default, in which case the values are returned
+ * unchanged. The number of values in the pool is limited, once the limit is
+ * reached new values are no longer added.
+ *
+ * @author Stuart
+ */
+public final class StringPool {
+
+    private static final int DEFAULT_MAX_SIZE = 10000;
+    private static final ConcurrentMap<String, String> POOL = new ConcurrentHashMap<String, String>();
+    private static final AtomicLong HITS = new AtomicLong(0);
+    private static final AtomicLong MISSES = new AtomicLong(0);
+    private static volatile boolean enabled = false;
+    private static volatile int maxSize = DEFAULT_MAX_SIZE;
+
+    private StringPool() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the pool.
+     *
+     * Disabling keeps the values in the pool, use {@link #clear()} to release
+     * them.
+     *
+     * @param enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        StringPool.enabled = enabled;
+    }
+
+    public static int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Set the maximum number of values in the pool.
+     *
+     * Lowering the limit does not remove values that are already in the pool.
+     *
+     * @param maxSize
+     */
+    public static void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative: " + maxSize);
+        }
+        StringPool.maxSize = maxSize;
+    }
+
+    /**
+     * Get the pooled copy of the value.
+     *
+     * @param value
+     * @return The copy from the pool, or the value if it is not pooled
+     */
+    public static String intern(String value) {
+        if (!enabled || value == null) {
+            return value;
+        }
+
+        String pooled = POOL.get(value);
+        if (pooled != null) {
+            HITS.incrementAndGet();
+            return pooled;
+        }
+
+        MISSES.incrementAndGet();
+        if (POOL.size() < maxSize) {
+            pooled = POOL.putIfAbsent(value, value);
+            if (pooled != null) {
+                return pooled;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Get the number of values that were found in the pool
+     *
+     * @return
+     */
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    /**
+     * Get the number of values that were not found in the pool
+     *
+     * @return
+     */
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    /**
+     * Get the number of values in the pool
+     *
+     * @return
+     */
+    public static int getSize() {
+        return POOL.size();
+    }
+
+    /**
+     * Remove the values from the pool and reset the statistics
+     */
+    public static void clear() {
+        POOL.clear();
+        HITS.set(0);
+        MISSES.set(0);
+    }
+}
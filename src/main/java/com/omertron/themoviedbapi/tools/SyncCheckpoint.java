@@ -0,0 +1,248 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * How far a sync of the changes has got.
+ *
+ * All of the changes before the synced date have been handled. If a window
+ * was in progress when the sync stopped, its end date and the IDs that were
+ * handled in it are kept, so that the sync can resume the window without
+ * handling those IDs again.
+ *
+ * The IDs that failed are kept with the window they were changed in, so that
+ * the next sync can retry them.
+ *
+ * @author Stuart
+ */
+public class SyncCheckpoint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyncCheckpoint.class);
+    private static final String ENCODING = "UTF-8";
+    private static final String TEMP_SUFFIX = ".tmp";
+    @JsonProperty("synced_to")
+    private String syncedTo;
+    @JsonProperty("window_end")
+    private String windowEnd;
+    @JsonProperty("done")
+    private List<Integer> done = new ArrayList<Integer>();
+    @JsonProperty("failed")
+    private List<FailedId> failed = new ArrayList<FailedId>();
+
+    public SyncCheckpoint() {
+    }
+
+    public SyncCheckpoint(String syncedTo) {
+        this.syncedTo = syncedTo;
+    }
+
+    /**
+     * Read the checkpoint from the file.
+     *
+     * A file that can not be read is logged and ignored.
+     *
+     * @param file
+     * @param mapper
+     * @return The checkpoint, or null if there is none
+     */
+    public static SyncCheckpoint load(File file, JsonMapper mapper) {
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            SyncCheckpoint checkpoint = mapper.readValue(FileUtils.readFileToString(file, ENCODING), SyncCheckpoint.class);
+            if (checkpoint == null || checkpoint.getSyncedTo() == null) {
+                LOG.warn("Ignoring incomplete checkpoint in {}", file);
+                return null;
+            }
+            return checkpoint;
+        } catch (IOException ex) {
+            LOG.warn("Failed to read checkpoint from {}: {}", file, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the checkpoint to the file.
+     *
+     * The checkpoint is written to a temporary file first, so that a failed
+     * write does not leave a partial file behind.
+     *
+     * @param file
+     * @param mapper
+     * @throws IOException
+     */
+    public void save(File file, JsonMapper mapper) throws IOException {
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        try {
+            FileUtils.writeStringToFile(temp, mapper.writeValueAsString(this), ENCODING);
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+                throw new IOException("Unable to rename " + temp + " to " + file);
+            }
+        } catch (IOException ex) {
+            FileUtils.deleteQuietly(temp);
+            throw ex;
+        }
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter methods">
+    /**
+     * Get the date that the next window starts from, all of the changes before
+     * it have been handled
+     *
+     * @return The date as yyyy-MM-dd
+     */
+    public String getSyncedTo() {
+        return syncedTo;
+    }
+
+    /**
+     * Get the end of the window that is in progress
+     *
+     * @return The date as yyyy-MM-dd, or null if there is no window in
+     * progress
+     */
+    public String getWindowEnd() {
+        return windowEnd;
+    }
+
+    /**
+     * Get the IDs that have been handled in the window that is in progress
+     *
+     * @return
+     */
+    public List<Integer> getDone() {
+        return done;
+    }
+
+    /**
+     * Get the IDs that failed and are to be retried
+     *
+     * @return
+     */
+    public List<FailedId> getFailed() {
+        return failed;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Setter methods">
+    public void setSyncedTo(String syncedTo) {
+        this.syncedTo = syncedTo;
+    }
+
+    public void setWindowEnd(String windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public void setDone(List<Integer> done) {
+        this.done = done == null ? new ArrayList<Integer>() : done;
+    }
+
+    public void setFailed(List<FailedId> failed) {
+        this.failed = failed == null ? new ArrayList<FailedId>() : failed;
+    }
+
+    /**
+     * Add an ID that failed, unless it has already failed in the same window
+     *
+     * @param id
+     * @param startDate
+     * @param endDate
+     */
+    public void addFailed(int id, String startDate, String endDate) {
+        for (FailedId existing : failed) {
+            if (existing.getId() == id && existing.getStartDate().equals(startDate) && existing.getEndDate().equals(endDate)) {
+                return;
+            }
+        }
+        failed.add(new FailedId(id, startDate, endDate));
+    }
+    //</editor-fold>
+
+    @Override
+    public String toString() {
+        return "SyncCheckpoint[syncedTo=" + syncedTo + ",windowEnd=" + windowEnd + ",done=" + done.size() + ",failed=" + failed.size() + "]";
+    }
+
+    /**
+     * An ID that failed, with the window it was changed in
+     */
+    public static class FailedId {
+
+        @JsonProperty("id")
+        private int id;
+        @JsonProperty("start_date")
+        private String startDate;
+        @JsonProperty("end_date")
+        private String endDate;
+        @JsonProperty("attempts")
+        private int attempts;
+
+        public FailedId() {
+        }
+
+        public FailedId(int id, String startDate, String endDate) {
+            this.id = id;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.attempts = 1;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getStartDate() {
+            return startDate;
+        }
+
+        public String getEndDate() {
+            return endDate;
+        }
+
+        /**
+         * Get the number of times the ID has failed
+         *
+         * @return
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public void setAttempts(int attempts) {
+            this.attempts = attempts;
+        }
+
+        @Override
+        public String toString() {
+            return "FailedId[id=" + id + ",startDate=" + startDate + ",endDate=" + endDate + ",attempts=" + attempts + "]";
+        }
+    }
+}
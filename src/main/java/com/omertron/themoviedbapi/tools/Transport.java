@@ -0,0 +1,50 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+
+/**
+ * Sends the requests to the API.
+ *
+ * The default is {@link PooledHttpClient}, there are also adapters for
+ * {@link WebBrowser} and the yamj CommonHttpClient. Implementations must be
+ * thread safe.
+ *
+ * @author Stuart
+ */
+public interface Transport {
+
+    /**
+     * Send the request and return the response without reading the content.
+     *
+     * The caller must close the response.
+     *
+     * @param request
+     * @return
+     * @throws MovieDbException If the request could not be sent
+     */
+    WebResponse execute(WebRequest request) throws MovieDbException;
+
+    /**
+     * Release any resources held by the transport
+     */
+    void shutdown();
+}
@@ -0,0 +1,222 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the JSON properties that are not mapped by the model classes.
+ *
+ * The API adds new properties from time to time, this counts how often each
+ * unknown property is seen for each class and keeps a sample of its value,
+ * which shows the properties that are worth mapping.
+ *
+ * The registry is disabled by default, in which case nothing is recorded and
+ * nothing is allocated. The mappers created by {@link JacksonMapper} skip the
+ * unknown values in the parser rather than reading them.
+ *
+ * @author Stuart
+ */
+public final class UnknownProperties {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UnknownProperties.class);
+    private static final int MAX_SAMPLE_LENGTH = 200;
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Counter>> PROPERTIES = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Counter>>();
+    private static volatile boolean enabled = false;
+
+    private UnknownProperties() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the recording of unknown properties.
+     *
+     * Disabling keeps the properties that have been recorded.
+     *
+     * @param enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        UnknownProperties.enabled = enabled;
+    }
+
+    /**
+     * Record an unknown property that has been read
+     *
+     * @param type The class that does not map the property
+     * @param key
+     * @param value
+     */
+    public static void record(Class<?> type, String key, Object value) {
+        if (!enabled) {
+            return;
+        }
+
+        Counter counter = getCounter(type, key);
+        counter.count.incrementAndGet();
+        if (counter.sample == null) {
+            counter.sample = truncate(String.valueOf(value));
+        }
+    }
+
+    /**
+     * Skip the value of an unknown property in the parser, recording it.
+     *
+     * The value is only read if a sample is needed.
+     *
+     * @param p The parser, on the first token of the value
+     * @param type The class that does not map the property
+     * @param key
+     * @throws IOException
+     */
+    public static void skip(JsonParser p, Class<?> type, String key) throws IOException {
+        if (!enabled) {
+            p.skipChildren();
+            return;
+        }
+
+        Counter counter = getCounter(type, key);
+        counter.count.incrementAndGet();
+        if (counter.sample == null) {
+            if (p.getCodec() == null) {
+                counter.sample = truncate(p.getCurrentToken().isScalarValue() ? p.getText() : p.getCurrentToken().asString());
+                p.skipChildren();
+            } else {
+                counter.sample = truncate(String.valueOf(p.readValueAsTree()));
+            }
+        } else {
+            p.skipChildren();
+        }
+    }
+
+    private static Counter getCounter(Class<?> type, String key) {
+        ConcurrentMap<String, Counter> counters = PROPERTIES.get(type);
+        if (counters == null) {
+            counters = new ConcurrentHashMap<String, Counter>();
+            ConcurrentMap<String, Counter> existing = PROPERTIES.putIfAbsent(type, counters);
+            if (existing != null) {
+                counters = existing;
+            }
+        }
+
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = new Counter();
+            Counter existing = counters.putIfAbsent(key, counter);
+            if (existing == null) {
+                LOG.debug("{}: Unknown property '{}'", type.getSimpleName(), key);
+            } else {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+
+    private static String truncate(String sample) {
+        if (sample != null && sample.length() > MAX_SAMPLE_LENGTH) {
+            return sample.substring(0, MAX_SAMPLE_LENGTH) + "...";
+        }
+        return sample;
+    }
+
+    /**
+     * Get the classes that have had unknown properties
+     *
+     * @return
+     */
+    public static Set<Class<?>> getTypes() {
+        return Collections.unmodifiableSet(new HashSet<Class<?>>(PROPERTIES.keySet()));
+    }
+
+    /**
+     * Get the number of times each unknown property of the class has been
+     * seen
+     *
+     * @param type
+     * @return
+     */
+    public static Map<String, Long> getCounts(Class<?> type) {
+        Map<String, Long> counts = new HashMap<String, Long>();
+        ConcurrentMap<String, Counter> counters = PROPERTIES.get(type);
+        if (counters != null) {
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().count.get());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Get the number of times the unknown property of the class has been seen
+     *
+     * @param type
+     * @param key
+     * @return
+     */
+    public static long getCount(Class<?> type, String key) {
+        Counter counter = findCounter(type, key);
+        return counter == null ? 0 : counter.count.get();
+    }
+
+    /**
+     * Get the first value that was seen for the unknown property
+     *
+     * @param type
+     * @param key
+     * @return The value, truncated if it is long, or null if the property has
+     * not been seen
+     */
+    public static String getSample(Class<?> type, String key) {
+        Counter counter = findCounter(type, key);
+        return counter == null ? null : counter.sample;
+    }
+
+    private static Counter findCounter(Class<?> type, String key) {
+        ConcurrentMap<String, Counter> counters = PROPERTIES.get(type);
+        return counters == null ? null : counters.get(key);
+    }
+
+    /**
+     * Remove all the recorded properties
+     */
+    public static void clear() {
+        PROPERTIES.clear();
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong count = new AtomicLong(0);
+        private volatile String sample;
+    }
+}
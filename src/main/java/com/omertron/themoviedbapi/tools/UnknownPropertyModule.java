@@ -0,0 +1,81 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+import com.fasterxml.jackson.databind.deser.SettableAnyProperty;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.IOException;
+
+/**
+ * Module that sends the unknown properties to the {@link UnknownProperties}
+ * registry without reading their values.
+ *
+ * The model classes have a "handleUnknown" any setter so that they can be
+ * read by any ObjectMapper, but Jackson reads the whole value of the property
+ * before calling it. This module removes those any setters, so the unknown
+ * properties are skipped by the parser instead.
+ *
+ * @author Stuart
+ */
+public class UnknownPropertyModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+    // The any setter of the model classes that only records the property
+    static final String HANDLE_UNKNOWN = "handleUnknown";
+
+    public UnknownPropertyModule() {
+        super("UnknownPropertyModule");
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc, BeanDeserializerBuilder builder) {
+                SettableAnyProperty anySetter = builder.getAnySetter();
+                if (anySetter != null && anySetter.getProperty() != null) {
+                    AnnotatedMember member = anySetter.getProperty().getMember();
+                    if (member != null && HANDLE_UNKNOWN.equals(member.getName())) {
+                        builder.setAnySetter(null);
+                    }
+                }
+                return builder;
+            }
+        });
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        context.addDeserializationProblemHandler(new DeserializationProblemHandler() {
+            @Override
+            public boolean handleUnknownProperty(DeserializationContext ctxt, JsonParser jp, JsonDeserializer<?> deserializer, Object beanOrClass, String propertyName) throws IOException {
+                Class<?> type = beanOrClass instanceof Class ? (Class<?>) beanOrClass : beanOrClass.getClass();
+                UnknownProperties.skip(jp, type, propertyName);
+                return true;
+            }
+        });
+    }
+}
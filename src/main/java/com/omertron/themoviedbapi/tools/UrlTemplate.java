@@ -0,0 +1,211 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.omertron.themoviedbapi.tools.ApiUrl.*;
+
+/**
+ * Immutable template for the URL of an API method.
+ *
+ * The template holds the path of the method and renders the arguments in a
+ * fixed order: the API key, the query, the known parameters in the order of
+ * the slots below and then any other parameters sorted by name. The same
+ * arguments always produce the same URL, which makes it usable as a cache key.
+ *
+ * Templates are immutable, so each API method keeps its template in a
+ * constant that is shared between threads.
+ *
+ * @author Stuart
+ */
+public final class UrlTemplate {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UrlTemplate.class);
+    // TheMovieDbApi API Base URL
+    static final String TMDB_API_BASE = "http://api.themoviedb.org/3/";
+    private static final char DELIMITER_FIRST = '?';
+    private static final char DELIMITER_SUBSEQUENT = '&';
+    private static final char PATH_SEPARATOR = '/';
+    // The order that the known parameters are added to the URL
+    private static final String[] PARAMETER_SLOTS = {
+        PARAM_ID, PARAM_SESSION, PARAM_TOKEN, PARAM_LANGUAGE, PARAM_COUNTRY, PARAM_PAGE,
+        PARAM_ADULT, PARAM_YEAR, PARAM_START_DATE, PARAM_END_DATE, PARAM_INCLUDE_ALL_MOVIES,
+        PARAM_FAVORITE, PARAM_MOVIE_WATCHLIST, PARAM_VALUE, APPEND_TO_RESPONSE
+    };
+    private static final Set<String> SLOT_NAMES = new HashSet<String>(Arrays.asList(PARAMETER_SLOTS));
+    private static final int BUFFER_SIZE = 256;
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(BUFFER_SIZE);
+        }
+    };
+    private final String path;
+    private final String submethod;
+
+    /**
+     * Create a template for the method
+     *
+     * @param method The method, e.g. "movie/"
+     * @param submethod The part of the path after the ID, e.g. "/casts"
+     */
+    public UrlTemplate(String method, String submethod) {
+        this.path = TMDB_API_BASE + method;
+        this.submethod = submethod == null ? "" : submethod;
+    }
+
+    /**
+     * Create the URL from the arguments
+     *
+     * @param apiKey
+     * @param arguments
+     * @return The URL or null if it is not valid
+     */
+    public URL buildUrl(String apiKey, Map<String, String> arguments) {
+        String url = render(apiKey, Boolean.TRUE, arguments);
+        try {
+            LOG.trace("URL: {}", url);
+            return new URL(url);
+        } catch (MalformedURLException ex) {
+            LOG.warn("Failed to create URL {} - {}", url, ex.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Create the key that identifies the request made with the arguments.
+     *
+     * This is the URL without the API key.
+     *
+     * @param arguments
+     * @return
+     */
+    public String getRequestKey(Map<String, String> arguments) {
+        return render(null, Boolean.FALSE, arguments);
+    }
+
+    /**
+     * Render the URL into the buffer for the thread
+     *
+     * @param apiKey
+     * @param includeApiKey
+     * @param arguments
+     * @return
+     */
+    private String render(String apiKey, boolean includeApiKey, Map<String, String> arguments) {
+        StringBuilder url = BUFFER.get();
+        url.setLength(0);
+        url.append(path);
+
+        // We have either a query, or a direct request with an ID
+        String query = arguments.get(PARAM_QUERY);
+        if (query == null) {
+            String id = arguments.get(PARAM_ID);
+            if (id != null) {
+                url.append(id);
+            }
+        }
+
+        if (url.charAt(url.length() - 1) == PATH_SEPARATOR && submethod.length() > 0 && submethod.charAt(0) == PATH_SEPARATOR) {
+            url.setLength(url.length() - 1);
+        }
+        url.append(submethod);
+
+        char delimiter = DELIMITER_FIRST;
+        if (includeApiKey) {
+            url.append(delimiter).append(PARAM_API_KEY).append(apiKey);
+            delimiter = DELIMITER_SUBSEQUENT;
+        }
+
+        int used = 0;
+        if (query != null) {
+            url.append(delimiter).append(PARAM_QUERY).append(encode(query));
+            delimiter = DELIMITER_SUBSEQUENT;
+            used++;
+        }
+
+        for (String slot : PARAMETER_SLOTS) {
+            String value = arguments.get(slot);
+            if (value == null) {
+                continue;
+            }
+            used++;
+            // The ID is part of the path unless this is a query
+            if (query != null || !PARAM_ID.equals(slot)) {
+                url.append(delimiter).append(slot).append(value);
+                delimiter = DELIMITER_SUBSEQUENT;
+            }
+        }
+
+        if (used < arguments.size()) {
+            for (String name : getOtherNames(arguments)) {
+                url.append(delimiter).append(name).append(arguments.get(name));
+                delimiter = DELIMITER_SUBSEQUENT;
+            }
+        }
+
+        return url.toString();
+    }
+
+    /**
+     * Get the names of the arguments that do not have a slot, sorted
+     *
+     * @param arguments
+     * @return
+     */
+    private static List<String> getOtherNames(Map<String, String> arguments) {
+        List<String> names = new ArrayList<String>();
+        for (String name : arguments.keySet()) {
+            if (!SLOT_NAMES.contains(name) && !PARAM_QUERY.equals(name)) {
+                names.add(name);
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static String encode(String query) {
+        try {
+            return URLEncoder.encode(query, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            LOG.trace("Unable to encode query: '{}' trying raw.", query, ex);
+            // If we can't encode it, try it raw
+            return query;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path + submethod;
+    }
+}
@@ -20,63 +20,68 @@
 package com.omertron.themoviedbapi.tools;
 
 import com.omertron.themoviedbapi.MovieDbException;
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
+import java.net.Proxy;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Web browser with simple cookies support
+ * Web browser with simple cookies support.
+ *
+ * Each browser has its own cookies, proxy and timeouts, so several can be used
+ * side by side. A browser is safe to use from multiple threads.
  */
 public final class WebBrowser {
 
     private static final Logger LOG = LoggerFactory.getLogger(WebBrowser.class);
-    private static final Map<String, String> BROWSER_PROPERTIES = new HashMap<String, String>();
-    private static final Map<String, Map<String, String>> COOKIES = new HashMap<String, Map<String, String>>();
-    private static String proxyHost = null;
-    private static int proxyPort = 0;
-    private static String proxyUsername = null;
-    private static String proxyPassword = null;
-    private static String proxyEncodedPassword = null;
+    private static final Map<String, String> BROWSER_PROPERTIES;
+    private static final Pattern CHARSET_PATTERN = Pattern.compile("harset *=[ '\"]*([^ ;'\"]+)[ ;'\"]*");
+    private static final Charset UTF8 = Charset.forName("UTF-8");
     // 25 second timeout
-    private static int webTimeoutConnect = 25000;
+    private static final int DEFAULT_TIMEOUT_CONNECT = 25000;
     // 90 second timeout
-    private static int webTimeoutRead = 90000;
-
-    // Hide the constructor
-    protected WebBrowser() {
-        // prevents calls from subclass
-        throw new UnsupportedOperationException();
-    }
-
-    /**
-     * Populate the browser properties
-     */
-    private static void populateBrowserProperties() {
-        if (BROWSER_PROPERTIES.isEmpty()) {
-            BROWSER_PROPERTIES.put("User-Agent", "Mozilla/5.25 Netscape/5.0 (Windows; I; Win95)");
-            BROWSER_PROPERTIES.put("Accept", "application/json");
-            BROWSER_PROPERTIES.put("Content-type", "application/json");
-        }
+    private static final int DEFAULT_TIMEOUT_READ = 90000;
+    private final ConcurrentMap<String, ConcurrentMap<String, String>> cookies = new ConcurrentHashMap<String, ConcurrentMap<String, String>>();
+    private final CompressionStats compressionStats = new CompressionStats();
+    private volatile Proxy proxy = Proxy.NO_PROXY;
+    private String proxyHost = null;
+    private int proxyPort = 0;
+    private String proxyUsername = null;
+    private String proxyPassword = null;
+    private volatile String proxyEncodedPassword = null;
+    private volatile int webTimeoutConnect = DEFAULT_TIMEOUT_CONNECT;
+    private volatile int webTimeoutRead = DEFAULT_TIMEOUT_READ;
+
+    static {
+        Map<String, String> properties = new LinkedHashMap<String, String>();
+        properties.put("User-Agent", "Mozilla/5.25 Netscape/5.0 (Windows; I; Win95)");
+        properties.put("Accept", "application/json");
+        properties.put("Content-type", "application/json");
+        properties.put("Accept-Encoding", CompressionStats.ACCEPT_ENCODING);
+        BROWSER_PROPERTIES = Collections.unmodifiableMap(properties);
     }
 
-    public static String request(String url) throws MovieDbException {
+    public String request(String url) throws MovieDbException {
         try {
             return request(new URL(url));
         } catch (MalformedURLException ex) {
@@ -84,18 +89,23 @@ public final class WebBrowser {
         }
     }
 
-    public static URLConnection openProxiedConnection(URL url) throws MovieDbException {
+    /**
+     * Open a connection to the URL through the proxy (if there is one) with
+     * the timeouts set
+     *
+     * @param url
+     * @return
+     * @throws MovieDbException
+     */
+    public URLConnection openProxiedConnection(URL url) throws MovieDbException {
         try {
-            if (proxyHost != null) {
-                System.getProperties().put("proxySet", "true");
-                System.getProperties().put("proxyHost", proxyHost);
-                System.getProperties().put("proxyPort", proxyPort);
-            }
+            URLConnection cnx = url.openConnection(proxy);
+            cnx.setConnectTimeout(webTimeoutConnect);
+            cnx.setReadTimeout(webTimeoutRead);
 
-            URLConnection cnx = url.openConnection();
-
-            if (proxyUsername != null) {
-                cnx.setRequestProperty("Proxy-Authorization", proxyEncodedPassword);
+            String encodedPassword = proxyEncodedPassword;
+            if (encodedPassword != null) {
+                cnx.setRequestProperty("Proxy-Authorization", encodedPassword);
             }
 
             return cnx;
@@ -104,90 +114,100 @@ public final class WebBrowser {
         }
     }
 
-    public static String request(URL url) throws MovieDbException {
+    public String request(URL url) throws MovieDbException {
         return request(url, null, Boolean.FALSE);
     }
 
-    public static String request(URL url, String jsonBody) throws MovieDbException {
+    public String request(URL url, String jsonBody) throws MovieDbException {
         return request(url, jsonBody, Boolean.FALSE);
     }
 
-    public static String request(URL url, String jsonBody, boolean isDeleteRequest) throws MovieDbException {
-
-        StringWriter content = null;
-
+    public String request(URL url, String jsonBody, boolean isDeleteRequest) throws MovieDbException {
+        WebResponse response = execute(new WebRequest(url, jsonBody, isDeleteRequest));
         try {
-            content = new StringWriter();
+            return response.getContentAsString();
+        } catch (IOException ex) {
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, url, ex);
+        } finally {
+            response.close();
+        }
+    }
 
-            BufferedReader in = null;
-            HttpURLConnection cnx = null;
-            OutputStreamWriter wr = null;
-            try {
-                cnx = (HttpURLConnection) openProxiedConnection(url);
+    /**
+     * Send the request and return the response without reading the content.
+     *
+     * The response must be closed so that the connection can be re-used.
+     *
+     * @param request
+     * @return
+     * @throws MovieDbException
+     */
+    public WebResponse execute(WebRequest request) throws MovieDbException {
+        URL url = request.getUrl();
+        HttpURLConnection cnx = null;
+        try {
+            cnx = (HttpURLConnection) openProxiedConnection(url);
 
-                // If we get a null connection, then throw an exception
-                if (cnx == null) {
-                    throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, "No HTTP connection could be made.", url);
-                }
+            // If we get a null connection, then throw an exception
+            if (cnx == null) {
+                throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, "No HTTP connection could be made.", url);
+            }
 
-                if (isDeleteRequest) {
-                    cnx.setDoOutput(true);
-                    cnx.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-                    cnx.setRequestMethod("DELETE");
-                }
+            if (request.isDeleteRequest()) {
+                cnx.setDoOutput(true);
+                cnx.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                cnx.setRequestMethod("DELETE");
+            }
 
-                sendHeader(cnx);
+            sendHeader(cnx);
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                cnx.setRequestProperty(header.getKey(), header.getValue());
+            }
 
-                if (StringUtils.isNotBlank(jsonBody)) {
-                    cnx.setDoOutput(true);
-                    wr = new OutputStreamWriter(cnx.getOutputStream());
-                    wr.write(jsonBody);
+            if (request.hasBody()) {
+                cnx.setDoOutput(true);
+                // The body must be written in full before the response is read
+                OutputStream out = cnx.getOutputStream();
+                try {
+                    out.write(request.getJsonBody().getBytes(UTF8));
+                } finally {
+                    out.close();
                 }
+            }
 
-                readHeader(cnx);
-
-                // http://stackoverflow.com/questions/4633048/httpurlconnection-reading-response-content-on-403-error
-                if (cnx.getResponseCode() >= 400) {
-                    in = new BufferedReader(new InputStreamReader(cnx.getErrorStream(), getCharset(cnx)));
-                } else {
-                    in = new BufferedReader(new InputStreamReader(cnx.getInputStream(), getCharset(cnx)));
-                }
+            readHeader(cnx);
 
-                String line;
-                while ((line = in.readLine()) != null) {
-                    content.write(line);
-                }
-            } finally {
-                if (wr != null) {
-                    wr.flush();
-                    wr.close();
-                }
-
-                if (in != null) {
-                    in.close();
-                }
+            // http://stackoverflow.com/questions/4633048/httpurlconnection-reading-response-content-on-403-error
+            int statusCode = cnx.getResponseCode();
+            InputStream stream;
+            if (statusCode >= 400) {
+                stream = cnx.getErrorStream();
+            } else {
+                stream = cnx.getInputStream();
+            }
+            if (stream == null) {
+                stream = new ByteArrayInputStream(new byte[0]);
+            }
 
-                if (cnx instanceof HttpURLConnection) {
-                    ((HttpURLConnection) cnx).disconnect();
+            Map<String, String> headers = new HashMap<String, String>();
+            for (String name : cnx.getHeaderFields().keySet()) {
+                // The status line has a null name
+                if (name != null) {
+                    headers.put(name, cnx.getHeaderField(name));
                 }
             }
-            return content.toString();
+
+            // Closing the stream lets the connection be kept alive
+            return new WebResponse(statusCode, headers, compressionStats.decode(stream, cnx.getContentEncoding()), getCharset(cnx));
         } catch (IOException ex) {
-            throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, url, ex);
-        } finally {
-            if (content != null) {
-                try {
-                    content.close();
-                } catch (IOException ex) {
-                    LOG.debug("Failed to close connection: " + ex.getMessage());
-                }
+            if (cnx != null) {
+                cnx.disconnect();
             }
+            throw new MovieDbException(MovieDbException.MovieDbExceptionType.CONNECTION_ERROR, null, url, ex);
         }
     }
 
-    private static void sendHeader(URLConnection cnx) {
-        populateBrowserProperties();
-
+    private void sendHeader(URLConnection cnx) {
         // send browser properties
         for (Map.Entry<String, String> browserProperty : BROWSER_PROPERTIES.entrySet()) {
             cnx.setRequestProperty(browserProperty.getKey(), browserProperty.getValue());
@@ -199,10 +219,10 @@ public final class WebBrowser {
         }
     }
 
-    private static String createCookieHeader(URLConnection cnx) {
+    private String createCookieHeader(URLConnection cnx) {
         String host = cnx.getURL().getHost();
         StringBuilder cookiesHeader = new StringBuilder();
-        for (Map.Entry<String, Map<String, String>> domainCookies : COOKIES.entrySet()) {
+        for (Map.Entry<String, ConcurrentMap<String, String>> domainCookies : cookies.entrySet()) {
             if (host.endsWith(domainCookies.getKey())) {
                 for (Map.Entry<String, String> cookie : domainCookies.getValue().entrySet()) {
                     cookiesHeader.append(cookie.getKey());
@@ -219,7 +239,7 @@ public final class WebBrowser {
         return cookiesHeader.toString();
     }
 
-    private static void readHeader(URLConnection cnx) {
+    private void readHeader(URLConnection cnx) {
         // read new cookies and update our cookies
         for (Map.Entry<String, List<String>> header : cnx.getHeaderFields().entrySet()) {
             if ("Set-Cookie".equals(header.getKey())) {
@@ -228,7 +248,7 @@ public final class WebBrowser {
                     if (cookieElements.length >= 1) {
                         String[] firstElem = cookieElements[0].split(" *= *");
                         String cookieName = firstElem[0];
-                        String cookieValue = firstElem.length > 1 ? firstElem[1] : null;
+                        String cookieValue = firstElem.length > 1 ? firstElem[1] : "";
                         String cookieDomain = null;
                         // find cookie domain
                         for (int i = 1; i < cookieElements.length; i++) {
@@ -242,10 +262,13 @@ public final class WebBrowser {
                             // if domain isn't set take current host
                             cookieDomain = cnx.getURL().getHost();
                         }
-                        Map<String, String> domainCookies = COOKIES.get(cookieDomain);
+                        ConcurrentMap<String, String> domainCookies = cookies.get(cookieDomain);
                         if (domainCookies == null) {
-                            domainCookies = new HashMap<String, String>();
-                            COOKIES.put(cookieDomain, domainCookies);
+                            ConcurrentMap<String, String> newCookies = new ConcurrentHashMap<String, String>();
+                            domainCookies = cookies.putIfAbsent(cookieDomain, newCookies);
+                            if (domainCookies == null) {
+                                domainCookies = newCookies;
+                            }
                         }
                         // add or replace cookie
                         domainCookies.put(cookieName, cookieValue);
@@ -255,13 +278,13 @@ public final class WebBrowser {
         }
     }
 
-    private static Charset getCharset(URLConnection cnx) {
+    private Charset getCharset(URLConnection cnx) {
         Charset charset = null;
         // content type will be string like "text/html; charset=UTF-8" or "text/html"
         String contentType = cnx.getContentType();
         if (contentType != null) {
             // changed 'charset' to 'harset' in regexp because some sites send 'Charset'
-            Matcher m = Pattern.compile("harset *=[ '\"]*([^ ;'\"]+)[ ;'\"]*").matcher(contentType);
+            Matcher m = CHARSET_PATTERN.matcher(contentType);
             if (m.find()) {
                 String encoding = m.group(1);
                 try {
@@ -278,56 +301,102 @@ public final class WebBrowser {
         return charset;
     }
 
-    public static String getProxyHost() {
+    /**
+     * Get the statistics of the compressed responses
+     *
+     * @return
+     */
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    /**
+     * Remove all the cookies
+     */
+    public void clearCookies() {
+        cookies.clear();
+    }
+
+    /**
+     * Set the proxy information
+     *
+     * @param host The proxy host, or null for a direct connection
+     * @param port
+     * @param username
+     * @param password
+     */
+    public synchronized void setProxy(String host, int port, String username, String password) {
+        this.proxyHost = host;
+        this.proxyPort = port;
+        this.proxyUsername = username;
+        setProxyPassword(password);
+        updateProxy();
+    }
+
+    /**
+     * Create the proxy for the connections from the host and port
+     */
+    private void updateProxy() {
+        if (proxyHost == null) {
+            proxy = Proxy.NO_PROXY;
+        } else {
+            proxy = new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved(proxyHost, proxyPort));
+        }
+    }
+
+    public synchronized String getProxyHost() {
         return proxyHost;
     }
 
-    public static void setProxyHost(String myProxyHost) {
-        WebBrowser.proxyHost = myProxyHost;
+    public synchronized void setProxyHost(String myProxyHost) {
+        this.proxyHost = myProxyHost;
+        updateProxy();
     }
 
-    public static int getProxyPort() {
+    public synchronized int getProxyPort() {
         return proxyPort;
     }
 
-    public static void setProxyPort(int myProxyPort) {
-        WebBrowser.proxyPort = myProxyPort;
+    public synchronized void setProxyPort(int myProxyPort) {
+        this.proxyPort = myProxyPort;
+        updateProxy();
     }
 
-    public static String getProxyUsername() {
+    public synchronized String getProxyUsername() {
         return proxyUsername;
     }
 
-    public static void setProxyUsername(String myProxyUsername) {
-        WebBrowser.proxyUsername = myProxyUsername;
+    public synchronized void setProxyUsername(String myProxyUsername) {
+        this.proxyUsername = myProxyUsername;
     }
 
-    public static String getProxyPassword() {
+    public synchronized String getProxyPassword() {
         return proxyPassword;
     }
 
-    public static void setProxyPassword(String myProxyPassword) {
-        WebBrowser.proxyPassword = myProxyPassword;
+    public synchronized void setProxyPassword(String myProxyPassword) {
+        this.proxyPassword = myProxyPassword;
 
-        if (proxyUsername != null) {
-            proxyEncodedPassword = proxyUsername + ":" + proxyPassword;
-            proxyEncodedPassword = "Basic " + new String(Base64.encodeBase64((proxyUsername + ":" + proxyPassword).getBytes()));
+        if (proxyUsername == null) {
+            proxyEncodedPassword = null;
+        } else {
+            proxyEncodedPassword = "Basic " + new String(Base64.encodeBase64((proxyUsername + ":" + proxyPassword).getBytes(UTF8)), UTF8);
         }
     }
 
-    public static int getWebTimeoutConnect() {
+    public int getWebTimeoutConnect() {
         return webTimeoutConnect;
     }
 
-    public static int getWebTimeoutRead() {
+    public int getWebTimeoutRead() {
         return webTimeoutRead;
     }
 
-    public static void setWebTimeoutConnect(int webTimeoutConnect) {
-        WebBrowser.webTimeoutConnect = webTimeoutConnect;
+    public void setWebTimeoutConnect(int webTimeoutConnect) {
+        this.webTimeoutConnect = webTimeoutConnect;
     }
 
-    public static void setWebTimeoutRead(int webTimeoutRead) {
-        WebBrowser.webTimeoutRead = webTimeoutRead;
+    public void setWebTimeoutRead(int webTimeoutRead) {
+        this.webTimeoutRead = webTimeoutRead;
     }
 }
@@ -0,0 +1,58 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+
+/**
+ * Transport that sends the requests with the {@link WebBrowser}, using the
+ * HttpURLConnection from the JDK.
+ *
+ * @author Stuart
+ */
+public class WebBrowserTransport implements Transport {
+
+    private final WebBrowser browser;
+
+    /**
+     * Create a transport with its own browser
+     */
+    public WebBrowserTransport() {
+        this(new WebBrowser());
+    }
+
+    public WebBrowserTransport(WebBrowser browser) {
+        this.browser = browser;
+    }
+
+    public WebBrowser getBrowser() {
+        return browser;
+    }
+
+    @Override
+    public WebResponse execute(WebRequest request) throws MovieDbException {
+        return browser.execute(request);
+    }
+
+    @Override
+    public void shutdown() {
+        // Nothing to release
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A request to be sent by a {@link Transport}.
+ *
+ * If there is a JSON body then the request is a POST, otherwise it is a DELETE
+ * or a GET.
+ *
+ * @author Stuart
+ */
+public class WebRequest {
+
+    public static final String METHOD_GET = "GET";
+    public static final String METHOD_POST = "POST";
+    public static final String METHOD_DELETE = "DELETE";
+    private final URL url;
+    private final String jsonBody;
+    private final boolean deleteRequest;
+    private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+    /**
+     * Create a GET request
+     *
+     * @param url
+     */
+    public WebRequest(URL url) {
+        this(url, null, Boolean.FALSE);
+    }
+
+    /**
+     * Create a request
+     *
+     * @param url
+     * @param jsonBody The body to POST, can be null
+     * @param isDeleteRequest
+     */
+    public WebRequest(URL url, String jsonBody, boolean isDeleteRequest) {
+        this.url = url;
+        this.jsonBody = jsonBody;
+        this.deleteRequest = isDeleteRequest;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public String getJsonBody() {
+        return jsonBody;
+    }
+
+    public boolean hasBody() {
+        return StringUtils.isNotBlank(jsonBody);
+    }
+
+    public boolean isDeleteRequest() {
+        return deleteRequest;
+    }
+
+    /**
+     * Get the HTTP method of the request
+     *
+     * @return
+     */
+    public String getMethod() {
+        if (hasBody()) {
+            return METHOD_POST;
+        }
+        return deleteRequest ? METHOD_DELETE : METHOD_GET;
+    }
+
+    /**
+     * Add a header to send with the request
+     *
+     * @param name
+     * @param value
+     */
+    public void addHeader(String name, String value) {
+        headers.put(name, value);
+    }
+
+    /**
+     * Add headers to send with the request
+     *
+     * @param headers
+     */
+    public void addHeaders(Map<String, String> headers) {
+        this.headers.putAll(headers);
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    @Override
+    public String toString() {
+        return getMethod() + " " + url;
+    }
+}
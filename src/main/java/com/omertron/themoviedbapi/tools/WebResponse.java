@@ -0,0 +1,116 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * The response from a web request with the content available as a stream.
+ *
+ * The response must be closed once the content has been read so that the
+ * connection can be re-used.
+ *
+ * @author Stuart
+ */
+public class WebResponse implements Closeable {
+
+    private static final int HTTP_ERROR = 400;
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final InputStream content;
+    private final Charset charset;
+
+    public WebResponse(int statusCode, InputStream content, Charset charset) {
+        this(statusCode, Collections.<String, String>emptyMap(), content, charset);
+    }
+
+    public WebResponse(int statusCode, Map<String, String> headers, InputStream content, Charset charset) {
+        this.statusCode = statusCode;
+        this.headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        this.headers.putAll(headers);
+        this.content = content;
+        this.charset = charset;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Is the status code an HTTP error (4xx or 5xx)
+     *
+     * @return
+     */
+    public boolean isError() {
+        return statusCode >= HTTP_ERROR;
+    }
+
+    /**
+     * Get the value of a response header
+     *
+     * @param name The name of the header, not case sensitive
+     * @return The value or null if the header was not sent
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Get the content of the response as a stream
+     *
+     * @return
+     */
+    public InputStream getContent() {
+        return content;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Read the whole of the content into a string.
+     *
+     * This should only be used where the raw content is needed, e.g. for error
+     * responses.
+     *
+     * @return
+     * @throws IOException
+     */
+    public String getContentAsString() throws IOException {
+        return IOUtils.toString(content, charset);
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeQuietly(content);
+    }
+}
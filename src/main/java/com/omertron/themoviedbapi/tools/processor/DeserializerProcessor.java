@@ -0,0 +1,484 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools.processor;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor that generates a streaming Jackson deserializer for
+ * each class with {@code @JsonProperty} fields.
+ *
+ * The deserializers read the properties with the JsonParser and call the
+ * setters directly, so there is no reflection when the JSON is bound. They are
+ * registered by the generated {@code GeneratedDeserializers} class, which is
+ * used by the {@code GeneratedJsonMapper}.
+ *
+ * The processor is run by the Maven build, see the pom.
+ *
+ * @author Stuart
+ */
+@SupportedAnnotationTypes("*")
+public class DeserializerProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "Deserializer";
+    private static final String SUPPORT = "com.omertron.themoviedbapi.tools.DeserializerSupport";
+    private static final String UNKNOWN_PROPERTIES = "com.omertron.themoviedbapi.tools.UnknownProperties";
+    // The any setter of the model classes that only records the property
+    private static final String HANDLE_UNKNOWN = "handleUnknown";
+    private static final String REGISTRY_PACKAGE = "com.omertron.themoviedbapi.tools";
+    private static final String REGISTRY_NAME = "GeneratedDeserializers";
+    private static final String INDENT = "    ";
+    private boolean generated = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (generated || roundEnv.processingOver()) {
+            return false;
+        }
+        generated = true;
+
+        // Find the classes to generate for first, so that the properties can use each others deserializers
+        Map<String, TypeElement> beans = new TreeMap<String, TypeElement>();
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            if (isBean(type)) {
+                beans.put(type.getQualifiedName().toString(), type);
+            }
+        }
+
+        if (beans.isEmpty()) {
+            return false;
+        }
+
+        for (TypeElement type : beans.values()) {
+            writeDeserializer(type, beans);
+        }
+        writeRegistry(beans);
+        return false;
+    }
+
+    /**
+     * Can a deserializer be generated for the type
+     *
+     * @param type
+     * @return
+     */
+    private boolean isBean(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS
+                || !type.getModifiers().contains(Modifier.PUBLIC)
+                || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !hasDefaultConstructor(type)) {
+            return false;
+        }
+        return !getProperties(type).isEmpty();
+    }
+
+    private boolean hasDefaultConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the properties of the type and its super classes, keyed on the JSON
+     * name
+     *
+     * @param type
+     * @return
+     */
+    private Map<String, Property> getProperties(TypeElement type) {
+        Map<String, Property> properties = new LinkedHashMap<String, Property>();
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+
+        for (TypeElement current = type; current != null; current = getSuperclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                JsonProperty annotation = field.getAnnotation(JsonProperty.class);
+                if (annotation == null) {
+                    continue;
+                }
+
+                String fieldName = field.getSimpleName().toString();
+                String jsonName = annotation.value().isEmpty() ? fieldName : annotation.value();
+                if (properties.containsKey(jsonName)) {
+                    // Already defined by a sub class
+                    continue;
+                }
+
+                ExecutableElement setter = findSetter(methods, field, getPackageName(type));
+                if (setter == null) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                            "No public setter for " + fieldName + ", the reflective mapper will be used", type);
+                    return Collections.emptyMap();
+                }
+                properties.put(jsonName, new Property(jsonName, setter.getSimpleName().toString(), setter.getParameters().get(0).asType()));
+            }
+        }
+        return properties;
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    /**
+     * Find the setter for the field.
+     *
+     * A setter that takes the type of the field is used first, it can be
+     * package private if it is in the package of the type. Otherwise the
+     * public setter is used, unless it is ignored.
+     *
+     * @param methods
+     * @param field
+     * @param packageName
+     * @return
+     */
+    private ExecutableElement findSetter(List<ExecutableElement> methods, VariableElement field, String packageName) {
+        String fieldName = field.getSimpleName().toString();
+        String name = "set" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        ExecutableElement publicSetter = null;
+        for (ExecutableElement method : methods) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!method.getSimpleName().contentEquals(name)
+                    || method.getParameters().size() != 1
+                    || modifiers.contains(Modifier.STATIC)
+                    || modifiers.contains(Modifier.PRIVATE)) {
+                continue;
+            }
+
+            boolean accessible = modifiers.contains(Modifier.PUBLIC)
+                    || packageName.equals(getPackageName((TypeElement) method.getEnclosingElement()));
+            if (accessible && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                return method;
+            }
+            if (modifiers.contains(Modifier.PUBLIC) && method.getAnnotation(JsonIgnore.class) == null) {
+                publicSetter = method;
+            }
+        }
+        return publicSetter;
+    }
+
+    /**
+     * Find the method to send the unknown properties to.
+     *
+     * The method must be accessible from the package of the type.
+     *
+     * @param type
+     * @return The name of the method or null if unknown properties should only
+     * be recorded
+     */
+    private String findAnySetter(TypeElement type) {
+        String packageName = getPackageName(type);
+        for (TypeElement current = type; current != null; current = getSuperclass(current)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (method.getAnnotation(JsonAnySetter.class) == null || method.getParameters().size() != 2) {
+                    continue;
+                }
+
+                Set<Modifier> modifiers = method.getModifiers();
+                boolean samePackage = packageName.equals(getPackageName(current));
+                if (modifiers.contains(Modifier.PUBLIC) || (samePackage && !modifiers.contains(Modifier.PRIVATE))) {
+                    return method.getSimpleName().toString();
+                }
+                // The most specific any setter is not accessible
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private String getPackageName(TypeElement type) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        return pkg.getQualifiedName().toString();
+    }
+
+    /**
+     * Write the deserializer for the type
+     *
+     * @param type
+     * @param beans
+     */
+    private void writeDeserializer(TypeElement type, Map<String, TypeElement> beans) {
+        String packageName = getPackageName(type);
+        String beanName = type.getQualifiedName().toString();
+        String className = type.getSimpleName() + SUFFIX;
+        Map<String, Property> properties = getProperties(type);
+        String anySetter = findAnySetter(type);
+
+        // Group the properties by the hash of their names, Java 6 cannot switch on strings
+        Map<Integer, List<Property>> byHash = new TreeMap<Integer, List<Property>>();
+        for (Property property : properties.values()) {
+            Integer hash = property.jsonName.hashCode();
+            List<Property> group = byHash.get(hash);
+            if (group == null) {
+                group = new ArrayList<Property>();
+                byHash.put(hash, group);
+            }
+            group.add(property);
+        }
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + "." + className, type);
+            PrintWriter out = new PrintWriter(file.openWriter());
+            try {
+                out.println("package " + packageName + ";");
+                out.println();
+                out.println("/**");
+                out.println(" * Streaming deserializer for {@link " + beanName + "}.");
+                out.println(" *");
+                out.println(" * Generated by " + DeserializerProcessor.class.getName() + ", do not edit.");
+                out.println(" */");
+                out.println("public final class " + className + " extends com.fasterxml.jackson.databind.JsonDeserializer<" + beanName + "> {");
+                out.println();
+                out.println(INDENT + "public static final " + className + " INSTANCE = new " + className + "();");
+                int typeCount = 0;
+                for (Property property : properties.values()) {
+                    if (property.needsTypeReference(beans)) {
+                        property.typeReference = "TYPE_" + (typeCount++);
+                        out.println(INDENT + "private static final com.fasterxml.jackson.core.type.TypeReference<" + boxed(property.type)
+                                + "> " + property.typeReference + " = new com.fasterxml.jackson.core.type.TypeReference<" + boxed(property.type) + ">() {};");
+                    }
+                }
+                out.println();
+                out.println(INDENT + "@Override");
+                out.println(INDENT + "public " + beanName + " deserialize(com.fasterxml.jackson.core.JsonParser p, com.fasterxml.jackson.databind.DeserializationContext ctxt) throws java.io.IOException {");
+                out.println(INDENT + INDENT + "com.fasterxml.jackson.core.JsonToken token = p.getCurrentToken();");
+                out.println(INDENT + INDENT + "if (token == com.fasterxml.jackson.core.JsonToken.START_OBJECT) {");
+                out.println(INDENT + INDENT + INDENT + "token = p.nextToken();");
+                out.println(INDENT + INDENT + "} else if (token != com.fasterxml.jackson.core.JsonToken.FIELD_NAME && token != com.fasterxml.jackson.core.JsonToken.END_OBJECT) {");
+                out.println(INDENT + INDENT + INDENT + "throw ctxt.mappingException(" + beanName + ".class);");
+                out.println(INDENT + INDENT + "}");
+                out.println();
+                out.println(INDENT + INDENT + beanName + " bean = new " + beanName + "();");
+                out.println(INDENT + INDENT + "for (; token == com.fasterxml.jackson.core.JsonToken.FIELD_NAME; token = p.nextToken()) {");
+                out.println(INDENT + INDENT + INDENT + "String name = p.getCurrentName();");
+                out.println(INDENT + INDENT + INDENT + "p.nextToken();");
+                out.println(INDENT + INDENT + INDENT + "switch (name.hashCode()) {");
+                for (Map.Entry<Integer, List<Property>> entry : byHash.entrySet()) {
+                    out.println(INDENT + INDENT + INDENT + INDENT + "case " + entry.getKey() + ":");
+                    for (Property property : entry.getValue()) {
+                        out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "if (\"" + property.jsonName + "\".equals(name)) {");
+                        out.println(INDENT + INDENT + INDENT + INDENT + INDENT + INDENT + "bean." + property.setter + "(" + property.readExpression(beans) + ");");
+                        out.println(INDENT + INDENT + INDENT + INDENT + INDENT + INDENT + "continue;");
+                        out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "}");
+                    }
+                    out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "break;");
+                }
+                out.println(INDENT + INDENT + INDENT + INDENT + "default:");
+                out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "break;");
+                out.println(INDENT + INDENT + INDENT + "}");
+                if (anySetter == null || HANDLE_UNKNOWN.equals(anySetter)) {
+                    // Only recorded, so the value does not need to be read
+                    out.println(INDENT + INDENT + INDENT + UNKNOWN_PROPERTIES + ".skip(p, " + beanName + ".class, name);");
+                } else {
+                    out.println(INDENT + INDENT + INDENT + "bean." + anySetter + "(name, " + SUPPORT + ".readAny(p));");
+                }
+                out.println(INDENT + INDENT + "}");
+                out.println(INDENT + INDENT + "return bean;");
+                out.println(INDENT + "}");
+                out.println("}");
+            } finally {
+                out.close();
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + className + ": " + ex.getMessage(), type);
+        }
+    }
+
+    /**
+     * Write the class that registers all the deserializers with a module
+     *
+     * @param beans
+     */
+    private void writeRegistry(Map<String, TypeElement> beans) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(REGISTRY_PACKAGE + "." + REGISTRY_NAME,
+                    beans.values().toArray(new Element[beans.size()]));
+            PrintWriter out = new PrintWriter(file.openWriter());
+            try {
+                out.println("package " + REGISTRY_PACKAGE + ";");
+                out.println();
+                out.println("/**");
+                out.println(" * Registers the generated deserializers.");
+                out.println(" *");
+                out.println(" * Generated by " + DeserializerProcessor.class.getName() + ", do not edit.");
+                out.println(" */");
+                out.println("public final class " + REGISTRY_NAME + " {");
+                out.println();
+                out.println(INDENT + "private " + REGISTRY_NAME + "() {");
+                out.println(INDENT + INDENT + "throw new UnsupportedOperationException(\"Utility class\");");
+                out.println(INDENT + "}");
+                out.println();
+                out.println(INDENT + "public static void register(com.fasterxml.jackson.databind.module.SimpleModule module) {");
+                for (Map.Entry<String, TypeElement> entry : beans.entrySet()) {
+                    out.println(INDENT + INDENT + "module.addDeserializer(" + entry.getKey() + ".class, "
+                            + getPackageName(entry.getValue()) + "." + entry.getValue().getSimpleName() + SUFFIX + ".INSTANCE);");
+                }
+                out.println(INDENT + "}");
+                out.println("}");
+            } finally {
+                out.close();
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + REGISTRY_NAME + ": " + ex.getMessage());
+        }
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * A JSON property and the setter it is written to
+     */
+    private final class Property {
+
+        private final String jsonName;
+        private final String setter;
+        private final TypeMirror type;
+        private String typeReference;
+
+        Property(String jsonName, String setter, TypeMirror type) {
+            this.jsonName = jsonName;
+            this.setter = setter;
+            this.type = type;
+        }
+
+        /**
+         * Does the property need to be read by the databind mapper
+         *
+         * @param beans
+         * @return
+         */
+        boolean needsTypeReference(Map<String, TypeElement> beans) {
+            return readDirect(beans) == null;
+        }
+
+        /**
+         * The expression to read the value
+         *
+         * @param beans
+         * @return
+         */
+        String readExpression(Map<String, TypeElement> beans) {
+            String direct = readDirect(beans);
+            if (direct != null) {
+                return direct;
+            }
+            return SUPPORT + ".readValue(p, " + typeReference + ")";
+        }
+
+        /**
+         * The expression to read the value without the databind mapper, if
+         * there is one
+         *
+         * @param beans
+         * @return
+         */
+        private String readDirect(Map<String, TypeElement> beans) {
+            switch (type.getKind()) {
+                case INT:
+                    return SUPPORT + ".readInt(p, ctxt)";
+                case LONG:
+                    return SUPPORT + ".readLong(p, ctxt)";
+                case FLOAT:
+                    return SUPPORT + ".readFloat(p, ctxt)";
+                case DOUBLE:
+                    return SUPPORT + ".readDouble(p, ctxt)";
+                case BOOLEAN:
+                    return SUPPORT + ".readBoolean(p, ctxt)";
+                case DECLARED:
+                    return readDeclared(beans);
+                default:
+                    return null;
+            }
+        }
+
+        private String readDeclared(Map<String, TypeElement> beans) {
+            DeclaredType declared = (DeclaredType) type;
+            String rawName = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+
+            if ("java.lang.String".equals(rawName)) {
+                return SUPPORT + ".readString(p, ctxt)";
+            } else if ("java.lang.Boolean".equals(rawName)) {
+                return SUPPORT + ".readBooleanObject(p, ctxt)";
+            } else if (beans.containsKey(rawName)) {
+                return SUPPORT + ".readObject(p, ctxt, " + deserializerName(beans.get(rawName)) + ".INSTANCE)";
+            } else if ("java.util.List".equals(rawName) && declared.getTypeArguments().size() == 1) {
+                TypeMirror element = declared.getTypeArguments().get(0);
+                if (element.getKind() != TypeKind.DECLARED) {
+                    return null;
+                }
+                String elementName = ((TypeElement) ((DeclaredType) element).asElement()).getQualifiedName().toString();
+                if ("java.lang.String".equals(elementName)) {
+                    return SUPPORT + ".readStringList(p, ctxt)";
+                } else if (beans.containsKey(elementName)) {
+                    return SUPPORT + ".readList(p, ctxt, " + deserializerName(beans.get(elementName)) + ".INSTANCE)";
+                }
+            }
+            return null;
+        }
+
+        private String deserializerName(TypeElement bean) {
+            return getPackageName(bean) + "." + bean.getSimpleName() + SUFFIX;
+        }
+    }
+}
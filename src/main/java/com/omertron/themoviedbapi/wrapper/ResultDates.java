@@ -21,11 +21,10 @@ package com.omertron.themoviedbapi.wrapper;
 
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.tools.UnknownProperties;
 import java.io.Serializable;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  *
@@ -35,10 +34,6 @@ public class ResultDates implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    /*
-     * Logger
-     */
-    private static final Logger LOG = LoggerFactory.getLogger(ResultDates.class);
     /*
      * Properties
      */
@@ -68,17 +63,14 @@ public class ResultDates implements Serializable {
     // </editor-fold>
 
     /**
-     * Handle unknown properties and print a message
+     * Handle unknown properties by recording them in the registry
      *
      * @param key
      * @param value
      */
     @JsonAnySetter
     public void handleUnknown(String key, Object value) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Unknown property: '").append(key);
-        sb.append("' value: '").append(value).append("'");
-        LOG.trace(sb.toString());
+        UnknownProperties.record(getClass(), key, value);
     }
 
     @Override
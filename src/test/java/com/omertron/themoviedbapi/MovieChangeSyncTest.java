@@ -0,0 +1,337 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import com.omertron.themoviedbapi.MovieDbException.MovieDbExceptionType;
+import com.omertron.themoviedbapi.model.ChangedItem;
+import com.omertron.themoviedbapi.model.ChangedMovie;
+import com.omertron.themoviedbapi.results.BatchResults;
+import com.omertron.themoviedbapi.results.TmdbResultsList;
+import com.omertron.themoviedbapi.results.TmdbResultsMap;
+import com.omertron.themoviedbapi.tools.JacksonMapper;
+import com.omertron.themoviedbapi.tools.SyncCheckpoint;
+import com.omertron.themoviedbapi.tools.SyncCheckpoint.FailedId;
+import com.omertron.themoviedbapi.tools.Transport;
+import com.omertron.themoviedbapi.tools.WebRequest;
+import com.omertron.themoviedbapi.tools.WebResponse;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for MovieChangeSync, with a stub API in place of the server
+ *
+ * @author Stuart
+ */
+public class MovieChangeSyncTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MovieChangeSyncTest.class);
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private StubApi api;
+    private TheMovieDbAsyncApi asyncApi;
+    private MovieChangeSync sync;
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        api = new StubApi();
+        asyncApi = new TheMovieDbAsyncApi(api, 2, 100);
+        sync = new MovieChangeSync(asyncApi, new File(folder.getRoot(), "checkpoint.json"));
+        sync.setParallelism(1);
+    }
+
+    @After
+    public void tearDown() {
+        asyncApi.shutdown();
+    }
+
+    /**
+     * Test that the changes are read in windows of whole days that neither
+     * overlap nor leave gaps, and that the next sync reads the last day again
+     */
+    @Test
+    public void testWindows() throws MovieDbException {
+        LOG.info("Test windows");
+        api.setChanges(daysAgo(30), daysAgo(17), 1, 2, 3, 4);
+        api.setChanges(daysAgo(2), daysAgo(0), 4, 5);
+
+        sync.syncChanges(date(30), null);
+        assertEquals(Arrays.asList(
+                window(30, 17),
+                window(16, 3),
+                window(2, 0)), api.windows);
+        assertEquals(6, api.reads.size());
+        assertTrue(api.reads.contains(read(4, 30, 17)));
+        assertTrue(api.reads.contains(read(4, 2, 0)));
+
+        SyncCheckpoint checkpoint = sync.getCheckpoint();
+        assertEquals(daysAgo(0), checkpoint.getSyncedTo());
+        assertNull(checkpoint.getWindowEnd());
+        assertTrue(checkpoint.getDone().isEmpty());
+        assertTrue(checkpoint.getFailed().isEmpty());
+
+        api.windows.clear();
+        sync.syncChanges(date(30), null);
+        assertEquals(Collections.singletonList(window(0, 0)), api.windows);
+    }
+
+    /**
+     * Test that the checkpoint is saved after each chunk, and that a window
+     * in progress is resumed without reading the IDs that were done
+     */
+    @Test
+    public void testResume() throws Exception {
+        LOG.info("Test resume");
+        sync.setChunkSize(2);
+        api.setChanges(daysAgo(13), daysAgo(0), 1, 2, 3, 4, 5);
+        api.checkpointAt = 4;
+
+        SyncCheckpoint start = new SyncCheckpoint(daysAgo(13));
+        start.setWindowEnd(daysAgo(0));
+        start.setDone(new ArrayList<Integer>(Arrays.asList(1)));
+        start.save(sync.getCheckpointFile(), new JacksonMapper());
+
+        // The window in progress is kept even though the window is now shorter
+        sync.setWindowDays(5);
+        sync.syncChanges(date(13), null);
+        assertEquals(Arrays.asList(read(2, 13, 0), read(3, 13, 0), read(4, 13, 0), read(5, 13, 0)), api.reads);
+        assertEquals(Collections.singletonList(window(13, 0)), api.windows);
+
+        // Saved after the first chunk, before 4 was read
+        SyncCheckpoint saved = api.checkpoint;
+        assertEquals(daysAgo(13), saved.getSyncedTo());
+        assertEquals(daysAgo(0), saved.getWindowEnd());
+        assertEquals(Arrays.asList(1, 2, 3), saved.getDone());
+
+        SyncCheckpoint checkpoint = sync.getCheckpoint();
+        assertEquals(daysAgo(0), checkpoint.getSyncedTo());
+        assertNull(checkpoint.getWindowEnd());
+        assertTrue(checkpoint.getDone().isEmpty());
+    }
+
+    /**
+     * Test that a failed ID is retried with the dates of its window by the
+     * following syncs, and dropped after MAX_ATTEMPTS failures
+     */
+    @Test
+    public void testRetryFailed() throws MovieDbException {
+        LOG.info("Test retry failed");
+        api.setChanges(daysAgo(20), daysAgo(7), 1, 2, 3);
+        api.fail(2, Integer.MAX_VALUE);
+        api.fail(3, 1);
+
+        BatchResults<TmdbResultsMap<String, List<ChangedItem>>> results = sync.syncChanges(date(20), null);
+        assertEquals(2, results.getFailures().size());
+        List<FailedId> failed = sync.getCheckpoint().getFailed();
+        assertEquals(2, failed.size());
+        assertFailed(failed.get(0), 2, 1);
+        assertFailed(failed.get(1), 3, 1);
+        assertEquals(daysAgo(20), failed.get(0).getStartDate());
+        assertEquals(daysAgo(7), failed.get(0).getEndDate());
+
+        // The retry succeeds for 3 and fails again for 2
+        api.reads.clear();
+        sync.syncChanges(date(20), null);
+        assertEquals(Arrays.asList(read(2, 20, 7), read(3, 20, 7)), api.reads);
+        failed = sync.getCheckpoint().getFailed();
+        assertEquals(1, failed.size());
+        assertFailed(failed.get(0), 2, 2);
+
+        for (int attempts = 3; attempts < MovieChangeSync.MAX_ATTEMPTS; attempts++) {
+            sync.syncChanges(date(20), null);
+            failed = sync.getCheckpoint().getFailed();
+            assertEquals(1, failed.size());
+            assertFailed(failed.get(0), 2, attempts);
+        }
+
+        api.reads.clear();
+        sync.syncChanges(date(20), null);
+        assertEquals(Collections.singletonList(read(2, 20, 7)), api.reads);
+        assertTrue(sync.getCheckpoint().getFailed().isEmpty());
+    }
+
+    /**
+     * Test that the sync stops when a page of the changes can not be read,
+     * leaving the checkpoint at the end of the last complete window, and
+     * carries on from there once the page can be read
+     */
+    @Test
+    public void testChangesPageFails() throws MovieDbException {
+        LOG.info("Test changes page fails");
+        api.setChanges(daysAgo(20), daysAgo(7), 1, 2);
+        api.setChanges(daysAgo(6), daysAgo(0), 3, 4, 5, 6, 7);
+        api.failPage(daysAgo(6), 2);
+
+        try {
+            sync.syncChanges(date(20), null);
+            fail("The sync did not stop");
+        } catch (MovieDbException ex) {
+            assertEquals(MovieDbExceptionType.CONNECTION_ERROR, ex.getExceptionType());
+        }
+        assertEquals(Arrays.asList(read(1, 20, 7), read(2, 20, 7)), api.reads);
+        SyncCheckpoint checkpoint = sync.getCheckpoint();
+        assertEquals(daysAgo(6), checkpoint.getSyncedTo());
+        assertNull(checkpoint.getWindowEnd());
+        assertTrue(checkpoint.getDone().isEmpty());
+
+        api.failedPages.clear();
+        api.reads.clear();
+        sync.syncChanges(date(20), null);
+        assertEquals(5, api.reads.size());
+        assertEquals(daysAgo(0), sync.getCheckpoint().getSyncedTo());
+    }
+
+    private static void assertFailed(FailedId failed, int id, int attempts) {
+        assertEquals(id, failed.getId());
+        assertEquals(attempts, failed.getAttempts());
+    }
+
+    private static Date date(int daysAgo) {
+        return new Date(System.currentTimeMillis() - daysAgo * DAY_MILLIS);
+    }
+
+    private static String daysAgo(int days) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date(days));
+    }
+
+    private static String window(int startDaysAgo, int endDaysAgo) {
+        return daysAgo(startDaysAgo) + "/" + daysAgo(endDaysAgo);
+    }
+
+    private static String read(int id, int startDaysAgo, int endDaysAgo) {
+        return id + " " + window(startDaysAgo, endDaysAgo);
+    }
+
+    /**
+     * Serves the changes list and change sets without a server
+     */
+    private final class StubApi extends TheMovieDbApi {
+
+        private static final int PAGE_SIZE = 2;
+        // The changed IDs of each window by start date
+        private final Map<String, List<Integer>> changes = new HashMap<String, List<Integer>>();
+        private final Set<String> failedPages = Collections.synchronizedSet(new HashSet<String>());
+        // The number of times each ID is still to fail
+        private final Map<Integer, Integer> failures = new ConcurrentHashMap<Integer, Integer>();
+        // The windows and the change sets in the order they were read
+        private final List<String> windows = Collections.synchronizedList(new ArrayList<String>());
+        private final List<String> reads = Collections.synchronizedList(new ArrayList<String>());
+        // The checkpoint when the ID was read
+        private volatile int checkpointAt;
+        private volatile SyncCheckpoint checkpoint;
+
+        StubApi() {
+            super("key", new Transport() {
+                @Override
+                public WebResponse execute(WebRequest request) throws MovieDbException {
+                    throw new MovieDbException(MovieDbExceptionType.CONNECTION_ERROR, "No server", request.getUrl());
+                }
+
+                @Override
+                public void shutdown() {
+                    // Nothing to release
+                }
+            });
+        }
+
+        void setChanges(String startDate, String endDate, Integer... ids) {
+            changes.put(startDate + "/" + endDate, Arrays.asList(ids));
+        }
+
+        void fail(int id, int times) {
+            failures.put(id, times);
+        }
+
+        void failPage(String startDate, int page) {
+            failedPages.add(startDate + "/" + page);
+        }
+
+        @Override
+        public TmdbResultsList<ChangedMovie> getMovieChangesList(int page, String startDate, String endDate) throws MovieDbException {
+            if (failedPages.contains(startDate + "/" + page)) {
+                throw new MovieDbException(MovieDbExceptionType.CONNECTION_ERROR, "Page " + page + " failed", (String) null);
+            }
+            if (page == 1) {
+                windows.add(startDate + "/" + endDate);
+            }
+
+            List<Integer> ids = changes.get(startDate + "/" + endDate);
+            if (ids == null) {
+                ids = Collections.emptyList();
+            }
+            List<ChangedMovie> movies = new ArrayList<ChangedMovie>();
+            for (int i = (page - 1) * PAGE_SIZE; i < Math.min(page * PAGE_SIZE, ids.size()); i++) {
+                ChangedMovie movie = new ChangedMovie();
+                movie.setId(String.valueOf(ids.get(i)));
+                movies.add(movie);
+            }
+            TmdbResultsList<ChangedMovie> results = new TmdbResultsList<ChangedMovie>(movies);
+            results.setPage(page);
+            results.setTotalPages(Math.max(1, (ids.size() + PAGE_SIZE - 1) / PAGE_SIZE));
+            results.setTotalResults(ids.size());
+            return results;
+        }
+
+        @Override
+        public TmdbResultsMap<String, List<ChangedItem>> getMovieChanges(int movieId, String startDate, String endDate) throws MovieDbException {
+            reads.add(movieId + " " + startDate + "/" + endDate);
+            if (movieId == checkpointAt) {
+                checkpoint = sync.getCheckpoint();
+            }
+
+            Integer remaining = failures.get(movieId);
+            if (remaining != null && remaining > 0) {
+                failures.put(movieId, remaining - 1);
+                throw new MovieDbException(MovieDbExceptionType.CONNECTION_ERROR, "Movie " + movieId + " failed", (String) null);
+            }
+            return new TmdbResultsMap<String, List<ChangedItem>>(new HashMap<String, List<ChangedItem>>());
+        }
+    }
+}
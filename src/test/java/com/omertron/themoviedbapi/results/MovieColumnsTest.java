@@ -0,0 +1,131 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.tools.JacksonMapper;
+import com.omertron.themoviedbapi.tools.JsonMapper;
+import com.omertron.themoviedbapi.tools.SimpleJsonMapper;
+import java.io.IOException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for MovieColumns
+ *
+ * @author Stuart
+ */
+public class MovieColumnsTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MovieColumnsTest.class);
+    private static final String PAGE = "{\"page\":2,\"results\":[{\"id\":5,\"title\":\"Title\",\"genre_ids\":[1,2],"
+            + "\"popularity\":1.5,\"vote_count\":\"7\",\"release_date\":\"2001-02-03\"},{\"id\":6,\"title\":null,"
+            + "\"release_date\":\"\"}],\"total_pages\":9,\"total_results\":100}";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    /**
+     * Test that the movies of another page are added after the existing ones
+     */
+    @Test
+    public void testAddAll() {
+        LOG.info("Test addAll");
+        MovieColumns first = page(1, 3);
+        MovieColumns second = page(4, 2);
+        second.setTotalPages(5);
+
+        first.addAll(second);
+        assertEquals(5, first.size());
+        assertEquals(4, first.getId(3));
+        assertEquals("Title 5", first.getTitle(4));
+        assertEquals("Original 1", first.getOriginalTitle(0));
+        assertEquals(5, first.getTotalPages());
+    }
+
+    /**
+     * Test that adding the movies to themselves copies them once
+     */
+    @Test(timeout = 5000)
+    public void testAddAllSelf() {
+        LOG.info("Test addAll self");
+        MovieColumns columns = page(1, 3);
+
+        columns.addAll(columns);
+        assertEquals(6, columns.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(columns.getId(i), columns.getId(i + 3));
+            assertEquals(columns.getTitle(i), columns.getTitle(i + 3));
+        }
+    }
+
+    /**
+     * Test that movies can be added after the columns are trimmed
+     */
+    @Test
+    public void testAddAfterTrim() {
+        LOG.info("Test add after trim");
+        MovieColumns columns = page(1, 2);
+        columns.trimToSize();
+
+        columns.add(3, "Title 1", "Other", 1.0f, 2.0f, 3, 20140101);
+        assertEquals(3, columns.size());
+        assertEquals("Title 1", columns.getTitle(2));
+        assertEquals(20140101, columns.getReleaseDate(2));
+    }
+
+    /**
+     * Test that the Jackson and the simple mapper read the same columns
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRead() throws IOException {
+        LOG.info("Test read");
+        for (JsonMapper mapper : new JsonMapper[]{new JacksonMapper(), new SimpleJsonMapper()}) {
+            MovieColumns columns = mapper.readValue(PAGE, MovieColumns.class);
+            assertEquals(2, columns.size());
+            assertEquals(2, columns.getPage());
+            assertEquals(9, columns.getTotalPages());
+            assertEquals(100, columns.getTotalResults());
+            assertEquals(5, columns.getId(0));
+            assertEquals("Title", columns.getTitle(0));
+            assertEquals(1.5f, columns.getPopularity(0), 0.0f);
+            assertEquals(7, columns.getVoteCount(0));
+            assertEquals(20010203, columns.getReleaseDate(0));
+            assertNull(columns.getTitle(1));
+            assertEquals(0, columns.getReleaseDate(1));
+        }
+    }
+
+    private static MovieColumns page(int firstId, int count) {
+        MovieColumns columns = new MovieColumns();
+        for (int id = firstId; id < firstId + count; id++) {
+            columns.add(id, "Title " + id, "Original " + id, id, id / 2.0f, id * 10, 0);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbException.MovieDbExceptionType;
+import com.omertron.themoviedbapi.TestLogger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for PagedResults
+ *
+ * @author Stuart
+ */
+public class PagedResultsTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PagedResultsTest.class);
+    private static final int PAGE_SIZE = 3;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test that all the results are returned in page order
+     */
+    @Test
+    public void testIterator() {
+        LOG.info("Test iterator");
+        StubFetcher fetcher = new StubFetcher(5);
+        PagedResults<Integer>.PageIterator it = new PagedResults<Integer>(fetcher, executor).iterator();
+
+        List<Integer> results = new ArrayList<Integer>();
+        while (it.hasNext()) {
+            results.add(it.next());
+        }
+        assertEquals(expected(1, 5), results);
+        assertEquals(5, it.getTotalPages());
+        assertEquals(5 * PAGE_SIZE, it.getTotalResults());
+        assertEquals(5, it.getCurrentPage());
+    }
+
+    /**
+     * Test that the pages after the one being read are requested up to the
+     * prefetch depth
+     */
+    @Test
+    public void testPrefetch() {
+        LOG.info("Test prefetch");
+        StubFetcher fetcher = new StubFetcher(10);
+        PagedResults<Integer>.PageIterator it = new PagedResults<Integer>(fetcher, new DirectExecutor(), 2, 0).iterator();
+
+        assertTrue(it.hasNext());
+        assertEquals(Arrays.asList(1, 2, 3), fetcher.getRequested());
+
+        // Reading the second page requests the fourth
+        for (int i = 0; i <= PAGE_SIZE; i++) {
+            it.next();
+        }
+        assertEquals(2, it.getCurrentPage());
+        assertEquals(Arrays.asList(1, 2, 3, 4), fetcher.getRequested());
+    }
+
+    /**
+     * Test that only the page being read is requested without a prefetch
+     */
+    @Test
+    public void testNoPrefetch() {
+        LOG.info("Test no prefetch");
+        StubFetcher fetcher = new StubFetcher(10);
+        PagedResults<Integer>.PageIterator it = new PagedResults<Integer>(fetcher, new DirectExecutor()).withPrefetch(0).iterator();
+
+        assertTrue(it.hasNext());
+        assertEquals(Arrays.asList(1), fetcher.getRequested());
+    }
+
+    /**
+     * Test that no more than the maximum number of pages are requested
+     */
+    @Test
+    public void testMaxPages() {
+        LOG.info("Test max pages");
+        StubFetcher fetcher = new StubFetcher(10);
+        PagedResults<Integer> paged = new PagedResults<Integer>(fetcher, new DirectExecutor(), 5, 3);
+
+        List<Integer> results = new ArrayList<Integer>();
+        for (Integer result : paged) {
+            results.add(result);
+        }
+        assertEquals(expected(1, 3), results);
+        assertEquals(Arrays.asList(1, 2, 3), fetcher.getRequested());
+    }
+
+    /**
+     * Test that closing the iterator cancels the requests that are waiting
+     */
+    @Test
+    public void testClose() throws InterruptedException {
+        LOG.info("Test close");
+        CountDownLatch release = new CountDownLatch(1);
+        StubFetcher fetcher = new StubFetcher(10);
+        fetcher.blockAfterFirst(release);
+        PagedResults<Integer>.PageIterator it = new PagedResults<Integer>(fetcher, executor, 2, 0).iterator();
+
+        assertTrue(it.hasNext());
+        assertTrue("Prefetched pages were not requested", fetcher.awaitBlocked(2));
+        it.close();
+
+        assertTrue("Prefetched pages were not cancelled", fetcher.awaitInterrupted(2));
+        // The results of the page being read are dropped too
+        assertFalse(it.hasNext());
+        assertEquals(Arrays.asList(1, 2, 3), fetcher.getRequested());
+        release.countDown();
+    }
+
+    /**
+     * Test that a page that fails stops the iteration with the page number
+     */
+    @Test
+    public void testFailure() {
+        LOG.info("Test failure");
+        StubFetcher fetcher = new StubFetcher(5);
+        fetcher.fail(3);
+        PagedResults<Integer>.PageIterator it = new PagedResults<Integer>(fetcher, executor).iterator();
+
+        List<Integer> results = new ArrayList<Integer>();
+        try {
+            while (it.hasNext()) {
+                results.add(it.next());
+            }
+            fail("The failed page was not reported");
+        } catch (PagedResults.PageFetchException ex) {
+            assertEquals(3, ex.getPage());
+            assertTrue(ex.getCause() instanceof MovieDbException);
+        }
+        assertEquals(expected(1, 2), results);
+        assertFalse(it.hasNext());
+    }
+
+    /**
+     * Test that getAll combines the pages in page order
+     */
+    @Test
+    public void testGetAll() throws MovieDbException {
+        LOG.info("Test getAll");
+        TmdbResultsList<Integer> all = new PagedResults<Integer>(new StubFetcher(6), executor).getAll(3);
+
+        assertTrue(all.isComplete());
+        assertEquals(expected(1, 6), all.getResults());
+        assertEquals(6, all.getTotalPages());
+    }
+
+    /**
+     * Test that getAll keeps the other pages when one fails
+     */
+    @Test
+    public void testGetAllFailure() throws MovieDbException {
+        LOG.info("Test getAll failure");
+        StubFetcher fetcher = new StubFetcher(4);
+        fetcher.fail(2);
+        TmdbResultsList<Integer> all = new PagedResults<Integer>(fetcher, executor).getAll(2);
+
+        assertFalse(all.isComplete());
+        assertEquals(Collections.singleton(2), all.getFailedPages().keySet());
+        List<Integer> results = expected(1, 1);
+        results.addAll(expected(3, 4));
+        assertEquals(results, all.getResults());
+    }
+
+    /**
+     * Test that getAll keeps the other pages when the request for one is
+     * cancelled before it runs
+     */
+    @Test(timeout = 5000)
+    public void testGetAllCancelled() throws MovieDbException {
+        LOG.info("Test getAll cancelled");
+        StubFetcher fetcher = new StubFetcher(4);
+        // The second task submitted is for page 3
+        TmdbResultsList<Integer> all = new PagedResults<Integer>(fetcher, new CancellingExecutor(2)).getAll(1);
+
+        assertFalse(all.isComplete());
+        assertEquals(Collections.singleton(3), all.getFailedPages().keySet());
+        List<Integer> results = expected(1, 2);
+        results.addAll(expected(4, 4));
+        assertEquals(results, all.getResults());
+        assertEquals(Arrays.asList(1, 2, 4), fetcher.getRequested());
+    }
+
+    /**
+     * Test that a negative prefetch is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePrefetch() {
+        new PagedResults<Integer>(new StubFetcher(1), executor, -1, 0);
+    }
+
+    /**
+     * The results of the pages, each page has PAGE_SIZE results numbered from
+     * the first one on page 1
+     */
+    private static List<Integer> expected(int firstPage, int lastPage) {
+        List<Integer> results = new ArrayList<Integer>();
+        for (int i = (firstPage - 1) * PAGE_SIZE; i < lastPage * PAGE_SIZE; i++) {
+            results.add(i);
+        }
+        return results;
+    }
+
+    /**
+     * Returns numbered results and records the pages that were requested
+     */
+    static final class StubFetcher implements PageFetcher<Integer> {
+
+        private final int totalPages;
+        private final List<Integer> requested = Collections.synchronizedList(new ArrayList<Integer>());
+        private final Set<Integer> failing = Collections.synchronizedSet(new HashSet<Integer>());
+        private final CountDownLatch blocked = new CountDownLatch(2);
+        private final CountDownLatch interrupted = new CountDownLatch(2);
+        private volatile CountDownLatch release = null;
+
+        StubFetcher(int totalPages) {
+            this.totalPages = totalPages;
+        }
+
+        void fail(int page) {
+            failing.add(page);
+        }
+
+        /**
+         * Hold the requests for the pages after the first until released
+         */
+        void blockAfterFirst(CountDownLatch release) {
+            this.release = release;
+        }
+
+        boolean awaitBlocked(int count) throws InterruptedException {
+            return blocked.await(5, TimeUnit.SECONDS) && blocked.getCount() <= 2 - count;
+        }
+
+        boolean awaitInterrupted(int count) throws InterruptedException {
+            return interrupted.await(5, TimeUnit.SECONDS) && interrupted.getCount() <= 2 - count;
+        }
+
+        List<Integer> getRequested() {
+            synchronized (requested) {
+                List<Integer> copy = new ArrayList<Integer>(requested);
+                Collections.sort(copy);
+                return copy;
+            }
+        }
+
+        @Override
+        public TmdbResultsList<Integer> getPage(int page) throws MovieDbException {
+            requested.add(page);
+            if (release != null && page > 1) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                    throw new MovieDbException(MovieDbExceptionType.UNKNOWN_CAUSE, "Interrupted", (String) null, ex);
+                }
+            }
+            if (failing.contains(page)) {
+                throw new MovieDbException(MovieDbExceptionType.HTTP_503_ERROR, "Page " + page, (String) null);
+            }
+
+            List<Integer> results = new ArrayList<Integer>();
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                results.add((page - 1) * PAGE_SIZE + i);
+            }
+            TmdbResultsList<Integer> list = new TmdbResultsList<Integer>(results);
+            list.setPage(page);
+            list.setTotalPages(totalPages);
+            list.setTotalResults(totalPages * PAGE_SIZE);
+            return list;
+        }
+    }
+
+    /**
+     * Runs the tasks in the calling thread, so the requests are made in a
+     * known order
+     */
+    static class DirectExecutor extends AbstractExecutorService {
+
+        private volatile boolean shutdown = false;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return shutdown;
+        }
+    }
+
+    /**
+     * Cancels one of the tasks instead of running it
+     */
+    static final class CancellingExecutor extends DirectExecutor {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final int cancel;
+
+        CancellingExecutor(int cancel) {
+            this.cancel = cancel;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (count.incrementAndGet() == cancel) {
+                ((Future<?>) command).cancel(false);
+            } else {
+                command.run();
+            }
+        }
+    }
+}
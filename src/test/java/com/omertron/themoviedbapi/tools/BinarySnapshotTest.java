@@ -0,0 +1,326 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.model.Keyword;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.MovieSection;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for BinarySnapshot
+ *
+ * @author Stuart
+ */
+public class BinarySnapshotTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinarySnapshotTest.class);
+    private static final String ENCODING = "UTF-8";
+    // More than the string table holds
+    private static final int MANY_STRINGS = 70000;
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    /**
+     * Test that a movie with all of the appended sections is read back the
+     * same
+     */
+    @Test
+    public void testMovieWithAllSections() throws IOException {
+        LOG.info("Test movie with all sections");
+        JacksonMapper mapper = new JacksonMapper();
+        MovieDb movie = mapper.readValue(SnapshotBenchmark.addSections(SnapshotBenchmark.load(), mapper), MovieDb.class);
+        for (MovieSection section : MovieSection.values()) {
+            assertTrue("Test movie is missing " + section, movie.hasSection(section));
+        }
+
+        MovieDb copy = BinarySnapshot.decode(BinarySnapshot.encode(movie), MovieDb.class);
+        for (MovieSection section : MovieSection.values()) {
+            assertTrue("Missing " + section, copy.hasSection(section));
+        }
+        assertEquals(movie.toString(), copy.toString());
+        assertEquals(550, copy.getId());
+        assertEquals(movie.getCast().size(), copy.getCast().size());
+        assertEquals(movie.getCast().get(0).getName(), copy.getCast().get(0).getName());
+        assertEquals(movie.getImages().size(), copy.getImages().size());
+        assertEquals(movie.getSimilarMovies().size(), copy.getSimilarMovies().size());
+        assertEquals(movie.getReviews().get(9).getContent(), copy.getReviews().get(9).getContent());
+        assertEquals(movie.getLists().get(0).getItemCount(), copy.getLists().get(0).getItemCount());
+        assertEquals(movie.getTrailers().get(3).getKey(), copy.getTrailers().get(3).getKey());
+    }
+
+    /**
+     * Test that a movie without the sections is read back without them
+     */
+    @Test
+    public void testMovieWithoutSections() throws IOException {
+        LOG.info("Test movie without sections");
+        MovieDb movie = new MovieDb();
+        movie.setId(550);
+        movie.setTitle("Fight Club");
+
+        MovieDb copy = BinarySnapshot.decode(BinarySnapshot.encode(movie), MovieDb.class);
+        assertEquals("Fight Club", copy.getTitle());
+        for (MovieSection section : MovieSection.values()) {
+            assertFalse(copy.hasSection(section));
+        }
+        assertEquals(movie.toString(), copy.toString());
+    }
+
+    /**
+     * Test that null and empty lists, and nulls in lists, are kept
+     */
+    @Test
+    public void testNullLists() throws IOException {
+        LOG.info("Test null lists");
+        Lists lists = new Lists();
+        lists.empty = new ArrayList<String>();
+        lists.withNulls = Arrays.asList("a", null, "b");
+        lists.nested = new ArrayList<List<Integer>>();
+        lists.nested.add(null);
+        lists.nested.add(Arrays.asList(1, null, 3));
+
+        Lists copy = BinarySnapshot.decode(BinarySnapshot.encode(lists), Lists.class);
+        assertNull(copy.missing);
+        assertEquals(Collections.emptyList(), copy.empty);
+        assertEquals(Arrays.asList("a", null, "b"), copy.withNulls);
+        assertEquals(2, copy.nested.size());
+        assertNull(copy.nested.get(0));
+        assertEquals(Arrays.asList(1, null, 3), copy.nested.get(1));
+
+        MovieDb movie = new MovieDb();
+        movie.setId(1);
+        assertNull(BinarySnapshot.decode(BinarySnapshot.encode(movie), MovieDb.class).getGenres());
+    }
+
+    /**
+     * Test that more strings than the string table holds are all read back,
+     * both the first time they are written and when they are repeated
+     */
+    @Test
+    public void testManyStrings() throws IOException {
+        LOG.info("Test many strings");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySnapshot.Writer writer = new BinarySnapshot.Writer(bytes);
+        for (int i = 0; i < MANY_STRINGS; i++) {
+            writer.write(keyword(i, "keyword " + i));
+        }
+        // Repeat strings from inside and outside of the table
+        writer.write(keyword(1, "keyword 1"));
+        writer.write(keyword(MANY_STRINGS - 1, "keyword " + (MANY_STRINGS - 1)));
+        writer.close();
+        assertEquals(MANY_STRINGS + 2, writer.getCount());
+
+        BinarySnapshot.Reader reader = new BinarySnapshot.Reader(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            for (int i = 0; i < MANY_STRINGS; i++) {
+                Keyword keyword = reader.read(Keyword.class);
+                assertEquals(i, keyword.getId());
+                assertEquals("keyword " + i, keyword.getName());
+            }
+            assertEquals("keyword 1", reader.read(Keyword.class).getName());
+            assertEquals("keyword " + (MANY_STRINGS - 1), reader.read(Keyword.class).getName());
+            assertNull(reader.read());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Test that fields that the class no longer has are skipped, including
+     * the strings that are first written in them
+     */
+    @Test
+    public void testUnknownField() throws IOException {
+        LOG.info("Test unknown field");
+        SnapshotV2 first = new SnapshotV2(1, "first");
+        first.extra = "shared";
+        first.tags = Arrays.asList("tag", "shared");
+        first.child = new SnapshotV2(3, "child");
+        SnapshotV2 second = new SnapshotV2(2, "shared");
+        second.extra = "tag";
+
+        // Read the snapshot as if the class was the older version
+        byte[] data = rename(write(first, second), SnapshotV2.class, SnapshotV1.class);
+        BinarySnapshot.Reader reader = new BinarySnapshot.Reader(new ByteArrayInputStream(data));
+        try {
+            SnapshotV1 copy = reader.read(SnapshotV1.class);
+            assertEquals(1, copy.id);
+            assertEquals("first", copy.name);
+            copy = reader.read(SnapshotV1.class);
+            assertEquals(2, copy.id);
+            assertEquals("shared", copy.name);
+            assertNull(reader.read());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Test that objects of an unknown class are skipped, as records and as
+     * fields of other objects
+     */
+    @Test
+    public void testUnknownClass() throws IOException {
+        LOG.info("Test unknown class");
+        SnapshotV2 unknown = new SnapshotV2(1, "unknown");
+        unknown.extra = "shared";
+        Holder holder = new Holder();
+        holder.label = "holder";
+        holder.item = new SnapshotV2(2, "inner");
+
+        byte[] data = write(unknown, holder, keyword(3, "shared"));
+        data = rename(data, SnapshotV2.class, "SnapshotXX");
+        BinarySnapshot.Reader reader = new BinarySnapshot.Reader(new ByteArrayInputStream(data));
+        try {
+            Holder copy = reader.read(Holder.class);
+            assertEquals("holder", copy.label);
+            assertNull(copy.item);
+            assertEquals("shared", reader.read(Keyword.class).getName());
+            assertNull(reader.read());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Test that a stream that is not a snapshot or is from a later version is
+     * rejected
+     */
+    @Test
+    public void testBadHeader() throws IOException {
+        LOG.info("Test bad header");
+        try {
+            new BinarySnapshot.Reader(new ByteArrayInputStream("JSON{}".getBytes(ENCODING)));
+            fail("Not a snapshot");
+        } catch (IOException ex) {
+            assertEquals("Not a snapshot", ex.getMessage());
+        }
+
+        byte[] data = write(keyword(1, "a"));
+        data[4] = (byte) (BinarySnapshot.VERSION + 1);
+        try {
+            new BinarySnapshot.Reader(new ByteArrayInputStream(data));
+            fail("Later version");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().startsWith("Unsupported snapshot version"));
+        }
+    }
+
+    private static Keyword keyword(int id, String name) {
+        Keyword keyword = new Keyword();
+        keyword.setId(id);
+        keyword.setName(name);
+        return keyword;
+    }
+
+    private static byte[] write(Object... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySnapshot.Writer writer = new BinarySnapshot.Writer(bytes);
+        for (Object value : values) {
+            writer.write(value);
+        }
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] rename(byte[] data, Class<?> from, Class<?> to) throws IOException {
+        return rename(data, from, to.getSimpleName());
+    }
+
+    /**
+     * Change the name of the class in the snapshot, to one of the same length
+     */
+    private static byte[] rename(byte[] data, Class<?> from, String to) throws IOException {
+        byte[] find = from.getSimpleName().getBytes(ENCODING);
+        byte[] replace = to.getBytes(ENCODING);
+        assertEquals(find.length, replace.length);
+
+        byte[] result = data.clone();
+        int found = 0;
+        for (int i = 0; i + find.length <= result.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(result, i, i + find.length), find)) {
+                System.arraycopy(replace, 0, result, i, replace.length);
+                found++;
+            }
+        }
+        assertEquals("The class should be described once", 1, found);
+        return result;
+    }
+
+    /**
+     * The older version of a model class
+     */
+    public static class SnapshotV1 {
+
+        private int id;
+        private String name;
+    }
+
+    /**
+     * The newer version of a model class, with more fields
+     */
+    public static class SnapshotV2 {
+
+        private int id;
+        private String name;
+        private String extra;
+        private List<String> tags;
+        private SnapshotV2 child;
+
+        public SnapshotV2() {
+        }
+
+        SnapshotV2(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    public static class Holder {
+
+        private String label;
+        private SnapshotV2 item;
+    }
+
+    public static class Lists {
+
+        private List<String> missing;
+        private List<String> empty;
+        private List<String> withNulls;
+        private List<List<Integer>> nested;
+    }
+}
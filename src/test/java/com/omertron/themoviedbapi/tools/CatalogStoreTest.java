@@ -0,0 +1,482 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.model.Company;
+import com.omertron.themoviedbapi.tools.CatalogStore.RecordType;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for CatalogStore
+ *
+ * @author Stuart
+ */
+public class CatalogStoreTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogStoreTest.class);
+    // Small enough for a few records to fill a segment
+    private static final long SEGMENT_SIZE = 2048L;
+    private static final int RECORDS = 60;
+    private static final int CHANGED = 10;
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File directory;
+    private CatalogStore store;
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("catalog");
+        store = open();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    /**
+     * Test that the records are read back after the store is opened again
+     */
+    @Test
+    public void testReopen() throws IOException {
+        LOG.info("Test reopen");
+        for (int id = 1; id <= 20; id++) {
+            store.put(RecordType.COMPANY, id, company(id, 1));
+        }
+        store.put(RecordType.COMPANY, 5, company(5, 2));
+        store.remove(RecordType.COMPANY, 6);
+        assertTrue(store.getSegmentCount() > 1);
+
+        store = reopen();
+        assertEquals(19, store.size());
+        assertEquals("5-2", this.<Company>get(5).getName());
+        assertNull(get(6));
+        assertEquals("20-1", this.<Company>get(20).getName());
+        assertNull(store.get(RecordType.MOVIE, 5));
+    }
+
+    /**
+     * Test that a partly written record at the end of the last segment is
+     * discarded and the segment truncated, so that new records follow the
+     * complete ones
+     */
+    @Test
+    public void testTornTail() throws IOException {
+        LOG.info("Test torn tail");
+        store.put(RecordType.COMPANY, 1, company(1, 1));
+        store.put(RecordType.COMPANY, 2, company(2, 1));
+        store.close();
+
+        File segment = lastSegment();
+        long complete = segment.length();
+        store = open();
+        store.put(RecordType.COMPANY, 3, company(3, 1));
+        store.close();
+        // Cut the last record part way through
+        truncate(segment, complete + 10);
+
+        store = open();
+        assertEquals(2, store.size());
+        assertNull(get(3));
+        assertEquals("2-1", this.<Company>get(2).getName());
+        assertEquals(complete, segment.length());
+
+        store.put(RecordType.COMPANY, 4, company(4, 1));
+        store = reopen();
+        assertEquals(3, store.size());
+        assertEquals("4-1", this.<Company>get(4).getName());
+    }
+
+    /**
+     * Test that a record with a bad checksum at the end of the last segment
+     * is discarded
+     */
+    @Test
+    public void testCorruptTail() throws IOException {
+        LOG.info("Test corrupt tail");
+        store.put(RecordType.COMPANY, 1, company(1, 1));
+        store.put(RecordType.COMPANY, 2, company(2, 1));
+        store.close();
+
+        File segment = lastSegment();
+        RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+        try {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        } finally {
+            raf.close();
+        }
+
+        store = open();
+        assertEquals(1, store.size());
+        assertEquals("1-1", this.<Company>get(1).getName());
+        assertNull(get(2));
+    }
+
+    /**
+     * Test that compaction keeps the latest version of each record and drops
+     * the removed records, before and after the store is opened again
+     */
+    @Test
+    public void testCompact() throws IOException {
+        LOG.info("Test compact");
+        writeChanges();
+        long garbage = store.getGarbageSize();
+        int segments = store.getSegmentCount();
+        assertEquals(0, store.getCompactionCount());
+
+        store.compact();
+        assertEquals(1, store.getCompactionCount());
+        assertTrue(store.getGarbageSize() < garbage);
+        assertEquals(2, store.getSegmentCount());
+        assertTrue(segments > 2);
+        assertEquals(2, directory.list().length);
+        checkChanges();
+
+        store = reopen();
+        checkChanges();
+    }
+
+    /**
+     * Test that the records are still correct if the store stopped after the
+     * compacted segment was renamed but before the old segments were deleted.
+     *
+     * The compacted segment takes the ID of the newest segment it replaced, so
+     * it is replayed after the old segments and its records and tombstones
+     * win.
+     */
+    @Test
+    public void testCompactReplayOrder() throws IOException {
+        LOG.info("Test compact replay order");
+        writeChanges();
+        store.close();
+
+        File backup = folder.newFolder("backup");
+        for (File segment : segments()) {
+            FileUtils.copyFileToDirectory(segment, backup);
+        }
+
+        store = open();
+        store.compact();
+        store.close();
+
+        // Put back the old segments that the compaction deleted
+        List<File> restored = new ArrayList<File>();
+        for (File old : backup.listFiles()) {
+            File segment = new File(directory, old.getName());
+            if (!segment.exists()) {
+                FileUtils.copyFile(old, segment);
+                restored.add(segment);
+            }
+        }
+        assertFalse("The compaction did not delete any segments", restored.isEmpty());
+
+        store = open();
+        checkChanges();
+    }
+
+    /**
+     * Test that a compaction that stopped after the compacted segment was
+     * finished but before the old segments were deleted and the segment
+     * renamed is completed when the store is opened
+     */
+    @Test
+    public void testFinishedCompaction() throws IOException {
+        LOG.info("Test finished compaction");
+        writeChanges();
+        store.close();
+
+        File backup = folder.newFolder("backup");
+        for (File segment : segments()) {
+            FileUtils.copyFileToDirectory(segment, backup);
+        }
+
+        store = open();
+        store.compact();
+        store.close();
+        assertEquals(2, segments().size());
+
+        // Go back to the state before the swap: the finished segment and all the old ones
+        File compacted = segments().get(0);
+        File done = new File(directory, compacted.getName().replace(".log", ".done"));
+        assertTrue(compacted.renameTo(done));
+        for (File old : backup.listFiles()) {
+            File segment = new File(directory, old.getName());
+            if (!segment.exists()) {
+                FileUtils.copyFile(old, segment);
+            }
+        }
+        assertTrue(segments().size() > 2);
+
+        store = open();
+        assertFalse(done.exists());
+        assertEquals(2, segments().size());
+        assertEquals(compacted, segments().get(0));
+        checkChanges();
+
+        store = reopen();
+        checkChanges();
+    }
+
+    /**
+     * Test that an unfinished compaction is deleted when the store is opened
+     */
+    @Test
+    public void testUnfinishedCompaction() throws IOException {
+        LOG.info("Test unfinished compaction");
+        writeVersions(10, 2);
+        store.close();
+
+        File unfinished = new File(directory, "segment-00000001.compact");
+        FileUtils.writeByteArrayToFile(unfinished, new byte[]{1, 2, 3});
+
+        store = open();
+        assertFalse(unfinished.exists());
+        checkVersions(10, 2);
+    }
+
+    /**
+     * Test that records can be read while they are being replaced and
+     * compacted
+     */
+    @Test(timeout = 60000)
+    public void testGetDuringCompaction() throws Exception {
+        LOG.info("Test get during compaction");
+        final int count = 20;
+        writeVersions(count, 1);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch finished = new CountDownLatch(3);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int r = 0; r < 2; r++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (running.get()) {
+                            for (int id = 1; id <= count; id++) {
+                                Company company = store.get(RecordType.COMPANY, id);
+                                assertNotNull("Missing record " + id, company);
+                                assertEquals(id, company.getCompanyId());
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        error.compareAndSet(null, ex);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }));
+        }
+        threads.add(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (running.get()) {
+                        store.compact();
+                    }
+                } catch (Throwable ex) {
+                    error.compareAndSet(null, ex);
+                } finally {
+                    finished.countDown();
+                }
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (int version = 2; version <= 100 && error.get() == null; version++) {
+            for (int id = 1; id <= count; id++) {
+                store.put(RecordType.COMPANY, id, company(id, version));
+            }
+        }
+        running.set(false);
+        assertTrue(finished.await(30, TimeUnit.SECONDS));
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+
+        assertTrue(store.getCompactionCount() > 0);
+        checkVersions(count, 100);
+        store = reopen();
+        checkVersions(count, 100);
+    }
+
+    /**
+     * Test that a record older than the maximum age is not returned
+     */
+    @Test
+    public void testMaxAge() throws Exception {
+        LOG.info("Test max age");
+        store.put(RecordType.COMPANY, 1, company(1, 1));
+        long stored = store.getStoredTime(RecordType.COMPANY, 1);
+        assertTrue(stored > 0);
+        assertEquals(0L, store.getStoredTime(RecordType.COMPANY, 2));
+
+        Thread.sleep(20);
+        assertNotNull(store.get(RecordType.COMPANY, 1, TimeUnit.MINUTES.toMillis(1)));
+        assertNull(store.get(RecordType.COMPANY, 1, 10));
+        assertNotNull(store.get(RecordType.COMPANY, 1, 0));
+
+        store = reopen();
+        assertEquals(stored, store.getStoredTime(RecordType.COMPANY, 1));
+    }
+
+    private CatalogStore open() throws IOException {
+        return new CatalogStore(directory, CatalogStore.SERIALIZATION_CODEC, SEGMENT_SIZE);
+    }
+
+    private CatalogStore reopen() throws IOException {
+        store.close();
+        return open();
+    }
+
+    private <T> T get(int id) throws IOException {
+        return store.<T>get(RecordType.COMPANY, id);
+    }
+
+    private static Company company(int id, int version) {
+        Company company = new Company();
+        company.setCompanyId(id);
+        company.setName(id + "-" + version);
+        return company;
+    }
+
+    /**
+     * Write each version of the records in turn, so the older versions are
+     * garbage
+     */
+    private void writeVersions(int count, int versions) throws IOException {
+        for (int version = 1; version <= versions; version++) {
+            for (int id = 1; id <= count; id++) {
+                store.put(RecordType.COMPANY, id, company(id, version));
+            }
+        }
+    }
+
+    /**
+     * Check that each record is the latest version
+     */
+    private void checkVersions(int count, int versions) throws IOException {
+        for (int id = 1; id <= count; id++) {
+            Company company = get(id);
+            assertNotNull("Missing record " + id, company);
+            assertEquals(id + "-" + versions, company.getName());
+        }
+    }
+
+    /**
+     * Fill several segments, then replace the even records and remove the odd
+     * records up to CHANGED. There is too little garbage for a compaction to
+     * start in the background.
+     */
+    private void writeChanges() throws IOException {
+        writeVersions(RECORDS, 1);
+        for (int id = 1; id <= CHANGED; id++) {
+            if (id % 2 == 0) {
+                store.put(RecordType.COMPANY, id, company(id, 2));
+            } else {
+                store.remove(RecordType.COMPANY, id);
+            }
+        }
+        roll();
+    }
+
+    private void checkChanges() throws IOException {
+        for (int id = 1; id <= RECORDS; id++) {
+            Company company = get(id);
+            if (id <= CHANGED && id % 2 == 1) {
+                assertNull("Removed record " + id + " is back", company);
+            } else {
+                assertNotNull("Missing record " + id, company);
+                assertEquals(id + "-" + (id <= CHANGED ? 2 : 1), company.getName());
+            }
+        }
+    }
+
+    /**
+     * Fill the active segment so that the records are all in sealed segments
+     * that can be compacted
+     */
+    private void roll() throws IOException {
+        int segments = store.getSegmentCount();
+        for (int id = 1000; store.getSegmentCount() == segments; id++) {
+            store.put(RecordType.COMPANY, id, company(id, 1));
+        }
+    }
+
+    private List<File> segments() {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("segment-") && name.endsWith(".log");
+            }
+        });
+        List<File> segments = new ArrayList<File>(Arrays.asList(files));
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private File lastSegment() {
+        List<File> segments = segments();
+        return segments.get(segments.size() - 1);
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.cookie.DateUtils;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for HttpResponseCache
+ *
+ * @author Stuart
+ */
+public class HttpResponseCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpResponseCacheTest.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String BASE = "https://api.themoviedb.org/3/";
+    private static final String KEY = BASE + "movie/550?api_key=key";
+    private MemoryResponseCache store;
+    private HttpResponseCache cache;
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Before
+    public void setUp() {
+        store = new MemoryResponseCache(1024 * 1024);
+        cache = new HttpResponseCache(store);
+    }
+
+    /**
+     * Test that a "304 Not Modified" is replaced with the stored response,
+     * which takes the new validator and expiry time
+     */
+    @Test
+    public void testNotModified() throws IOException {
+        LOG.info("Test not modified");
+        cache.process(KEY, response(200, "movie", "Cache-Control", "max-age=0", "ETag", "\"v1\"")).close();
+        assertNull(cache.getFresh(KEY));
+        assertEquals(Collections.singletonMap("If-None-Match", "\"v1\""), cache.getConditionalHeaders(KEY));
+
+        WebResponse response = cache.process(KEY, response(304, "", "Cache-Control", "max-age=60", "ETag", "\"v2\""));
+        assertFalse(HttpResponseCache.isNotModified(response));
+        assertEquals(200, response.getStatusCode());
+        assertEquals("movie", response.getContentAsString());
+        assertEquals(1, cache.getRevalidationCount());
+
+        CachedResponse stored = cache.getFresh(KEY);
+        assertNotNull(stored);
+        assertEquals("\"v2\"", stored.getEtag());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    /**
+     * Test that a "304 Not Modified" without a stored response is returned
+     * so that the request can be made again
+     */
+    @Test
+    public void testNotModifiedWithoutCopy() throws IOException {
+        LOG.info("Test not modified without copy");
+        WebResponse original = response(304, "", "ETag", "\"v1\"");
+        WebResponse response = cache.process(KEY, original);
+        assertSame(original, response);
+        assertTrue(HttpResponseCache.isNotModified(response));
+        assertEquals(0, cache.getRevalidationCount());
+        assertNull(store.get(KEY));
+    }
+
+    /**
+     * Test that a no-store response is not stored and removes the response
+     * that was stored before
+     */
+    @Test
+    public void testNoStore() throws IOException {
+        LOG.info("Test no-store");
+        cache.process(KEY, response(200, "old", "Cache-Control", "max-age=60")).close();
+        assertNotNull(store.get(KEY));
+
+        WebResponse response = cache.process(KEY, response(200, "new", "Cache-Control", "private, no-store", "ETag", "\"v1\""));
+        assertEquals("new", response.getContentAsString());
+        assertNull(store.get(KEY));
+        assertTrue(cache.getConditionalHeaders(KEY).isEmpty());
+    }
+
+    /**
+     * Test that a no-cache response is only stored if it can be revalidated,
+     * and is never used without checking with the server
+     */
+    @Test
+    public void testNoCache() throws IOException {
+        LOG.info("Test no-cache");
+        cache.process(KEY, response(200, "movie", "Cache-Control", "no-cache")).close();
+        assertNull(store.get(KEY));
+
+        cache.process(KEY, response(200, "movie", "Cache-Control", "no-cache", "Last-Modified", "Sat, 01 Nov 2014 10:00:00 GMT")).close();
+        assertNotNull(store.get(KEY));
+        assertNull(cache.getFresh(KEY));
+        assertEquals("Sat, 01 Nov 2014 10:00:00 GMT", cache.getConditionalHeaders(KEY).get("If-Modified-Since"));
+    }
+
+    /**
+     * Test that the expiry time comes from max-age, before Expires, and that
+     * only successful responses are stored
+     */
+    @Test
+    public void testMaxAge() throws IOException {
+        LOG.info("Test max-age");
+        long before = System.currentTimeMillis();
+        String past = DateUtils.formatDate(new Date(before - TimeUnit.HOURS.toMillis(1)));
+        cache.process(KEY, response(200, "movie", "Cache-Control", "public, max-age=60", "Expires", past)).close();
+        CachedResponse stored = cache.getFresh(KEY);
+        assertNotNull(stored);
+        assertTrue(stored.getExpires() >= before + TimeUnit.SECONDS.toMillis(60));
+        assertTrue(stored.getExpires() <= System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60));
+
+        // Expired and can not be revalidated
+        cache.process(KEY, response(200, "movie", "Expires", past)).close();
+        assertNull(store.get(KEY));
+
+        WebResponse error = cache.process(KEY, response(404, "missing", "Cache-Control", "max-age=60"));
+        assertEquals("missing", error.getContentAsString());
+        assertNull(store.get(KEY));
+        assertEquals(3, cache.getMissCount());
+    }
+
+    /**
+     * Test that a change removes the responses of the resource and below it,
+     * but not those of other resources
+     */
+    @Test
+    public void testInvalidate() throws IOException {
+        LOG.info("Test invalidate");
+        String[] removed = {BASE + "list/5", BASE + "list/5?api_key=key", BASE + "list/5/item_status?movie_id=550"};
+        String[] kept = {BASE + "list/50?api_key=key", BASE + "movie/5?api_key=key", BASE + "list/6"};
+        for (String key : removed) {
+            cache.process(key, response(200, key, "Cache-Control", "max-age=60")).close();
+        }
+        for (String key : kept) {
+            cache.process(key, response(200, key, "Cache-Control", "max-age=60")).close();
+        }
+
+        cache.invalidate(BASE + "list/5/add_item?api_key=key&session_id=session");
+        for (String key : removed) {
+            assertNull("Not removed " + key, store.get(key));
+        }
+        for (String key : kept) {
+            assertNotNull("Removed " + key, store.get(key));
+        }
+        assertEquals(kept.length, store.getCount());
+    }
+
+    /**
+     * Test that an expired response is checked with the server using the
+     * validators it was stored with
+     */
+    @Test
+    public void testExpire() throws IOException {
+        LOG.info("Test expire");
+        cache.process(KEY, response(200, "movie", "Cache-Control", "max-age=60", "ETag", "\"v1\"")).close();
+        assertNotNull(cache.getFresh(KEY));
+
+        cache.expire(KEY);
+        assertNull(cache.getFresh(KEY));
+        assertEquals("\"v1\"", cache.getConditionalHeaders(KEY).get("If-None-Match"));
+        assertEquals("movie", new String(store.get(KEY).getContent(), UTF8));
+
+        // Nothing to expire
+        cache.expire(BASE + "movie/551");
+        assertNull(store.get(BASE + "movie/551"));
+    }
+
+    /**
+     * Create a response with the headers given as name and value pairs
+     */
+    private static WebResponse response(int status, String body, String... headers) {
+        Map<String, String> map = new HashMap<String, String>();
+        for (int i = 0; i < headers.length; i += 2) {
+            map.put(headers[i], headers[i + 1]);
+        }
+        return new WebResponse(status, map, new ByteArrayInputStream(body.getBytes(UTF8)), UTF8);
+    }
+}
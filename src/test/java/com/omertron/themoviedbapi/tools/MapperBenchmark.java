@@ -0,0 +1,137 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.Person;
+import com.omertron.themoviedbapi.wrapper.WrapperMovie;
+import com.omertron.themoviedbapi.wrapper.WrapperPersonCredits;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the reflective, generated and simple mappers on recorded API
+ * responses, with and without lazy append_to_response sections.
+ *
+ * This is not run as part of the tests, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.omertron.themoviedbapi.tools.MapperBenchmark
+ *
+ * @author Stuart
+ */
+public final class MapperBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MapperBenchmark.class);
+    private static final String PAYLOAD_PATH = "/payloads/";
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 50000;
+    // The recorded responses and the type they are mapped to
+    private static final Object[][] PAYLOADS = {
+        {"movie-550.json", MovieDb.class},
+        {"person-287.json", Person.class},
+        {"person-287-credits.json", WrapperPersonCredits.class},
+        {"search-movie.json", WrapperMovie.class}
+    };
+    // Stops the results being optimised away
+    private static int sink = 0;
+
+    private MapperBenchmark() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Logging the unknown properties would swamp the timings
+        TestLogger.Configure("INFO");
+
+        // The first use of each mapper, which includes the cost of creating the deserializers
+        for (Object[] payload : PAYLOADS) {
+            String json = load((String) payload[0]);
+            Class<?> type = (Class<?>) payload[1];
+
+            long start = System.nanoTime();
+            Object reflective = new JacksonMapper().readValue(json, type);
+            long reflectiveCold = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Object generated = new GeneratedJsonMapper().readValue(json, type);
+            long generatedCold = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Object simple = new SimpleJsonMapper().readValue(json, type);
+            long simpleCold = System.nanoTime() - start;
+
+            if (!reflective.toString().equals(generated.toString())) {
+                throw new IllegalStateException("Mappers do not agree for " + payload[0]
+                        + "\nReflective: " + reflective + "\nGenerated:  " + generated);
+            }
+            if (!reflective.toString().equals(simple.toString())) {
+                throw new IllegalStateException("Mappers do not agree for " + payload[0]
+                        + "\nReflective: " + reflective + "\nSimple:     " + simple);
+            }
+            LOG.info("{}: first read reflective {}us, generated {}us, simple {}us", payload[0],
+                    TimeUnit.NANOSECONDS.toMicros(reflectiveCold), TimeUnit.NANOSECONDS.toMicros(generatedCold),
+                    TimeUnit.NANOSECONDS.toMicros(simpleCold));
+        }
+
+        String[] names = {"reflective", "generated", "simple", "reflective lazy", "generated lazy"};
+        JsonMapper[] mappers = {new JacksonMapper(), new GeneratedJsonMapper(), new SimpleJsonMapper(), new JacksonMapper(true), new GeneratedJsonMapper(true)};
+        for (Object[] payload : PAYLOADS) {
+            String json = load((String) payload[0]);
+            Class<?> type = (Class<?>) payload[1];
+
+            for (JsonMapper mapper : mappers) {
+                run(mapper, json, type, WARMUP_ITERATIONS);
+            }
+
+            StringBuilder results = new StringBuilder();
+            for (int i = 0; i < mappers.length; i++) {
+                long time = run(mappers[i], json, type, ITERATIONS);
+                results.append(", ").append(names[i]).append(" ").append(time / ITERATIONS).append("ns/op");
+            }
+            LOG.info("{}{}", payload[0], results);
+        }
+        LOG.trace("Sink: {}", sink);
+    }
+
+    private static long run(JsonMapper mapper, String json, Class<?> type, int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += mapper.readValue(json, type).hashCode();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String load(String name) throws IOException {
+        InputStream in = MapperBenchmark.class.getResourceAsStream(PAYLOAD_PATH + name);
+        if (in == null) {
+            throw new IOException("Payload not found: " + name);
+        }
+        try {
+            return IOUtils.toString(in, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
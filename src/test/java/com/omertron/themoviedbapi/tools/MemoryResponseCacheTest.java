@@ -0,0 +1,133 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.nio.charset.Charset;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for MemoryResponseCache
+ *
+ * @author Stuart
+ */
+public class MemoryResponseCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MemoryResponseCacheTest.class);
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    /**
+     * Test that the least recently used responses are removed to keep the
+     * bodies within the maximum size
+     */
+    @Test
+    public void testEviction() {
+        LOG.info("Test eviction");
+        MemoryResponseCache cache = new MemoryResponseCache(100);
+        cache.put("a", response(40));
+        cache.put("b", response(40));
+        // Makes b the least recently used
+        assertNotNull(cache.get("a"));
+
+        cache.put("c", response(40));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(80, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+
+        // Needs the space of both
+        cache.put("d", response(90));
+        assertEquals(1, cache.getCount());
+        assertEquals(90, cache.getSize());
+        assertEquals(3, cache.getEvictionCount());
+    }
+
+    /**
+     * Test that a response larger than the cache is not stored and does not
+     * remove the others
+     */
+    @Test
+    public void testTooLarge() {
+        LOG.info("Test too large");
+        MemoryResponseCache cache = new MemoryResponseCache(100);
+        cache.put("a", response(40));
+        cache.put("b", response(40));
+
+        cache.put("c", response(101));
+        assertNull(cache.get("c"));
+        assertEquals(2, cache.getCount());
+        assertEquals(0, cache.getEvictionCount());
+
+        // Replacing a response with one that is too large removes it
+        cache.put("a", response(101));
+        assertNull(cache.get("a"));
+        assertEquals(40, cache.getSize());
+    }
+
+    /**
+     * Test that the size follows responses that are replaced and removed
+     */
+    @Test
+    public void testReplaceAndRemove() {
+        LOG.info("Test replace and remove");
+        MemoryResponseCache cache = new MemoryResponseCache(1000);
+        cache.put("list/1", response(10));
+        cache.put("list/1", response(30));
+        cache.put("list/1/items", response(20));
+        cache.put("list/2", response(40));
+        assertEquals(90, cache.getSize());
+
+        cache.removeAll("list/1");
+        assertEquals(1, cache.getCount());
+        assertEquals(40, cache.getSize());
+
+        cache.remove("list/2");
+        cache.remove("list/3");
+        assertEquals(0, cache.getSize());
+
+        cache.put("list/4", response(50));
+        cache.clear();
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Test that the maximum size must be positive
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        LOG.info("Test invalid size");
+        new MemoryResponseCache(0);
+    }
+
+    private static CachedResponse response(int size) {
+        return new CachedResponse(new byte[size], Charset.forName("UTF-8"), null, null, Long.MAX_VALUE);
+    }
+}
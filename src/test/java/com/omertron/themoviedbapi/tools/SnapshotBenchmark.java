@@ -0,0 +1,262 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.model.AlternativeTitle;
+import com.omertron.themoviedbapi.model.Keyword;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.MovieList;
+import com.omertron.themoviedbapi.model.ReleaseInfo;
+import com.omertron.themoviedbapi.model.Reviews;
+import com.omertron.themoviedbapi.model.Trailer;
+import com.omertron.themoviedbapi.model.Translation;
+import com.omertron.themoviedbapi.wrapper.WrapperAlternativeTitles;
+import com.omertron.themoviedbapi.wrapper.WrapperMovieKeywords;
+import com.omertron.themoviedbapi.wrapper.WrapperMovieList;
+import com.omertron.themoviedbapi.wrapper.WrapperReleaseInfo;
+import com.omertron.themoviedbapi.wrapper.WrapperReviews;
+import com.omertron.themoviedbapi.wrapper.WrapperTrailers;
+import com.omertron.themoviedbapi.wrapper.WrapperTranslations;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the size and speed of the binary snapshots with Java
+ * serialisation and JSON, for a movie with all of the appended sections.
+ *
+ * The recorded movie has the casts, images and similar movies, the other
+ * sections are added to it. The JSON is the response that the API would send
+ * for the movie, as the Jackson mapper can not write a movie back out.
+ *
+ * This is not run as part of the tests, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.omertron.themoviedbapi.tools.SnapshotBenchmark
+ *
+ * @author Stuart
+ */
+public final class SnapshotBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotBenchmark.class);
+    private static final String PAYLOAD = "/payloads/movie-550.json";
+    private static final int SECTION_SIZE = 10;
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 50000;
+    // Stops the results being optimised away
+    private static int sink = 0;
+
+    private SnapshotBenchmark() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        TestLogger.Configure("INFO");
+
+        JacksonMapper mapper = new JacksonMapper();
+        String json = addSections(load(), mapper);
+        MovieDb movie = mapper.readValue(json, MovieDb.class);
+        byte[] binary = BinarySnapshot.encode(movie);
+        byte[] serialised = serialise(movie);
+
+        String expected = movie.toString();
+        if (!expected.equals(BinarySnapshot.decode(binary, MovieDb.class).toString())) {
+            throw new IllegalStateException("Binary snapshot does not match the movie");
+        }
+        if (!expected.equals(deserialise(serialised).toString())) {
+            throw new IllegalStateException("Java serialisation does not match the movie");
+        }
+        LOG.info("Size: binary {} bytes, serialised {} bytes, JSON {} bytes", binary.length, serialised.length, json.getBytes("UTF-8").length);
+
+        for (int pass = 0; pass < 2; pass++) {
+            int iterations = pass == 0 ? WARMUP_ITERATIONS : ITERATIONS;
+            long binaryWrite = 0;
+            long binaryRead = 0;
+            long javaWrite = 0;
+            long javaRead = 0;
+            long jsonRead = 0;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += BinarySnapshot.encode(movie).length;
+            }
+            binaryWrite += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += BinarySnapshot.decode(binary, MovieDb.class).getId();
+            }
+            binaryRead += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += serialise(movie).length;
+            }
+            javaWrite += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += deserialise(serialised).getId();
+            }
+            javaRead += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += mapper.readValue(json, MovieDb.class).getId();
+            }
+            jsonRead += System.nanoTime() - start;
+
+            if (pass > 0) {
+                LOG.info("Write: binary {}ns/op, serialised {}ns/op", binaryWrite / iterations, javaWrite / iterations);
+                LOG.info("Read: binary {}ns/op, serialised {}ns/op, JSON {}ns/op", binaryRead / iterations, javaRead / iterations, jsonRead / iterations);
+            }
+        }
+        LOG.trace("Sink: {}", sink);
+    }
+
+    /**
+     * Add the sections that the recorded movie does not have to its JSON
+     */
+    static String addSections(String json, JsonMapper mapper) throws IOException {
+        List<AlternativeTitle> titles = new ArrayList<AlternativeTitle>();
+        List<Keyword> keywords = new ArrayList<Keyword>();
+        List<ReleaseInfo> releases = new ArrayList<ReleaseInfo>();
+        List<Trailer> trailers = new ArrayList<Trailer>();
+        List<Translation> translations = new ArrayList<Translation>();
+        List<Reviews> reviews = new ArrayList<Reviews>();
+        List<MovieList> lists = new ArrayList<MovieList>();
+        String[] countries = {"US", "GB", "DE", "FR", "ES", "IT", "JP", "BR", "SE", "NL"};
+        for (int i = 0; i < SECTION_SIZE; i++) {
+            String country = countries[i % countries.length];
+
+            AlternativeTitle title = new AlternativeTitle();
+            title.setCountry(country);
+            title.setTitle("Fight Club " + i);
+            titles.add(title);
+
+            Keyword keyword = new Keyword();
+            keyword.setId(800 + i);
+            keyword.setName("keyword " + i);
+            keywords.add(keyword);
+
+            ReleaseInfo release = new ReleaseInfo();
+            release.setCountry(country);
+            release.setCertification("R");
+            release.setReleaseDate("1999-10-15");
+            releases.add(release);
+
+            Trailer trailer = new Trailer();
+            trailer.setId("533ec654c3a36854480003eb" + i);
+            trailer.setKey("SUXWAEX2jl" + i);
+            trailer.setName("Trailer " + i);
+            trailer.setSite("YouTube");
+            trailer.setSize("1080");
+            trailer.setType("Trailer");
+            trailer.setLanguage("en");
+            trailers.add(trailer);
+
+            Translation translation = new Translation();
+            translation.setIsoCode(country.toLowerCase());
+            translation.setName("Language " + i);
+            translation.setEnglishName("Language " + i);
+            translations.add(translation);
+
+            Reviews review = new Reviews();
+            review.setId("5488c29bc3a3686f4a00004a" + i);
+            review.setAuthor("Author " + i);
+            review.setContent("Review " + i + " of a film about a ticking-time-bomb insomniac and a slippery soap salesman.");
+            review.setUrl("http://j.mp/review" + i);
+            reviews.add(review);
+
+            MovieList list = new MovieList();
+            list.setId("509ec17b19c2950a0600050d" + i);
+            list.setName("List " + i);
+            list.setDescription("The films of list " + i);
+            list.setFavoriteCount(i);
+            list.setItemCount(100 + i);
+            list.setLanguage("en");
+            lists.add(list);
+        }
+
+        WrapperAlternativeTitles titlesWrapper = new WrapperAlternativeTitles();
+        titlesWrapper.setTitles(titles);
+        WrapperMovieKeywords keywordsWrapper = new WrapperMovieKeywords();
+        keywordsWrapper.setKeywords(keywords);
+        WrapperReleaseInfo releasesWrapper = new WrapperReleaseInfo();
+        releasesWrapper.setCountries(releases);
+        WrapperTrailers trailersWrapper = new WrapperTrailers();
+        trailersWrapper.setTrailers(trailers);
+        WrapperTranslations translationsWrapper = new WrapperTranslations();
+        translationsWrapper.setTranslations(translations);
+        WrapperReviews reviewsWrapper = new WrapperReviews();
+        reviewsWrapper.setReviews(reviews);
+        WrapperMovieList listsWrapper = new WrapperMovieList();
+        listsWrapper.setMovieList(lists);
+
+        StringBuilder sections = new StringBuilder();
+        sections.append(",\"alternative_titles\":").append(mapper.writeValueAsString(titlesWrapper));
+        sections.append(",\"keywords\":").append(mapper.writeValueAsString(keywordsWrapper));
+        sections.append(",\"releases\":").append(mapper.writeValueAsString(releasesWrapper));
+        sections.append(",\"videos\":").append(mapper.writeValueAsString(trailersWrapper));
+        sections.append(",\"translations\":").append(mapper.writeValueAsString(translationsWrapper));
+        sections.append(",\"reviews\":").append(mapper.writeValueAsString(reviewsWrapper));
+        sections.append(",\"lists\":").append(mapper.writeValueAsString(listsWrapper));
+
+        int end = json.lastIndexOf('}');
+        return json.substring(0, end) + sections + json.substring(end);
+    }
+
+    private static byte[] serialise(MovieDb movie) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(movie);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static MovieDb deserialise(byte[] data) throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));
+        try {
+            return (MovieDb) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    static String load() throws IOException {
+        InputStream in = SnapshotBenchmark.class.getResourceAsStream(PAYLOAD);
+        if (in == null) {
+            throw new IOException("Payload not found: " + PAYLOAD);
+        }
+        try {
+            return IOUtils.toString(in, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
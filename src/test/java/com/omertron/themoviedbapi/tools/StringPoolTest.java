@@ -0,0 +1,130 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for StringPool
+ *
+ * @author Stuart
+ */
+public class StringPoolTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StringPoolTest.class);
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Before
+    public void setUp() {
+        StringPool.clear();
+        StringPool.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        StringPool.setEnabled(false);
+        StringPool.setMaxSize(10000);
+        StringPool.clear();
+    }
+
+    /**
+     * Test that equal values share the pooled copy
+     */
+    @Test
+    public void testIntern() {
+        LOG.info("Test intern");
+        String first = new String("en");
+        String second = new String("en");
+
+        assertSame(first, StringPool.intern(first));
+        assertSame(first, StringPool.intern(second));
+        assertNull(StringPool.intern(null));
+        assertEquals(1, StringPool.getSize());
+    }
+
+    /**
+     * Test the hit and miss counters
+     */
+    @Test
+    public void testCounters() {
+        LOG.info("Test counters");
+        StringPool.intern(new String("US"));
+        StringPool.intern(new String("US"));
+        StringPool.intern(new String("US"));
+        StringPool.intern(new String("GB"));
+
+        assertEquals(2, StringPool.getHits());
+        assertEquals(2, StringPool.getMisses());
+
+        StringPool.clear();
+        assertEquals(0, StringPool.getHits());
+        assertEquals(0, StringPool.getMisses());
+        assertEquals(0, StringPool.getSize());
+    }
+
+    /**
+     * Test that no values are added once the pool is full
+     */
+    @Test
+    public void testMaxSize() {
+        LOG.info("Test max size");
+        StringPool.setMaxSize(3);
+        for (int i = 0; i < 10; i++) {
+            StringPool.intern("value" + i);
+        }
+        assertEquals(3, StringPool.getSize());
+
+        // Values that are not pooled are returned unchanged
+        String extra = new String("value9");
+        assertSame(extra, StringPool.intern(extra));
+        assertEquals(3, StringPool.getSize());
+    }
+
+    /**
+     * Test that a disabled pool returns the values unchanged
+     */
+    @Test
+    public void testDisabled() {
+        LOG.info("Test disabled");
+        StringPool.setEnabled(false);
+        String value = new String("Directing");
+
+        assertSame(value, StringPool.intern(value));
+        assertEquals(0, StringPool.getSize());
+        assertEquals(0, StringPool.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaxSize() {
+        StringPool.setMaxSize(-1);
+    }
+}
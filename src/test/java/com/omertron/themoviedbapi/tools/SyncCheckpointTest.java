@@ -0,0 +1,123 @@
+/*
+ *      Copyright (c) 2004-2014 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.tools.SyncCheckpoint.FailedId;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for SyncCheckpoint
+ *
+ * @author Stuart
+ */
+public class SyncCheckpointTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyncCheckpointTest.class);
+    private static final JsonMapper MAPPER = new JacksonMapper();
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    /**
+     * Test that the checkpoint is read back as it was saved
+     */
+    @Test
+    public void testSaveLoad() throws IOException {
+        LOG.info("Test save and load");
+        File file = new File(folder.getRoot(), "checkpoint.json");
+        SyncCheckpoint checkpoint = new SyncCheckpoint("2014-01-01");
+        checkpoint.setWindowEnd("2014-01-14");
+        checkpoint.setDone(new ArrayList<Integer>(Arrays.asList(5, 6)));
+        checkpoint.addFailed(7, "2013-12-18", "2013-12-31");
+        checkpoint.getFailed().get(0).setAttempts(3);
+        checkpoint.save(file, MAPPER);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        SyncCheckpoint loaded = SyncCheckpoint.load(file, MAPPER);
+        assertEquals("2014-01-01", loaded.getSyncedTo());
+        assertEquals("2014-01-14", loaded.getWindowEnd());
+        assertEquals(Arrays.asList(5, 6), loaded.getDone());
+        assertEquals(1, loaded.getFailed().size());
+        FailedId failed = loaded.getFailed().get(0);
+        assertEquals(7, failed.getId());
+        assertEquals("2013-12-18", failed.getStartDate());
+        assertEquals("2013-12-31", failed.getEndDate());
+        assertEquals(3, failed.getAttempts());
+
+        // Saving again replaces the file
+        loaded.setSyncedTo("2014-01-15");
+        loaded.setWindowEnd(null);
+        loaded.save(file, MAPPER);
+        assertEquals("2014-01-15", SyncCheckpoint.load(file, MAPPER).getSyncedTo());
+        assertNull(SyncCheckpoint.load(file, MAPPER).getWindowEnd());
+    }
+
+    /**
+     * Test that a missing, unreadable or incomplete checkpoint is ignored
+     */
+    @Test
+    public void testLoadInvalid() throws IOException {
+        LOG.info("Test load invalid");
+        File file = new File(folder.getRoot(), "checkpoint.json");
+        assertNull(SyncCheckpoint.load(null, MAPPER));
+        assertNull(SyncCheckpoint.load(file, MAPPER));
+
+        FileUtils.writeStringToFile(file, "{\"synced_to\":", "UTF-8");
+        assertNull(SyncCheckpoint.load(file, MAPPER));
+
+        FileUtils.writeStringToFile(file, "{\"done\":[1]}", "UTF-8");
+        assertNull(SyncCheckpoint.load(file, MAPPER));
+    }
+
+    /**
+     * Test that an ID is only added once for each window it failed in
+     */
+    @Test
+    public void testAddFailed() {
+        LOG.info("Test add failed");
+        SyncCheckpoint checkpoint = new SyncCheckpoint("2014-01-01");
+        checkpoint.addFailed(7, "2014-01-01", "2014-01-14");
+        checkpoint.addFailed(7, "2014-01-01", "2014-01-14");
+        checkpoint.addFailed(7, "2014-01-15", "2014-01-15");
+        checkpoint.addFailed(8, "2014-01-01", "2014-01-14");
+
+        assertEquals(3, checkpoint.getFailed().size());
+        assertEquals(1, checkpoint.getFailed().get(0).getAttempts());
+        assertEquals("2014-01-15", checkpoint.getFailed().get(1).getStartDate());
+        assertEquals(8, checkpoint.getFailed().get(2).getId());
+    }
+}